@@ -21,6 +21,7 @@ import com.gaspar.learnjava.curriculum.components.CodeComponent;
 import com.gaspar.learnjava.curriculum.components.Component;
 import com.gaspar.learnjava.database.ChapterStatus;
 import com.gaspar.learnjava.database.LearnJavaDatabase;
+import com.gaspar.learnjava.database.StatusStore;
 import com.gaspar.learnjava.parsers.CourseParser;
 import com.gaspar.learnjava.utils.ThemeUtils;
 
@@ -88,6 +89,8 @@ public class ChapterActivityTest {
             ChapterStatus testStatus = new ChapterStatus(TEST_CHAPTER_ID, Status.UNLOCKED);
             LearnJavaDatabase.getInstance(context).getChapterDao().addChapterStatus(testStatus);
         }
+        //the status store may have been loaded before the test chapter was added
+        StatusStore.getInstance().reload(context);
     }
 
     //this rule opens the chapter activity before each test (with the correct intent, defined above)
@@ -276,14 +279,13 @@ public class ChapterActivityTest {
         //allow time for database to update
         Thread.sleep(1500);
         //query status
-        ChapterStatus status = LearnJavaDatabase.getInstance(ApplicationProvider.getApplicationContext())
-                .getChapterDao().queryChapterStatus(TEST_CHAPTER_ID);
+        final Context context = ApplicationProvider.getApplicationContext();
+        ChapterStatus status = StatusStore.getInstance().queryAfterPendingWrites(() ->
+                LearnJavaDatabase.getInstance(context).getChapterDao().queryChapterStatus(TEST_CHAPTER_ID));
         Assert.assertNotNull(status);
         Assert.assertEquals(Status.COMPLETED, status.getStatus());
         //change status back from completed, for other tests
-        status = new ChapterStatus(TEST_CHAPTER_ID, Status.UNLOCKED);
-        LearnJavaDatabase.getInstance(ApplicationProvider.getApplicationContext())
-                .getChapterDao().updateChapterStatus(status);
+        StatusStore.getInstance().setChapterStatus(context, TEST_CHAPTER_ID, Status.UNLOCKED);
     }
 
     //test that clicking the button completes the course
@@ -297,14 +299,13 @@ public class ChapterActivityTest {
         //allow time for database to update
         Thread.sleep(1500);
         //query status
-        ChapterStatus status = LearnJavaDatabase.getInstance(ApplicationProvider.getApplicationContext())
-                .getChapterDao().queryChapterStatus(TEST_CHAPTER_ID);
+        final Context context = ApplicationProvider.getApplicationContext();
+        ChapterStatus status = StatusStore.getInstance().queryAfterPendingWrites(() ->
+                LearnJavaDatabase.getInstance(context).getChapterDao().queryChapterStatus(TEST_CHAPTER_ID));
         Assert.assertNotNull(status);
         Assert.assertEquals(Status.COMPLETED, status.getStatus());
         //change status back from completed, for other tests
-        status = new ChapterStatus(TEST_CHAPTER_ID, Status.UNLOCKED);
-        LearnJavaDatabase.getInstance(ApplicationProvider.getApplicationContext())
-                .getChapterDao().updateChapterStatus(status);
+        StatusStore.getInstance().setChapterStatus(context, TEST_CHAPTER_ID, Status.UNLOCKED);
     }
 
     /* I can't get these test to work. Dialog does not show up, test hangs
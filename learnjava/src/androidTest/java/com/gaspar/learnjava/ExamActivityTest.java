@@ -26,6 +26,7 @@ import com.gaspar.learnjava.curriculum.Status;
 import com.gaspar.learnjava.curriculum.questions.Question;
 import com.gaspar.learnjava.database.ExamStatus;
 import com.gaspar.learnjava.database.LearnJavaDatabase;
+import com.gaspar.learnjava.database.StatusStore;
 import com.gaspar.learnjava.parsers.ExamParser;
 
 import org.hamcrest.Matcher;
@@ -105,6 +106,8 @@ public class ExamActivityTest {
             ExamStatus examStatus = new ExamStatus(TEST_EXAM_ID, Status.UNLOCKED, -1, -1); //no last started and top score
             LearnJavaDatabase.getInstance(context).getExamDao().addExamStatus(examStatus);
         }
+        //the status store may have been loaded before the test exam was added
+        StatusStore.getInstance().reload(context);
         //disable shuffle
         LoadExamQuestionsTask.shuffleQuestions = false;
         // Create the NotificationChannel, but only on API 26+. Normally LearnJavaActivity would do this
@@ -13,6 +13,7 @@ import androidx.test.internal.runner.junit4.AndroidJUnit4ClassRunner;
 import com.gaspar.learnjava.curriculum.Status;
 import com.gaspar.learnjava.curriculum.Task;
 import com.gaspar.learnjava.database.LearnJavaDatabase;
+import com.gaspar.learnjava.database.StatusStore;
 import com.gaspar.learnjava.database.TaskStatus;
 import com.gaspar.learnjava.parsers.TaskParser;
 import com.gaspar.learnjava.utils.ThemeUtils;
@@ -75,6 +76,8 @@ public class TaskActivityTest {
             TaskStatus testTaskStatus = new TaskStatus(TEST_TASK_ID, Status.UNLOCKED);
             LearnJavaDatabase.getInstance(context).getTaskDao().addTaskStatus(testTaskStatus);
         }
+        //the status store may have been loaded before the test task was added
+        StatusStore.getInstance().reload(context);
     }
 
     //this rule opens the task activity before each test (with the correct intent, defined above)
@@ -163,11 +166,11 @@ public class TaskActivityTest {
         Thread.sleep(1500);
         //ask status from database
         final Context context = ApplicationProvider.getApplicationContext();
-        TaskStatus taskStatus = LearnJavaDatabase.getInstance(context).getTaskDao().queryTaskStatus(TEST_TASK_ID);
+        TaskStatus taskStatus = StatusStore.getInstance().queryAfterPendingWrites(() ->
+                LearnJavaDatabase.getInstance(context).getTaskDao().queryTaskStatus(TEST_TASK_ID));
         Assert.assertEquals(Status.COMPLETED, taskStatus.getStatus());
         //move task back to unlocked status, other tests may need this
-        TaskStatus testTaskStatus = new TaskStatus(TEST_TASK_ID, Status.UNLOCKED);
-        LearnJavaDatabase.getInstance(ApplicationProvider.getApplicationContext()).getTaskDao().updateTaskStatus(testTaskStatus);
+        StatusStore.getInstance().setTaskStatus(context, TEST_TASK_ID, Status.UNLOCKED);
     }
 
     @Test
@@ -184,7 +187,8 @@ public class TaskActivityTest {
         Thread.sleep(1500);
         //ask status from database
         final Context context = ApplicationProvider.getApplicationContext();
-        TaskStatus taskStatus = LearnJavaDatabase.getInstance(context).getTaskDao().queryTaskStatus(TEST_TASK_ID);
+        TaskStatus taskStatus = StatusStore.getInstance().queryAfterPendingWrites(() ->
+                LearnJavaDatabase.getInstance(context).getTaskDao().queryTaskStatus(TEST_TASK_ID));
         Assert.assertEquals(Status.UNLOCKED, taskStatus.getStatus());
     }
 }
\ No newline at end of file
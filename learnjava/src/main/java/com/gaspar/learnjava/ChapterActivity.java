@@ -20,7 +20,6 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.gaspar.learnjava.asynctask.FillChapterActivityTask;
 import com.gaspar.learnjava.curriculum.Chapter;
-import com.gaspar.learnjava.curriculum.Exam;
 import com.gaspar.learnjava.curriculum.components.CodeHostingActivity;
 import com.gaspar.learnjava.utils.DrawerUtils;
 import com.gaspar.learnjava.utils.LearnJavaBluetooth;
@@ -42,11 +41,6 @@ public class ChapterActivity extends ThemedActivity implements NavigationView.On
      */
     private Chapter passedChapter;
 
-    /**
-     * The exam of this chapter. This may be needed, if the completion of this chapter unlocks the exam.
-     */
-    private Exam passedExam;
-
     /**
      * Ad object that is used to display interstitial (full screen) ad on activity close.
      */
@@ -80,9 +74,6 @@ public class ChapterActivity extends ThemedActivity implements NavigationView.On
             LogUtils.logError("Incorrect behaviour: No chapter passed in extras!");
             finish();
         }
-        if(getIntent().getExtras().containsKey(Exam.EXAM_PREFERENCE_STRING)) { //get passed exam, if included
-            passedExam = (Exam) getIntent().getExtras().getSerializable(Exam.EXAM_PREFERENCE_STRING);
-        }
         setUpUI(passedChapter);
         //load interstitial ad
         if(LearnJavaAds.LOAD_ADS) {
@@ -114,7 +105,7 @@ public class ChapterActivity extends ThemedActivity implements NavigationView.On
     }
 
     private void setUpUI(Chapter receivedChapter) {
-        new FillChapterActivityTask(receivedChapter).execute(this); //show component views
+        new FillChapterActivityTask(receivedChapter).bindToLifecycle(this).execute(this); //show component views
 
         toolbar = findViewById(R.id.toolbarChapter);
         if(passedChapter != null) toolbar.setTitle(passedChapter.getName());
@@ -155,8 +146,7 @@ public class ChapterActivity extends ThemedActivity implements NavigationView.On
 
     /**
      * Called when the uses confirms reading the chapter. Marks this chapter as completed, and closes
-     * the activity. If the {@link #passedExam} was given to this activity, then it is returned in the
-     * result intent.
+     * the activity.
      */
     public void chapterConfirmedOnClick(View v) {
         if(!confirmedWithScrolling) {
@@ -164,9 +154,6 @@ public class ChapterActivity extends ThemedActivity implements NavigationView.On
         }
         Intent result = new Intent();
         result.putExtra(Chapter.CHAPTER_PREFERENCE_STRING, passedChapter); //return the chapter object
-        if(passedExam != null) { //return the exam object, if it was passed
-            result.putExtra(Exam.EXAM_PREFERENCE_STRING, passedExam);
-        }
         setResult(Activity.RESULT_OK, result);
         //show ad with some possibility
         if(interstitialAd != null && LearnJavaAds.rollForAd()) interstitialAd.show(this);
@@ -183,9 +170,6 @@ public class ChapterActivity extends ThemedActivity implements NavigationView.On
             if(confirmedWithScrolling) {
                 Intent result = new Intent();
                 result.putExtra(Chapter.CHAPTER_PREFERENCE_STRING, passedChapter); //return the chapter object
-                if(passedExam != null) { //return the exam object, if it was passed
-                    result.putExtra(Exam.EXAM_PREFERENCE_STRING, passedExam);
-                }
                 setResult(Activity.RESULT_OK, result);
             }
             //show ad with some possibility
@@ -1,6 +1,5 @@
 package com.gaspar.learnjava;
 
-import android.app.Activity;
 import android.content.Intent;
 import android.os.Bundle;
 import android.view.DragEvent;
@@ -8,12 +7,9 @@ import android.view.MenuItem;
 import android.view.View;
 import android.view.animation.Animation;
 import android.view.animation.RotateAnimation;
-import android.widget.ImageView;
 import android.widget.ListView;
 import android.widget.RelativeLayout;
 
-import androidx.activity.result.ActivityResultLauncher;
-import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.annotation.NonNull;
 import androidx.appcompat.app.ActionBarDrawerToggle;
 import androidx.core.view.GravityCompat;
@@ -21,12 +17,10 @@ import androidx.drawerlayout.widget.DrawerLayout;
 
 import com.gaspar.learnjava.asynctask.FillCourseActivityTask;
 import com.gaspar.learnjava.asynctask.ShowCongratulationTask;
-import com.gaspar.learnjava.curriculum.Chapter;
 import com.gaspar.learnjava.curriculum.Course;
-import com.gaspar.learnjava.curriculum.Exam;
 import com.gaspar.learnjava.curriculum.Status;
-import com.gaspar.learnjava.curriculum.Task;
 import com.gaspar.learnjava.database.CourseStatus;
+import com.gaspar.learnjava.database.StatusStore;
 import com.gaspar.learnjava.utils.AnimationUtils;
 import com.gaspar.learnjava.utils.DrawerUtils;
 import com.google.android.gms.ads.AdView;
@@ -35,13 +29,11 @@ import com.google.android.material.navigation.NavigationView;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
 
 /**
  * Activity that displays all courses. They can be opened to display the chapters.
  */
-public class CoursesActivity extends ThemedActivity implements NavigationView.OnNavigationItemSelectedListener
-            , UpdatableActivity {
+public class CoursesActivity extends ThemedActivity implements NavigationView.OnNavigationItemSelectedListener {
 
     /**
      * Used by background threads to indicate if the activity has loaded successfully.
@@ -75,21 +67,6 @@ public class CoursesActivity extends ThemedActivity implements NavigationView.On
      */
     private boolean dropDown;
 
-    /**
-     * This object can launch a {@link ChapterActivity}.
-     */
-    private ActivityResultLauncher<Intent> chapterActivityLauncher;
-
-    /**
-     * This object can launch a {@link TaskActivity}.
-     */
-    private ActivityResultLauncher<Intent> taskActivityLauncher;
-
-    /**
-     * This object can launch an {@link ExamActivity}.
-     */
-    private ActivityResultLauncher<Intent> examActivityLauncher;
-
     @Override
     public void onCreate(Bundle savedState) {
         super.onCreate(savedState);
@@ -97,59 +74,16 @@ public class CoursesActivity extends ThemedActivity implements NavigationView.On
         //true if auto slide open is DISABLED, false otherwise
         dropDown = !SettingsActivity.autoSlideOpenEnabled(this);
         setUpUI();
-        //define what should happen when a chapter activity is finished
-        chapterActivityLauncher = registerForActivityResult(
-                new ActivityResultContracts.StartActivityForResult(),
-                result -> {
-                    if(result.getResultCode() == Activity.RESULT_OK) {
-                        if(updateViews.length == 0) return; //should not happen
-                        ImageView icon = updateViews[0].findViewById(R.id.chapterStatusIcon);
-                        Intent data = result.getData();
-                        Chapter chapter = (Chapter) Objects.requireNonNull(data).getExtras().getSerializable(Chapter.CHAPTER_PREFERENCE_STRING);
-                        if(chapter == null) return;
-                        chapter.queryAndDisplayStatus(icon, CoursesActivity.this);
-                        if(!data.getExtras().containsKey(Exam.EXAM_PREFERENCE_STRING)) return; //no exam, stop updating
-                        Exam exam = (Exam)data.getExtras().getSerializable(Exam.EXAM_PREFERENCE_STRING);
-                        if(updateViews.length > 1 && exam != null) { // exam view and exam object found, update them
-                            exam.queryAndDisplayStatus(updateViews[1], CoursesActivity.this);
-                        }
-                    }
-                }
-        );
-        //define what should happen when a task activity is finished
-        taskActivityLauncher = registerForActivityResult(
-                new ActivityResultContracts.StartActivityForResult(),
-                result -> {
-                    if(result.getResultCode() == Activity.RESULT_OK) {
-                        if(updateViews.length == 0) return; //should not happen
-                        Intent data = result.getData();
-                        ImageView taskIcon = updateViews[0].findViewById(R.id.taskStatusIcon);
-                        Task task = (Task) Objects.requireNonNull(data).getExtras().getSerializable(Task.TASK_PREFERENCE_STRING);
-                        if(task == null) return;
-                        task.queryAndDisplayStatus(taskIcon, CoursesActivity.this);
-                    }
-                }
-        );
-        //define what should happen when an exam activity is finished
-        examActivityLauncher = registerForActivityResult(
-                new ActivityResultContracts.StartActivityForResult(),
-                result -> {
-                    if(result.getResultCode() == Activity.RESULT_OK) {
-                        Intent data = result.getData();
-                        if(updateViews.length == 0) return; //should not happen
-                        Exam examData = (Exam) Objects.requireNonNull(data).getExtras().getSerializable(Exam.EXAM_PREFERENCE_STRING);
-                        if(examData == null) return;
-                        examData.queryAndDisplayStatus(updateViews[0], CoursesActivity.this); //update view will be the exam view
-                        updateNextCourseDisplay(examData.getId()); //if there is a next course, and it's unlocked, update it
-                    }
-                }
-        );
     }
 
     @Override
     protected void onDestroy() {
         super.onDestroy();
         if(adView != null) adView.destroy();
+        ListView courseSelectors = findViewById(R.id.courseSelectors);
+        if(courseSelectors.getAdapter() instanceof StatusStore.StatusObserver) { //stop updating the views
+            StatusStore.getInstance().removeObserver((StatusStore.StatusObserver) courseSelectors.getAdapter());
+        }
     }
 
     @Override
@@ -284,7 +218,8 @@ public class CoursesActivity extends ThemedActivity implements NavigationView.On
             final View showHideView = courseSelector.findViewById(R.id.slideInView);
             //what happens depends on the drop variable
             if(dropDown) { //need to open unlocked, opened courses
-               if(course.getStatus() == Status.LOCKED || course.getStatus() == Status.NOT_QUERIED) {
+               @Status int status = StatusStore.getInstance().getCourseStatus(course.getId());
+               if(status == Status.LOCKED || status == Status.NOT_QUERIED) {
                    continue; //don't open locked courses
                }
                if(showHideView.getVisibility() == View.GONE) {
@@ -299,46 +234,6 @@ public class CoursesActivity extends ThemedActivity implements NavigationView.On
         dropDown = !dropDown; //update drop down mode
     }
 
-    /**
-     * @return This object can launch a {@link ChapterActivity}.
-     */
-    public ActivityResultLauncher<Intent> getChapterActivityLauncher() {
-        return chapterActivityLauncher;
-    }
-
-    /**
-     * @return This object can launch a {@link TaskActivity}.
-     */
-    public ActivityResultLauncher<Intent> getTaskActivityLauncher() {
-        return taskActivityLauncher;
-    }
-
-    /**
-     * @return This object can launch an {@link ExamActivity}.
-     */
-    public ActivityResultLauncher<Intent> getExamActivityLauncher() {
-        return examActivityLauncher;
-    }
-
-    /**
-     * Helper method, called when an exam finishes and the user returns to the course activity
-     * @param currentExamId The id of the exam that finished.
-     */
-    private void updateNextCourseDisplay(int currentExamId) {
-        int i;
-        for(i=0; i<PARSED_COURSES.size(); i++) {
-            if(PARSED_COURSES.get(i).getExam().getId() == currentExamId) break;
-        }
-        if(i < PARSED_COURSES.size() - 1) { //there is a course after this one
-            Course nextCourse = PARSED_COURSES.get(i+1);
-            ListView listView = findViewById(R.id.courseSelectors);
-            View nextCourseView = listView.getChildAt((i+1) - listView.getFirstVisiblePosition());
-            if(nextCourseView != null) { //next course view is null when it isn't visible, but then it gets updated when it appears
-                nextCourse.queryAndDisplayStatus(nextCourseView.findViewById(R.id.statusIconView), this, nextCourseView.findViewById(R.id.slideInView));
-            }
-        }
-    }
-
     /**
      * Settings button (in the toolbar) click handler.
      */
@@ -402,15 +297,4 @@ public class CoursesActivity extends ThemedActivity implements NavigationView.On
         return PARSED_COURSES.isEmpty();
     }
 
-    /**
-     * The views that will be updated when the ongoing activity finished.
-     * @see UpdatableActivity
-     */
-    private View[] updateViews;
-
-    @Override
-    public void setUpdateViews(View... updateViews) {
-        this.updateViews = updateViews;
-    }
-
 }
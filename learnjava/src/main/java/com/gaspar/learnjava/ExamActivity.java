@@ -21,13 +21,15 @@ import androidx.core.app.NotificationCompat;
 import androidx.core.content.ContextCompat;
 import androidx.recyclerview.widget.RecyclerView;
 
+import com.gaspar.learnjava.asynctask.ExecutorLane;
 import com.gaspar.learnjava.asynctask.LearnJavaExecutor;
 import com.gaspar.learnjava.asynctask.LoadExamQuestionsTask;
 import com.gaspar.learnjava.curriculum.Course;
 import com.gaspar.learnjava.curriculum.Exam;
 import com.gaspar.learnjava.curriculum.Status;
 import com.gaspar.learnjava.curriculum.questions.Question;
-import com.gaspar.learnjava.database.LearnJavaDatabase;
+import com.gaspar.learnjava.database.ExamStatus;
+import com.gaspar.learnjava.database.StatusStore;
 import com.gaspar.learnjava.utils.LogUtils;
 import com.gaspar.learnjava.utils.ThemeUtils;
 import com.google.android.material.dialog.MaterialAlertDialogBuilder;
@@ -87,7 +89,7 @@ public class ExamActivity extends ThemedActivity {
     }
 
     private void setUpUI() {
-        new LoadExamQuestionsTask(exam.getId()).execute(this); //this will update the exam variable
+        new LoadExamQuestionsTask(exam.getId()).bindToLifecycle(this).execute(this); //this will update the exam variable
         toolbar = findViewById(R.id.toolbarExam);
         setSupportActionBar(toolbar);
         if(getSupportActionBar() != null) {
@@ -213,27 +215,26 @@ public class ExamActivity extends ThemedActivity {
      *                    Database updates must still happen.
      */
     private void displayAndUpdateExamResult(double correctQuestions, boolean forceClosed) {
-        LearnJavaExecutor.getInstance().executeOnBackgroundThread(() -> {
+        LearnJavaExecutor.getInstance().executeOnBackgroundThread(ExecutorLane.BLOCKING, () -> { //may wait for the store to load
             //first launch the top score updating
-            int prevScore = LearnJavaDatabase.getInstance(this).getExamDao().queryTopScore(exam.getId());
+            StatusStore statusStore = StatusStore.getInstance();
+            statusStore.ensureLoaded(this);
+            ExamStatus examStatus = statusStore.getExamStatus(exam.getId());
+            int prevScore = examStatus == null ? Exam.EXAM_NEVER_STARTED : examStatus.getTopScore();
             if(correctQuestions > prevScore) { //this works for NEVER_STARTED as well, as its value is -1
-                LearnJavaDatabase.getInstance(this).getExamDao()
-                        .updateTopScore(exam.getId(), Double.valueOf(correctQuestions).intValue());
+                statusStore.setExamTopScore(this, exam.getId(), Double.valueOf(correctQuestions).intValue());
             }
         });
         double percentageAsDouble = 100 * (correctQuestions/exam.getQuestionAmount());
         int percentage = Double.valueOf(percentageAsDouble).intValue();
         int minPercentage = Exam.getMinimumPassPercentage(this);
         if(percentage >= minPercentage) {
-            //update database with pass
-            LearnJavaExecutor.getInstance().executeOnBackgroundThread(() -> {
-                LearnJavaDatabase.getInstance(ExamActivity.this) //set this exam completed
-                        .getExamDao().updateExamCompletionStatus(exam.getId(), Status.COMPLETED);
-                Course nextCourse = Course.findNextCourse(exam.getId());
-                if(nextCourse != null) { //if there is a next course, unlock it
-                    LearnJavaDatabase.getInstance(this).getCourseDao().updateCourseStatus(nextCourse.getId(), Status.UNLOCKED);
-                }
-            });
+            //update database with pass, the store writes it on it's own thread
+            StatusStore.getInstance().setExamStatus(this, exam.getId(), Status.COMPLETED); //set this exam completed
+            Course nextCourse = Course.findNextCourse(exam.getId());
+            if(nextCourse != null) { //if there is a next course, unlock it
+                StatusStore.getInstance().setCourseStatus(this, nextCourse.getId(), Status.UNLOCKED);
+            }
         } else {
             //fail, no need to update database, but post notification
             ExamNotificationReceiver.postExamNotification(exam, this); //post the notification that shows on cool down.
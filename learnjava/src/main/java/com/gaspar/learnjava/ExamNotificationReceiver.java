@@ -13,11 +13,12 @@ import androidx.annotation.UiThread;
 import androidx.core.app.NotificationCompat;
 import androidx.core.content.ContextCompat;
 
+import com.gaspar.learnjava.asynctask.ExecutorLane;
 import com.gaspar.learnjava.asynctask.LearnJavaExecutor;
 import com.gaspar.learnjava.curriculum.Course;
 import com.gaspar.learnjava.curriculum.Exam;
 import com.gaspar.learnjava.database.ExamStatus;
-import com.gaspar.learnjava.database.LearnJavaDatabase;
+import com.gaspar.learnjava.database.StatusStore;
 import com.gaspar.learnjava.parsers.CourseParser;
 import com.gaspar.learnjava.utils.LogUtils;
 import com.gaspar.learnjava.utils.ThemeUtils;
@@ -87,7 +88,7 @@ public class ExamNotificationReceiver extends BroadcastReceiver {
     @UiThread
     static void postExamNotification(Exam failedExam, Context context) {
         if(!SettingsActivity.examNotificationsEnabled(context)) return; //do nothing if notifications are disabled
-        LearnJavaExecutor.getInstance().executeOnBackgroundThread(() -> {
+        LearnJavaExecutor.getInstance().executeOnBackgroundThread(ExecutorLane.BLOCKING, () -> { //may wait for the store to load
             if(CoursesActivity.coursesNotParsed()) {
                 try {
                     CoursesActivity.getParsedCourses().addAll(CourseParser.getInstance().parseCourses(context));
@@ -103,7 +104,8 @@ public class ExamNotificationReceiver extends BroadcastReceiver {
                     break;
                 }
             }
-            ExamStatus examStatus = LearnJavaDatabase.getInstance(context).getExamDao().queryExamStatus(failedExam.getId());
+            StatusStore.getInstance().ensureLoaded(context);
+            ExamStatus examStatus = StatusStore.getInstance().getExamStatus(failedExam.getId());
             if(examStatus == null) { //should not happen as database is validated on start
                 LogUtils.logError("Database error!");
                 return;
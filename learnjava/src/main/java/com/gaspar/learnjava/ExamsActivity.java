@@ -1,20 +1,18 @@
 package com.gaspar.learnjava;
 
-import android.app.Activity;
 import android.content.Intent;
 import android.os.Bundle;
 import android.view.MenuItem;
 import android.view.View;
+import android.widget.ListView;
 
-import androidx.activity.result.ActivityResultLauncher;
-import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.annotation.NonNull;
 import androidx.appcompat.app.ActionBarDrawerToggle;
 import androidx.core.view.GravityCompat;
 import androidx.drawerlayout.widget.DrawerLayout;
 
 import com.gaspar.learnjava.asynctask.FillExamsActivityTask;
-import com.gaspar.learnjava.curriculum.Exam;
+import com.gaspar.learnjava.database.StatusStore;
 import com.gaspar.learnjava.utils.DrawerUtils;
 import com.google.android.gms.ads.AdView;
 import com.google.android.material.navigation.NavigationView;
@@ -23,51 +21,33 @@ import com.google.android.material.navigation.NavigationView;
  * Activity that displays all exams in a list, and the user can start the ones that they have
  * unlocked and available.
  */
-public class ExamsActivity extends ThemedActivity implements NavigationView.OnNavigationItemSelectedListener, UpdatableActivity {
+public class ExamsActivity extends ThemedActivity implements NavigationView.OnNavigationItemSelectedListener {
 
     /**
      * Indicates if the exams have successfully loaded.
      */
     public volatile boolean successfulLoad;
 
-    /**
-     * Exam view that is updated when the associated exams activity finishes.
-     */
-    private View updateView;
-
     /**
      * View that displays ads in this activity.
      */
     private AdView adView;
 
-    /**
-     * Can start {@link ExamActivity}es and handle their result.
-     */
-    private ActivityResultLauncher<Intent> examActivityLauncher;
-
     @Override
     public void onCreate(Bundle savedState) {
         super.onCreate(savedState);
         setContentView(R.layout.activity_exams);
         setUpUI();
-        examActivityLauncher = registerForActivityResult(
-                new ActivityResultContracts.StartActivityForResult(),
-                result -> {
-                    if(result.getResultCode() == Activity.RESULT_OK) {
-                        Intent data = result.getData();
-                        if(data == null) return;
-                        Exam exam = (Exam) data.getSerializableExtra(Exam.EXAM_PREFERENCE_STRING);
-                        if(exam == null) return;
-                        exam.queryAndDisplayStatus(updateView, ExamsActivity.this); //update view is exam view now
-                    }
-                }
-        );
     }
 
     @Override
     protected void onDestroy() {
         super.onDestroy();
         if(adView != null) adView.destroy();
+        ListView examSelectors = findViewById(R.id.examSelectors);
+        if(examSelectors.getAdapter() instanceof StatusStore.StatusObserver) { //stop updating the views
+            StatusStore.getInstance().removeObserver((StatusStore.StatusObserver) examSelectors.getAdapter());
+        }
     }
 
     @Override
@@ -129,16 +109,4 @@ public class ExamsActivity extends ThemedActivity implements NavigationView.OnNa
         DrawerUtils.handleDrawerOnClick(this, item, R.id.drawer_layout_exams_root);
         return true;
     }
-
-    @Override
-    public void setUpdateViews(View... updateViews) {
-        this.updateView = updateViews[0];
-    }
-
-    /**
-     * @return An object that can start {@link ExamActivity}es and handle their result.
-     */
-    public ActivityResultLauncher<Intent> getExamActivityLauncher() {
-        return examActivityLauncher;
-    }
 }
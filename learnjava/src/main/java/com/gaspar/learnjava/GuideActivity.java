@@ -85,7 +85,7 @@ public class GuideActivity extends ThemedActivity implements NavigationView.OnNa
         toggle.syncState();
         navigationView.setNavigationItemSelectedListener(this);
 
-        new FillGuideActivityTask().execute(this); //parse components
+        new FillGuideActivityTask().bindToLifecycle(this).execute(this); //parse components
     }
 
     /**
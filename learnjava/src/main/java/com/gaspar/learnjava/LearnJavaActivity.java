@@ -28,11 +28,13 @@ import androidx.appcompat.app.ActionBarDrawerToggle;
 import androidx.core.view.GravityCompat;
 import androidx.drawerlayout.widget.DrawerLayout;
 
+import com.gaspar.learnjava.asynctask.ExecutorLane;
 import com.gaspar.learnjava.asynctask.InitStarterViewTask;
 import com.gaspar.learnjava.asynctask.LearnJavaExecutor;
 import com.gaspar.learnjava.curriculum.Chapter;
 import com.gaspar.learnjava.database.CourseStatus;
 import com.gaspar.learnjava.database.LearnJavaDatabase;
+import com.gaspar.learnjava.database.StatusStore;
 import com.gaspar.learnjava.parsers.CourseParser;
 import com.gaspar.learnjava.parsers.RawParser;
 import com.gaspar.learnjava.utils.AnimationUtils;
@@ -100,7 +102,7 @@ public class LearnJavaActivity extends ThemedActivity
         //check if it's debug or release, and set flag accordingly
         DEBUG = getResources().getBoolean(R.bool.is_debug);
         setContentView(R.layout.activity_learn_java);
-        LearnJavaExecutor.getInstance().executeOnBackgroundThread(() -> { //initialize necessary variables, database
+        LearnJavaExecutor.getInstance().executeOnBackgroundThread(ExecutorLane.BLOCKING, () -> { //initialize necessary variables, database, waits for the writes
             try { //parse course objects
                 CoursesActivity.setParsedCourses(CourseParser.getInstance().parseCourses(this));
             } catch (Exception e) {
@@ -108,6 +110,7 @@ public class LearnJavaActivity extends ThemedActivity
             }
             CourseStatus.initCourseCount(CoursesActivity.getParsedCourses().size(), this); //pass in new course size for check
             LearnJavaDatabase.validateDatabase(this); //check/add all elements
+            StatusStore.getInstance().reload(this); //load every status once, the screens read them from memory
             createNotificationChannel(); //initialize the notification channel
             SettingsActivity.initSettings(this); //initialize settings
             LearnJavaAds.initAdConstants(this); //initialize ad variables
@@ -320,8 +323,8 @@ public class LearnJavaActivity extends ThemedActivity
         if(startedChapter == null) return;
         //offer the guide if needed
         Runnable runIfNoGuide = () -> {
-            //this is not an updatable activity, so view is null. exam and extra exam view are also null
-            Chapter.startChapterActivity(this, null, startedChapter, null, null, null);
+            //the status store updates every displayed view when the chapter is completed
+            Chapter.startChapterActivity(this, startedChapter);
         };
         GuideActivity.displayGuideNotReadDialogIfNeeded(this, runIfNoGuide);
     }
@@ -16,16 +16,23 @@ import androidx.appcompat.app.ActionBarDrawerToggle;
 import androidx.core.view.GravityCompat;
 import androidx.drawerlayout.widget.DrawerLayout;
 
+import com.gaspar.learnjava.asynctask.ExecutorLane;
 import com.gaspar.learnjava.asynctask.LearnJavaExecutor;
 import com.gaspar.learnjava.curriculum.Exam;
 import com.gaspar.learnjava.database.LearnJavaDatabase;
+import com.gaspar.learnjava.database.StatusStore;
+import com.gaspar.learnjava.playground.RunTelemetry;
 import com.gaspar.learnjava.utils.DrawerUtils;
+import com.gaspar.learnjava.utils.LogUtils;
 import com.gaspar.learnjava.utils.ThemeUtils;
 import com.google.android.material.dialog.MaterialAlertDialogBuilder;
 import com.google.android.material.navigation.NavigationView;
 import com.google.android.material.snackbar.Snackbar;
 import com.google.android.material.switchmaterial.SwitchMaterial;
 
+import java.io.File;
+import java.io.IOException;
+
 /**
  * Activity to show app settings.
  */
@@ -60,6 +67,12 @@ public class SettingsActivity extends ThemedActivity implements NavigationView.O
     @VisibleForTesting
     public static final String AUTO_SLIDE_OPEN_PREF_NAME = "auto_slide_open_pref_name";
 
+    /**
+     * The run API timings are exported into this file of the app's external files folder, see
+     * {@link #runTelemetryButtonOnClick(View)}.
+     */
+    private static final String RUN_TELEMETRY_FILE_NAME = "run_telemetry.json";
+
     @Override
     public void onCreate(Bundle savedState) {
         super.onCreate(savedState);
@@ -86,6 +99,7 @@ public class SettingsActivity extends ThemedActivity implements NavigationView.O
         initNotificationSettings(); //show up to date values in the settings screen
         initDifficultySettings();
         initScreenSettings();
+        if(LearnJavaActivity.DEBUG) findViewById(R.id.runTelemetryButton).setVisibility(View.VISIBLE); //debug tools
     }
 
     /**
@@ -190,9 +204,11 @@ public class SettingsActivity extends ThemedActivity implements NavigationView.O
         builder.setPositiveButton(R.string.ok, (dialogInterface, i) -> {
             //deletes the contents of the database, and then re-validates it, filling it with default values.
             dialogInterface.dismiss();
-            LearnJavaExecutor.getInstance().executeOnBackgroundThread(() -> {
+            //the reload waits for the database write lane
+            LearnJavaExecutor.getInstance().executeOnBackgroundThread(ExecutorLane.BLOCKING, () -> {
                 LearnJavaDatabase.resetDatabase(SettingsActivity.this);
                 LearnJavaDatabase.validateDatabase(SettingsActivity.this);
+                StatusStore.getInstance().reload(SettingsActivity.this); //the statuses in memory are outdated
                 //also delete "last started chapter" preference
                 prefs.edit().putInt(LearnJavaActivity.ACTIVE_CHAPTER_ID_PREFERENCE, -1).apply();
             });
@@ -202,6 +218,34 @@ public class SettingsActivity extends ThemedActivity implements NavigationView.O
         builder.create().show();
     }
 
+    /**
+     * Called when the run telemetry button is clicked, which is only visible in debug builds. Exports the timings of
+     * the run API calls as JSON, and shows their summary.
+     */
+    public void runTelemetryButtonOnClick(View runTelemetryButton) {
+        final File folder = getExternalFilesDir(null);
+        final File file = new File(folder != null ? folder : getFilesDir(), RUN_TELEMETRY_FILE_NAME);
+        LearnJavaExecutor.getInstance().executeOnBackgroundThread(() -> {
+            final RunTelemetry telemetry = RunTelemetry.getInstance();
+            String message;
+            try {
+                telemetry.exportJson(file);
+                message = telemetry.dump() + "\n" + getString(R.string.run_telemetry_exported, file.getAbsolutePath());
+            } catch (IOException e) {
+                LogUtils.logError("Failed to export the run telemetry!", e);
+                message = getString(R.string.run_telemetry_failed);
+            }
+            final String dialogMessage = message;
+            LearnJavaExecutor.getInstance().executeOnUiThread(() -> {
+                if(isFinishing()) return;
+                new MaterialAlertDialogBuilder(this, ThemeUtils.getThemedDialogStyle())
+                        .setMessage(dialogMessage)
+                        .setPositiveButton(R.string.ok, (dialogInterface, i) -> dialogInterface.dismiss())
+                        .show();
+            });
+        });
+    }
+
     @Override
     public void onBackPressed() {
         DrawerLayout drawer = findViewById(R.id.drawer_layout_settings_root);
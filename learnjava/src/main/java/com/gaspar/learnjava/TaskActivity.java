@@ -20,11 +20,9 @@ import androidx.core.view.GravityCompat;
 import androidx.drawerlayout.widget.DrawerLayout;
 
 import com.gaspar.learnjava.asynctask.FillTaskActivityTask;
-import com.gaspar.learnjava.asynctask.LearnJavaExecutor;
 import com.gaspar.learnjava.curriculum.Task;
 import com.gaspar.learnjava.curriculum.components.CodeHostingActivity;
-import com.gaspar.learnjava.database.LearnJavaDatabase;
-import com.gaspar.learnjava.database.TaskStatus;
+import com.gaspar.learnjava.database.StatusStore;
 import com.gaspar.learnjava.utils.AnimationUtils;
 import com.gaspar.learnjava.utils.DrawerUtils;
 import com.gaspar.learnjava.utils.LearnJavaBluetooth;
@@ -108,7 +106,7 @@ public class TaskActivity extends ThemedActivity implements NavigationView.OnNav
     }
 
     private void setUpUI(Task passedTask) {
-        new FillTaskActivityTask(passedTask).execute(this); //load task components, handles checkbox status
+        new FillTaskActivityTask(passedTask).bindToLifecycle(this).execute(this); //load task components, handles checkbox status
 
         toolbar = findViewById(R.id.toolbarTask);
         setSupportActionBar(toolbar);
@@ -195,16 +193,13 @@ public class TaskActivity extends ThemedActivity implements NavigationView.OnNav
 
     /**
      * Called when the task completion marker checkbox is called. No need to call this on background
-     * thread, as it starts it's own thread.
+     * thread, the {@link StatusStore} writes the database on it's own thread.
      */
     @UiThread
     public void updateTaskStatus(boolean completed, int taskId) {
-        LearnJavaExecutor.getInstance().executeOnBackgroundThread(() -> {
-            int status = completed ? com.gaspar.learnjava.curriculum.Status.COMPLETED
-                    : com.gaspar.learnjava.curriculum.Status.UNLOCKED;
-            TaskStatus newStatus = new TaskStatus(taskId, status);
-            LearnJavaDatabase.getInstance(TaskActivity.this).getTaskDao().updateTaskStatus(newStatus); //update in database
-        });
+        int status = completed ? com.gaspar.learnjava.curriculum.Status.COMPLETED
+                : com.gaspar.learnjava.curriculum.Status.UNLOCKED;
+        StatusStore.getInstance().setTaskStatus(this, taskId, status);
     }
 
     @Override
@@ -1,14 +1,11 @@
 package com.gaspar.learnjava;
 
-import android.app.Activity;
 import android.content.Intent;
 import android.os.Bundle;
 import android.view.MenuItem;
 import android.view.View;
 import android.widget.ListView;
 
-import androidx.activity.result.ActivityResultLauncher;
-import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.annotation.NonNull;
 import androidx.appcompat.app.ActionBarDrawerToggle;
 import androidx.core.view.GravityCompat;
@@ -18,7 +15,7 @@ import com.gaspar.learnjava.adapters.TaskAdapter;
 import com.gaspar.learnjava.asynctask.FillTasksActivityTask;
 import com.gaspar.learnjava.curriculum.Course;
 import com.gaspar.learnjava.curriculum.Status;
-import com.gaspar.learnjava.curriculum.Task;
+import com.gaspar.learnjava.database.StatusStore;
 import com.gaspar.learnjava.utils.AnimationUtils;
 import com.gaspar.learnjava.utils.DrawerUtils;
 import com.google.android.gms.ads.AdView;
@@ -29,52 +26,33 @@ import com.google.android.material.navigation.NavigationView;
  * @see CoursesActivity
  * @see ExamsActivity
  */
-public class TasksActivity extends ThemedActivity implements NavigationView.OnNavigationItemSelectedListener, UpdatableActivity {
+public class TasksActivity extends ThemedActivity implements NavigationView.OnNavigationItemSelectedListener {
 
     /**
      * Stores if the tasks have loaded successfully.
      */
     public boolean successfulLoad;
 
-    /**
-     * View that is updated when an activity started from this one finishes.
-     */
-    private View updateView;
-
     /**
      * View that displays ads in this activity.
      */
     private AdView adView;
 
-    /**
-     * An object which can start {@link TaskActivity}es and is prepared to handle the result.
-     */
-    private ActivityResultLauncher<Intent> taskActivityLauncher;
-
     @Override
     public void onCreate(Bundle savedState) {
         super.onCreate(savedState);
         setContentView(R.layout.activity_tasks);
         setUpUI();
-        //handle results of task activities
-        taskActivityLauncher = registerForActivityResult(
-                new ActivityResultContracts.StartActivityForResult(),
-                result -> {
-                    if(result.getResultCode() == Activity.RESULT_OK) {
-                        Intent data = result.getData();
-                        if(data == null) return;
-                        Task task = (Task)data.getSerializableExtra(Task.TASK_PREFERENCE_STRING);
-                        if(task == null) return;
-                        task.queryAndDisplayStatus(updateView.findViewById(R.id.taskStatusIcon), TasksActivity.this);
-                    }
-                }
-        );
     }
 
     @Override
     protected void onDestroy() {
         super.onDestroy();
         if(adView != null) adView.destroy();
+        ListView taskSelectors = findViewById(R.id.taskSelectors);
+        if(taskSelectors.getAdapter() instanceof StatusStore.StatusObserver) { //stop updating the views
+            StatusStore.getInstance().removeObserver((StatusStore.StatusObserver) taskSelectors.getAdapter());
+        }
     }
 
     @Override
@@ -122,7 +100,8 @@ public class TasksActivity extends ThemedActivity implements NavigationView.OnNa
         ListView tasks = findViewById(R.id.taskSelectors);
         tasks.setOnItemClickListener((adapterView, view, position, l) -> {
             Course course = CoursesActivity.getParsedCourses().get(position);
-            if(course.getStatus() == Status.NOT_QUERIED || course.getStatus() == Status.LOCKED) {
+            @Status int status = StatusStore.getInstance().getCourseStatus(course.getId());
+            if(status == Status.NOT_QUERIED || status == Status.LOCKED) {
                 //inform about the course
                 TaskAdapter.buildDialog(this).show();
                 return;
@@ -159,16 +138,4 @@ public class TasksActivity extends ThemedActivity implements NavigationView.OnNa
         DrawerUtils.handleDrawerOnClick(this, item, R.id.drawer_layout_tasks_root);
         return true;
     }
-
-    @Override
-    public void setUpdateViews(View... updateViews) {
-        this.updateView = updateViews[0];
-    }
-
-    /**
-     * @return An object that can start {@link TaskActivity}es and handle the result.
-     */
-    public ActivityResultLauncher<Intent> getTaskActivityLauncher() {
-        return taskActivityLauncher;
-    }
 }
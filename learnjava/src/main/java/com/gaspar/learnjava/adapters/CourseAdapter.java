@@ -1,6 +1,8 @@
 package com.gaspar.learnjava.adapters;
 
 import android.animation.LayoutTransition;
+import android.content.Context;
+import android.util.SparseArray;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -9,30 +11,38 @@ import android.view.animation.AnimationUtils;
 import android.widget.ArrayAdapter;
 import android.widget.ImageView;
 import android.widget.LinearLayout;
+import android.widget.ProgressBar;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.Size;
-import androidx.appcompat.app.AppCompatActivity;
 
 import com.gaspar.learnjava.CoursesActivity;
 import com.gaspar.learnjava.LearnJavaActivity;
 import com.gaspar.learnjava.R;
+import com.gaspar.learnjava.asynctask.ExecutorLane;
+import com.gaspar.learnjava.asynctask.LearnJavaExecutor;
 import com.gaspar.learnjava.curriculum.Chapter;
 import com.gaspar.learnjava.curriculum.Course;
 import com.gaspar.learnjava.curriculum.Exam;
 import com.gaspar.learnjava.curriculum.Status;
 import com.gaspar.learnjava.curriculum.Task;
+import com.gaspar.learnjava.database.CourseProgress;
+import com.gaspar.learnjava.database.LearnJavaDatabase;
+import com.gaspar.learnjava.database.StatusStore;
 import com.gaspar.learnjava.utils.LogUtils;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Fills the list view in {@link com.gaspar.learnjava.CoursesActivity} with views for each
- * parsed course object.
+ * parsed course object. When a status changes in the {@link StatusStore}, only the views of the changed
+ * element are updated. Each course also displays its {@link CourseProgress}, which is re-queried when a
+ * chapter, task or exam of the course changes.
  */
-public class CourseAdapter extends ArrayAdapter<Course> {
+public class CourseAdapter extends ArrayAdapter<Course> implements StatusStore.StatusObserver {
 
     /**
      * The activity, in which the list view is shown.
@@ -45,13 +55,32 @@ public class CourseAdapter extends ArrayAdapter<Course> {
     private final Animation clickAnimation;
 
     /**
-     * Create a course adapter which displays course views.
+     * Stores which views display which statuses.
+     */
+    private final StatusBindings statusBindings;
+
+    /**
+     * The progress of the courses, mapped by course id.
+     */
+    private final SparseArray<CourseProgress> courseProgresses;
+
+    /**
+     * Every view holder created by this adapter, used to find the view of a course when its progress changes.
+     */
+    private final List<CourseViewHolder> viewHolders;
+
+    /**
+     * Create a course adapter which displays course views. The statuses must be loaded into the {@link StatusStore}.
      * @param activity Activity in which it will appear.
      * @param courses List of courses.
+     * @param courseProgresses The progress of the courses, mapped by course id. Courses without progress don't display it.
      */
-    public CourseAdapter(CoursesActivity activity, @Size(min=1) List<Course> courses) {
+    public CourseAdapter(CoursesActivity activity, @Size(min=1) List<Course> courses, @NonNull SparseArray<CourseProgress> courseProgresses) {
         super(activity, R.layout.selector_course, courses);
         this.activity = activity;
+        this.courseProgresses = courseProgresses;
+        statusBindings = new StatusBindings();
+        viewHolders = new ArrayList<>();
         clickAnimation = AnimationUtils.loadAnimation(activity, R.anim.click);
     }
 
@@ -71,7 +100,11 @@ public class CourseAdapter extends ArrayAdapter<Course> {
             viewHolder.examView = convertView.findViewById(R.id.examSelector);
             viewHolder.showHideView = convertView.findViewById(R.id.slideInView);
             viewHolder.courseNameBar = convertView.findViewById(R.id.courseNameBar);
+            viewHolder.progressLayout = convertView.findViewById(R.id.courseProgressLayout);
+            viewHolder.progressBar = convertView.findViewById(R.id.courseProgressBar);
+            viewHolder.progressText = convertView.findViewById(R.id.courseProgressText);
             convertView.setTag(viewHolder);
+            viewHolders.add(viewHolder);
 
             //this will handle appear animations
             LayoutTransition lt = new LayoutTransition();
@@ -81,15 +114,95 @@ public class CourseAdapter extends ArrayAdapter<Course> {
             viewHolder = (CourseViewHolder)convertView.getTag();
         }
         if(course != null) { //fill data here using view holder
+            statusBindings.unbindAll(viewHolder); //a recycled view may have displayed another course
             viewHolder.courseNameView.setText(course.getCourseName());
+            viewHolder.courseId = course.getId();
+            displayProgress(viewHolder);
             //register listener that shows or hides contents
             viewHolder.courseNameBar.setOnClickListener(v -> onCourseNameClick(position, viewHolder.courseNameBar, viewHolder.statusIcon, viewHolder.showHideView));
-            course.queryAndDisplayStatus(viewHolder.statusIcon, activity, viewHolder.showHideView);
+            statusBindings.bind(viewHolder, StatusStore.Type.COURSE, course.getId(),
+                    () -> course.displayStatus(viewHolder.statusIcon, activity, viewHolder.showHideView));
             addContentViews(viewHolder, course); //add chapter, task exam selectors
         }
         return convertView;
     }
 
+    /**
+     * Updates the views of the element whose status changed, if they are displayed.
+     */
+    @Override
+    public void onStatusChanged(@StatusStore.Type int type, int id) {
+        statusBindings.onStatusChanged(type, id);
+        if(type != StatusStore.Type.COURSE) { //the progress of the course containing this element changed
+            Course course = findCourseOf(type, id);
+            if(course != null) refreshProgress(course.getId());
+        }
+    }
+
+    /**
+     * Displays the progress of the course that the view holder currently shows.
+     * @param viewHolder The cache object of the course selector view.
+     */
+    private void displayProgress(@NonNull CourseViewHolder viewHolder) {
+        CourseProgress progress = courseProgresses.get(viewHolder.courseId);
+        if(progress == null) { //not in the database yet
+            viewHolder.progressLayout.setVisibility(View.GONE);
+            return;
+        }
+        viewHolder.progressBar.setMax(progress.getElementCount());
+        viewHolder.progressBar.setProgress(progress.getCompletedElementCount());
+        viewHolder.progressText.setText(activity.getString(R.string.course_progress_summary,
+                progress.getCompletedChapterCount(), progress.getChapterCount(),
+                progress.getCompletedTaskCount(), progress.getTaskCount()));
+        viewHolder.progressLayout.setVisibility(View.VISIBLE);
+    }
+
+    /**
+     * Queries the progress of a course in the background, and displays it if the course is visible. The query
+     * runs after the pending status writes, so it includes the change that triggered it.
+     * @param courseId Id of the course.
+     */
+    private void refreshProgress(int courseId) {
+        final Context appContext = activity.getApplicationContext();
+        //waits for the database write lane, so it must not hold up the IO lane
+        LearnJavaExecutor.getInstance().executeOnBackgroundThread(ExecutorLane.BLOCKING, () -> {
+            final CourseProgress progress = StatusStore.getInstance().queryAfterPendingWrites(() ->
+                    LearnJavaDatabase.getInstance(appContext).getCourseProgressDao().queryCourseProgress(courseId));
+            if(progress == null) return;
+            LearnJavaExecutor.getInstance().executeOnUiThread(() -> {
+                courseProgresses.put(courseId, progress);
+                for(CourseViewHolder viewHolder: viewHolders) {
+                    if(viewHolder.courseId == courseId) displayProgress(viewHolder);
+                }
+            });
+        });
+    }
+
+    /**
+     * Finds the course that contains a chapter, task or exam.
+     * @param type The type of the element.
+     * @param id The id of the element.
+     * @return The course, or null if it was not found.
+     */
+    @Nullable
+    private Course findCourseOf(@StatusStore.Type int type, int id) {
+        for(int i = 0; i < getCount(); i++) {
+            Course course = getItem(i);
+            if(course == null) continue;
+            if(type == StatusStore.Type.EXAM && course.getExam().getId() == id) return course;
+            if(type == StatusStore.Type.CHAPTER) {
+                for(Chapter chapter: course.getChapters()) {
+                    if(chapter.getId() == id) return course;
+                }
+            } else if(type == StatusStore.Type.TASK) {
+                for(Task task: course.getTasks()) {
+                    if(task.getId() == id) return course;
+                }
+            }
+        }
+        return null;
+    }
+
     /**
      * Called when the user taps the name of one of the courses. Will show the contents if the course is unlocked.
      * In debug mode, it will always show the contents.
@@ -102,7 +215,8 @@ public class CourseAdapter extends ArrayAdapter<Course> {
         LogUtils.log("Clicked on course name!");
         Course c = CoursesActivity.getParsedCourses().get(position);
         if(!LearnJavaActivity.DEBUG) { //only some shaking happens on locked, except in debug
-            if(c.getStatus() == Status.LOCKED || c.getStatus()==Status.NOT_QUERIED) {
+            @Status int status = StatusStore.getInstance().getCourseStatus(c.getId());
+            if(status == Status.LOCKED || status == Status.NOT_QUERIED) {
                 iconView.findViewById(R.id.statusIconView).
                         startAnimation(android.view.animation.AnimationUtils.loadAnimation(iconView.getContext(), R.anim.shake));
                 return;
@@ -125,42 +239,46 @@ public class CourseAdapter extends ArrayAdapter<Course> {
         viewHolder.chaptersView.removeAllViews(); //remove previous chapters
         for(Chapter chapter: course.getChapters()) { //add all chapters
             View chapterView = inflater.inflate(R.layout.selector_chapter, viewHolder.chaptersView, false);
-            chapter.queryAndDisplayStatus(chapterView.findViewById(R.id.chapterStatusIcon), activity); //query and show status
+            final ImageView chapterIcon = chapterView.findViewById(R.id.chapterStatusIcon);
+            statusBindings.bind(viewHolder, StatusStore.Type.CHAPTER, chapter.getId(),
+                    () -> chapter.displayStatus(chapterIcon, activity)); //show status
             viewHolder.chaptersView.addView(chapterView);
-            setUpChapterView(chapterView, chapter, course.getExam(), viewHolder.examView);
+            setUpChapterView(chapterView, chapter);
         }
         viewHolder.tasksView.removeAllViews(); //remove previous tasks
         for(Task task: course.getTasks()) { //add all tasks
             View taskView = inflater.inflate(R.layout.selector_task, viewHolder.tasksView, false);
-            task.queryAndDisplayStatus(taskView.findViewById(R.id.taskStatusIcon), activity);
+            final ImageView taskIcon = taskView.findViewById(R.id.taskStatusIcon);
+            statusBindings.bind(viewHolder, StatusStore.Type.TASK, task.getId(),
+                    () -> task.displayStatus(taskIcon, activity));
             viewHolder.tasksView.addView(taskView);
             setUpTaskView(taskView, task);
         }
-        course.getExam().queryAndDisplayStatus(viewHolder.examView, activity); //set up exam selector
+        final Exam exam = course.getExam();
+        statusBindings.bind(viewHolder, StatusStore.Type.EXAM, exam.getId(),
+                () -> exam.displayStatus(viewHolder.examView, activity)); //set up exam selector
     }
 
     /**
-     * Sets the text, listeners and the status icon of a chapter view. See
-     * {@link Chapter#startChapterActivity(AppCompatActivity, androidx.activity.result.ActivityResultLauncher, Chapter, View, Exam, View)}
-     * for explanation on why exam components are needed.
+     * Sets the text and listeners of a chapter view.
      */
-    private void setUpChapterView(final View chapterView, @NonNull Chapter chapter, @Nullable Exam exam, final View extraExamView) {
+    private void setUpChapterView(final View chapterView, @NonNull Chapter chapter) {
         TextView chapterNameView = chapterView.findViewById(R.id.chapterNameView);
         chapterNameView.setText(chapter.getName());
         chapterView.setOnClickListener(view -> { //redirect to chapter activity
-            Chapter.startChapterActivity(activity, activity.getChapterActivityLauncher(), chapter, chapterView, exam, extraExamView);
+            Chapter.startChapterActivity(activity, chapter);
             view.startAnimation(clickAnimation);
         });
     }
 
     /**
-     * Sets the text, listeners and the status icon of a task view.
+     * Sets the text and listeners of a task view.
      */
     private void setUpTaskView(final View taskView, @NonNull Task task) {
         TextView taskNameView = taskView.findViewById(R.id.taskNameView);
         taskNameView.setText(task.getName());
         taskView.setOnClickListener(view -> { //redirect to task activity if not locked.
-            Task.startTaskActivity(activity, activity.getTaskActivityLauncher(), task, taskView);
+            Task.startTaskActivity(activity, task);
             view.startAnimation(clickAnimation);
         });
     }
@@ -176,6 +294,10 @@ public class CourseAdapter extends ArrayAdapter<Course> {
         View examView;
         View showHideView;
         View courseNameBar;
+        View progressLayout;
+        ProgressBar progressBar;
+        TextView progressText;
+        int courseId;
     }
 
 }
@@ -13,13 +13,16 @@ import androidx.annotation.Size;
 import com.gaspar.learnjava.ExamsActivity;
 import com.gaspar.learnjava.R;
 import com.gaspar.learnjava.curriculum.Course;
+import com.gaspar.learnjava.curriculum.Exam;
+import com.gaspar.learnjava.database.StatusStore;
 
 import java.util.List;
 
 /**
- * Creates a named exam view for each exam available in the application.
+ * Creates a named exam view for each exam available in the application. When an exam changes in the
+ * {@link StatusStore}, only its view is updated.
  */
-public class ExamAdapter extends ArrayAdapter<Course> {
+public class ExamAdapter extends ArrayAdapter<Course> implements StatusStore.StatusObserver {
 
     /**
      * The activity in which the adapter displays views.
@@ -27,13 +30,19 @@ public class ExamAdapter extends ArrayAdapter<Course> {
     private final ExamsActivity activity;
 
     /**
-     * Creates an exam adapter.
+     * Stores which views display which exams.
+     */
+    private final StatusBindings statusBindings;
+
+    /**
+     * Creates an exam adapter. The statuses must be loaded into the {@link StatusStore}.
      * @param activity The activity of the adapter.
      * @param courses The list of courses (for each course there is exactly one exam with the same name).
      */
     public ExamAdapter(@NonNull ExamsActivity activity, @Size(min=1) List<Course> courses) {
         super(activity, R.layout.selector_named_exam, courses);
         this.activity = activity;
+        statusBindings = new StatusBindings();
     }
 
     @NonNull
@@ -52,12 +61,22 @@ public class ExamAdapter extends ArrayAdapter<Course> {
             holder = (ExamViewHolder) convertView.getTag();
         }
         if(course != null) {
+            statusBindings.unbindAll(holder); //a recycled view may have displayed another exam
             holder.examNameView.setText(course.getCourseName());
-            course.getExam().queryAndDisplayStatus(holder.examView, activity);
+            final Exam exam = course.getExam();
+            statusBindings.bind(holder, StatusStore.Type.EXAM, exam.getId(), () -> exam.displayStatus(holder.examView, activity));
         }
         return convertView;
     }
 
+    /**
+     * Updates the view of the exam whose status changed, if it is displayed.
+     */
+    @Override
+    public void onStatusChanged(@StatusStore.Type int type, int id) {
+        statusBindings.onStatusChanged(type, id);
+    }
+
     private static class ExamViewHolder {
         private TextView examNameView;
         private View examView;
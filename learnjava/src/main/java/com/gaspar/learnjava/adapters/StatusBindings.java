@@ -0,0 +1,104 @@
+package com.gaspar.learnjava.adapters;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.UiThread;
+
+import com.gaspar.learnjava.database.StatusStore;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Remembers which views display the status of which element, so that when the {@link StatusStore} reports a
+ * change, only the affected views are updated. Adapters recycle their views, so the bindings are grouped by their
+ * owner (usually a view holder), and the owner's bindings are released before it is bound to a new element.
+ * <p>
+ * An element may be bound by more than one owner at the same time, for example when a recycled view holder
+ * displays an element that the old view holder of the same row did not release yet. Each owner keeps its own
+ * binding, and releasing the bindings of one owner does not affect the others.
+ */
+@UiThread
+class StatusBindings {
+
+    /**
+     * The bindings of each element, mapped by {@link #key(int, int)}. Each binding is a {@link Runnable} which
+     * displays the current status of the element, mapped by its owner.
+     */
+    private final Map<Long, Map<Object, Runnable>> bindings;
+
+    /**
+     * The element keys that were bound by each owner.
+     */
+    private final Map<Object, List<Long>> ownedBindings;
+
+    StatusBindings() {
+        bindings = new HashMap<>();
+        ownedBindings = new HashMap<>();
+    }
+
+    /**
+     * Binds an element to the runnable which displays its status, and runs the runnable. If the owner
+     * already bound this element, the old runnable is replaced.
+     * @param owner The owner of the binding, for example a view holder.
+     * @param type The type of the element.
+     * @param id The id of the element.
+     * @param display Displays the current status of the element.
+     */
+    void bind(@NonNull Object owner, @StatusStore.Type int type, int id, @NonNull Runnable display) {
+        final long key = key(type, id);
+        Map<Object, Runnable> elementBindings = bindings.get(key);
+        if(elementBindings == null) {
+            elementBindings = new LinkedHashMap<>();
+            bindings.put(key, elementBindings);
+        }
+        if(elementBindings.put(owner, display) == null) { //the owner did not bind this element yet
+            List<Long> owned = ownedBindings.get(owner);
+            if(owned == null) {
+                owned = new ArrayList<>();
+                ownedBindings.put(owner, owned);
+            }
+            owned.add(key);
+        }
+        display.run();
+    }
+
+    /**
+     * Releases all bindings of an owner. Must be called before the owner is bound to other elements. The
+     * bindings of other owners are not released, even if they display the same elements.
+     * @param owner The owner.
+     */
+    void unbindAll(@NonNull Object owner) {
+        List<Long> owned = ownedBindings.remove(owner);
+        if(owned == null) return;
+        for(long key: owned) {
+            Map<Object, Runnable> elementBindings = bindings.get(key);
+            if(elementBindings == null) continue;
+            elementBindings.remove(owner);
+            if(elementBindings.isEmpty()) bindings.remove(key);
+        }
+    }
+
+    /**
+     * Displays the new status of an element, in every view that it is bound to.
+     * @param type The type of the element.
+     * @param id The id of the element.
+     */
+    void onStatusChanged(@StatusStore.Type int type, int id) {
+        Map<Object, Runnable> elementBindings = bindings.get(key(type, id));
+        if(elementBindings == null) return;
+        //copied, a runnable may bind or release elements
+        for(Runnable display: new ArrayList<>(elementBindings.values())) {
+            display.run();
+        }
+    }
+
+    /**
+     * @return A key which identifies an element of a type.
+     */
+    private static long key(@StatusStore.Type int type, int id) {
+        return ((long)type << 32) | (id & 0xFFFFFFFFL);
+    }
+}
@@ -21,6 +21,7 @@ import com.gaspar.learnjava.TasksActivity;
 import com.gaspar.learnjava.curriculum.Course;
 import com.gaspar.learnjava.curriculum.Status;
 import com.gaspar.learnjava.curriculum.Task;
+import com.gaspar.learnjava.database.StatusStore;
 import com.gaspar.learnjava.utils.ThemeUtils;
 import com.google.android.material.dialog.MaterialAlertDialogBuilder;
 
@@ -28,9 +29,10 @@ import java.util.List;
 
 /**
  * Creates a list of task selector views (grouped by courses). Each element of the adapter
- * will create a 'tasks_of_course' view.
+ * will create a 'tasks_of_course' view. When a status changes in the {@link StatusStore}, only the views of the
+ * changed element are updated.
  */
-public class TaskAdapter extends ArrayAdapter<Course> {
+public class TaskAdapter extends ArrayAdapter<Course> implements StatusStore.StatusObserver {
 
     /**
      * Activity in which the adapter displays.
@@ -43,13 +45,19 @@ public class TaskAdapter extends ArrayAdapter<Course> {
     private final Animation clickAnimation;
 
     /**
-     * Create a task adapter which displays task views.
+     * Stores which views display which statuses.
+     */
+    private final StatusBindings statusBindings;
+
+    /**
+     * Create a task adapter which displays task views. The statuses must be loaded into the {@link StatusStore}.
      * @param activity Activity in which it will appear.
      * @param courses List of courses (each course will be queried for tasks).
      */
     public TaskAdapter(@NonNull TasksActivity activity, @Size(min=1) List<Course> courses) {
         super(activity, R.layout.tasks_of_course, courses);
         this.activity = activity;
+        statusBindings = new StatusBindings();
         clickAnimation = AnimationUtils.loadAnimation(activity, R.anim.click);
     }
 
@@ -75,29 +83,41 @@ public class TaskAdapter extends ArrayAdapter<Course> {
             holder = (TaskViewHolder)convertView.getTag();
         }
         if(course != null) { //fill data here using view holder
+            statusBindings.unbindAll(holder); //a recycled view may have displayed another course
             holder.courseNameView.setText(course.getCourseName());
-            course.queryAndDisplayStatus(holder.courseStatusIcon, activity, holder.tasksLayout);
-            addTasksToCourse(course, holder.tasksLayout); //add tasks selectors
+            statusBindings.bind(holder, StatusStore.Type.COURSE, course.getId(),
+                    () -> course.displayStatus(holder.courseStatusIcon, activity, holder.tasksLayout));
+            addTasksToCourse(course, holder, holder.tasksLayout); //add tasks selectors
         }
         return convertView;
     }
 
+    /**
+     * Updates the views of the element whose status changed, if they are displayed.
+     */
+    @Override
+    public void onStatusChanged(@StatusStore.Type int type, int id) {
+        statusBindings.onStatusChanged(type, id);
+    }
+
     /**
      * Adds 'task_selector_view' layouts to the linear layout.
      * @param course The course to which these tasks belong to.
+     * @param holder The cache object of the course view, owns the status bindings.
      * @param tasksLayout The layout the views will be added to.
      */
-    private void addTasksToCourse(final Course course, ViewGroup tasksLayout) {
+    private void addTasksToCourse(final Course course, TaskViewHolder holder, ViewGroup tasksLayout) {
         tasksLayout.removeAllViews();
         for(Task task: course.getTasks()) {
             View taskSelectorView = View.inflate(activity, R.layout.selector_task, null);
             taskSelectorView.setOnClickListener(view -> {
                 view.startAnimation(clickAnimation);
-                taskSelectorOnClick(course, task, view);
+                taskSelectorOnClick(course, task);
             });
             TextView taskNameView = taskSelectorView.findViewById(R.id.taskNameView); //set status and name
             taskNameView.setText(task.getName());
-            task.queryAndDisplayStatus(taskSelectorView.findViewById(R.id.taskStatusIcon), activity);
+            final ImageView taskIcon = taskSelectorView.findViewById(R.id.taskStatusIcon);
+            statusBindings.bind(holder, StatusStore.Type.TASK, task.getId(), () -> task.displayStatus(taskIcon, activity));
             tasksLayout.addView(taskSelectorView);
         }
     }
@@ -105,9 +125,10 @@ public class TaskAdapter extends ArrayAdapter<Course> {
     /**
      * Handles what happens when a click is made on a task selector view.
      */
-    private void taskSelectorOnClick(final Course course, final Task task, View taskView) {
-        if(course.getStatus() == Status.NOT_QUERIED || course.getStatus() == Status.LOCKED) return;
-        Task.startTaskActivity(activity, activity.getTaskActivityLauncher(), task, taskView);
+    private void taskSelectorOnClick(final Course course, final Task task) {
+        @Status int status = StatusStore.getInstance().getCourseStatus(course.getId());
+        if(status == Status.NOT_QUERIED || status == Status.LOCKED) return;
+        Task.startTaskActivity(activity, task);
     }
 
     /**
@@ -97,6 +97,14 @@ public class BluetoothExchangeTask extends LjAsyncTask<BluetoothExchangeTask.Res
         timer.start();
     }
 
+    /**
+     * @return {@link ExecutorLane#BLOCKING}, the exchange waits for the other device.
+     */
+    @Override
+    protected int getLane() {
+        return ExecutorLane.BLOCKING;
+    }
+
     /**
      * Performs the bluetooth exchange on a background thread.
      * @param objects This is expected to be an {@link AppCompatActivity}.
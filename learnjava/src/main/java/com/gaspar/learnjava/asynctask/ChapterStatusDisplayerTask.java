@@ -3,15 +3,16 @@ package com.gaspar.learnjava.asynctask;
 import android.content.Context;
 import android.widget.ImageView;
 
+import androidx.annotation.NonNull;
 import androidx.annotation.Size;
+import androidx.annotation.UiThread;
 
 import com.gaspar.learnjava.R;
 import com.gaspar.learnjava.curriculum.Chapter;
-import com.gaspar.learnjava.database.ChapterStatus;
-import com.gaspar.learnjava.database.LearnJavaDatabase;
+import com.gaspar.learnjava.database.StatusStore;
 
 /**
- * Queries and displays the status of a chapter. The result is then displayed inside {@link com.gaspar.learnjava.CoursesActivity}.
+ * Gets and displays the status of a chapter from the {@link StatusStore}. The result is then displayed inside {@link com.gaspar.learnjava.CoursesActivity}.
  */
 public class ChapterStatusDisplayerTask extends LjAsyncTask<CourseStatusDisplayerTask.Result> {
 
@@ -28,6 +29,14 @@ public class ChapterStatusDisplayerTask extends LjAsyncTask<CourseStatusDisplaye
         this.chapter = chapter;
     }
 
+    /**
+     * @return {@link TaskPriority#USER_VISIBLE}, the status is shown in a visible row.
+     */
+    @Override
+    protected int getPriority() {
+        return TaskPriority.USER_VISIBLE;
+    }
+
     /**
      * Queries the status from the database in the background.
      * @param objects Expected to be 2 argument, the first is an {@link ImageView} where the status,
@@ -38,12 +47,11 @@ public class ChapterStatusDisplayerTask extends LjAsyncTask<CourseStatusDisplaye
     protected CourseStatusDisplayerTask.Result doInBackground(@Size(2) Object... objects) {
         ImageView imageView = (ImageView) objects[0];
         Context context = (Context)objects[1];
-        ChapterStatus queriedStatus = LearnJavaDatabase.getInstance(context).getChapterDao()
-                .queryChapterStatus(chapter.getId());
-        if(queriedStatus == null) { //chapter is not in the database, should not happen
+        StatusStore.getInstance().ensureLoaded(context);
+        @com.gaspar.learnjava.curriculum.Status int status = StatusStore.getInstance().getChapterStatus(chapter.getId());
+        if(status == com.gaspar.learnjava.curriculum.Status.NOT_QUERIED) { //chapter is not in the database, should not happen
            throw new RuntimeException("Database error!");
         }
-        @com.gaspar.learnjava.curriculum.Status int status = queriedStatus.getStatus();
         return new CourseStatusDisplayerTask.Result(imageView, status);
     }
 
@@ -53,9 +61,22 @@ public class ChapterStatusDisplayerTask extends LjAsyncTask<CourseStatusDisplaye
      */
     @Override
     protected void onPostExecute(CourseStatusDisplayerTask.Result result) {
-        if(result.status == com.gaspar.learnjava.curriculum.Status.COMPLETED) {
-            result.imageView.setImageResource(R.drawable.completed_icon);
-        } //not completed chapters have no icon
-        chapter.setStatus(result.status); //save status
+        displayStatus(chapter, result.status, result.imageView);
+    }
+
+    /**
+     * Displays an already known status of a chapter, without querying the database.
+     * @param chapter The chapter.
+     * @param status The status of the chapter.
+     * @param imageView The status icon.
+     */
+    @UiThread
+    public static void displayStatus(@NonNull Chapter chapter, @com.gaspar.learnjava.curriculum.Status int status,
+                                     @NonNull ImageView imageView) {
+        if(status == com.gaspar.learnjava.curriculum.Status.COMPLETED) {
+            imageView.setImageResource(R.drawable.completed_icon);
+        } else { //not completed chapters have no icon
+            imageView.setImageResource(0);
+        }
     }
 }
@@ -3,14 +3,16 @@ package com.gaspar.learnjava.asynctask;
 import android.view.View;
 import android.widget.ImageView;
 
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.annotation.Size;
+import androidx.annotation.UiThread;
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.gaspar.learnjava.R;
 import com.gaspar.learnjava.SettingsActivity;
 import com.gaspar.learnjava.curriculum.Course;
-import com.gaspar.learnjava.database.CourseStatus;
-import com.gaspar.learnjava.database.LearnJavaDatabase;
+import com.gaspar.learnjava.database.StatusStore;
 import com.gaspar.learnjava.utils.LogUtils;
 import com.gaspar.learnjava.utils.ThemeUtils;
 import com.google.android.material.dialog.MaterialAlertDialogBuilder;
@@ -18,7 +20,7 @@ import com.google.android.material.dialog.MaterialAlertDialogBuilder;
 import java.util.Objects;
 
 /**
- * Queries and displays the status of a course. This depends on if it's unlocked or not, and if it's finished or not.
+ * Gets and displays the status of a course from the {@link StatusStore}. This depends on if it's unlocked or not, and if it's finished or not.
  */
 public class CourseStatusDisplayerTask extends LjAsyncTask<CourseStatusDisplayerTask.Result> {
 
@@ -52,6 +54,14 @@ public class CourseStatusDisplayerTask extends LjAsyncTask<CourseStatusDisplayer
         this.callAtEnd = callAtEnd;
     }
 
+    /**
+     * @return {@link TaskPriority#USER_VISIBLE}, the status is shown in a visible row.
+     */
+    @Override
+    protected int getPriority() {
+        return TaskPriority.USER_VISIBLE;
+    }
+
     /**
      * Performs the status query in the background.
      * @param objects First must be the status icon {@link ImageView}. Second must be an {@link AppCompatActivity}.
@@ -67,12 +77,11 @@ public class CourseStatusDisplayerTask extends LjAsyncTask<CourseStatusDisplayer
         if(objects.length > 2) { //may not be included
             autoOpenView = (View)objects[2];
         }
-        CourseStatus queriedStatus = LearnJavaDatabase.getInstance(activity)
-                .getCourseDao().queryCourseStatus(course.getId());
-        if(queriedStatus == null)  { //database is validated on start, this should not happen
+        StatusStore.getInstance().ensureLoaded(activity);
+        @com.gaspar.learnjava.curriculum.Status int status = StatusStore.getInstance().getCourseStatus(course.getId());
+        if(status == com.gaspar.learnjava.curriculum.Status.NOT_QUERIED)  { //database is validated on start, this should not happen
             throw new RuntimeException("Database error!");
         }
-        @com.gaspar.learnjava.curriculum.Status int status = queriedStatus.getStatus();
         return new Result(activity, imageView, autoOpenView, status);
     }
 
@@ -82,6 +91,32 @@ public class CourseStatusDisplayerTask extends LjAsyncTask<CourseStatusDisplayer
      */
     @Override
     protected void onPostExecute(Result result) {
+        displayStatus(course, result);
+        //run the runnable, if it exists
+        if(callAtEnd != null) callAtEnd.run();
+    }
+
+    /**
+     * Displays an already known status of a course, without querying the database.
+     * @param course The course.
+     * @param status The status of the course.
+     * @param imageView The status icon.
+     * @param activity Activity.
+     * @param autoOpenView The view that is auto opened if needed, can be null.
+     */
+    @UiThread
+    public static void displayStatus(@NonNull Course course, @com.gaspar.learnjava.curriculum.Status int status,
+                                     @NonNull ImageView imageView, @NonNull AppCompatActivity activity, @Nullable View autoOpenView) {
+        displayStatus(course, new Result(activity, imageView, autoOpenView, status));
+    }
+
+    /**
+     * Shows the status of the course on the UI.
+     * @param course The course.
+     * @param result Contains the status and the views.
+     */
+    @UiThread
+    private static void displayStatus(@NonNull Course course, @NonNull Result result) {
         switch (result.status) { //set icon according to queried status
             case com.gaspar.learnjava.curriculum.Status.LOCKED:
                 //in this case locked will always show, even if unfinished
@@ -113,10 +148,6 @@ public class CourseStatusDisplayerTask extends LjAsyncTask<CourseStatusDisplayer
         }
         //add unfinished notification dialog, if needed
         if(!course.isFinished()) addDialogOnClick(result.activity, result.imageView);
-        //save status for later use
-        course.setStatus(result.status);
-        //run the runnable, if it exists
-        if(callAtEnd != null) callAtEnd.run();
     }
 
     /**
@@ -124,7 +155,7 @@ public class CourseStatusDisplayerTask extends LjAsyncTask<CourseStatusDisplayer
      * @param activity Activity.
      * @param imageView The status icon.
      */
-    private void addDialogOnClick(AppCompatActivity activity, View imageView) {
+    private static void addDialogOnClick(AppCompatActivity activity, View imageView) {
         imageView.setOnClickListener(v -> {
             MaterialAlertDialogBuilder builder = new MaterialAlertDialogBuilder(activity, ThemeUtils.getThemedDialogStyle());
             builder.setTitle(R.string.in_development);
@@ -8,22 +8,23 @@ import android.widget.Button;
 import android.widget.ImageView;
 import android.widget.TextView;
 
+import androidx.annotation.NonNull;
 import androidx.annotation.Size;
+import androidx.annotation.UiThread;
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.gaspar.learnjava.LearnJavaActivity;
 import com.gaspar.learnjava.R;
-import com.gaspar.learnjava.curriculum.Chapter;
 import com.gaspar.learnjava.curriculum.Exam;
 import com.gaspar.learnjava.database.ExamStatus;
-import com.gaspar.learnjava.database.LearnJavaDatabase;
+import com.gaspar.learnjava.database.StatusStore;
 import com.gaspar.learnjava.utils.ThemeUtils;
 import com.google.android.material.dialog.MaterialAlertDialogBuilder;
 
 import cn.iwgang.countdownview.CountdownView;
 
 /**
- * Queries the status of an exam from the database then displays it.
+ * Gets the status of an exam from the {@link StatusStore} then displays it.
  */
 public class ExamStatusDisplayerTask extends LjAsyncTask<ExamStatusDisplayerTask.Result> {
 
@@ -40,6 +41,14 @@ public class ExamStatusDisplayerTask extends LjAsyncTask<ExamStatusDisplayerTask
         this.exam = exam;
     }
 
+    /**
+     * @return {@link TaskPriority#USER_VISIBLE}, the status is shown in a visible row.
+     */
+    @Override
+    protected int getPriority() {
+        return TaskPriority.USER_VISIBLE;
+    }
+
     /**
      * Performs the query in the background.
      * @param objects The first one is expected to be a {@link View}m the second should be an {@link AppCompatActivity}.
@@ -49,24 +58,27 @@ public class ExamStatusDisplayerTask extends LjAsyncTask<ExamStatusDisplayerTask
     protected Result doInBackground(@Size(2) Object... objects) {
         View examView = (View)objects[0];
         AppCompatActivity activity = (AppCompatActivity) objects[1];
-
-        while(Chapter.chapterStatusUpdatePending) { //if needed, wait until chapter is updated
-            try {
-                Thread.sleep(5); //busy waiting, but could not come up with anything that is not very complicated
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            }
+        StatusStore.getInstance().ensureLoaded(activity);
+        ExamStatus queriedExamStatus = StatusStore.getInstance().getExamStatus(exam.getId());
+        if(queriedExamStatus == null) { //exam not in database, should not happen, validated on start
+            throw new RuntimeException("Database error!");
         }
-        ExamStatus queriedExamStatus = LearnJavaDatabase.getInstance(activity).
-                getExamDao().queryExamStatus(exam.getId());
+        return createResult(activity, examView, queriedExamStatus);
+    }
+
+    /**
+     * Creates the displayable result from the exam information, by checking the cool down.
+     * @param activity Activity.
+     * @param examView The exam view.
+     * @param queriedExamStatus Object describing the exam.
+     * @return The result.
+     */
+    private static Result createResult(AppCompatActivity activity, View examView, @NonNull ExamStatus queriedExamStatus) {
         //variables needed for result
         @com.gaspar.learnjava.curriculum.Status int status;
         long lastStarted;
         boolean onCoolDown;
         long secondsRemaining; //this is not important if it's not on cool down
-        if(queriedExamStatus == null) { //exam not in database, should not happen, validated on start
-            throw new RuntimeException("Database error!");
-        }
         status = queriedExamStatus.getStatus();
         lastStarted = queriedExamStatus.getLastStarted();
         if(LearnJavaActivity.DEBUG) { //if we are in debug mode just unlock the exam no matter what
@@ -94,6 +106,29 @@ public class ExamStatusDisplayerTask extends LjAsyncTask<ExamStatusDisplayerTask
      */
     @Override
     protected void onPostExecute(Result result) {
+        displayStatus(exam, result);
+    }
+
+    /**
+     * Displays already known information about an exam, without querying the database.
+     * @param exam The exam.
+     * @param examStatus Object describing the exam.
+     * @param examView The exam view.
+     * @param activity Activity.
+     */
+    @UiThread
+    public static void displayStatus(@NonNull Exam exam, @NonNull ExamStatus examStatus,
+                                     @NonNull View examView, @NonNull AppCompatActivity activity) {
+        displayStatus(exam, createResult(activity, examView, examStatus));
+    }
+
+    /**
+     * Shows the status of the exam on the UI.
+     * @param exam The exam.
+     * @param result Contains the status, the cool down information and the views.
+     */
+    @UiThread
+    private static void displayStatus(@NonNull Exam exam, @NonNull Result result) {
         final Button takeExamButton = result.examView.findViewById(R.id.takeExamButton);
         ImageView examStatusIcon = result.examView.findViewById(R.id.examStatusIcon);
         hideExamComponents(result.examView); //in case something was already visible
@@ -135,7 +170,7 @@ public class ExamStatusDisplayerTask extends LjAsyncTask<ExamStatusDisplayerTask
             MaterialAlertDialogBuilder builder = new MaterialAlertDialogBuilder(result.activity, ThemeUtils.getThemedDialogStyle());
             builder.setTitle(R.string.exam);
             builder.setMessage(R.string.confirm_exam_start);
-            builder.setPositiveButton(R.string.yes, (dialog, which) -> Exam.startExamActivity(result, exam));
+            builder.setPositiveButton(R.string.yes, (dialog, which) -> Exam.startExamActivity(result.activity, exam));
             builder.setNegativeButton(R.string.cancel, (dialog, which) -> dialog.dismiss());
             builder.create().show();
         });
@@ -145,7 +180,7 @@ public class ExamStatusDisplayerTask extends LjAsyncTask<ExamStatusDisplayerTask
      * Hides components in an exam view.
      * @param examView Exam view.
      */
-    private void hideExamComponents(View examView) {
+    private static void hideExamComponents(View examView) {
         examView.setOnClickListener(null);
         examView.findViewById(R.id.unlockedLayout).setVisibility(View.GONE);
         examView.findViewById(R.id.countdownLayout).setVisibility(View.GONE);
@@ -159,7 +194,7 @@ public class ExamStatusDisplayerTask extends LjAsyncTask<ExamStatusDisplayerTask
      * @param context Context.
      * @param examViewPart Exam view.
      */
-    private void addShakeOnClick(Context context, View examViewPart) {
+    private static void addShakeOnClick(Context context, View examViewPart) {
         Animation animation = AnimationUtils.loadAnimation(context, R.anim.shake);
         examViewPart.setOnClickListener(v -> examViewPart.startAnimation(animation));
     }
@@ -169,7 +204,7 @@ public class ExamStatusDisplayerTask extends LjAsyncTask<ExamStatusDisplayerTask
      * @param activity Activity of the exam.
      * @param examView Exam view.
      */
-    private void addDialogOnClick(AppCompatActivity activity, View examView) {
+    private static void addDialogOnClick(AppCompatActivity activity, View examView) {
         examView.setOnClickListener(v -> {
             MaterialAlertDialogBuilder builder = new MaterialAlertDialogBuilder(activity, ThemeUtils.getThemedDialogStyle());
             builder.setTitle(R.string.in_development);
@@ -0,0 +1,34 @@
+package com.gaspar.learnjava.asynctask;
+
+import androidx.annotation.IntDef;
+
+/**
+ * Constants for the worker lanes of the {@link LearnJavaExecutor}. Each lane has its own threads, so work in one
+ * lane can not delay the work in the others.
+ */
+@IntDef({ExecutorLane.IO, ExecutorLane.CPU, ExecutorLane.DATABASE_WRITE, ExecutorLane.BLOCKING})
+public @interface ExecutorLane {
+
+    /**
+     * Short database queries and file operations. A small pool, where the tasks are ordered by {@link TaskPriority}.
+     */
+    int IO = 0;
+
+    /**
+     * Computations, such as parsing XML and decoding images. A pool sized to the core count, where the tasks are
+     * ordered by {@link TaskPriority}.
+     */
+    int CPU = 1;
+
+    /**
+     * Ordering sensitive database writes. A single thread, which executes the tasks in the order they were
+     * submitted, the priority is ignored.
+     */
+    int DATABASE_WRITE = 2;
+
+    /**
+     * Work which waits for a long time, such as network and bluetooth exchanges. A thread is started for each task
+     * if needed, so they never wait for each other, and the priority is ignored.
+     */
+    int BLOCKING = 3;
+}
@@ -1,5 +1,6 @@
 package com.gaspar.learnjava.asynctask;
 
+import android.content.Context;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -37,6 +38,22 @@ public class FillChapterActivityTask extends LjAsyncTask<FillChapterActivityTask
         this.receivedChapter = chapter;
     }
 
+    /**
+     * @return {@link ExecutorLane#CPU}, parsing the XML is computation.
+     */
+    @Override
+    protected int getLane() {
+        return ExecutorLane.CPU;
+    }
+
+    /**
+     * @return {@link TaskPriority#USER_VISIBLE}, the user waits for the chapter.
+     */
+    @Override
+    protected int getPriority() {
+        return TaskPriority.USER_VISIBLE;
+    }
+
     /**
      * Loads the chapter components from XML.
      * @param objects Expected to contain only a {@link ChapterActivity} object!
@@ -45,11 +62,14 @@ public class FillChapterActivityTask extends LjAsyncTask<FillChapterActivityTask
     @Override
     protected Result doInBackground(@Size(1) Object... objects) {
         ChapterActivity activity = (ChapterActivity) objects[0];
+        if(isCancelled()) return null; //the activity is gone, skip parsing
         boolean successfulLoad = true;
         Chapter parsedChapter = null;
         try {
-            parsedChapter = CourseParser.getInstance().parseChapter(receivedChapter.getId(),
-                    true, activity); //this will have components
+            //opening the same chapter again quickly shares the parsing which is still in flight, it only uses the assets
+            final Context appContext = activity.getApplicationContext();
+            parsedChapter = LearnJavaExecutor.getInstance().runSingleFlight("chapter_components_" + receivedChapter.getId(),
+                    () -> CourseParser.getInstance().parseChapter(receivedChapter.getId(), true, appContext)); //this will have components
         } catch (Exception e) {
             LogUtils.logError("Exception when parsing chapter!", e);
             successfulLoad = false;
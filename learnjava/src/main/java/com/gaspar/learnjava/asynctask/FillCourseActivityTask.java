@@ -1,5 +1,6 @@
 package com.gaspar.learnjava.asynctask;
 
+import android.util.SparseArray;
 import android.view.View;
 import android.widget.ListView;
 
@@ -8,6 +9,9 @@ import androidx.annotation.Size;
 import com.gaspar.learnjava.CoursesActivity;
 import com.gaspar.learnjava.R;
 import com.gaspar.learnjava.adapters.CourseAdapter;
+import com.gaspar.learnjava.database.CourseProgress;
+import com.gaspar.learnjava.database.LearnJavaDatabase;
+import com.gaspar.learnjava.database.StatusStore;
 import com.gaspar.learnjava.parsers.CourseParser;
 import com.gaspar.learnjava.utils.LogUtils;
 
@@ -22,6 +26,14 @@ public class FillCourseActivityTask extends LjAsyncTask<CoursesActivity> {
      */
     private CourseAdapter adapter;
 
+    /**
+     * @return {@link TaskPriority#USER_VISIBLE}, the user waits for the courses.
+     */
+    @Override
+    protected int getPriority() {
+        return TaskPriority.USER_VISIBLE;
+    }
+
     /**
      * Gets the courses from XML, if they are not parsed. If already parsed, then just simply
      * reads them from a list.
@@ -37,7 +49,14 @@ public class FillCourseActivityTask extends LjAsyncTask<CoursesActivity> {
                 CoursesActivity.getParsedCourses().addAll(CourseParser.getInstance()
                         .parseCourses(activity)); //parse and save courses
             }
-            adapter = new CourseAdapter(activity, CoursesActivity.getParsedCourses());
+            //make sure every status is in memory, so the adapter does not have to query them one by one
+            StatusStore.getInstance().ensureLoaded(activity);
+            //the progress of every course is aggregated by the database, in one query
+            final SparseArray<CourseProgress> courseProgresses = new SparseArray<>();
+            for(CourseProgress progress: LearnJavaDatabase.getInstance(activity).getCourseProgressDao().queryAllCourseProgress()) {
+                courseProgresses.put(progress.getCourseId(), progress);
+            }
+            adapter = new CourseAdapter(activity, CoursesActivity.getParsedCourses(), courseProgresses);
         } catch (Exception e) {
             LogUtils.logError("Exception while loading course", e);
             activity.successfulLoad = false; //save that load failed.
@@ -54,6 +73,7 @@ public class FillCourseActivityTask extends LjAsyncTask<CoursesActivity> {
         if(activity.successfulLoad) {
             ListView courseSelectors =  activity.findViewById(R.id.courseSelectors);
             courseSelectors.setAdapter(adapter); //add the created adapter to list view
+            StatusStore.getInstance().addObserver(adapter); //update the views when a status changes
             activity.findViewById(R.id.loadingIndicator).setVisibility(View.GONE); //hide loading indicator
             activity.findViewById(R.id.coursesLayout).setVisibility(View.VISIBLE); //show loaded courses
         } else { //failed to load.
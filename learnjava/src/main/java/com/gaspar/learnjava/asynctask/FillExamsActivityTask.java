@@ -9,6 +9,7 @@ import com.gaspar.learnjava.CoursesActivity;
 import com.gaspar.learnjava.ExamsActivity;
 import com.gaspar.learnjava.R;
 import com.gaspar.learnjava.adapters.ExamAdapter;
+import com.gaspar.learnjava.database.StatusStore;
 import com.gaspar.learnjava.parsers.CourseParser;
 import com.gaspar.learnjava.utils.LogUtils;
 
@@ -22,6 +23,14 @@ public class FillExamsActivityTask extends LjAsyncTask<ExamsActivity> {
      */
     private ExamAdapter adapter;
 
+    /**
+     * @return {@link TaskPriority#USER_VISIBLE}, the user waits for the exams.
+     */
+    @Override
+    protected int getPriority() {
+        return TaskPriority.USER_VISIBLE;
+    }
+
     /**
      * Gets the courses from XML, if they are not parsed. If already parsed, then just simply
      * reads them from a list. Courses contain some exam information, which is enough here.
@@ -37,6 +46,8 @@ public class FillExamsActivityTask extends LjAsyncTask<ExamsActivity> {
                 CoursesActivity.getParsedCourses().addAll(CourseParser
                         .getInstance().parseCourses(activity));
             }
+            //make sure every status is in memory, so the adapter does not have to query them one by one
+            StatusStore.getInstance().ensureLoaded(activity);
             adapter = new ExamAdapter(activity, CoursesActivity.getParsedCourses());
         } catch (Exception e) {
             LogUtils.logError( "Exception while loading exam!", e);
@@ -54,6 +65,7 @@ public class FillExamsActivityTask extends LjAsyncTask<ExamsActivity> {
         if(activity.successfulLoad) {
             ListView examSelectors = activity.findViewById(R.id.examSelectors);
             examSelectors.setAdapter(adapter); //add the created adapter to list view
+            StatusStore.getInstance().addObserver(adapter); //update the views when a status changes
             activity.findViewById(R.id.loadingIndicator).setVisibility(View.GONE); //hide loading indicator
             activity.findViewById(R.id.examsActivityLayout).setVisibility(View.VISIBLE); //show loaded courses
         } else { //failed to load.
@@ -27,6 +27,22 @@ import java.util.function.Function;
  */
 public class FillGuideActivityTask extends LjAsyncTask<FillGuideActivityTask.Result> {
 
+    /**
+     * @return {@link ExecutorLane#CPU}, parsing the XML is computation.
+     */
+    @Override
+    protected int getLane() {
+        return ExecutorLane.CPU;
+    }
+
+    /**
+     * @return {@link TaskPriority#USER_VISIBLE}, the user waits for the guide.
+     */
+    @Override
+    protected int getPriority() {
+        return TaskPriority.USER_VISIBLE;
+    }
+
     /**
      * Loads the contents of the guide from XML.
      * @param objects Expected to be {@link GuideActivity}.
@@ -35,6 +51,7 @@ public class FillGuideActivityTask extends LjAsyncTask<FillGuideActivityTask.Res
     @Override
     protected Result doInBackground(@Size(1) Object... objects) {
         GuideActivity activity = (GuideActivity) objects[0];
+        if(isCancelled()) return null; //the activity is gone, skip parsing
         List<Component> components = null;
         activity.successfulLoad = true;
         try {
@@ -10,8 +10,7 @@ import com.gaspar.learnjava.R;
 import com.gaspar.learnjava.TaskActivity;
 import com.gaspar.learnjava.adapters.ComponentAdapter;
 import com.gaspar.learnjava.curriculum.Task;
-import com.gaspar.learnjava.database.LearnJavaDatabase;
-import com.gaspar.learnjava.database.TaskStatus;
+import com.gaspar.learnjava.database.StatusStore;
 import com.gaspar.learnjava.parsers.TaskParser;
 import com.gaspar.learnjava.utils.LogUtils;
 import com.gaspar.learnjava.utils.ThemeUtils;
@@ -35,6 +34,22 @@ public class FillTaskActivityTask extends LjAsyncTask<TaskActivity> {
         this.passedTask = passedTask;
     }
 
+    /**
+     * @return {@link ExecutorLane#CPU}, parsing the XML is computation.
+     */
+    @Override
+    protected int getLane() {
+        return ExecutorLane.CPU;
+    }
+
+    /**
+     * @return {@link TaskPriority#USER_VISIBLE}, the user waits for the task.
+     */
+    @Override
+    protected int getPriority() {
+        return TaskPriority.USER_VISIBLE;
+    }
+
     /**
      * Parses components from XML in the background.
      * @param objects Expected to be a {@link TaskActivity}.
@@ -43,24 +58,25 @@ public class FillTaskActivityTask extends LjAsyncTask<TaskActivity> {
     @Override
     protected TaskActivity doInBackground(@Size(1) Object... objects) {
         TaskActivity activity = (TaskActivity) objects[0];
+        if(isCancelled()) return null; //the activity is gone, skip parsing
         activity.successfulLoad = true;
         try {
             Task parsedTask = TaskParser.getInstance().parseTask(passedTask.getId(),
                     true, activity);
-            TaskStatus taskStatus = LearnJavaDatabase.getInstance(activity).getTaskDao()
-                    .queryTaskStatus(parsedTask.getId()); //get status from DB
-            if(taskStatus == null) {
+            if(isCancelled()) return null;
+            StatusStore statusStore = StatusStore.getInstance();
+            statusStore.ensureLoaded(activity);
+            int taskStatus = statusStore.getTaskStatus(parsedTask.getId()); //get status from memory
+            if(taskStatus == com.gaspar.learnjava.curriculum.Status.NOT_QUERIED) {
                 /*
                 This should not happen in the app, however, it
                 does happen when running TaskActivityTest UI tests. So for that case,
                 we will use a "not completed" status.
                  */
                 LogUtils.logError("Task was not found in the database! This is a problem if NOT testing!");
-                taskStatus = new TaskStatus();
-                taskStatus.setStatus(com.gaspar.learnjava.curriculum.Status.UNLOCKED);
-                taskStatus.setTaskId(passedTask.getId());
+                taskStatus = com.gaspar.learnjava.curriculum.Status.UNLOCKED;
             }
-            parsedTask.setTaskStatus(taskStatus.getStatus()); //save task status
+            parsedTask.setTaskStatus(taskStatus); //save task status
             activity.setDisplayedTask(parsedTask); //parse and save task, now with components and status
         } catch (Exception e) {
             LogUtils.logError("Exception while loading task!", e);
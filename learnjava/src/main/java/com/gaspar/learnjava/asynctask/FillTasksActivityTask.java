@@ -9,6 +9,7 @@ import com.gaspar.learnjava.CoursesActivity;
 import com.gaspar.learnjava.R;
 import com.gaspar.learnjava.TasksActivity;
 import com.gaspar.learnjava.adapters.TaskAdapter;
+import com.gaspar.learnjava.database.StatusStore;
 import com.gaspar.learnjava.parsers.CourseParser;
 import com.gaspar.learnjava.utils.LogUtils;
 
@@ -23,6 +24,14 @@ public class FillTasksActivityTask extends LjAsyncTask<TasksActivity> {
      */
     private TaskAdapter taskAdapter;
 
+    /**
+     * @return {@link TaskPriority#USER_VISIBLE}, the user waits for the tasks.
+     */
+    @Override
+    protected int getPriority() {
+        return TaskPriority.USER_VISIBLE;
+    }
+
     /**
      * Gets the courses from XML, if they are not parsed. If already parsed, then just simply
      * reads them from a list. Courses contain some task information, which is enough here.
@@ -38,6 +47,8 @@ public class FillTasksActivityTask extends LjAsyncTask<TasksActivity> {
                 CoursesActivity.getParsedCourses().addAll(CourseParser.getInstance()
                         .parseCourses(activity)); //parse courses
             }
+            //make sure every status is in memory, so the adapter does not have to query them one by one
+            StatusStore.getInstance().ensureLoaded(activity);
             taskAdapter = new TaskAdapter(activity, CoursesActivity.getParsedCourses()); //create adapter
         } catch (Exception e) {
             LogUtils.logError("Exception while loading tasks!", e);
@@ -55,6 +66,7 @@ public class FillTasksActivityTask extends LjAsyncTask<TasksActivity> {
         if(activity.successfulLoad) {
             ListView taskSelectors = activity.findViewById(R.id.taskSelectors);
             taskSelectors.setAdapter(taskAdapter); //add the created adapter to list view
+            StatusStore.getInstance().addObserver(taskAdapter); //update the views when a status changes
             activity.findViewById(R.id.loadingIndicator).setVisibility(View.GONE); //hide loading indicator
             activity.findViewById(R.id.tasksActivityLayout).setVisibility(View.VISIBLE); //show loaded tasks
         } else { //failed to load.
@@ -13,9 +13,7 @@ import com.gaspar.learnjava.LearnJavaActivity;
 import com.gaspar.learnjava.R;
 import com.gaspar.learnjava.curriculum.Chapter;
 import com.gaspar.learnjava.curriculum.Course;
-import com.gaspar.learnjava.database.ChapterStatus;
-import com.gaspar.learnjava.database.CourseStatus;
-import com.gaspar.learnjava.database.LearnJavaDatabase;
+import com.gaspar.learnjava.database.StatusStore;
 import com.gaspar.learnjava.parsers.CourseParser;
 import com.gaspar.learnjava.utils.AnimationUtils;
 import com.gaspar.learnjava.utils.LogUtils;
@@ -64,6 +62,14 @@ public class InitStarterViewTask extends LjAsyncTask<LearnJavaActivity> {
         }
     }
 
+    /**
+     * @return {@link TaskPriority#USER_VISIBLE}, the user waits for the starter view.
+     */
+    @Override
+    protected int getPriority() {
+        return TaskPriority.USER_VISIBLE;
+    }
+
     /**
      * Queries the status of the last started chapter to determine if it was completed or not. If yes,
      * finds the next chapter in the curriculum.
@@ -76,9 +82,9 @@ public class InitStarterViewTask extends LjAsyncTask<LearnJavaActivity> {
         try {
             activity.successfulLoad = true;
             if(started) { //parse started chapter from xml
-                ChapterStatus status = LearnJavaDatabase.getInstance(activity)
-                        .getChapterDao().queryChapterStatus(chapterId);
-                if(status == null || status.getStatus() != com.gaspar.learnjava.curriculum.Status.COMPLETED) {
+                StatusStore.getInstance().ensureLoaded(activity);
+                int status = StatusStore.getInstance().getChapterStatus(chapterId);
+                if(status != com.gaspar.learnjava.curriculum.Status.COMPLETED) {
                     //do not move to next chapter in this case
                     activity.setStartedChapter(CourseParser.getInstance().parseChapter(chapterId,
                             false, activity));
@@ -152,10 +158,9 @@ public class InitStarterViewTask extends LjAsyncTask<LearnJavaActivity> {
                             return course.getChapters().get(j+1).getId();
                         } else { //move on the the next course
                             int nextCourseId = CoursesActivity.getParsedCourses().get(i+1).getId(); //can throw exception, but it's handled
-                            CourseStatus cStatus = LearnJavaDatabase.getInstance(context)
-                                    .getCourseDao().queryCourseStatus(nextCourseId);
-                            if(cStatus == null) throw new RuntimeException("Database error!");
-                            if(cStatus.getStatus() == com.gaspar.learnjava.curriculum.Status.LOCKED) {
+                            int cStatus = StatusStore.getInstance().getCourseStatus(nextCourseId);
+                            if(cStatus == com.gaspar.learnjava.curriculum.Status.NOT_QUERIED) throw new RuntimeException("Database error!");
+                            if(cStatus == com.gaspar.learnjava.curriculum.Status.LOCKED) {
                                 //next course is not yet unlocked
                                 showOpenDrawerForExamPrompt = true; //show the user a prompt where he can progress
                                 return currentChapterId;
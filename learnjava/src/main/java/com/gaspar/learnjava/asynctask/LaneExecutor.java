@@ -0,0 +1,168 @@
+package com.gaspar.learnjava.asynctask;
+
+import androidx.annotation.AnyThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The threads of one {@link ExecutorLane} of the {@link LearnJavaExecutor}. Idle threads are stopped after a while,
+ * and started again when there is work.
+ */
+class LaneExecutor {
+
+    /**
+     * Idle threads are stopped after this many seconds.
+     */
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    /**
+     * The lane of the current thread, or null if the thread does not belong to a lane.
+     */
+    private static final ThreadLocal<LaneExecutor> CURRENT_LANE = new ThreadLocal<>();
+
+    /**
+     * Creates a pool, where the waiting tasks are ordered by {@link TaskPriority}, then by submission order.
+     * @param name Name of the lane, used in the thread names.
+     * @param threads Amount of threads.
+     * @return The lane.
+     */
+    @NonNull
+    static LaneExecutor prioritized(@NonNull String name, int threads) {
+        return new LaneExecutor(threads, threads, new PriorityBlockingQueue<>(), name);
+    }
+
+    /**
+     * Creates a single thread, which executes the tasks in submission order.
+     * @param name Name of the lane, used in the thread names.
+     * @return The lane.
+     */
+    @NonNull
+    static LaneExecutor serial(@NonNull String name) {
+        return new LaneExecutor(1, 1, new LinkedBlockingQueue<>(), name);
+    }
+
+    /**
+     * Creates a pool which starts a new thread when all threads are busy, so tasks never wait.
+     * @param name Name of the lane, used in the thread names.
+     * @return The lane.
+     */
+    @NonNull
+    static LaneExecutor elastic(@NonNull String name) {
+        return new LaneExecutor(0, Integer.MAX_VALUE, new SynchronousQueue<>(), name);
+    }
+
+    /**
+     * The pool.
+     */
+    private final ThreadPoolExecutor pool;
+
+    /**
+     * Counts the submitted tasks, so tasks with the same priority keep their order.
+     */
+    private final AtomicLong sequence;
+
+    private LaneExecutor(int coreThreads, int maxThreads, @NonNull BlockingQueue<Runnable> queue, @NonNull String name) {
+        final AtomicInteger threadCount = new AtomicInteger();
+        final ThreadFactory threadFactory = runnable -> new Thread(() -> {
+            CURRENT_LANE.set(this);
+            runnable.run();
+        }, "lj-" + name + "-" + threadCount.incrementAndGet());
+        pool = new ThreadPoolExecutor(coreThreads, maxThreads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, queue, threadFactory);
+        if(coreThreads > 0) pool.allowCoreThreadTimeOut(true);
+        sequence = new AtomicLong();
+    }
+
+    /**
+     * Submits a task.
+     * @param priority The priority, ignored in lanes which are not prioritized.
+     * @param task The task.
+     * @param <T> The result type of the task.
+     * @return The future of the result.
+     */
+    @NonNull
+    @AnyThread
+    <T> Future<T> submit(@TaskPriority int priority, @NonNull Callable<T> task) {
+        final PrioritizedTask<T> prioritizedTask = new PrioritizedTask<>(task, priority, sequence.getAndIncrement(), false);
+        pool.execute(prioritizedTask);
+        return prioritizedTask;
+    }
+
+    /**
+     * Submits a task, which nobody waits for. If it throws an exception, that is not kept in a future, but thrown
+     * on the worker thread, like with a plain thread pool.
+     * @param priority The priority, ignored in lanes which are not prioritized.
+     * @param task The task.
+     */
+    @AnyThread
+    void execute(@TaskPriority int priority, @NonNull Runnable task) {
+        pool.execute(new PrioritizedTask<>(Executors.callable(task), priority, sequence.getAndIncrement(), true));
+    }
+
+    /**
+     * @return True if the calling thread is one of the threads of this lane.
+     */
+    @AnyThread
+    boolean isCurrentThreadInLane() {
+        return CURRENT_LANE.get() == this;
+    }
+
+    /**
+     * Stops the threads after the submitted tasks are done.
+     */
+    @VisibleForTesting
+    void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * A task in the queue of a lane, ordered by priority then by submission order.
+     */
+    private static class PrioritizedTask<T> extends FutureTask<T> implements Comparable<PrioritizedTask<?>> {
+
+        @TaskPriority
+        private final int priority;
+
+        private final long sequence;
+
+        /**
+         * If true, an exception of the task is thrown on the worker thread, because nobody waits for the result.
+         */
+        private final boolean rethrow;
+
+        PrioritizedTask(@NonNull Callable<T> callable, @TaskPriority int priority, long sequence, boolean rethrow) {
+            super(callable);
+            this.priority = priority;
+            this.sequence = sequence;
+            this.rethrow = rethrow;
+        }
+
+        @Override
+        public int compareTo(@NonNull PrioritizedTask<?> other) {
+            if(priority != other.priority) return Integer.compare(other.priority, priority); //higher first
+            return Long.compare(sequence, other.sequence);
+        }
+
+        @Override
+        protected void setException(Throwable throwable) {
+            super.setException(throwable);
+            if(!rethrow) return;
+            if(throwable instanceof RuntimeException) throw (RuntimeException) throwable;
+            if(throwable instanceof Error) throw (Error) throwable;
+            throw new RuntimeException(throwable);
+        }
+    }
+}
@@ -2,18 +2,34 @@ package com.gaspar.learnjava.asynctask;
 
 import androidx.annotation.AnyThread;
 import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
 
-import com.techyourchance.threadposter.BackgroundThreadPoster;
 import com.techyourchance.threadposter.UiThreadPoster;
 
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+
 /**
  * A singleton class that can execute tasks on the UI thread, and on background threads as well,
- * from a managed thread pool. Use {@link #getInstance()} to access the singleton.
+ * from managed thread pools. Use {@link #getInstance()} to access the singleton.
+ * <p>
+ * The background work is split into {@link ExecutorLane}s: a small pool for I/O, a pool sized to the core count for
+ * computations, a single thread for ordering sensitive database writes, and an elastic pool for long, blocking work.
+ * In the pools, the waiting tasks are ordered by {@link TaskPriority}, so the work which the user waits for can jump
+ * ahead of prefetching and housekeeping. Identical computations which are requested at the same time can be
+ * coalesced with {@link #runSingleFlight(String, Callable)}.
  * <p>
- * Uses a simple third party, <a href="https://github.com/techyourchance/thread-poster">ThreadPoster</a>.
+ * Uses a simple third party, <a href="https://github.com/techyourchance/thread-poster">ThreadPoster</a>, for the UI thread.
  */
 public class LearnJavaExecutor {
 
+    /**
+     * Amount of threads in the {@link ExecutorLane#IO} lane.
+     */
+    private static final int IO_THREADS = 4;
+
     /**
      * The instance.
      */
@@ -24,27 +40,52 @@ public class LearnJavaExecutor {
      */
     public static synchronized LearnJavaExecutor getInstance() {
         if(instance == null) {
-            instance = new LearnJavaExecutor();
+            instance = new LearnJavaExecutor(new UiThreadPoster()::post, IO_THREADS,
+                    Math.max(2, Runtime.getRuntime().availableProcessors()));
         }
         return instance;
     }
 
     /**
-     * An object that can execute {@link Runnable}s on the UI thread.
+     * Replaces the instance. JVM tests have no UI thread, so they use an instance which executes the UI thread
+     * work on a thread of their own.
+     * @param executor The new instance.
+     */
+    @VisibleForTesting
+    static synchronized void setInstance(@NonNull LearnJavaExecutor executor) {
+        instance = executor;
+    }
+
+    /**
+     * Executes {@link Runnable}s on the UI thread.
+     */
+    private final Executor uiExecutor;
+
+    /**
+     * The lanes, indexed by {@link ExecutorLane}.
      */
-    private final UiThreadPoster uiThreadPoster;
+    private final LaneExecutor[] lanes;
 
     /**
-     * An object that can execute {@link Runnable}s on a managed pool of background threads.
+     * Coalesces the identical computations.
      */
-    private final BackgroundThreadPoster backgroundThreadPoster;
+    private final SingleFlight singleFlight;
 
     /**
-     * Private constructor.
+     * Creates the executor.
+     * @param uiExecutor Executes {@link Runnable}s on the UI thread.
+     * @param ioThreads Amount of threads in the {@link ExecutorLane#IO} lane.
+     * @param cpuThreads Amount of threads in the {@link ExecutorLane#CPU} lane.
      */
-    private LearnJavaExecutor() {
-        uiThreadPoster = new UiThreadPoster();
-        backgroundThreadPoster = new BackgroundThreadPoster();
+    @VisibleForTesting
+    LearnJavaExecutor(@NonNull Executor uiExecutor, int ioThreads, int cpuThreads) {
+        this.uiExecutor = uiExecutor;
+        lanes = new LaneExecutor[4];
+        lanes[ExecutorLane.IO] = LaneExecutor.prioritized("io", ioThreads);
+        lanes[ExecutorLane.CPU] = LaneExecutor.prioritized("cpu", cpuThreads);
+        lanes[ExecutorLane.DATABASE_WRITE] = LaneExecutor.serial("db-write");
+        lanes[ExecutorLane.BLOCKING] = LaneExecutor.elastic("blocking");
+        singleFlight = new SingleFlight();
     }
 
     /**
@@ -53,16 +94,79 @@ public class LearnJavaExecutor {
      */
     @AnyThread
     public void executeOnUiThread(@NonNull final Runnable runnable) {
-        uiThreadPoster.post(runnable);
+        uiExecutor.execute(runnable);
     }
 
     /**
-     * Executes the {@link Runnable} on a background thread.
+     * Executes the {@link Runnable} on a background thread, in the {@link ExecutorLane#IO} lane with normal priority.
+     * That lane has only a few threads, so this is only for short work. Work which waits for a long time, or waits
+     * for another lane, such as the status queries of the {@link com.gaspar.learnjava.database.StatusStore}, must
+     * select the {@link ExecutorLane#BLOCKING} lane.
      * @param runnable The runnable.
      */
     @AnyThread
     public void executeOnBackgroundThread(@NonNull final Runnable runnable) {
-        backgroundThreadPoster.post(runnable);
+        executeOnBackgroundThread(ExecutorLane.IO, TaskPriority.NORMAL, runnable);
+    }
+
+    /**
+     * Executes the {@link Runnable} on a background thread, with normal priority.
+     * @param lane The lane of the work.
+     * @param runnable The runnable.
+     */
+    @AnyThread
+    public void executeOnBackgroundThread(@ExecutorLane int lane, @NonNull final Runnable runnable) {
+        executeOnBackgroundThread(lane, TaskPriority.NORMAL, runnable);
+    }
+
+    /**
+     * Executes the {@link Runnable} on a background thread.
+     * @param lane The lane of the work.
+     * @param priority The priority of the work.
+     * @param runnable The runnable.
+     */
+    @AnyThread
+    public void executeOnBackgroundThread(@ExecutorLane int lane, @TaskPriority int priority, @NonNull final Runnable runnable) {
+        lanes[lane].execute(priority, runnable);
+    }
+
+    /**
+     * Submits a {@link Callable} to a background thread, with normal priority. Use this if the caller must wait for
+     * the result, for example to see the effect of the earlier writes in the {@link ExecutorLane#DATABASE_WRITE} lane.
+     * Never wait for a task of the lane that the caller is running in.
+     * @param lane The lane of the work.
+     * @param callable The callable.
+     * @param <T> The result type.
+     * @return The future of the result.
+     */
+    @NonNull
+    @AnyThread
+    public <T> Future<T> submitToBackgroundThread(@ExecutorLane int lane, @NonNull final Callable<T> callable) {
+        return lanes[lane].submit(TaskPriority.NORMAL, callable);
+    }
+
+    /**
+     * @param lane The lane.
+     * @return True if the calling thread is one of the threads of the lane. Code which waits for a lane can use this
+     * to make sure it does not wait for itself.
+     */
+    @AnyThread
+    public boolean isOnLane(@ExecutorLane int lane) {
+        return lanes[lane].isCurrentThreadInLane();
+    }
+
+    /**
+     * Performs a computation on the calling background thread, unless an identical one is in flight, in which case
+     * its result is awaited and shared. Use this for work which is often requested several times at once, such as
+     * status queries of list rows and parsing, see {@link SingleFlight}.
+     * @param key Identifies the computation and its result type.
+     * @param computation The computation.
+     * @param <T> The result type.
+     * @return The result.
+     */
+    @WorkerThread
+    public <T> T runSingleFlight(@NonNull String key, @NonNull final Callable<T> computation) {
+        return singleFlight.run(key, computation);
     }
 
 }
@@ -1,16 +1,23 @@
 package com.gaspar.learnjava.asynctask;
 
 import androidx.annotation.AnyThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.annotation.UiThread;
 import androidx.annotation.WorkerThread;
-
-import com.gaspar.learnjava.utils.LogUtils;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleEventObserver;
+import androidx.lifecycle.LifecycleOwner;
 
 /**
  * This class is a replacement for the standard {@link android.os.AsyncTask}, since that one is deprecated.
  * It is designed to be work in the same way, so existing code that used {@link android.os.AsyncTask} could
  * be easily updated to this class, no big refactoring and new multithreading framework needed.
  * <p>
+ * A task can be cancelled with {@link #cancel()}, or automatically when its activity is destroyed, see
+ * {@link #bindToLifecycle(LifecycleOwner)}. A cancelled task does not start its background work, and its
+ * {@link #onPostExecute(Object)} is skipped. Long background work should check {@link #isCancelled()}.
+ * <p>
  * Some functions of {@link android.os.AsyncTask} are not supported, such as the progress update.
  * {@link Object} is used as parameter type, instead of generic type to avoid unsafe vararg situations.
  * @param <Result> The result of the background work.
@@ -18,67 +25,122 @@ import com.gaspar.learnjava.utils.LogUtils;
 public abstract class LjAsyncTask<Result> {
 
     /**
-     * For synchronization, and thread interactions.
+     * Stores if this task is currently running or not.
      */
-    private final Object monitor;
+    private volatile boolean running;
 
     /**
-     * Stores if this task is currently running or not.
+     * Stores if this task was cancelled.
      */
-    private volatile boolean running;
+    private volatile boolean cancelled;
+
+    /**
+     * The lifecycle which cancels this task when destroyed, or null if the task is not bound. Only accessed on
+     * the UI thread.
+     */
+    @Nullable
+    private Lifecycle lifecycle;
+
+    /**
+     * Cancels the task when the {@link #lifecycle} is destroyed. Only accessed on the UI thread.
+     */
+    @Nullable
+    private LifecycleEventObserver lifecycleObserver;
 
     /**
      * Creates a task.
      */
     protected LjAsyncTask() {
-        monitor = new Object();
         running = false;
+        cancelled = false;
     }
 
     /**
-     * Begins the execution of this task. At first, {@link #doInBackground(Object[])} will be called on
-     * a worker thread, then its result is passed to {@link #onPostExecute(Object)}, which is run on the
-     * UI thread.
+     * Begins the execution of this task. At first, {@link #onPreExecute()} is called on the UI thread, which
+     * then schedules {@link #doInBackground(Object[])} on a worker thread, and its result is passed to
+     * {@link #onPostExecute(Object)}, which is run on the UI thread.
+     * <p>
+     * Each step schedules the next one when it is done, so no thread waits for another: the worker threads
+     * are not blocked while the UI thread is busy. The background work runs in the lane of {@link #getLane()},
+     * with the priority of {@link #getPriority()}.
      * @param objects Any number of parameters, of any type.
      */
     @AnyThread
     public final void execute(final Object... objects) {
         setRunning(true);
-        LearnJavaExecutor.getInstance().executeOnBackgroundThread(() -> {
-            //first run onPreExecute and wait for it to complete
-            synchronized (monitor) {
-                LearnJavaExecutor.getInstance().executeOnUiThread(() -> {
-                    onPreExecute();
-                    synchronized (monitor) {
-                        monitor.notify();
-                    }
-                });
-                try {
-                    monitor.wait();
-                } catch (InterruptedException e) {
-                    LogUtils.logError("Failed to wait for onPreExecute!", e);
-                }
+        LearnJavaExecutor.getInstance().executeOnUiThread(() -> {
+            if(isCancelled()) {
+                finish();
+                return;
             }
+            onPreExecute();
             //on pre execute completed on the UI thread, start the background work
-            Result result = doInBackground(objects);
-            //run on post execute on the UI thread and wait for it to complete
-            synchronized (monitor) {
+            LearnJavaExecutor.getInstance().executeOnBackgroundThread(getLane(), getPriority(), () -> {
+                final Result result = isCancelled() ? null : doInBackground(objects);
+                //pass the result to the UI thread, unless the task was cancelled in the meantime
                 LearnJavaExecutor.getInstance().executeOnUiThread(() -> {
-                    onPostExecute(result);
-                    synchronized (monitor) {
-                        monitor.notify();
-                    }
+                    if(!isCancelled()) onPostExecute(result);
+                    finish();
                 });
-                try {
-                    monitor.wait();
-                } catch (InterruptedException e) {
-                    LogUtils.logError("Failed to wait for onPostExecute!", e);
-                }
-            }
-            setRunning(false);
+            });
         });
     }
 
+    /**
+     * Cancels the task when the lifecycle is destroyed, so it does not use a destroyed activity. Must be called
+     * before {@link #execute(Object...)}, for example: {@code new SomeTask().bindToLifecycle(this).execute(this)}.
+     * @param lifecycleOwner The owner of the lifecycle, usually the activity which is passed to the task.
+     * @return This task.
+     */
+    @NonNull
+    @UiThread
+    public final LjAsyncTask<Result> bindToLifecycle(@NonNull LifecycleOwner lifecycleOwner) {
+        final Lifecycle lifecycle = lifecycleOwner.getLifecycle();
+        if(lifecycle.getCurrentState() == Lifecycle.State.DESTROYED) {
+            cancel();
+            return this;
+        }
+        lifecycleObserver = (source, event) -> {
+            if(event == Lifecycle.Event.ON_DESTROY) cancel();
+        };
+        this.lifecycle = lifecycle;
+        lifecycle.addObserver(lifecycleObserver);
+        return this;
+    }
+
+    /**
+     * Cancels the task. If the background work did not start yet, it is skipped. The background work should check
+     * {@link #isCancelled()} and stop early. {@link #onPostExecute(Object)} is not called after this, but
+     * {@link #onCancelled()} is.
+     */
+    @AnyThread
+    public final void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * @return True if the task was cancelled.
+     */
+    @AnyThread
+    public final boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Called on the UI thread when the task is done. Unbinds it from the lifecycle, and calls {@link #onCancelled()}
+     * if it was cancelled.
+     */
+    @UiThread
+    private void finish() {
+        if(lifecycle != null && lifecycleObserver != null) {
+            lifecycle.removeObserver(lifecycleObserver);
+        }
+        lifecycle = null;
+        lifecycleObserver = null;
+        if(isCancelled()) onCancelled();
+        setRunning(false);
+    }
+
     /**
      * Called on the UI thread to perform some initialization before the background task starts. Does
      * nothing by default.
@@ -103,6 +165,31 @@ public abstract class LjAsyncTask<Result> {
     @UiThread
     protected void onPostExecute(Result result) {}
 
+    /**
+     * Called on the UI thread when a cancelled task is done, instead of {@link #onPostExecute(Object)}. Does
+     * nothing by default.
+     */
+    @UiThread
+    protected void onCancelled() {}
+
+    /**
+     * Selects the threads which perform {@link #doInBackground(Object...)}. Tasks which wait for a long time, or
+     * must be ordered with the database writes, should override this.
+     * @return The lane, {@link ExecutorLane#IO} by default.
+     */
+    @ExecutorLane
+    protected int getLane() {
+        return ExecutorLane.IO;
+    }
+
+    /**
+     * @return The priority of {@link #doInBackground(Object...)} in its lane, {@link TaskPriority#NORMAL} by default.
+     */
+    @TaskPriority
+    protected int getPriority() {
+        return TaskPriority.NORMAL;
+    }
+
     /**
      * @return If the task is running.
      */
@@ -45,6 +45,22 @@ public class LoadExamQuestionsTask extends LjAsyncTask<ExamActivity> {
         this.examId = examId;
     }
 
+    /**
+     * @return {@link ExecutorLane#CPU}, parsing the XML is computation.
+     */
+    @Override
+    protected int getLane() {
+        return ExecutorLane.CPU;
+    }
+
+    /**
+     * @return {@link TaskPriority#USER_VISIBLE}, the user waits for the questions.
+     */
+    @Override
+    protected int getPriority() {
+        return TaskPriority.USER_VISIBLE;
+    }
+
     /**
      * Performs the question parsing in the background.
      * @param objects Expected to be an {@link ExamActivity}.
@@ -53,9 +69,11 @@ public class LoadExamQuestionsTask extends LjAsyncTask<ExamActivity> {
     @Override
     protected ExamActivity doInBackground(@Size(1) Object... objects) {
         ExamActivity activity = (ExamActivity) objects[0];
+        if(isCancelled()) return null; //the activity is gone, skip parsing
         activity.setLoadSuccessful(true);
         try {
             Exam parsedExam = ExamParser.getInstance().parseExam(examId, true, activity);
+            if(isCancelled()) return null;
             Random rand = new Random(); //remove questions so only 'questionAmount' remains
             while(parsedExam.getQuestions().size() > parsedExam.getQuestionAmount()) {
                 int randomIndex = rand.nextInt(parsedExam.getQuestions().size()); //question at this index is removed
@@ -113,6 +113,14 @@ public class NetworkExchangeTask extends LjAsyncTask<BluetoothExchangeTask.Resul
         return InetAddress.getByAddress(quads);
     }
 
+    /**
+     * @return {@link ExecutorLane#BLOCKING}, the exchange waits for the other device.
+     */
+    @Override
+    protected int getLane() {
+        return ExecutorLane.BLOCKING;
+    }
+
     /**
      * Performs the network calls on the background. Waits until response, or timeout.
      * @param objects Expected to be {@link AppCompatActivity}.
@@ -6,6 +6,8 @@ import androidx.annotation.Size;
 
 import com.gaspar.learnjava.database.LearnJavaDatabase;
 import com.gaspar.learnjava.database.PlaygroundFile;
+import com.gaspar.learnjava.database.PlaygroundFileCompression;
+import com.gaspar.learnjava.database.PlaygroundFileSnapshot;
 import com.gaspar.learnjava.playground.CodeFragment;
 
 import java.util.List;
@@ -27,7 +29,13 @@ public class QueryPlaygroundFilesTask extends LjAsyncTask<QueryPlaygroundFilesTa
         CodeFragment codeFragment = (CodeFragment) objects[0];
         final Context context = codeFragment.getContext();
         Objects.requireNonNull(context);
-        List<PlaygroundFile> playgroundFiles = LearnJavaDatabase.getInstance(context).getPlaygroundFileDao().queryPlaygroundFiles();
+        final PlaygroundFileSnapshot snapshot = PlaygroundFileSnapshot.getInstance();
+        List<PlaygroundFile> playgroundFiles;
+        synchronized (snapshot) { //a save may be in progress, the snapshot must match the database
+            playgroundFiles = PlaygroundFileCompression.fromStorage(LearnJavaDatabase.getInstance(context)
+                    .getPlaygroundFileDao().queryPlaygroundFiles()); //decompress large files here, in the background
+            snapshot.record(playgroundFiles); //the next save only writes the changes
+        }
         return new Result(playgroundFiles, codeFragment);
     }
 
@@ -4,39 +4,50 @@ import androidx.annotation.Nullable;
 import androidx.annotation.Size;
 
 import com.gaspar.learnjava.R;
+import com.gaspar.learnjava.playground.ExecutionBackend;
 import com.gaspar.learnjava.playground.PlaygroundActivity;
 import com.gaspar.learnjava.playground.ProgramPayload;
 import com.gaspar.learnjava.playground.ProgramResponse;
 import com.gaspar.learnjava.playground.RunApi;
+import com.gaspar.learnjava.playground.RunQueue;
+import com.gaspar.learnjava.playground.RunResultCache;
 import com.gaspar.learnjava.utils.LogUtils;
 
 import java.net.SocketTimeoutException;
-import java.util.Arrays;
-import java.util.List;
-import java.util.Random;
-
-import retrofit2.Call;
-import retrofit2.Response;
-import retrofit2.Retrofit;
 
 /**
  * A background task that sends code the REST API to get it compiled and run. A dialog is
  * shown in the {@link com.gaspar.learnjava.playground.PlaygroundActivity} while this task is
  * in progress.
+ * <p>
+ * Responses of deterministic programs are cached in the {@link RunResultCache}, and a cached response is
+ * returned without calling the API.
+ * <p>
+ * Runs are submitted to the {@link RunQueue} of the activity. If the run is cancelled, the worker thread is
+ * interrupted, and the result is discarded. The result is also discarded if the program in the editor is no longer
+ * the one that was run.
  */
 public class RunCodeTask extends LjAsyncTask<RunCodeTask.Result> {
 
     /**
-     * The {@link ProgramPayload} that is sent to the API.
+     * The run, with the {@link ProgramPayload} that is sent to the API.
      */
-    private final ProgramPayload programPayload;
+    private final RunQueue.Run run;
 
     /**
      * Creates a code runner task.
-     * @param programPayload The {@link ProgramPayload}.
+     * @param run The run, which was submitted to the {@link RunQueue}.
+     */
+    public RunCodeTask(RunQueue.Run run) {
+        this.run = run;
+    }
+
+    /**
+     * @return {@link ExecutorLane#BLOCKING}, the API call can take a long time.
      */
-    public RunCodeTask(ProgramPayload programPayload) {
-        this.programPayload = programPayload;
+    @Override
+    protected int getLane() {
+        return ExecutorLane.BLOCKING;
     }
 
     /**
@@ -47,55 +58,58 @@ public class RunCodeTask extends LjAsyncTask<RunCodeTask.Result> {
     @Override
     protected Result doInBackground(@Size(1) Object... objects) {
         PlaygroundActivity activity = (PlaygroundActivity) objects[0];
-        Retrofit retrofit = RunApi.getRetrofit();
-        RunApi runApi = retrofit.create(RunApi.class);
-        //select and API key randomly
-        Random random = new Random();
-        List<String> apiKeys = Arrays.asList(
-                activity.getString(R.string.run_api_key_1),
-                activity.getString(R.string.run_api_key_2),
-                activity.getString(R.string.run_api_key_3)
-        );
-        String apiKey = apiKeys.get(random.nextInt(apiKeys.size()));
-        apiKey = "Token " + apiKey;
-        Call<ProgramResponse> programResponseCall = runApi.compileAndRunCode(programPayload, apiKey);
+        if(!run.attachWorker()) {
+            return new Result(activity, null, null); //cancelled before it started
+        }
+        try {
+            return runCode(activity);
+        } finally {
+            run.detachWorker();
+        }
+    }
 
+    /**
+     * Runs the code, can be interrupted if the run is cancelled.
+     */
+    private Result runCode(PlaygroundActivity activity) {
+        final ProgramPayload programPayload = run.programPayload;
+        //check if this program was already run
+        final boolean cacheable = RunResultCache.isCacheable(programPayload);
+        final String cacheKey = run.payloadHash;
+        final RunResultCache cache = RunResultCache.getInstance(activity);
+        if(cacheable) {
+            final ProgramResponse cachedResponse = cache.get(cacheKey);
+            if(cachedResponse != null) {
+                LogUtils.log("Found run result in the cache, not calling the run API.");
+                return new Result(activity, cachedResponse, null);
+            }
+        }
         ProgramResponse programResponse = null;
         String errorMessage = null;
-        if(PlaygroundActivity.mockRunApi || "Token mock_api_key".equals(apiKey)) {
+        if(PlaygroundActivity.mockRunApi || RunApi.MOCK_API_KEY.equals(activity.getString(R.string.run_api_key_1))) {
             //this is a mock api call
             LogUtils.log("Mocking run API...");
             programResponse = RunApi.compileAndRunCodeMock(programPayload);
+            activity.registerCodeRunTime(System.currentTimeMillis());
         } else {
-            //this is a real API call
-            try {
-                Response<ProgramResponse> apiResponse = programResponseCall.execute();
-                if(apiResponse.isSuccessful()) {
-                    programResponse = apiResponse.body();
-                    LogUtils.log("Received successful response from run API.");
-                } else {
-                    LogUtils.logError("HTTP error response from API: " + apiResponse.code());
-                    if(apiResponse.errorBody() != null) {
-                        LogUtils.logError(apiResponse.errorBody().string());
-                    }
-                    //fail HTTP code
-                    if(apiResponse.code() >= 500) {
-                        errorMessage = activity.getString(R.string.playground_500_code);
-                    } else if(apiResponse.code() == 401) {
-                        errorMessage = activity.getString(R.string.playground_401_code);
-                    } else {
-                        errorMessage = activity.getString(R.string.playground_misc_code, String.valueOf(apiResponse.code()));
-                    }
-                }
-            } catch (Throwable throwable) {
-                //some error occurred while handling the network call
-                if(throwable instanceof SocketTimeoutException) {
-                    errorMessage = activity.getString(R.string.playground_timeout);
-                    LogUtils.logError("Timeout while getting response from API!", (SocketTimeoutException) throwable);
-                } else {
-                    errorMessage = activity.getString(R.string.playground_misc_code, throwable.getClass().getSimpleName());
-                    LogUtils.logError("Exception while getting response from API: " + throwable.getClass().getSimpleName());
-                }
+            //this is a real run, usually an API call with retries and hedging
+            final ExecutionBackend.Outcome outcome = ExecutionBackend.getDefault(activity).execute(programPayload);
+            //the calls are charged even if the result is discarded
+            PlaygroundActivity.registerApiCalls(activity, outcome);
+            if(outcome.isSuccessful()) {
+                programResponse = outcome.programResponse;
+                LogUtils.log("Received successful response from run API.");
+                if(cacheable && !programResponse.truncated) cache.put(cacheKey, programResponse);
+            } else if(outcome.budgetExceeded || outcome.throwable instanceof SocketTimeoutException) {
+                errorMessage = activity.getString(R.string.playground_timeout);
+            } else if(outcome.throwable != null) {
+                errorMessage = activity.getString(R.string.playground_misc_code, outcome.throwable.getClass().getSimpleName());
+            } else if(outcome.statusCode >= 500) { //fail HTTP code
+                errorMessage = activity.getString(R.string.playground_500_code);
+            } else if(outcome.statusCode == 401) {
+                errorMessage = activity.getString(R.string.playground_401_code);
+            } else {
+                errorMessage = activity.getString(R.string.playground_misc_code, String.valueOf(outcome.statusCode));
             }
         }
         return new Result(activity, programResponse, errorMessage);
@@ -108,7 +122,13 @@ public class RunCodeTask extends LjAsyncTask<RunCodeTask.Result> {
      */
     @Override
     protected void onPostExecute(Result result) {
+        if(!result.activity.getRunQueue().complete(run)) return; //cancelled, already handled then
         result.activity.findViewById(R.id.playgroundRunButton).setEnabled(true);
+        if(!run.isRunOf(result.activity.getCurrentPayloadHash())) {
+            LogUtils.log("The program was changed while it was running, discarding the result.");
+            result.activity.hideLoadingDialog();
+            return;
+        }
         if(result.errorMessage != null) {
             //there was an error of some kind
             result.activity.setLoadingDialogMessage(result.errorMessage);
@@ -120,8 +140,6 @@ public class RunCodeTask extends LjAsyncTask<RunCodeTask.Result> {
             result.activity.getSupportFragmentManager().executePendingTransactions();
             //set text
             result.activity.sendDataToOutputFragment(result.programResponse);
-            //save current time as code last run time
-            result.activity.registerCodeRunTime(System.currentTimeMillis());
         } else {
             LogUtils.logError("Invalid state after getting response from run API!");
         }
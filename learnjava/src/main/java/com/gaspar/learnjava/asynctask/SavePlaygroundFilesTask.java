@@ -6,27 +6,65 @@ import androidx.annotation.Size;
 
 import com.gaspar.learnjava.database.LearnJavaDatabase;
 import com.gaspar.learnjava.database.PlaygroundFile;
+import com.gaspar.learnjava.database.PlaygroundFileCompression;
 import com.gaspar.learnjava.database.PlaygroundFileDao;
+import com.gaspar.learnjava.database.PlaygroundFileHistory;
+import com.gaspar.learnjava.database.PlaygroundFileSnapshot;
+import com.gaspar.learnjava.utils.LogUtils;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * This background task saves the list of {@link com.gaspar.learnjava.database.PlaygroundFile}s stored in
  * the {@link com.gaspar.learnjava.playground.CodeFragment} to the database.
+ * <p>
+ * The files are compared to the {@link PlaygroundFileSnapshot}, and only the changed files are written, and
+ * only the removed ones are deleted. This happens in one transaction, so a failed save leaves the previous
+ * save intact. A new version of each changed file is added to the {@link PlaygroundFileHistory} in the same
+ * transaction, and the history of the removed files is deleted. Large files are compressed, see {@link PlaygroundFileCompression}. Saves may finish in any order, but a save never overwrites the files of a newer save.
  */
 public class SavePlaygroundFilesTask extends LjAsyncTask<Void> {
 
+    /**
+     * Counts the created save tasks, used to order them.
+     */
+    private static final AtomicLong SAVE_COUNTER = new AtomicLong();
+
+    /**
+     * The sequence number of the newest save that was performed. Guarded by the {@link PlaygroundFileSnapshot}.
+     */
+    private static long lastSavedSequence = -1;
+
     /**
      * List of files to be saved.
      */
     private final List<PlaygroundFile> playgroundFiles;
 
     /**
-     * Creates a playground file save task.
-     * @param playgroundFiles List of files to be saved.
+     * Sequence number of this save.
+     */
+    private final long sequence;
+
+    /**
+     * Creates a playground file save task. Must be called on the thread which modifies the files.
+     * @param playgroundFiles List of files to be saved. The files are copied, they may be modified while saving.
      */
     public SavePlaygroundFilesTask(List<PlaygroundFile> playgroundFiles) {
-        this.playgroundFiles = playgroundFiles;
+        this.playgroundFiles = new ArrayList<>(playgroundFiles.size());
+        for(PlaygroundFile playgroundFile: playgroundFiles) {
+            this.playgroundFiles.add(new PlaygroundFile(playgroundFile.getFileName(), playgroundFile.getContent()));
+        }
+        sequence = SAVE_COUNTER.getAndIncrement();
+    }
+
+    /**
+     * @return {@link ExecutorLane#DATABASE_WRITE}, so the saves happen in order.
+     */
+    @Override
+    protected int getLane() {
+        return ExecutorLane.DATABASE_WRITE;
     }
 
     /**
@@ -37,12 +75,37 @@ public class SavePlaygroundFilesTask extends LjAsyncTask<Void> {
     @Override
     protected Void doInBackground(@Size(1) Object... objects) {
         final Context context = (Context) objects[0];
-        final PlaygroundFileDao playgroundFileDao = LearnJavaDatabase.getInstance(context).getPlaygroundFileDao();
-        //remove previous save
-        playgroundFileDao.deleteRecords();
-        //insert new save
-        for(PlaygroundFile playgroundFile: playgroundFiles) {
-            playgroundFileDao.insertOrUpdatePlaygroundFile(playgroundFile);
+        final LearnJavaDatabase database = LearnJavaDatabase.getInstance(context);
+        final PlaygroundFileDao playgroundFileDao = database.getPlaygroundFileDao();
+        final PlaygroundFileSnapshot snapshot = PlaygroundFileSnapshot.getInstance();
+        synchronized (snapshot) { //one save at a time, so the snapshot matches the database
+            if(sequence < lastSavedSequence) {
+                LogUtils.log("A newer playground save was already performed, skipping.");
+                return null;
+            }
+            lastSavedSequence = sequence;
+            if(!snapshot.isRecorded()) {
+                snapshot.record(PlaygroundFileCompression.fromStorage(playgroundFileDao.queryPlaygroundFiles()));
+            }
+            final PlaygroundFileSnapshot.Diff diff = snapshot.diff(playgroundFiles);
+            if(diff.isEmpty()) {
+                LogUtils.log("Playground files did not change, nothing to save.");
+                return null;
+            }
+            //large files are compressed before the transaction starts
+            final List<PlaygroundFile> storedFiles = PlaygroundFileCompression.toStorage(diff.getChangedFiles());
+            database.runInTransaction(() -> {
+                if(!diff.getRemovedFileNames().isEmpty()) {
+                    playgroundFileDao.deletePlaygroundFiles(diff.getRemovedFileNames());
+                    PlaygroundFileHistory.deleteHistories(context, diff.getRemovedFileNames());
+                }
+                if(!storedFiles.isEmpty()) {
+                    playgroundFileDao.insertOrUpdatePlaygroundFiles(storedFiles);
+                    PlaygroundFileHistory.recordVersions(context, diff.getChangedFiles());
+                }
+            });
+            snapshot.applied(diff); //only after the transaction succeeded
+            LogUtils.log("Saved " + diff.getChangedFiles().size() + " playground files, deleted " + diff.getRemovedFileNames().size() + ".");
         }
         return null;
     }
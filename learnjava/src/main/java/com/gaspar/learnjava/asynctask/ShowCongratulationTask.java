@@ -11,7 +11,7 @@ import androidx.annotation.Size;
 import com.gaspar.learnjava.CoursesActivity;
 import com.gaspar.learnjava.LearnJavaActivity;
 import com.gaspar.learnjava.R;
-import com.gaspar.learnjava.database.LearnJavaDatabase;
+import com.gaspar.learnjava.database.StatusStore;
 import com.gaspar.learnjava.utils.ThemeUtils;
 
 import java.util.List;
@@ -30,7 +30,8 @@ public class ShowCongratulationTask extends LjAsyncTask<ShowCongratulationTask.R
     @Override
     protected Result doInBackground(@Size(1) Object... objects) {
         CoursesActivity activity = (CoursesActivity) objects[0];
-        return new Result(LearnJavaDatabase.getInstance(activity).getExamDao().getAllExamStatus(), activity);
+        StatusStore.getInstance().ensureLoaded(activity);
+        return new Result(StatusStore.getInstance().getAllExamStatus(), activity);
     }
 
     /**
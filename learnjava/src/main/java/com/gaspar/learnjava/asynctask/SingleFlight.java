@@ -0,0 +1,81 @@
+package com.gaspar.learnjava.asynctask;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.WorkerThread;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Coalesces identical background computations. The first caller with a key performs the computation on its own
+ * thread, and the callers who arrive with the same key while it is in flight wait for it, and receive the same
+ * result. After the computation is done, the next caller with the key starts a new one. Use it through
+ * {@link LearnJavaExecutor#runSingleFlight(String, Callable)}.
+ * <p>
+ * The key must identify the computation and its result type, for example "chapter_status_12".
+ */
+class SingleFlight {
+
+    /**
+     * The computations in flight, mapped by key. Guarded by this object.
+     */
+    private final Map<String, FutureTask<?>> inFlight;
+
+    SingleFlight() {
+        inFlight = new HashMap<>();
+    }
+
+    /**
+     * Performs a computation, or waits for the identical one in flight.
+     * @param key The key of the computation.
+     * @param computation The computation, only called if there is no computation in flight with the key.
+     * @param <T> The result type.
+     * @return The result of the computation.
+     * @throws RuntimeException If the computation failed, or the thread was interrupted while waiting.
+     */
+    @WorkerThread
+    <T> T run(@NonNull String key, @NonNull Callable<T> computation) {
+        final FutureTask<T> call;
+        boolean leader = false;
+        synchronized (this) {
+            @SuppressWarnings("unchecked") //the key identifies the result type
+            FutureTask<T> existing = (FutureTask<T>) inFlight.get(key);
+            if(existing == null) {
+                existing = new FutureTask<>(computation);
+                inFlight.put(key, existing);
+                leader = true;
+            }
+            call = existing;
+        }
+        if(leader) {
+            try {
+                call.run();
+            } finally {
+                synchronized (this) {
+                    inFlight.remove(key);
+                }
+            }
+        }
+        try {
+            return call.get();
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if(cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if(cause instanceof Error) throw (Error) cause;
+            throw new RuntimeException("Failed to compute " + key + "!", cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for " + key + "!", e);
+        }
+    }
+
+    /**
+     * @return The amount of computations in flight.
+     */
+    synchronized int getInFlightCount() {
+        return inFlight.size();
+    }
+}
@@ -0,0 +1,27 @@
+package com.gaspar.learnjava.asynctask;
+
+import androidx.annotation.IntDef;
+
+/**
+ * Constants for the priority of the background tasks. In the {@link ExecutorLane#IO} and {@link ExecutorLane#CPU}
+ * lanes, a waiting task with higher priority is started before the ones with lower priority. Tasks with the same
+ * priority are started in the order they were submitted.
+ */
+@IntDef({TaskPriority.BACKGROUND, TaskPriority.NORMAL, TaskPriority.USER_VISIBLE})
+public @interface TaskPriority {
+
+    /**
+     * Prefetching and housekeeping, which the user does not wait for.
+     */
+    int BACKGROUND = 0;
+
+    /**
+     * The default priority.
+     */
+    int NORMAL = 1;
+
+    /**
+     * Work which the user is waiting for, such as filling the screen or the status of the visible rows.
+     */
+    int USER_VISIBLE = 2;
+}
@@ -4,16 +4,18 @@ import android.content.Context;
 import android.view.View;
 import android.widget.ImageView;
 
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.annotation.Size;
+import androidx.annotation.UiThread;
 
 import com.gaspar.learnjava.R;
 import com.gaspar.learnjava.SettingsActivity;
 import com.gaspar.learnjava.curriculum.Task;
-import com.gaspar.learnjava.database.LearnJavaDatabase;
-import com.gaspar.learnjava.database.TaskStatus;
+import com.gaspar.learnjava.database.StatusStore;
 
 /**
- * Queries and sets the status of a {@link com.gaspar.learnjava.curriculum.Task}. Shows the
+ * Gets and sets the status of a {@link com.gaspar.learnjava.curriculum.Task} from the {@link StatusStore}. Shows the
  * result using the given {@link ImageView}.
  */
 public class TaskStatusDisplayerTask extends LjAsyncTask<CourseStatusDisplayerTask.Result> {
@@ -31,6 +33,14 @@ public class TaskStatusDisplayerTask extends LjAsyncTask<CourseStatusDisplayerTa
         this.task = task;
     }
 
+    /**
+     * @return {@link TaskPriority#USER_VISIBLE}, the status is shown in a visible row.
+     */
+    @Override
+    protected int getPriority() {
+        return TaskPriority.USER_VISIBLE;
+    }
+
     /**
      * Queries the status on the background.
      * @param objects The first must be the status icon {@link ImageView}. The second must be a {@link Context} object.
@@ -47,11 +57,11 @@ public class TaskStatusDisplayerTask extends LjAsyncTask<CourseStatusDisplayerTa
             autoOpenView = (View)objects[2];
         }
 
-        TaskStatus queriedStatus = LearnJavaDatabase.getInstance(context).getTaskDao().queryTaskStatus(task.getId());
-        if(queriedStatus == null) { //task is not in the database, should not happen, it's validated on start
+        StatusStore.getInstance().ensureLoaded(context);
+        @com.gaspar.learnjava.curriculum.Status int status = StatusStore.getInstance().getTaskStatus(task.getId());
+        if(status == com.gaspar.learnjava.curriculum.Status.NOT_QUERIED) { //task is not in the database, should not happen, it's validated on start
            throw new RuntimeException("Database error!");
         }
-        @com.gaspar.learnjava.curriculum.Status int status = queriedStatus.getStatus();
         return new CourseStatusDisplayerTask.Result(imageView, autoOpenView, status);
     }
 
@@ -61,6 +71,29 @@ public class TaskStatusDisplayerTask extends LjAsyncTask<CourseStatusDisplayerTa
      */
     @Override
     protected void onPostExecute(CourseStatusDisplayerTask.Result result) {
+        displayStatus(task, result);
+    }
+
+    /**
+     * Displays an already known status of a task, without querying the database.
+     * @param task The task.
+     * @param status The status of the task.
+     * @param imageView The status icon.
+     * @param autoOpenView The view that is auto opened if needed, can be null.
+     */
+    @UiThread
+    public static void displayStatus(@NonNull Task task, @com.gaspar.learnjava.curriculum.Status int status,
+                                     @NonNull ImageView imageView, @Nullable View autoOpenView) {
+        displayStatus(task, new CourseStatusDisplayerTask.Result(imageView, autoOpenView, status));
+    }
+
+    /**
+     * Shows the status of the task on the UI.
+     * @param task The task.
+     * @param result Contains the status and the views.
+     */
+    @UiThread
+    private static void displayStatus(@NonNull Task task, @NonNull CourseStatusDisplayerTask.Result result) {
         if(result.status == com.gaspar.learnjava.curriculum.Status.COMPLETED) {
             result.imageView.setImageResource(R.drawable.completed_icon);
         } else {
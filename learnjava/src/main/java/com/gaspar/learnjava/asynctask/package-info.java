@@ -8,5 +8,8 @@
  * At first, the application relied heavily on {@link android.os.AsyncTask}, and as it was deprecated I did not want
  * to rewrite the complete multithreading framework, so I created a class that works similarly to the
  * original: {@link com.gaspar.learnjava.asynctask.LjAsyncTask}.
+ * <p>
+ * The threads are managed by {@link com.gaspar.learnjava.asynctask.LearnJavaExecutor}, which has a separate
+ * {@link com.gaspar.learnjava.asynctask.ExecutorLane} for each kind of work.
  */
 package com.gaspar.learnjava.asynctask;
\ No newline at end of file
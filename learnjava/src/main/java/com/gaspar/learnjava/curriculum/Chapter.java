@@ -3,12 +3,9 @@ package com.gaspar.learnjava.curriculum;
 import android.content.Context;
 import android.content.Intent;
 import android.content.SharedPreferences;
-import android.view.View;
 import android.widget.ImageView;
 
-import androidx.activity.result.ActivityResultLauncher;
 import androidx.annotation.NonNull;
-import androidx.annotation.Nullable;
 import androidx.annotation.UiThread;
 import androidx.annotation.WorkerThread;
 import androidx.appcompat.app.AppCompatActivity;
@@ -16,18 +13,24 @@ import androidx.appcompat.app.AppCompatActivity;
 import com.gaspar.learnjava.ChapterActivity;
 import com.gaspar.learnjava.CoursesActivity;
 import com.gaspar.learnjava.LearnJavaActivity;
-import com.gaspar.learnjava.UpdatableActivity;
 import com.gaspar.learnjava.asynctask.ChapterStatusDisplayerTask;
+import com.gaspar.learnjava.asynctask.ExecutorLane;
 import com.gaspar.learnjava.asynctask.LearnJavaExecutor;
 import com.gaspar.learnjava.curriculum.components.Component;
+import com.gaspar.learnjava.database.ChapterDao;
 import com.gaspar.learnjava.database.ChapterStatus;
 import com.gaspar.learnjava.database.ExamStatus;
 import com.gaspar.learnjava.database.LearnJavaDatabase;
+import com.gaspar.learnjava.database.StatusStore;
 import com.gaspar.learnjava.parsers.CourseParser;
 import com.gaspar.learnjava.utils.LogUtils;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Represents a chapter in the curriculum. A Chapter is a sub component of a course,
@@ -55,13 +58,6 @@ public class Chapter implements Serializable {
      */
     public static final String CHAPTER_PREFERENCE_STRING = "passed_chapter";
 
-    /**
-     * This variable stores if a chapter status is being updated (See {@link #markChapterAsCompleted(Context)}. If this is
-     * true, then {@link com.gaspar.learnjava.asynctask.ExamStatusDisplayerTask}s will wait until it ends, to avoid showing
-     * wrong exam statuses.
-     */
-    public static volatile boolean chapterStatusUpdatePending = false;
-
     /**
      * The id of the chapter.
      */
@@ -77,13 +73,6 @@ public class Chapter implements Serializable {
      */
     private transient List<Component> components;
 
-    /**
-     * Status of this chapter. This can only be unlocked or completed, but the user will not be able
-     * to access chapters in locked courses anyways.
-     */
-    @Status
-    private volatile int status;
-
     /**
      * Creates a chapter object.
      * @param id The id.
@@ -94,7 +83,6 @@ public class Chapter implements Serializable {
         this.id = id;
         this.name = name;
         this.components = components;
-        status = Status.NOT_QUERIED;
     }
 
     /**
@@ -104,12 +92,10 @@ public class Chapter implements Serializable {
     public Chapter(int id, String name) {
         this.id = id;
         this.name = name;
-        status = Status.NOT_QUERIED;
     }
 
     /**
-     * Finds the status of tis course in the database, saves it in
-     * the status variable, and displays it with the given image view.
+     * Finds the status of this chapter in the {@link StatusStore}, and displays it with the given image view.
      * Uses a background thread.
      */
     public void queryAndDisplayStatus(final ImageView imageView, Context context) {
@@ -117,51 +103,44 @@ public class Chapter implements Serializable {
     }
 
     /**
-     * Starts a chapter activity for result. It will pass the chapter and the status icon
-     * of this chapter. Exam data and view are also needed, as a completed chapter may unlock the exam in its course,
-     * if it was the last uncompleted chapter.
+     * Displays the status of this chapter from the {@link StatusStore}, on the UI thread. If the
+     * store does not have this chapter, then it is queried with {@link #queryAndDisplayStatus(ImageView, Context)}.
+     */
+    @UiThread
+    public void displayStatus(final ImageView imageView, Context context) {
+        @Status int status = StatusStore.getInstance().getChapterStatus(id);
+        if(status == Status.NOT_QUERIED) {
+            queryAndDisplayStatus(imageView, context);
+        } else {
+            ChapterStatusDisplayerTask.displayStatus(this, status, imageView);
+        }
+    }
+
+    /**
+     * Starts a chapter activity. Changes made to the status of the chapter (and the exam of its course) will
+     * be displayed by the observers of the {@link StatusStore}.
      * @param fromActivity Activity from where the chapter is started.
-     * @param launcher An object that can launch a {@link ChapterActivity} and is prepared to handle the result. This can be null. If it
-     *                 is null, that means that we don't care for the result, and can be safely ignored.
      * @param chapter The chapter which is started.
-     * @param updateView The view that will be updated when the started activity finishes.
-     * @param exam Optionally, an exam object that belongs to this chapter.
-     * @param extraExamView Optionally, an exam view that may need to be modified if the user closes the chapter.
      */
-    public static void startChapterActivity(@NonNull AppCompatActivity fromActivity, @Nullable ActivityResultLauncher<Intent> launcher,
-                                            @Nullable Chapter chapter, @Nullable View updateView,
-                                            @Nullable Exam exam, @Nullable View extraExamView) {
+    public static void startChapterActivity(@NonNull AppCompatActivity fromActivity, @NonNull Chapter chapter) {
         SharedPreferences prefs = fromActivity.
                 getSharedPreferences(LearnJavaActivity.APP_PREFERENCES_NAME, Context.MODE_PRIVATE); //save started chapter
         prefs.edit().putInt(LearnJavaActivity.ACTIVE_CHAPTER_ID_PREFERENCE, chapter.id).apply();
         Intent intent = new Intent(fromActivity, ChapterActivity.class);
         intent.putExtra(CHAPTER_PREFERENCE_STRING, chapter);
-        if(exam != null) intent.putExtra(Exam.EXAM_PREFERENCE_STRING, exam); //also pass the exam, as it may be needed for update
-        if(fromActivity instanceof UpdatableActivity) {
-            ((UpdatableActivity)fromActivity).setUpdateViews(updateView, extraExamView); //save update view, also pass exam view
-        }
-        if(launcher != null) {
-            //care about result
-            launcher.launch(intent);
-        } else {
-            //we dont care for result, a simple start activity will do.
-            fromActivity.startActivity(intent);
-        }
+        fromActivity.startActivity(intent);
     }
 
     /**
-     * Updates a chapter in the database to have the {@link Status#COMPLETED} status. After updating
+     * Updates a chapter in the {@link StatusStore} to have the {@link Status#COMPLETED} status. After updating
      * it checks if all the chapters in the course have been confirmed, and if so it unlocks the exam of the course.
      * @param context Context.
      */
     @UiThread
     public void markChapterAsCompleted(Context context) {
-        chapterStatusUpdatePending = true; //start a chapter status update
-        LearnJavaExecutor.getInstance().executeOnBackgroundThread(() -> {
-            ChapterStatus newStatus = new ChapterStatus(id,
-                    com.gaspar.learnjava.curriculum.Status.COMPLETED);
-            LearnJavaDatabase.getInstance(context).getChapterDao().updateChapterStatus(newStatus);
-
+        final StatusStore statusStore = StatusStore.getInstance();
+        statusStore.setChapterStatus(context, id, Status.COMPLETED); //visible immediately, written to the database later
+        LearnJavaExecutor.getInstance().executeOnBackgroundThread(ExecutorLane.BLOCKING, () -> { //may wait for the store to load
             if(CoursesActivity.coursesNotParsed()) { //check if courses are parsed
                 try {
                     CoursesActivity.getParsedCourses().addAll(CourseParser.getInstance().parseCourses(context));
@@ -181,56 +160,57 @@ public class Chapter implements Serializable {
             }
             if(courseOfChapter == null) {
                 LogUtils.log("Chapter without a course! Possible testing...");
-                chapterStatusUpdatePending = false;
                 return;
             }
-            ExamStatus eStatus = LearnJavaDatabase.getInstance(context).getExamDao()
-                    .queryExamStatus(courseOfChapter.getExam().getId());
-            if(eStatus.getStatus() != Status.LOCKED) return; //if already completed/unlocked the no need to check
+            statusStore.ensureLoaded(context);
+            ExamStatus eStatus = statusStore.getExamStatus(courseOfChapter.getExam().getId());
+            if(eStatus == null || eStatus.getStatus() != Status.LOCKED) return; //if already completed/unlocked the no need to check
             boolean allConfirmed = true;
-            List<ChapterStatus> statuses = LearnJavaDatabase.getInstance(context).getChapterDao().getAllChapterStatuses();
-            for(ChapterStatus chapterStatus: statuses) {
-                if(chapterStatus.getStatus() != Status.COMPLETED && inThisCourse(chapterStatus.getChapterId(), courseOfChapter)) {
+            for(Chapter chapter: courseOfChapter.getChapters()) {
+                if(statusStore.getChapterStatus(chapter.getId()) != Status.COMPLETED) {
                     //found a chapter in the course that is not completed
                     allConfirmed = false;
                     break;
                 }
             }
             if(allConfirmed) { //exam still locked, all chapters confirmed
-                //unlock exam in database
-                LearnJavaDatabase.getInstance(context).getExamDao().
-                        updateExamCompletionStatus(courseOfChapter.getExam().getId(), Status.UNLOCKED);
+                //unlock exam, observers will display it
+                statusStore.setExamStatus(context, courseOfChapter.getExam().getId(), Status.UNLOCKED);
             }
-            chapterStatusUpdatePending = false; //when the background thread is done, no more chapter updating
         });
     }
 
     /**
-     * Checks if a chapter belongs to a given course.
-     * @param chapterId The id of the chapter.
-     * @param course The course.
-     * @return True if the chapter belongs to the course.
+     * Checks which of the given chapters are in the database, and adds the missing ones with default
+     * status, using a single insert. Should be called inside a transaction.
+     * @param chapterIds Ids of the chapters to check.
+     * @param context Context.
      */
-    private boolean inThisCourse(int chapterId, Course course) {
-        for(Chapter chapter: course.getChapters()) {
-            if(chapter.getId() == chapterId) return true;
+    @WorkerThread
+    public static void validateChapterStatuses(@NonNull Collection<Integer> chapterIds, @NonNull Context context) {
+        if(chapterIds.isEmpty()) return;
+        final ChapterDao chapterDao = LearnJavaDatabase.getInstance(context).getChapterDao();
+        final List<ChapterStatus> newStatuses = createMissingStatuses(chapterIds, new HashSet<>(chapterDao.queryAllChapterIds()));
+        if(!newStatuses.isEmpty()) {
+            LogUtils.log("Adding " + newStatuses.size() + " new chapters to the database...");
+            chapterDao.addChapterStatuses(newStatuses);
         }
-        return false;
     }
 
     /**
-     * Checks if there is a chapter in the database with the given id. If not it adds this chapter
-     * to the database with default status.
+     * Creates the default statuses of the chapters which are not in the database yet.
+     * @param chapterIds Ids of the chapters to check.
+     * @param existingIds Ids of the chapters which are already in the database. These are left unchanged.
+     * @return The statuses which must be inserted.
      */
-    @WorkerThread
-    public static void validateChapterStatus(int chapterId, Context context) {
-        ChapterStatus status = LearnJavaDatabase.getInstance(context).getChapterDao().queryChapterStatus(chapterId);
-        if(status == null) { //not found in the database
-            LogUtils.log("This chapter was not in the database, adding...");
-            @Status final int DEF_STATUS = Status.UNLOCKED;
-            ChapterStatus newStatus = new ChapterStatus(chapterId, DEF_STATUS);
-            LearnJavaDatabase.getInstance(context).getChapterDao().addChapterStatus(newStatus); //add to database
+    @NonNull
+    static List<ChapterStatus> createMissingStatuses(@NonNull Collection<Integer> chapterIds, @NonNull Set<Integer> existingIds) {
+        @Status final int DEF_STATUS = Status.UNLOCKED;
+        final List<ChapterStatus> newStatuses = new ArrayList<>();
+        for(int chapterId: chapterIds) {
+            if(!existingIds.contains(chapterId)) newStatuses.add(new ChapterStatus(chapterId, DEF_STATUS));
         }
+        return newStatuses;
     }
 
     public int getId() {
@@ -244,12 +224,4 @@ public class Chapter implements Serializable {
     public List<Component> getComponents() {
         return components;
     }
-
-    public @Status int getStatus() {
-        return status;
-    }
-
-    public void setStatus(@Status int status) {
-        this.status = status;
-    }
 }
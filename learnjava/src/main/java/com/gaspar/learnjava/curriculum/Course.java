@@ -4,18 +4,26 @@ import android.content.Context;
 import android.view.View;
 import android.widget.ImageView;
 
+import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.UiThread;
 import androidx.annotation.WorkerThread;
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.gaspar.learnjava.CoursesActivity;
 import com.gaspar.learnjava.asynctask.CourseStatusDisplayerTask;
+import com.gaspar.learnjava.database.CourseDao;
 import com.gaspar.learnjava.database.CourseStatus;
 import com.gaspar.learnjava.database.LearnJavaDatabase;
+import com.gaspar.learnjava.database.StatusStore;
 import com.gaspar.learnjava.utils.LogUtils;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * <p>
@@ -82,12 +90,6 @@ public class Course implements Serializable {
      */
     private final boolean finished;
 
-    /**
-     * The completion/unlock status of this course. Queried from the database.
-     */
-    @Status
-    private volatile int status;
-
     public Course(int id, String name, List<Chapter> chapters, List<Task> tasks, Exam exam, boolean finished) {
         this.id = id;
         this.courseName = name;
@@ -95,7 +97,6 @@ public class Course implements Serializable {
         this.tasks = tasks;
         this.exam = exam;
         this.finished = finished;
-        status = Status.NOT_QUERIED;
     }
 
     /**
@@ -122,24 +123,58 @@ public class Course implements Serializable {
     }
 
     /**
-     * Checks if there is a course in the database with the given id. If not it adds this course
-     * to the database.
+     * Displays the status of this course from the {@link StatusStore}, on the UI thread. If the store
+     * does not have this course, then it is queried with {@link #queryAndDisplayStatus(ImageView, AppCompatActivity, View)}.
+     * @param imageView The status icon.
+     * @param activity The activity in which the status wil be displayed.
+     * @param autoOpenView The contents of the course view, which can be auto opened.
+     */
+    @UiThread
+    public void displayStatus(final ImageView imageView, final AppCompatActivity activity, View autoOpenView) {
+        @Status int status = StatusStore.getInstance().getCourseStatus(id);
+        if(status == Status.NOT_QUERIED) {
+            queryAndDisplayStatus(imageView, activity, autoOpenView);
+        } else {
+            CourseStatusDisplayerTask.displayStatus(this, status, imageView, activity, autoOpenView);
+        }
+    }
+
+    /**
+     * Checks which of the given courses are in the database, and adds the missing ones with
+     * a single insert. Should be called inside a transaction.
+     * @param courseIds Ids of the courses to check.
+     * @param firstCourseId Id of the first course of the curriculum. If this is missing, it is added as unlocked.
+     * @param context Context.
      */
     @WorkerThread
-    public static void validateCourseStatus(int courseId, Context context) {
-        CourseStatus status = LearnJavaDatabase.getInstance(context).getCourseDao().queryCourseStatus(courseId);
-        if(status == null) { //not found in the database
-            CourseStatus newStatus;
-            LogUtils.log("Validating new course, count: " + CourseStatus.getCourseCount());
-            if(CourseStatus.getCourseCount() == 0) { //this is first course to be added to the database
-                newStatus = new CourseStatus(courseId, Status.UNLOCKED); //first one is unlocked
-            } else { //there are other courses already
-                int DEFAULT_STATUS = Status.LOCKED;
-                newStatus = new CourseStatus(courseId, DEFAULT_STATUS);
-            }
-            LearnJavaDatabase.getInstance(context).getCourseDao().addCourseStatus(newStatus); //add to database
+    public static void validateCourseStatuses(@NonNull Collection<Integer> courseIds, int firstCourseId, @NonNull Context context) {
+        if(courseIds.isEmpty()) return;
+        final CourseDao courseDao = LearnJavaDatabase.getInstance(context).getCourseDao();
+        final List<CourseStatus> newStatuses = createMissingStatuses(courseIds, new HashSet<>(courseDao.queryAllCourseIds()), firstCourseId);
+        if(!newStatuses.isEmpty()) {
+            LogUtils.log("Adding " + newStatuses.size() + " new courses to the database...");
+            courseDao.addCourseStatuses(newStatuses);
+        }
+    }
+
+    /**
+     * Creates the default statuses of the courses which are not in the database yet.
+     * @param courseIds Ids of the courses to check.
+     * @param existingIds Ids of the courses which are already in the database. These are left unchanged.
+     * @param firstCourseId Id of the first course of the curriculum, this one is unlocked.
+     * @return The statuses which must be inserted.
+     */
+    @NonNull
+    static List<CourseStatus> createMissingStatuses(@NonNull Collection<Integer> courseIds, @NonNull Set<Integer> existingIds,
+                                                    int firstCourseId) {
+        final List<CourseStatus> newStatuses = new ArrayList<>();
+        for(int courseId: courseIds) {
+            if(existingIds.contains(courseId)) continue;
+            //first one is unlocked, the others are locked by default
+            @Status int status = courseId == firstCourseId ? Status.UNLOCKED : Status.LOCKED;
+            newStatuses.add(new CourseStatus(courseId, status));
         }
-        CourseStatus.incrementCourseCount(); //increment course counter variable
+        return newStatuses;
     }
 
     /**
@@ -184,14 +219,6 @@ public class Course implements Serializable {
         return exam;
     }
 
-    public int getStatus() {
-        return status;
-    }
-
-    public void setStatus(@Status int status) {
-        this.status = status;
-    }
-
     public boolean isFinished() {
         return finished;
     }
@@ -5,26 +5,28 @@ import android.content.Intent;
 import android.content.SharedPreferences;
 import android.view.View;
 
-import androidx.activity.result.ActivityResultLauncher;
+import androidx.annotation.NonNull;
+import androidx.annotation.UiThread;
 import androidx.annotation.WorkerThread;
 import androidx.appcompat.app.AppCompatActivity;
 
-import com.gaspar.learnjava.CoursesActivity;
 import com.gaspar.learnjava.ExamActivity;
-import com.gaspar.learnjava.ExamsActivity;
 import com.gaspar.learnjava.LearnJavaActivity;
 import com.gaspar.learnjava.SettingsActivity;
-import com.gaspar.learnjava.UpdatableActivity;
 import com.gaspar.learnjava.asynctask.ExamStatusDisplayerTask;
-import com.gaspar.learnjava.asynctask.LearnJavaExecutor;
 import com.gaspar.learnjava.curriculum.questions.Question;
+import com.gaspar.learnjava.database.ExamDao;
 import com.gaspar.learnjava.database.ExamStatus;
 import com.gaspar.learnjava.database.LearnJavaDatabase;
-import com.gaspar.learnjava.utils.LogUtils;
+import com.gaspar.learnjava.database.StatusStore;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -94,12 +96,6 @@ public class Exam implements Serializable {
      */
     private transient List<Question> questions;
 
-    /**
-     * Status of the exam. Can be locked, unlocked on completed.
-     */
-    @Status
-    private volatile int status;
-
     /**
      * Stores if this exam is finished. Should be the same value as its course.
      */
@@ -111,7 +107,6 @@ public class Exam implements Serializable {
         this.questionAmount = questionAmount;
         this.questions = questions;
         this.finished = finished;
-        status = Status.NOT_QUERIED;
     }
 
     /**
@@ -120,7 +115,6 @@ public class Exam implements Serializable {
     public Exam(int id, boolean finished) {
         this.id = id;
         this.finished = finished;
-        status = Status.NOT_QUERIED;
     }
 
     /**
@@ -131,6 +125,21 @@ public class Exam implements Serializable {
         new ExamStatusDisplayerTask(this).execute(examView, activity);
     }
 
+    /**
+     * Displays the status of this exam from the {@link StatusStore}, on the UI thread. If the store
+     * does not have this exam, then it is queried with {@link #queryAndDisplayStatus(View, AppCompatActivity)}.
+     * @param examView The view (inflated exam_selector_view) where the status is shown.
+     */
+    @UiThread
+    public void displayStatus(View examView, AppCompatActivity activity) {
+        ExamStatus examStatus = StatusStore.getInstance().getExamStatus(id);
+        if(examStatus == null) {
+            queryAndDisplayStatus(examView, activity);
+        } else {
+            ExamStatusDisplayerTask.displayStatus(this, examStatus, examView, activity);
+        }
+    }
+
     /**
      * A constant that stores the number of seconds the user must wait before they can retry a
      * failed exam.
@@ -146,45 +155,51 @@ public class Exam implements Serializable {
     }
 
     /**
-     * Checks if there is a exam in the database with the given id. If not it adds this exam
-     * to the database with default status.
+     * Checks which of the given exams are in the database, and adds the missing ones with default
+     * status, using a single insert. Should be called inside a transaction.
+     * @param examIds Ids of the exams to check.
+     * @param context Context.
      */
     @WorkerThread
-    public static void validateExamStatus(int examId, Context context) {
-        ExamStatus status = LearnJavaDatabase.getInstance(context).getExamDao().queryExamStatus(examId);
-        if(status == null) { //not found in the database
-            @Status final int DEF_STATUS = Status.LOCKED;
+    public static void validateExamStatuses(@NonNull Collection<Integer> examIds, @NonNull Context context) {
+        if(examIds.isEmpty()) return;
+        final ExamDao examDao = LearnJavaDatabase.getInstance(context).getExamDao();
+        final List<ExamStatus> newStatuses = createMissingStatuses(examIds, new HashSet<>(examDao.queryAllExamIds()));
+        if(!newStatuses.isEmpty()) {
+            examDao.addExamStatuses(newStatuses);
+        }
+    }
+
+    /**
+     * Creates the default statuses of the exams which are not in the database yet.
+     * @param examIds Ids of the exams to check.
+     * @param existingIds Ids of the exams which are already in the database. These are left unchanged.
+     * @return The statuses which must be inserted.
+     */
+    @NonNull
+    static List<ExamStatus> createMissingStatuses(@NonNull Collection<Integer> examIds, @NonNull Set<Integer> existingIds) {
+        @Status final int DEF_STATUS = Status.LOCKED;
+        final List<ExamStatus> newStatuses = new ArrayList<>();
+        for(int examId: examIds) {
+            if(existingIds.contains(examId)) continue;
             //both last_started and top_score are marked with exam never started
-            ExamStatus newStatus = new ExamStatus(examId, DEF_STATUS, EXAM_NEVER_STARTED, EXAM_NEVER_STARTED);
-            LearnJavaDatabase.getInstance(context).getExamDao().addExamStatus(newStatus); //add to database
+            newStatuses.add(new ExamStatus(examId, DEF_STATUS, EXAM_NEVER_STARTED, EXAM_NEVER_STARTED));
         }
+        return newStatuses;
     }
 
     /**
-     * Starts an exam activity. This is called from {@link ExamStatusDisplayerTask}, after it has finshed.
-     * @param result The result of the exam display task, which ran in the background.
+     * Starts an exam activity. This is called from {@link ExamStatusDisplayerTask}, after it has finshed. Changes
+     * made to the exam will be displayed by the observers of the {@link StatusStore}.
+     * @param activity The activity which starts the exam.
      * @param exam The exam that must be started.
      */
-    public static void startExamActivity(ExamStatusDisplayerTask.Result result, Exam exam) {
-        LearnJavaExecutor.getInstance().executeOnBackgroundThread(() -> { //register current epoch in database
-            LearnJavaDatabase.getInstance(result.activity).getExamDao()
-                    .updateExamLastStarted(exam.getId(), System.currentTimeMillis());
-        });
-        Intent intent = new Intent(result.activity, ExamActivity.class);
+    public static void startExamActivity(@NonNull AppCompatActivity activity, Exam exam) {
+        //register current epoch
+        StatusStore.getInstance().setExamLastStarted(activity, exam.getId(), System.currentTimeMillis());
+        Intent intent = new Intent(activity, ExamActivity.class);
         intent.putExtra(Exam.EXAM_PREFERENCE_STRING, exam); //pass exam
-        if(result.activity instanceof UpdatableActivity) {
-            ((UpdatableActivity)result.activity).setUpdateViews(result.examView); //save update view
-        }
-        //there are 2 activities from where an exam can be launched
-        if(result.activity instanceof CoursesActivity) {
-            ActivityResultLauncher<Intent> launcher = ((CoursesActivity)result.activity).getExamActivityLauncher();
-            launcher.launch(intent);
-        } else if(result.activity instanceof ExamsActivity) {
-            ActivityResultLauncher<Intent> launcher = ((ExamsActivity)result.activity).getExamActivityLauncher();
-            launcher.launch(intent);
-        } else {
-            LogUtils.logError("Exam launched from an unknown activity: " + result.activity.getClass().getSimpleName());
-        }
+        activity.startActivity(intent);
     }
 
     @Override
@@ -208,14 +223,6 @@ public class Exam implements Serializable {
         return questions;
     }
 
-    public int getStatus() {
-        return status;
-    }
-
-    public void setStatus(@Status int status) {
-        this.status = status;
-    }
-
     public int getQuestionAmount() {
         return questionAmount;
     }
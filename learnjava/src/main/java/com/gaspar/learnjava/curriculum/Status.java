@@ -9,8 +9,8 @@ import androidx.annotation.IntDef;
 public @interface Status {
 
     /**
-     * This is the default on all objects. Updated when the real status is queried from
-     * the database
+     * The status of an element which is not in the {@link com.gaspar.learnjava.database.StatusStore}
+     * (yet).
      */
     int NOT_QUERIED = -1;
 
@@ -5,21 +5,26 @@ import android.content.Intent;
 import android.view.View;
 import android.widget.ImageView;
 
-import androidx.activity.result.ActivityResultLauncher;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.UiThread;
 import androidx.annotation.WorkerThread;
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.gaspar.learnjava.TaskActivity;
-import com.gaspar.learnjava.UpdatableActivity;
 import com.gaspar.learnjava.asynctask.TaskStatusDisplayerTask;
 import com.gaspar.learnjava.curriculum.components.Component;
 import com.gaspar.learnjava.database.LearnJavaDatabase;
+import com.gaspar.learnjava.database.StatusStore;
+import com.gaspar.learnjava.database.TaskDao;
 import com.gaspar.learnjava.database.TaskStatus;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Represents a more advanced task (belongs to a course) in the curriculum. Task have a description,
@@ -114,46 +119,68 @@ public class Task implements Serializable {
         new TaskStatusDisplayerTask(this).execute(imageView, context);
     }
 
+    /**
+     * Displays the status of this task from the {@link StatusStore}, on the UI thread. If the
+     * store does not have this task, then it is queried with {@link #queryAndDisplayStatus(ImageView, Context)}.
+     */
+    @UiThread
+    public void displayStatus(final ImageView imageView, Context context) {
+        @Status int status = StatusStore.getInstance().getTaskStatus(id);
+        if(status == Status.NOT_QUERIED) {
+            queryAndDisplayStatus(imageView, context);
+        } else {
+            TaskStatusDisplayerTask.displayStatus(this, status, imageView, null);
+        }
+    }
+
     /**
      * This string identifies the task passed to a {@link TaskActivity}.
      */
     public static final String TASK_PREFERENCE_STRING = "passed_task";
 
     /**
-     * Starts a task activity where the given task will be displayed.
+     * Starts a task activity where the given task will be displayed. Changes made to the status of the task
+     * will be displayed by the observers of the {@link StatusStore}.
      * @param fromActivity The activity that will launch the task activity.
-     * @param launcher An object which can start a {@link TaskActivity} and handle the result. This can be null,
-     *                 which means that we dont care about the result.
      * @param task The task that will be shown (this task does not need to have parsed
      *             components).
-     * @param updateView The view that will be updated when the started activity finishes.
      */
-    public static void startTaskActivity(@NonNull AppCompatActivity fromActivity, @Nullable ActivityResultLauncher<Intent> launcher, Task task, View updateView) {
+    public static void startTaskActivity(@NonNull AppCompatActivity fromActivity, Task task) {
         Intent intent = new Intent(fromActivity, TaskActivity.class);
         intent.putExtra(TASK_PREFERENCE_STRING, task);
-        if(fromActivity instanceof UpdatableActivity) {
-            ((UpdatableActivity)fromActivity).setUpdateViews(updateView); //save update view
-        }
-        if(launcher != null) {
-            launcher.launch(intent);
-        } else {
-            //we dont care about the result
-            fromActivity.startActivity(intent);
-        }
+        fromActivity.startActivity(intent);
     }
 
     /**
-     * Checks if there is a task in the database with the given id. If not it adds this task
-     * to the database with default status.
+     * Checks which of the given tasks are in the database, and adds the missing ones with default
+     * status, using a single insert. Should be called inside a transaction.
+     * @param taskIds Ids of the tasks to check.
+     * @param context Context.
      */
     @WorkerThread
-    public static void validateTaskStatus(int taskId, Context context) {
-        TaskStatus status = LearnJavaDatabase.getInstance(context).getTaskDao().queryTaskStatus(taskId);
-        if(status == null) { //not found in the database
-            @Status final int DEF_STATUS = Status.UNLOCKED;
-            TaskStatus newStatus = new TaskStatus(taskId, DEF_STATUS);
-            LearnJavaDatabase.getInstance(context).getTaskDao().addTaskStatus(newStatus); //add to database
+    public static void validateTaskStatuses(@NonNull Collection<Integer> taskIds, @NonNull Context context) {
+        if(taskIds.isEmpty()) return;
+        final TaskDao taskDao = LearnJavaDatabase.getInstance(context).getTaskDao();
+        final List<TaskStatus> newStatuses = createMissingStatuses(taskIds, new HashSet<>(taskDao.queryAllTaskIds()));
+        if(!newStatuses.isEmpty()) {
+            taskDao.addTaskStatuses(newStatuses);
+        }
+    }
+
+    /**
+     * Creates the default statuses of the tasks which are not in the database yet.
+     * @param taskIds Ids of the tasks to check.
+     * @param existingIds Ids of the tasks which are already in the database. These are left unchanged.
+     * @return The statuses which must be inserted.
+     */
+    @NonNull
+    static List<TaskStatus> createMissingStatuses(@NonNull Collection<Integer> taskIds, @NonNull Set<Integer> existingIds) {
+        @Status final int DEF_STATUS = Status.UNLOCKED;
+        final List<TaskStatus> newStatuses = new ArrayList<>();
+        for(int taskId: taskIds) {
+            if(!existingIds.contains(taskId)) newStatuses.add(new TaskStatus(taskId, DEF_STATUS));
         }
+        return newStatuses;
     }
 
     public int getId() {
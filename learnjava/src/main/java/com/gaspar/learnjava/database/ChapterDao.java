@@ -2,6 +2,7 @@ package com.gaspar.learnjava.database;
 
 import androidx.room.Dao;
 import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
 import androidx.room.Update;
 
@@ -21,6 +22,13 @@ public interface ChapterDao {
     @Insert
     void addChapterStatus(ChapterStatus chapterStatus);
 
+    /**
+     * Add new chapters to the database. Chapters that are already in the database are left unchanged.
+     * @param chapterStatuses The objects that describe the chapters.
+     */
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    void addChapterStatuses(List<ChapterStatus> chapterStatuses);
+
     /**
      * Update an existing chapter in the database.
      * @param chapterStatus The object that describes the chapter.
@@ -43,6 +51,13 @@ public interface ChapterDao {
     @Query("SELECT * FROM chapter_status")
     List<ChapterStatus> getAllChapterStatuses();
 
+    /**
+     * Lists the ids of all chapters in the database.
+     * @return The chapter ids.
+     */
+    @Query("SELECT chapter_id FROM chapter_status")
+    List<Integer> queryAllChapterIds();
+
     /**
      * Clears all entries from the chapters table.
      */
@@ -2,10 +2,13 @@ package com.gaspar.learnjava.database;
 
 import androidx.room.Dao;
 import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
 
 import com.gaspar.learnjava.curriculum.Status;
 
+import java.util.List;
+
 /**
  * Operations for querying and manipulating course data.
  * @see CourseStatus
@@ -20,6 +23,13 @@ public interface CourseDao {
     @Insert
     void addCourseStatus(CourseStatus courseStatus);
 
+    /**
+     * Add new courses to the database. Courses that are already in the database are left unchanged.
+     * @param courseStatuses The objects that describe the courses.
+     */
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    void addCourseStatuses(List<CourseStatus> courseStatuses);
+
     @Query("UPDATE course_status SET status = :newStatus WHERE course_id == :courseId")
     void updateCourseStatus(int courseId, @Status int newStatus);
 
@@ -31,6 +41,20 @@ public interface CourseDao {
     @Query("SELECT * FROM course_status WHERE course_id == :courseId")
     CourseStatus queryCourseStatus(int courseId);
 
+    /**
+     * Lists all courses from the database.
+     * @return The objects that describe the courses.
+     */
+    @Query("SELECT * FROM course_status")
+    List<CourseStatus> getAllCourseStatuses();
+
+    /**
+     * Lists the ids of all courses in the database.
+     * @return The course ids.
+     */
+    @Query("SELECT course_id FROM course_status")
+    List<Integer> queryAllCourseIds();
+
     /*
     @Query("SELECT COUNT(*) FROM course_status")
     int countCourses();
@@ -0,0 +1,73 @@
+package com.gaspar.learnjava.database;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Ignore;
+
+/**
+ * Represents the table in the database which stores which course the chapters, tasks and exams belong to.
+ * This is not progress of the user, it is filled from the curriculum during the validation of the database.
+ * Progress queries join the status tables against this one, so they can be grouped by course.
+ * @see CourseProgressDao
+ */
+@Entity(tableName = "course_membership", primaryKeys = {"element_type", "element_id"})
+public class CourseMembership {
+
+    /**
+     * Type of the element, one of the chapter, task or exam {@link StatusStore.Type} constants.
+     */
+    @ColumnInfo(name = "element_type")
+    @StatusStore.Type
+    private int elementType;
+
+    /**
+     * Id of the element.
+     */
+    @ColumnInfo(name = "element_id")
+    private int elementId;
+
+    /**
+     * Id of the course that the element belongs to.
+     */
+    @ColumnInfo(name = "course_id")
+    private int courseId;
+
+    CourseMembership() {}
+
+    /**
+     * Creates an object which describes which course an element belongs to.
+     * @param elementType Type of the element.
+     * @param elementId Id of the element.
+     * @param courseId Id of the course.
+     */
+    @Ignore
+    public CourseMembership(@StatusStore.Type int elementType, int elementId, int courseId) {
+        this.elementType = elementType;
+        this.elementId = elementId;
+        this.courseId = courseId;
+    }
+
+    public int getElementType() {
+        return elementType;
+    }
+
+    void setElementType(@StatusStore.Type int elementType) {
+        this.elementType = elementType;
+    }
+
+    public int getElementId() {
+        return elementId;
+    }
+
+    void setElementId(int elementId) {
+        this.elementId = elementId;
+    }
+
+    public int getCourseId() {
+        return courseId;
+    }
+
+    void setCourseId(int courseId) {
+        this.courseId = courseId;
+    }
+}
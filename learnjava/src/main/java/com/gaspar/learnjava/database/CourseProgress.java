@@ -0,0 +1,112 @@
+package com.gaspar.learnjava.database;
+
+import androidx.room.ColumnInfo;
+
+import com.gaspar.learnjava.curriculum.Status;
+
+/**
+ * The progress of the user in a course, aggregated by the database with one grouped query. This is not a table,
+ * only the result of {@link CourseProgressDao#queryAllCourseProgress()}.
+ */
+public class CourseProgress {
+
+    /**
+     * Id of the course.
+     */
+    @ColumnInfo(name = "course_id")
+    private int courseId;
+
+    /**
+     * Amount of chapters in the course.
+     */
+    @ColumnInfo(name = "chapter_count")
+    private int chapterCount;
+
+    /**
+     * Amount of {@link Status#COMPLETED} chapters in the course.
+     */
+    @ColumnInfo(name = "completed_chapter_count")
+    private int completedChapterCount;
+
+    /**
+     * Amount of tasks in the course.
+     */
+    @ColumnInfo(name = "task_count")
+    private int taskCount;
+
+    /**
+     * Amount of {@link Status#COMPLETED} tasks in the course.
+     */
+    @ColumnInfo(name = "completed_task_count")
+    private int completedTaskCount;
+
+    /**
+     * Status of the exam of the course, or {@link Status#NOT_QUERIED} if it is not in the database.
+     */
+    @ColumnInfo(name = "exam_status")
+    @Status
+    private int examStatus;
+
+    public int getCourseId() {
+        return courseId;
+    }
+
+    void setCourseId(int courseId) {
+        this.courseId = courseId;
+    }
+
+    public int getChapterCount() {
+        return chapterCount;
+    }
+
+    void setChapterCount(int chapterCount) {
+        this.chapterCount = chapterCount;
+    }
+
+    public int getCompletedChapterCount() {
+        return completedChapterCount;
+    }
+
+    void setCompletedChapterCount(int completedChapterCount) {
+        this.completedChapterCount = completedChapterCount;
+    }
+
+    public int getTaskCount() {
+        return taskCount;
+    }
+
+    void setTaskCount(int taskCount) {
+        this.taskCount = taskCount;
+    }
+
+    public int getCompletedTaskCount() {
+        return completedTaskCount;
+    }
+
+    void setCompletedTaskCount(int completedTaskCount) {
+        this.completedTaskCount = completedTaskCount;
+    }
+
+    @Status
+    public int getExamStatus() {
+        return examStatus;
+    }
+
+    void setExamStatus(@Status int examStatus) {
+        this.examStatus = examStatus;
+    }
+
+    /**
+     * @return The amount of elements (chapters, tasks and the exam) in the course.
+     */
+    public int getElementCount() {
+        return chapterCount + taskCount + 1;
+    }
+
+    /**
+     * @return The amount of completed elements (chapters, tasks and the exam) in the course.
+     */
+    public int getCompletedElementCount() {
+        return completedChapterCount + completedTaskCount + (examStatus == Status.COMPLETED ? 1 : 0);
+    }
+}
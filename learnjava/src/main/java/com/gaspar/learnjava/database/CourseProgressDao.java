@@ -0,0 +1,71 @@
+package com.gaspar.learnjava.database;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import java.util.List;
+
+/**
+ * Operations on the course_membership table, and the progress queries that are grouped by course.
+ * In the queries, the element types are the {@link StatusStore.Type} constants: 1 is chapter, 2 is task and 3 is exam.
+ * @see CourseMembership
+ * @see CourseProgress
+ */
+@Dao
+public interface CourseProgressDao {
+
+    /**
+     * Selects the columns of {@link CourseProgress}. The progress queries below append their filter and the
+     * grouping by course to this.
+     */
+    String PROGRESS_QUERY = "SELECT m.course_id AS course_id, " +
+            "SUM(CASE WHEN m.element_type = 1 THEN 1 ELSE 0 END) AS chapter_count, " +
+            "SUM(CASE WHEN m.element_type = 1 AND c.status = 2 THEN 1 ELSE 0 END) AS completed_chapter_count, " +
+            "SUM(CASE WHEN m.element_type = 2 THEN 1 ELSE 0 END) AS task_count, " +
+            "SUM(CASE WHEN m.element_type = 2 AND t.status = 2 THEN 1 ELSE 0 END) AS completed_task_count, " +
+            "MAX(CASE WHEN m.element_type = 3 THEN IFNULL(e.status, -1) ELSE -1 END) AS exam_status " +
+            "FROM course_membership m " +
+            "LEFT JOIN chapter_status c ON m.element_type = 1 AND c.chapter_id = m.element_id " +
+            "LEFT JOIN task_status t ON m.element_type = 2 AND t.task_id = m.element_id " +
+            "LEFT JOIN exam_status e ON m.element_type = 3 AND e.exam_id = m.element_id ";
+
+    /**
+     * Query of {@link #queryAllCourseProgress()}.
+     */
+    String ALL_PROGRESS_QUERY = PROGRESS_QUERY + "GROUP BY m.course_id";
+
+    /**
+     * Query of {@link #queryCourseProgress(int)}.
+     */
+    String COURSE_PROGRESS_QUERY = PROGRESS_QUERY + "WHERE m.course_id = :courseId GROUP BY m.course_id";
+
+    /**
+     * Add the course of elements to the database. If an element already has a course, it is replaced.
+     * @param memberships The objects that describe which course the elements belong to.
+     */
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void addMemberships(List<CourseMembership> memberships);
+
+    /**
+     * Aggregates the progress of every course, in one query.
+     * @return The progress of the courses which have members in the database.
+     */
+    @Query(ALL_PROGRESS_QUERY)
+    List<CourseProgress> queryAllCourseProgress();
+
+    /**
+     * Aggregates the progress of one course.
+     * @param courseId Id of the course.
+     * @return The progress of the course, or null if it has no members in the database.
+     */
+    @Query(COURSE_PROGRESS_QUERY)
+    CourseProgress queryCourseProgress(int courseId);
+
+    /**
+     * Clears the course_membership table in the database.
+     */
+    @Query("DELETE FROM course_membership")
+    void deleteMemberships();
+}
@@ -58,7 +58,7 @@ public class CourseStatus {
         this.status = status;
     }
 
-    int getCourseId() {
+    public int getCourseId() {
         return courseId;
     }
 
@@ -2,6 +2,7 @@ package com.gaspar.learnjava.database;
 
 import androidx.room.Dao;
 import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
 
 import com.gaspar.learnjava.curriculum.Status;
@@ -22,6 +23,13 @@ public interface ExamDao {
     @Insert
     void addExamStatus(ExamStatus examStatus);
 
+    /**
+     * Adds new exams to the database. Exams that are already in the database are left unchanged.
+     * @param examStatuses Objects that describe the exams.
+     */
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    void addExamStatuses(List<ExamStatus> examStatuses);
+
     /**
      * Fetches information about an exam from the database.
      * @param examId The id of the exam.
@@ -46,6 +54,13 @@ public interface ExamDao {
     @Query("UPDATE exam_status SET last_started = :lastStarted WHERE exam_id == :examId")
     void updateExamLastStarted(int examId, long lastStarted);
 
+    /**
+     * Lists the ids of all exams in the database.
+     * @return The exam ids.
+     */
+    @Query("SELECT exam_id FROM exam_status")
+    List<Integer> queryAllExamIds();
+
     /**
      * Clears all exams from the database.
      */
@@ -59,6 +74,13 @@ public interface ExamDao {
     @Query("SELECT status FROM exam_status")
     List<Integer> getAllExamStatus();
 
+    /**
+     * Lists all exams from the database, with every attribute.
+     * @return Objects describing the exams.
+     */
+    @Query("SELECT * FROM exam_status")
+    List<ExamStatus> getAllExamStatuses();
+
     /**
      * Updates the top score attribute of an existing exam in the database.
      * @param examId Id of the exam to be updated.
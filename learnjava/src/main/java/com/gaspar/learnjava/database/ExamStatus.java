@@ -62,7 +62,7 @@ public class ExamStatus {
         this.topScore = topScore;
     }
 
-    int getExamId() {
+    public int getExamId() {
         return examId;
     }
 
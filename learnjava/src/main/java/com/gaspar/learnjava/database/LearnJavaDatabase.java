@@ -30,16 +30,23 @@ import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 /**
  * A singleton class representing the app database. All methods of this class should only
  * be used in background threads.
  */
-@Database(entities = {CourseStatus.class, ChapterStatus.class, TaskStatus.class, ExamStatus.class, PlaygroundFile.class},
-        version = 2, exportSchema = false)
+@Database(entities = {CourseStatus.class, ChapterStatus.class, TaskStatus.class, ExamStatus.class, PlaygroundFile.class,
+        CourseMembership.class, PlaygroundFileVersion.class, PendingRun.class}, version = LearnJavaDatabase.DATABASE_VERSION, exportSchema = false)
 @WorkerThread
 public abstract class LearnJavaDatabase extends RoomDatabase {
 
+    /**
+     * The version of the database schema. It is also part of the {@link ValidationFingerprint}, so that the
+     * database is validated after a migration.
+     */
+    static final int DATABASE_VERSION = 6;
+
     /**
      * The only database instance.
      */
@@ -53,7 +60,7 @@ public abstract class LearnJavaDatabase extends RoomDatabase {
     public static LearnJavaDatabase getInstance(@NonNull Context context) {
         if(instance == null) {
             instance = Room.databaseBuilder(context, LearnJavaDatabase.class, "learn_java_database")
-                    .addMigrations(MIGRATION_1_2)
+                    .addMigrations(MIGRATION_1_2, MIGRATION_2_3, MIGRATION_3_4, MIGRATION_4_5, MIGRATION_5_6)
                     .build();
         }
         return instance;
@@ -84,83 +91,196 @@ public abstract class LearnJavaDatabase extends RoomDatabase {
      */
     public abstract PlaygroundFileDao getPlaygroundFileDao();
 
+    /**
+     * @return An object which is used to modify the course membership table, and to query course progress.
+     */
+    public abstract CourseProgressDao getCourseProgressDao();
+
+    /**
+     * @return An object which is used to modify the playground file history table.
+     */
+    public abstract PlaygroundFileHistoryDao getPlaygroundFileHistoryDao();
+
+    /**
+     * @return An object which is used to modify the pending runs table.
+     */
+    public abstract PendingRunDao getPendingRunDao();
+
     /**
      * Goes through all asset files and checks if the curriculum elements (course, task, ...)
      * are added to the database or not. If not it adds them.
+     * <p>
+     * The asset listing is compared with the {@link ValidationFingerprint} of the last validation. If nothing
+     * changed and the database still has the validated courses, the validation is skipped. Otherwise only the ids
+     * that were not validated before are checked.
+     * <p>
+     * The course of every chapter, task and exam is also saved as {@link CourseMembership}, for the progress queries.
      */
     public static void validateDatabase(@NonNull Context context) {
         LogUtils.log("BEGINNING TO VALIDATE DATABASE!");
-        List<Integer> idList = new ArrayList<>();
         final AssetManager manager = context.getAssets(); //get access to assets
         final String localizedAssets = LocalizationUtils.getLocalizedAssetPath();
         try {
+            //listing the assets is cheap, parsing them is what takes time
+            final String[] coursePaths = listAssets(manager, localizedAssets + "/courses");
+            final String[] chapterPaths = listAssets(manager, localizedAssets + "/chapters");
+            final String[] taskPaths = listAssets(manager, localizedAssets + "/tasks");
+            final String[] examPaths = listAssets(manager, localizedAssets + "/exams");
+            final String fingerprint = ValidationFingerprint.compute(localizedAssets, coursePaths, chapterPaths, taskPaths, examPaths);
+            //the validated ids are in the preferences, they can't be trusted if the database lost its rows
+            final List<Integer> databaseCourseIds = getInstance(context).getCourseDao().queryAllCourseIds();
+            final Set<Integer> storedCourseIds = ValidationFingerprint.getValidatedIds(context, ValidationFingerprint.COURSE_IDS_PREF_NAME);
+            if(ValidationFingerprint.canSkipValidation(fingerprint, ValidationFingerprint.getStored(context),
+                    storedCourseIds, databaseCourseIds)) {
+                LogUtils.log("Curriculum did not change since the last validation, skipping!");
+                for(int i = 0; i < coursePaths.length; i++) {
+                    CourseStatus.incrementCourseCount(); //one course XML is one course
+                }
+                return;
+            }
+            if(!ValidationFingerprint.matchesDatabase(storedCourseIds, databaseCourseIds)) {
+                LogUtils.log("Database does not contain the validated courses, validating everything!");
+                ValidationFingerprint.invalidate(context);
+            }
             final XmlPullParserFactory factory = XmlPullParserFactory.newInstance();
             factory.setNamespaceAware(true);
             //list all courses
-            final String[] coursePaths = manager.list(localizedAssets + "/courses"); //list course XML-s in the courses asset folder
+            List<Integer> courseIds = new ArrayList<>();
+            final List<CourseMembership> memberships = new ArrayList<>();
             for(String relCoursePath: coursePaths) { //check every course XML for the correct id
                 String coursePath = localizedAssets + "/courses/" + relCoursePath;
                 try(final InputStream is = manager.open(coursePath)) { //open course XML as input stream
                     final XmlPullParser parser = factory.newPullParser();
                     parser.setInput(is, "UTF-8");
                     final Course course = CourseParser.getInstance().parseCourse(parser, context); //parse this course
-                    idList.add(course.getId());
+                    courseIds.add(course.getId());
+                    addMemberships(course, memberships);
                 }
             }
             /* important, as the one with the smallest id is the first course, and that must get unlocked by default. */
-            Collections.sort(idList);
-            for(int courseId: idList) {
-                Course.validateCourseStatus(courseId, context);
+            Collections.sort(courseIds);
+            final Set<Integer> validatedCourseIds = ValidationFingerprint.getValidatedIds(context, ValidationFingerprint.COURSE_IDS_PREF_NAME);
+            final List<Integer> newCourseIds = new ArrayList<>();
+            for(int courseId: courseIds) {
+                CourseStatus.incrementCourseCount(); //every course counts, even if it is already in the database
+                if(!validatedCourseIds.contains(courseId)) newCourseIds.add(courseId);
             }
-            //list and validate all chapters
-            final String[] chapterPaths = manager.list(localizedAssets + "/chapters");
+            //list all chapters
+            List<Integer> chapterIds = new ArrayList<>();
             for(String relChapterPath: chapterPaths) { //check every chapter XML for the correct id
                 String chapterPath = localizedAssets + "/chapters/" + relChapterPath;
                 try(final InputStream is = manager.open(chapterPath)) { //open chapter XML as input stream
                     final XmlPullParser parser = factory.newPullParser();
                     parser.setInput(is, "UTF-8");
                     final Chapter chapter = CourseParser.getInstance().parseChapterData(parser, false, context); //parse this chapter
-                    Chapter.validateChapterStatus(chapter.getId(), context); //validate
+                    chapterIds.add(chapter.getId());
                 }
             }
-            //list and validate tasks
-            final String[] taskPaths = manager.list(localizedAssets + "/tasks");
+            //list tasks
+            List<Integer> taskIds = new ArrayList<>();
             for(String relTaskPath: taskPaths) { //check every task XML for the correct id
                 String taskPath = localizedAssets + "/tasks/" + relTaskPath;
                 try(final InputStream is = manager.open(taskPath)) { //open task XML as input stream
                     final XmlPullParser parser = factory.newPullParser();
                     parser.setInput(is, "UTF-8");
                     final Task task = TaskParser.getInstance().parseTaskData(parser, false, context); //parse this chapter
-                    Task.validateTaskStatus(task.getId(), context); //validate
+                    taskIds.add(task.getId());
                 }
             }
-            //list and validate exams
-            final String[] examPaths = manager.list(localizedAssets + "/exams");
+            //list exams
+            List<Integer> examIds = new ArrayList<>();
             for(String relExamPath: examPaths) { //check every exam XML for the correct id
                 String examPath = localizedAssets + "/exams/" + relExamPath;
                 try(final InputStream is = manager.open(examPath)) { //open exam XML as input stream
                     final XmlPullParser parser = factory.newPullParser();
                     parser.setInput(is, "UTF-8");
                     final Exam exam = ExamParser.getInstance().parseExamData(parser, false); //parse this exam
-                    Exam.validateExamStatus(exam.getId(), context); //validate
+                    examIds.add(exam.getId());
                 }
             }
+            //only the ids that were not validated before need to be checked
+            final List<Integer> newChapterIds = filterNotValidated(context, chapterIds, ValidationFingerprint.CHAPTER_IDS_PREF_NAME);
+            final List<Integer> newTaskIds = filterNotValidated(context, taskIds, ValidationFingerprint.TASK_IDS_PREF_NAME);
+            final List<Integer> newExamIds = filterNotValidated(context, examIds, ValidationFingerprint.EXAM_IDS_PREF_NAME);
+            final int firstCourseId = courseIds.isEmpty() ? -1 : courseIds.get(0);
+            //all parsing is done, write the missing statuses in one transaction
+            final CourseProgressDao courseProgressDao = getInstance(context).getCourseProgressDao();
+            getInstance(context).runInTransaction(() -> {
+                Course.validateCourseStatuses(newCourseIds, firstCourseId, context);
+                Chapter.validateChapterStatuses(newChapterIds, context);
+                Task.validateTaskStatuses(newTaskIds, context);
+                Exam.validateExamStatuses(newExamIds, context);
+                courseProgressDao.deleteMemberships(); //the curriculum changed, elements may have moved
+                courseProgressDao.addMemberships(memberships);
+            });
+            //only save the fingerprint when everything is in the database
+            ValidationFingerprint.store(context, fingerprint, courseIds, chapterIds, taskIds, examIds);
         } catch (XmlPullParserException | IOException e) {
             throw new RuntimeException("Failed to validate database: " + e.getClass().getSimpleName() + " - " + e.getMessage());
         }
         LogUtils.log("FINISHED VALIDATION OF DATABASE!");
     }
 
+    /**
+     * Creates the {@link CourseMembership} objects of the chapters, tasks and exam of a course.
+     * @param course The course.
+     * @param memberships The objects are added to this list.
+     */
+    private static void addMemberships(@NonNull Course course, @NonNull List<CourseMembership> memberships) {
+        for(Chapter chapter: course.getChapters()) {
+            memberships.add(new CourseMembership(StatusStore.Type.CHAPTER, chapter.getId(), course.getId()));
+        }
+        for(Task task: course.getTasks()) {
+            memberships.add(new CourseMembership(StatusStore.Type.TASK, task.getId(), course.getId()));
+        }
+        memberships.add(new CourseMembership(StatusStore.Type.EXAM, course.getExam().getId(), course.getId()));
+    }
+
+    /**
+     * Selects the ids which were not validated the last time.
+     * @param context Context.
+     * @param ids All ids of one curriculum type.
+     * @param prefName Preference key of the validated id set, such as {@link ValidationFingerprint#CHAPTER_IDS_PREF_NAME}.
+     * @return The ids which must be validated.
+     */
+    @NonNull
+    private static List<Integer> filterNotValidated(@NonNull Context context, @NonNull List<Integer> ids, @NonNull String prefName) {
+        final Set<Integer> validatedIds = ValidationFingerprint.getValidatedIds(context, prefName);
+        final List<Integer> newIds = new ArrayList<>();
+        for(int id: ids) {
+            if(!validatedIds.contains(id)) newIds.add(id);
+        }
+        return newIds;
+    }
+
+    /**
+     * Lists the contents of an asset folder.
+     * @param manager Asset manager.
+     * @param folder Path of the folder.
+     * @return Names of the files in the folder.
+     * @throws IOException If the folder could not be listed.
+     */
+    @NonNull
+    private static String[] listAssets(@NonNull AssetManager manager, @NonNull String folder) throws IOException {
+        final String[] paths = manager.list(folder);
+        if(paths == null) throw new IOException("Failed to list assets: " + folder);
+        return paths;
+    }
+
     /**
      * Deletes all records from the database.
      */
     public static void resetDatabase(@NonNull Context context) {
+        ValidationFingerprint.invalidate(context); //everything must be validated again
         LearnJavaDatabase database = LearnJavaDatabase.getInstance(context);
         database.getCourseDao().deleteRecords();
         database.getChapterDao().deleteRecords();
         database.getExamDao().deleteRecords();
         database.getTaskDao().deleteRecords();
         database.getPlaygroundFileDao().deleteRecords();
+        database.getPlaygroundFileHistoryDao().deleteRecords();
+        database.getPendingRunDao().deleteRecords();
+        PlaygroundFileSnapshot.getInstance().invalidate(); //the saved files are gone
         CourseStatus.initCourseCount(0, context); //also reset course counter variable
     }
 
@@ -179,15 +299,55 @@ public abstract class LearnJavaDatabase extends RoomDatabase {
         }
     };
 
-    /*
+    /**
+     * Migration from database version 2 to version 3. In this migration, the new table represented by
+     * {@link CourseMembership} was added. It is filled by the next validation.
+     */
     private static final Migration MIGRATION_2_3 = new Migration(2,3) {
         @Override
         public void migrate(@NonNull SupportSQLiteDatabase database) {
-
+            database.execSQL("CREATE TABLE `course_membership` (`element_type` INTEGER NOT NULL, `element_id` INTEGER NOT NULL, " +
+                    "`course_id` INTEGER NOT NULL, PRIMARY KEY (`element_type`, `element_id`))");
         }
     };
 
+    /**
+     * Migration from database version 3 to version 4. In this migration, the compressed_content column was added
+     * to the table represented by {@link PlaygroundFile}. Existing files stay uncompressed until they are saved again.
+     */
     private static final Migration MIGRATION_3_4 = new Migration(3,4) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("ALTER TABLE `playground_files` ADD COLUMN `compressed_content` BLOB");
+        }
+    };
+
+    /**
+     * Migration from database version 4 to version 5. In this migration, the new table represented by
+     * {@link PlaygroundFileVersion} was added. The history of each file starts with its next save.
+     */
+    private static final Migration MIGRATION_4_5 = new Migration(4,5) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE `playground_file_history` (`file_name` TEXT NOT NULL, `sequence` INTEGER NOT NULL, " +
+                    "`is_snapshot` INTEGER NOT NULL, `payload` TEXT NOT NULL, `saved_at` INTEGER NOT NULL, PRIMARY KEY (`file_name`, `sequence`))");
+        }
+    };
+
+    /**
+     * Migration from database version 5 to version 6. In this migration, the new table represented by
+     * {@link PendingRun} was added.
+     */
+    private static final Migration MIGRATION_5_6 = new Migration(5,6) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE `pending_runs` (`run_key` TEXT NOT NULL, `payload` TEXT NOT NULL, " +
+                    "`queued_at` INTEGER NOT NULL, `result` TEXT, PRIMARY KEY (`run_key`))");
+        }
+    };
+
+    /*
+    private static final Migration MIGRATION_6_7 = new Migration(6,7) {
         @Override
         public void migrate(@NonNull SupportSQLiteDatabase database) {
 
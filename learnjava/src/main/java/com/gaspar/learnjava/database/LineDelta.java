@@ -0,0 +1,201 @@
+package com.gaspar.learnjava.database;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Line based delta encoding, used to store the versions of playground files compactly. A delta turns an old
+ * content into a new one, and it is a list of operations, one per line:
+ * <ul>
+ *     <li>{@code =n}: keep the next n lines of the old content.</li>
+ *     <li>{@code -n}: skip the next n lines of the old content.</li>
+ *     <li>{@code +text}: add a line to the new content.</li>
+ * </ul>
+ * Common leading and trailing lines are found first. The lines between them are compared with a longest common
+ * subsequence search, unless they are too many, in which case they are simply replaced.
+ */
+public abstract class LineDelta {
+
+    /**
+     * If the product of the changed line counts is larger than this, the changed lines are replaced instead of searching
+     * for common lines between them. This bounds the time and memory of {@link #encode(String, String)}.
+     */
+    private static final int MAX_SEARCH_CELLS = 250_000;
+
+    /**
+     * Creates a delta.
+     * @param oldContent The old content.
+     * @param newContent The new content.
+     * @return The delta, which turns the old content into the new one with {@link #apply(String, String)}.
+     */
+    @NonNull
+    public static String encode(@NonNull String oldContent, @NonNull String newContent) {
+        final String[] oldLines = splitLines(oldContent);
+        final String[] newLines = splitLines(newContent);
+        int prefix = 0;
+        while(prefix < oldLines.length && prefix < newLines.length && oldLines[prefix].equals(newLines[prefix])) {
+            prefix++;
+        }
+        int suffix = 0;
+        while(suffix < oldLines.length - prefix && suffix < newLines.length - prefix
+                && oldLines[oldLines.length - 1 - suffix].equals(newLines[newLines.length - 1 - suffix])) {
+            suffix++;
+        }
+        final DeltaBuilder builder = new DeltaBuilder();
+        builder.keep(prefix);
+        final int oldEnd = oldLines.length - suffix;
+        final int newEnd = newLines.length - suffix;
+        final long cells = (long)(oldEnd - prefix) * (newEnd - prefix);
+        if(cells > MAX_SEARCH_CELLS) { //too large, replace the changed lines
+            builder.delete(oldEnd - prefix);
+            for(int i = prefix; i < newEnd; i++) builder.insert(newLines[i]);
+        } else {
+            encodeChanged(oldLines, prefix, oldEnd, newLines, prefix, newEnd, builder);
+        }
+        builder.keep(suffix);
+        return builder.build();
+    }
+
+    /**
+     * Applies a delta.
+     * @param oldContent The content that the delta was created from.
+     * @param delta The delta.
+     * @return The new content.
+     * @throws IllegalArgumentException If the delta is invalid, or does not belong to the content.
+     */
+    @NonNull
+    public static String apply(@NonNull String oldContent, @NonNull String delta) {
+        final String[] oldLines = splitLines(oldContent);
+        final List<String> newLines = new ArrayList<>();
+        int position = 0;
+        if(!delta.isEmpty()) {
+            for(String operation: delta.split("\n", -1)) {
+                if(operation.isEmpty()) throw new IllegalArgumentException("Empty delta operation!");
+                final char type = operation.charAt(0);
+                if(type == '+') {
+                    newLines.add(operation.substring(1));
+                    continue;
+                }
+                final int count;
+                try {
+                    count = Integer.parseInt(operation.substring(1));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid delta operation: " + operation);
+                }
+                if(count < 0 || position + count > oldLines.length) {
+                    throw new IllegalArgumentException("Delta does not match the content!");
+                }
+                if(type == '=') {
+                    for(int i = position; i < position + count; i++) newLines.add(oldLines[i]);
+                } else if(type != '-') {
+                    throw new IllegalArgumentException("Invalid delta operation: " + operation);
+                }
+                position += count;
+            }
+        }
+        if(position != oldLines.length) throw new IllegalArgumentException("Delta does not match the content!");
+        return joinLines(newLines);
+    }
+
+    /**
+     * Encodes the changed lines in the middle, using a longest common subsequence table.
+     */
+    private static void encodeChanged(String[] oldLines, int oldStart, int oldEnd, String[] newLines, int newStart,
+                                      int newEnd, DeltaBuilder builder) {
+        final int oldCount = oldEnd - oldStart;
+        final int newCount = newEnd - newStart;
+        //lcs[i][j] is the length of the common subsequence of old lines from i and new lines from j
+        final int[][] lcs = new int[oldCount + 1][newCount + 1];
+        for(int i = oldCount - 1; i >= 0; i--) {
+            for(int j = newCount - 1; j >= 0; j--) {
+                if(oldLines[oldStart + i].equals(newLines[newStart + j])) {
+                    lcs[i][j] = lcs[i + 1][j + 1] + 1;
+                } else {
+                    lcs[i][j] = Math.max(lcs[i + 1][j], lcs[i][j + 1]);
+                }
+            }
+        }
+        int i = 0, j = 0;
+        while(i < oldCount && j < newCount) {
+            if(oldLines[oldStart + i].equals(newLines[newStart + j])) {
+                builder.keep(1);
+                i++;
+                j++;
+            } else if(lcs[i + 1][j] >= lcs[i][j + 1]) {
+                builder.delete(1);
+                i++;
+            } else {
+                builder.insert(newLines[newStart + j]);
+                j++;
+            }
+        }
+        builder.delete(oldCount - i);
+        for(; j < newCount; j++) builder.insert(newLines[newStart + j]);
+    }
+
+    /**
+     * Splits content into lines. Empty content has no lines, to tell it apart from a single empty line.
+     */
+    private static String[] splitLines(@NonNull String content) {
+        if(content.isEmpty()) return new String[0];
+        return content.split("\n", -1);
+    }
+
+    /**
+     * Inverse of {@link #splitLines(String)}.
+     */
+    private static String joinLines(@NonNull List<String> lines) {
+        if(lines.isEmpty()) return "";
+        final StringBuilder builder = new StringBuilder();
+        for(int i = 0; i < lines.size(); i++) {
+            if(i > 0) builder.append('\n');
+            builder.append(lines.get(i));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Builds the operations of a delta, merging consecutive keeps and deletes.
+     */
+    private static class DeltaBuilder {
+
+        private final List<String> operations = new ArrayList<>();
+
+        private char pendingType;
+
+        private int pendingCount;
+
+        void keep(int count) {
+            add('=', count);
+        }
+
+        void delete(int count) {
+            add('-', count);
+        }
+
+        void insert(String line) {
+            flush();
+            operations.add("+" + line);
+        }
+
+        String build() {
+            flush();
+            return joinLines(operations);
+        }
+
+        private void add(char type, int count) {
+            if(count == 0) return;
+            if(pendingType != type) flush();
+            pendingType = type;
+            pendingCount += count;
+        }
+
+        private void flush() {
+            if(pendingCount > 0) operations.add(pendingType + String.valueOf(pendingCount));
+            pendingType = 0;
+            pendingCount = 0;
+        }
+    }
+}
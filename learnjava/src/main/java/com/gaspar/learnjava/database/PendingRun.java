@@ -0,0 +1,95 @@
+package com.gaspar.learnjava.database;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Ignore;
+import androidx.room.PrimaryKey;
+
+/**
+ * Represents the table which stores the code runs that were requested while the device was offline. A pending run
+ * is identified by its run key, the hash of its files and input, so a newer run of the same program with the same input replaces
+ * the older one. When the run is replayed, its result is stored here until it is shown to the user.
+ * @see PendingRunDao
+ * @see com.gaspar.learnjava.playground.OfflineRunQueue
+ */
+@Entity(tableName = "pending_runs")
+public class PendingRun {
+
+    /**
+     * Hash of the file names, the contents and the input of the program, see
+     * {@link com.gaspar.learnjava.playground.RunResultCache#computeKey(com.gaspar.learnjava.playground.ProgramPayload)}.
+     */
+    @NonNull
+    @PrimaryKey
+    @ColumnInfo(name = "run_key")
+    private String runKey;
+
+    /**
+     * The program payload, as JSON.
+     */
+    @NonNull
+    @ColumnInfo(name = "payload")
+    private String payload;
+
+    /**
+     * The time when the run was requested, in milliseconds.
+     */
+    @ColumnInfo(name = "queued_at")
+    private long queuedAt;
+
+    /**
+     * The program response as JSON, or null if the run was not replayed yet.
+     */
+    @Nullable
+    @ColumnInfo(name = "result")
+    private String result;
+
+    public PendingRun() { //required by Room
+        runKey = "";
+        payload = "";
+    }
+
+    @Ignore
+    public PendingRun(@NonNull String runKey, @NonNull String payload, long queuedAt) {
+        this.runKey = runKey;
+        this.payload = payload;
+        this.queuedAt = queuedAt;
+    }
+
+    @NonNull
+    public String getRunKey() {
+        return runKey;
+    }
+
+    public void setRunKey(@NonNull String runKey) {
+        this.runKey = runKey;
+    }
+
+    @NonNull
+    public String getPayload() {
+        return payload;
+    }
+
+    public void setPayload(@NonNull String payload) {
+        this.payload = payload;
+    }
+
+    public long getQueuedAt() {
+        return queuedAt;
+    }
+
+    public void setQueuedAt(long queuedAt) {
+        this.queuedAt = queuedAt;
+    }
+
+    @Nullable
+    public String getResult() {
+        return result;
+    }
+
+    public void setResult(@Nullable String result) {
+        this.result = result;
+    }
+}
@@ -0,0 +1,77 @@
+package com.gaspar.learnjava.database;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import java.util.List;
+
+/**
+ * Used to modify contents of the pending runs table.
+ * @see PendingRun
+ */
+@Dao
+public interface PendingRunDao {
+
+    /**
+     * Adds a pending run. A run with the same hash, which has the same files and input, is replaced.
+     * @param pendingRun The run.
+     */
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insertPendingRun(@NonNull PendingRun pendingRun);
+
+    /**
+     * Queries the runs which were not replayed yet, from the oldest.
+     * @return The runs.
+     */
+    @Query("SELECT * FROM pending_runs WHERE result IS NULL ORDER BY queued_at")
+    List<PendingRun> queryPendingRuns();
+
+    /**
+     * Queries the runs which were replayed, but their result was not shown yet, from the oldest.
+     * @return The runs.
+     */
+    @Query("SELECT * FROM pending_runs WHERE result IS NOT NULL ORDER BY queued_at")
+    List<PendingRun> queryCompletedRuns();
+
+    /**
+     * Counts the runs which were not replayed yet.
+     * @return The amount of runs.
+     */
+    @Query("SELECT COUNT(*) FROM pending_runs WHERE result IS NULL")
+    int countPendingRuns();
+
+    /**
+     * Stores the result of a replayed run. Does nothing if the run was replaced in the meantime.
+     * @param runKey The key of the run, see {@link PendingRun#getRunKey()}.
+     * @param queuedAt The time when the replayed run was requested.
+     * @param result The program response, as JSON.
+     */
+    @Query("UPDATE pending_runs SET result = :result WHERE run_key = :runKey AND queued_at = :queuedAt")
+    void updateResult(@NonNull String runKey, long queuedAt, @Nullable String result);
+
+    /**
+     * Removes a run. Does nothing if the run was replaced in the meantime.
+     * @param runKey The key of the run, see {@link PendingRun#getRunKey()}.
+     * @param queuedAt The time when the run was requested.
+     */
+    @Query("DELETE FROM pending_runs WHERE run_key = :runKey AND queued_at = :queuedAt")
+    void deletePendingRun(@NonNull String runKey, long queuedAt);
+
+    /**
+     * Removes the oldest runs which were not replayed yet, so that at most the given amount remains.
+     * @param keep The amount of runs to keep.
+     */
+    @Query("DELETE FROM pending_runs WHERE result IS NULL AND run_key NOT IN " +
+            "(SELECT run_key FROM pending_runs WHERE result IS NULL ORDER BY queued_at DESC LIMIT :keep)")
+    void trimPendingRuns(int keep);
+
+    /**
+     * Removes all runs.
+     */
+    @Query("DELETE FROM pending_runs")
+    void deleteRecords();
+}
@@ -1,17 +1,14 @@
 package com.gaspar.learnjava.database;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.room.ColumnInfo;
 import androidx.room.Entity;
 import androidx.room.Ignore;
 import androidx.room.PrimaryKey;
 
-import com.gaspar.learnjava.utils.LogUtils;
 import com.squareup.moshi.Json;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * Represents the table which stores files from the playground, and can be used to
  * modify these stored files. This table is updated when {@link com.gaspar.learnjava.playground.PlaygroundActivity}
@@ -37,13 +34,22 @@ public class PlaygroundFile {
     private String fileName;
 
     /**
-     * File content, which is unformatted code.
+     * File content, which is unformatted code. When the file is stored compressed, this is empty in the database,
+     * see {@link PlaygroundFileCompression}.
      */
     @NonNull
     @ColumnInfo(name = "content")
     @Json(name = "content")
     private String content;
 
+    /**
+     * Compressed file content, only used in the database, and only for large files. It is transient, so it is
+     * never serialized into JSON.
+     */
+    @Nullable
+    @ColumnInfo(name = "compressed_content")
+    private transient byte[] compressedContent;
+
     @SuppressWarnings("unused")
     public PlaygroundFile() { //required by Room
         fileName = "";
@@ -81,6 +87,15 @@ public class PlaygroundFile {
         this.content = content;
     }
 
+    @Nullable
+    byte[] getCompressedContent() {
+        return compressedContent;
+    }
+
+    void setCompressedContent(@Nullable byte[] compressedContent) {
+        this.compressedContent = compressedContent;
+    }
+
     /**
      * This method is only overridden for logging purposes.
      * @return The file name.
@@ -93,13 +108,15 @@ public class PlaygroundFile {
 
     /**
      * Cleans the content of the file, to remove characters that would not be allowed by the Java compiler.
-     * @return The cleaned content.
+     * @return The cleaned content. If there is nothing to clean, this is the content itself, not a copy.
      */
+    @NonNull
     public String getCleanedContent() {
-        LogUtils.log("Content before clean:\n" + content);
-        StringBuilder builder = new StringBuilder();
+        if(content.indexOf('\u00a0') < 0) return content; //nothing to clean, which is the usual case
+        final StringBuilder builder = new StringBuilder(content.length());
         boolean insideLiteral = false;
-        for(char contentChar: content.toCharArray()) {
+        for(int i = 0; i < content.length(); i++) {
+            final char contentChar = content.charAt(i);
             if(contentChar == '\"') { //moving in or out of a literal
                 insideLiteral = !insideLiteral;
             }
@@ -108,27 +125,12 @@ public class PlaygroundFile {
             does not like this character, replace it with simple space.
              */
             if('\u00a0' == contentChar && !insideLiteral) {
-                builder.append(" ");
+                builder.append(' ');
                 continue;
             }
             //append
             builder.append(contentChar);
         }
-        LogUtils.log("Content after clean:\n" + builder.toString());
         return builder.toString();
     }
-
-    /**
-     * Cleans the contents of all files.
-     * @param playgroundFiles The files with uncleaned content.
-     * @return A new list of files, with cleaned content.
-     */
-    public static List<PlaygroundFile> createCleanedPlaygroundFiles(@NonNull List<PlaygroundFile> playgroundFiles) {
-        List<PlaygroundFile> cleanedFiles = new ArrayList<>();
-        for(PlaygroundFile playgroundFile: playgroundFiles) {
-            PlaygroundFile cleanedFile = new PlaygroundFile(playgroundFile.fileName, playgroundFile.getCleanedContent());
-            cleanedFiles.add(cleanedFile);
-        }
-        return cleanedFiles;
-    }
 }
@@ -0,0 +1,150 @@
+package com.gaspar.learnjava.database;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Converts {@link PlaygroundFile}s between the form used by the app and the form stored in the database. Files
+ * with content larger than {@link #COMPRESSION_THRESHOLD} bytes are stored deflated, in the compressed_content
+ * column, and their content column is empty. Smaller files, and files that would not get smaller, are stored as plain text.
+ * <p>
+ * The compressed data starts with a header: {@link #MAGIC}, {@link #FORMAT_VERSION}, and the length of the
+ * uncompressed UTF-8 content as a 4 byte integer.
+ */
+@WorkerThread
+public abstract class PlaygroundFileCompression {
+
+    /**
+     * Contents smaller than this many bytes are not compressed.
+     */
+    @VisibleForTesting
+    static final int COMPRESSION_THRESHOLD = 4096;
+
+    /**
+     * The first bytes of compressed data.
+     */
+    private static final byte[] MAGIC = {'L', 'J', 'Z'};
+
+    /**
+     * The version of the compressed format.
+     */
+    private static final byte FORMAT_VERSION = 1;
+
+    /**
+     * Length of the header, in bytes.
+     */
+    private static final int HEADER_LENGTH = MAGIC.length + 1 + 4;
+
+    /**
+     * Creates the database form of files.
+     * @param files The files, as used by the app.
+     * @return New file objects, which can be inserted into the database.
+     */
+    @NonNull
+    public static List<PlaygroundFile> toStorage(@NonNull List<PlaygroundFile> files) {
+        List<PlaygroundFile> storedFiles = new ArrayList<>(files.size());
+        for(PlaygroundFile file: files) {
+            PlaygroundFile storedFile = new PlaygroundFile(file.getFileName(), file.getContent());
+            byte[] compressed = compress(file.getContent());
+            if(compressed != null) {
+                storedFile.setContent("");
+                storedFile.setCompressedContent(compressed);
+            }
+            storedFiles.add(storedFile);
+        }
+        return storedFiles;
+    }
+
+    /**
+     * Restores the content of files queried from the database. The files are modified.
+     * @param storedFiles The files, as they were stored in the database.
+     * @return The same list, with the content of every file decompressed.
+     */
+    @NonNull
+    public static List<PlaygroundFile> fromStorage(@NonNull List<PlaygroundFile> storedFiles) {
+        for(PlaygroundFile storedFile: storedFiles) {
+            byte[] compressed = storedFile.getCompressedContent();
+            if(compressed != null) {
+                storedFile.setContent(decompress(compressed));
+                storedFile.setCompressedContent(null);
+            }
+        }
+        return storedFiles;
+    }
+
+    /**
+     * Compresses content, if it is worth it.
+     * @param content The content.
+     * @return The compressed data with the header, or null if the content should be stored as plain text.
+     */
+    @Nullable
+    @VisibleForTesting
+    static byte[] compress(@NonNull String content) {
+        byte[] raw = content.getBytes(StandardCharsets.UTF_8);
+        if(raw.length < COMPRESSION_THRESHOLD) return null;
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 2);
+            out.write(MAGIC, 0, MAGIC.length);
+            out.write(FORMAT_VERSION);
+            out.write(ByteBuffer.allocate(4).putInt(raw.length).array(), 0, 4);
+            byte[] buffer = new byte[4096];
+            while(!deflater.finished()) {
+                int count = deflater.deflate(buffer);
+                out.write(buffer, 0, count);
+                if(out.size() >= raw.length) return null; //would not get smaller
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Decompresses content created by {@link #compress(String)}.
+     * @param compressed The compressed data with the header.
+     * @return The content.
+     */
+    @NonNull
+    @VisibleForTesting
+    static String decompress(@NonNull byte[] compressed) {
+        if(compressed.length < HEADER_LENGTH || compressed[0] != MAGIC[0] || compressed[1] != MAGIC[1]
+                || compressed[2] != MAGIC[2]) {
+            throw new RuntimeException("Compressed playground file has invalid header!");
+        }
+        if(compressed[MAGIC.length] != FORMAT_VERSION) {
+            throw new RuntimeException("Unknown compressed playground file version: " + compressed[MAGIC.length]);
+        }
+        int rawLength = ByteBuffer.wrap(compressed, MAGIC.length + 1, 4).getInt();
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed, HEADER_LENGTH, compressed.length - HEADER_LENGTH);
+            byte[] raw = new byte[rawLength];
+            int offset = 0;
+            while(offset < rawLength && !inflater.finished()) {
+                int count = inflater.inflate(raw, offset, rawLength - offset);
+                if(count == 0 && (inflater.needsInput() || inflater.needsDictionary())) break;
+                offset += count;
+            }
+            if(offset != rawLength) throw new RuntimeException("Compressed playground file is truncated!");
+            return new String(raw, StandardCharsets.UTF_8);
+        } catch (DataFormatException e) {
+            throw new RuntimeException("Compressed playground file is corrupted!", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -31,6 +31,13 @@ public interface PlaygroundFileDao {
     @Insert(onConflict = OnConflictStrategy.REPLACE)
     void insertOrUpdatePlaygroundFile(@NonNull PlaygroundFile playgroundFile);
 
+    /**
+     * Inserts or replaces multiple playground files, using a single statement.
+     * @param playgroundFiles The new or existing files.
+     */
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insertOrUpdatePlaygroundFiles(@NonNull List<PlaygroundFile> playgroundFiles);
+
     /**
      * Removes a playground file from the database.
      * @param playgroundFile The file to be removed.
@@ -38,6 +45,13 @@ public interface PlaygroundFileDao {
     @Delete
     void deletePlaygroundFile(@NonNull PlaygroundFile playgroundFile);
 
+    /**
+     * Removes playground files from the database.
+     * @param fileNames The names of the files to be removed.
+     */
+    @Query("DELETE FROM playground_files WHERE file_name IN (:fileNames)")
+    void deletePlaygroundFiles(@NonNull List<String> fileNames);
+
     /**
      * Removes all saved playground files.
      */
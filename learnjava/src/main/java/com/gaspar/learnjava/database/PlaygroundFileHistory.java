@@ -0,0 +1,135 @@
+package com.gaspar.learnjava.database;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import java.util.List;
+
+/**
+ * Keeps the saved versions of the playground files, so that earlier versions can be restored, even after the
+ * application was closed. Versions are stored in the table represented by {@link PlaygroundFileVersion}. Most
+ * versions are only a {@link LineDelta} against the previous one, but every {@link #SNAPSHOT_INTERVAL}-th version
+ * is a full snapshot, so restoring a version never needs more deltas than that.
+ * <p>
+ * The history of a file is pruned when its size exceeds {@link #HISTORY_SIZE_CAP}.
+ * The oldest versions are deleted up to the next snapshot, so the remaining versions can always be restored.
+ * The history of a file is deleted together with the file, so the whole table is never larger than the cap
+ * times the number of playground files.
+ */
+@WorkerThread
+public abstract class PlaygroundFileHistory {
+
+    /**
+     * A full snapshot is saved after this many deltas.
+     */
+    static final int SNAPSHOT_INTERVAL = 10;
+
+    /**
+     * The largest size of the saved history of one playground file, in characters.
+     */
+    private static final long HISTORY_SIZE_CAP = 256 * 1024;
+
+    /**
+     * Adds a new version to the history of each file. Must be called in the transaction which saves the files.
+     * @param context Context.
+     * @param playgroundFiles The files which changed, with their uncompressed content.
+     */
+    public static void recordVersions(@NonNull Context context, @NonNull List<PlaygroundFile> playgroundFiles) {
+        recordVersions(LearnJavaDatabase.getInstance(context).getPlaygroundFileHistoryDao(), playgroundFiles,
+                System.currentTimeMillis(), HISTORY_SIZE_CAP);
+    }
+
+    /**
+     * Adds a new version to the history of each file.
+     * @param historyDao The DAO.
+     * @param playgroundFiles The files which changed, with their uncompressed content.
+     * @param now The time of the save.
+     * @param sizeCap The largest size of the history of one file.
+     */
+    static void recordVersions(@NonNull PlaygroundFileHistoryDao historyDao, @NonNull List<PlaygroundFile> playgroundFiles,
+                               long now, long sizeCap) {
+        for(PlaygroundFile playgroundFile: playgroundFiles) {
+            final String fileName = playgroundFile.getFileName();
+            final String content = playgroundFile.getContent();
+            final PlaygroundFileVersion newest = historyDao.queryNewestVersion(fileName);
+            if(newest == null) { //first version of this file
+                historyDao.insertVersion(new PlaygroundFileVersion(fileName, 0, true, content, now));
+                continue;
+            }
+            final int sequence = newest.getSequence() + 1;
+            final PlaygroundFileVersion lastSnapshot = historyDao.querySnapshotBefore(fileName, newest.getSequence());
+            final boolean overCap = historyDao.queryHistorySize(fileName) > sizeCap;
+            if(lastSnapshot == null || sequence - lastSnapshot.getSequence() > SNAPSHOT_INTERVAL || overCap) {
+                //a snapshot is also forced when over the cap, so that the older versions can be pruned
+                historyDao.insertVersion(new PlaygroundFileVersion(fileName, sequence, true, content, now));
+            } else {
+                final String previousContent = reconstruct(historyDao, lastSnapshot, newest.getSequence());
+                final String delta = LineDelta.encode(previousContent, content);
+                historyDao.insertVersion(new PlaygroundFileVersion(fileName, sequence, false, delta, now));
+            }
+            prune(historyDao, fileName, sizeCap);
+        }
+    }
+
+    /**
+     * Deletes the history of files. Must be called in the transaction which deletes the files.
+     * @param context Context.
+     * @param fileNames The names of the deleted files.
+     */
+    public static void deleteHistories(@NonNull Context context, @NonNull List<String> fileNames) {
+        LearnJavaDatabase.getInstance(context).getPlaygroundFileHistoryDao().deleteHistories(fileNames);
+    }
+
+    /**
+     * Restores a version of a file.
+     * @param historyDao The DAO.
+     * @param fileName Name of the file.
+     * @param sequence Sequence number of the version.
+     * @return The content of the file in that version, or null if the version is not in the history.
+     */
+    @Nullable
+    static String restoreVersion(@NonNull PlaygroundFileHistoryDao historyDao, @NonNull String fileName, int sequence) {
+        final PlaygroundFileVersion snapshot = historyDao.querySnapshotBefore(fileName, sequence);
+        if(snapshot == null) return null;
+        return reconstruct(historyDao, snapshot, sequence);
+    }
+
+    /**
+     * Applies the deltas after a snapshot.
+     * @param historyDao The DAO.
+     * @param snapshot The snapshot.
+     * @param sequence The sequence number of the version to reconstruct, not older than the snapshot.
+     * @return The content of the version.
+     */
+    @NonNull
+    private static String reconstruct(@NonNull PlaygroundFileHistoryDao historyDao, @NonNull PlaygroundFileVersion snapshot,
+                                      int sequence) {
+        String content = snapshot.getPayload();
+        if(sequence == snapshot.getSequence()) return content;
+        final List<PlaygroundFileVersion> deltas = historyDao.queryVersions(snapshot.getFileName(), snapshot.getSequence() + 1, sequence);
+        for(PlaygroundFileVersion delta: deltas) {
+            if(delta.isSnapshot()) { //should not happen, but then the snapshot is the content
+                content = delta.getPayload();
+            } else {
+                content = LineDelta.apply(content, delta.getPayload());
+            }
+        }
+        return content;
+    }
+
+    /**
+     * Deletes the oldest versions of a file while the history is larger than the cap. Versions are deleted up to
+     * the second oldest snapshot, so the newest version is never deleted.
+     */
+    private static void prune(@NonNull PlaygroundFileHistoryDao historyDao, @NonNull String fileName, long sizeCap) {
+        final List<Integer> snapshotSequences = historyDao.querySnapshotSequences(fileName);
+        int index = 1;
+        while(index < snapshotSequences.size() && historyDao.queryHistorySize(fileName) > sizeCap) {
+            historyDao.deleteVersionsBefore(fileName, snapshotSequences.get(index));
+            index++;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.gaspar.learnjava.database;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.Query;
+
+import java.util.List;
+
+/**
+ * Used to modify contents of the playground file history table.
+ * @see PlaygroundFileVersion
+ */
+@Dao
+public interface PlaygroundFileHistoryDao {
+
+    /**
+     * Adds a new version.
+     * @param version The version, its file name and sequence number must be unique.
+     */
+    @Insert
+    void insertVersion(@NonNull PlaygroundFileVersion version);
+
+    /**
+     * Queries the newest version of a file.
+     * @param fileName The name of the file.
+     * @return The newest version, or null if the file has no history.
+     */
+    @Nullable
+    @Query("SELECT * FROM playground_file_history WHERE file_name = :fileName ORDER BY sequence DESC LIMIT 1")
+    PlaygroundFileVersion queryNewestVersion(@NonNull String fileName);
+
+    /**
+     * Queries the newest snapshot of a file, which is not newer than a version.
+     * @param fileName The name of the file.
+     * @param sequence The sequence number of the version.
+     * @return The snapshot, or null if there is none.
+     */
+    @Nullable
+    @Query("SELECT * FROM playground_file_history WHERE file_name = :fileName AND is_snapshot = 1 AND sequence <= :sequence " +
+            "ORDER BY sequence DESC LIMIT 1")
+    PlaygroundFileVersion querySnapshotBefore(@NonNull String fileName, int sequence);
+
+    /**
+     * Queries the versions of a file in a range, in order.
+     * @param fileName The name of the file.
+     * @param from First sequence number, inclusive.
+     * @param to Last sequence number, inclusive.
+     * @return The versions.
+     */
+    @Query("SELECT * FROM playground_file_history WHERE file_name = :fileName AND sequence BETWEEN :from AND :to ORDER BY sequence")
+    List<PlaygroundFileVersion> queryVersions(@NonNull String fileName, int from, int to);
+
+    /**
+     * Queries the sequence numbers of the snapshots of a file, from the oldest.
+     * @param fileName The name of the file.
+     * @return The sequence numbers.
+     */
+    @Query("SELECT sequence FROM playground_file_history WHERE file_name = :fileName AND is_snapshot = 1 ORDER BY sequence")
+    List<Integer> querySnapshotSequences(@NonNull String fileName);
+
+    /**
+     * Queries the size of the history of a file.
+     * @param fileName The name of the file.
+     * @return The summed length of the payloads.
+     */
+    @Query("SELECT IFNULL(SUM(LENGTH(payload)), 0) FROM playground_file_history WHERE file_name = :fileName")
+    long queryHistorySize(@NonNull String fileName);
+
+    /**
+     * Removes the versions of a file which are older than a version.
+     * @param fileName The name of the file.
+     * @param sequence The sequence number of the oldest version to keep.
+     */
+    @Query("DELETE FROM playground_file_history WHERE file_name = :fileName AND sequence < :sequence")
+    void deleteVersionsBefore(@NonNull String fileName, int sequence);
+
+    /**
+     * Removes every version of some files.
+     * @param fileNames The names of the files.
+     */
+    @Query("DELETE FROM playground_file_history WHERE file_name IN (:fileNames)")
+    void deleteHistories(@NonNull List<String> fileNames);
+
+    /**
+     * Removes the whole history.
+     */
+    @Query("DELETE FROM playground_file_history")
+    void deleteRecords();
+}
@@ -0,0 +1,197 @@
+package com.gaspar.learnjava.database;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Remembers what the playground files table contains, as a content hash for each file name. Saving the playground
+ * compares the files against this snapshot, so only the changed files are written and only the removed ones are
+ * deleted. Use {@link #getInstance()} to access the singleton, and synchronize on it while saving.
+ * @see com.gaspar.learnjava.asynctask.SavePlaygroundFilesTask
+ */
+public class PlaygroundFileSnapshot {
+
+    /**
+     * The instance.
+     */
+    private static PlaygroundFileSnapshot instance;
+
+    /**
+     * @return The instance.
+     */
+    public static synchronized PlaygroundFileSnapshot getInstance() {
+        if(instance == null) {
+            instance = new PlaygroundFileSnapshot();
+        }
+        return instance;
+    }
+
+    /**
+     * Content hashes of the persisted files, mapped by file name.
+     */
+    private final Map<String, String> persistedHashes;
+
+    /**
+     * Stores if the snapshot describes the database. If not, it must be recorded before it can be used.
+     */
+    private boolean recorded;
+
+    private PlaygroundFileSnapshot() {
+        persistedHashes = new HashMap<>();
+        recorded = false;
+    }
+
+    /**
+     * @return True if the snapshot describes the database.
+     */
+    public synchronized boolean isRecorded() {
+        return recorded;
+    }
+
+    /**
+     * Records the content of the database, replacing the previous snapshot.
+     * @param persistedFiles The files that are in the database.
+     */
+    public synchronized void record(@NonNull Collection<PlaygroundFile> persistedFiles) {
+        persistedHashes.clear();
+        for(PlaygroundFile file: persistedFiles) {
+            persistedHashes.put(file.getFileName(), hash(file.getContent()));
+        }
+        recorded = true;
+    }
+
+    /**
+     * Forgets the snapshot. Must be called when the table is modified without a save, for example on reset.
+     */
+    public synchronized void invalidate() {
+        persistedHashes.clear();
+        recorded = false;
+    }
+
+    /**
+     * Compares files to the snapshot.
+     * @param files The files that should be in the database.
+     * @return The changes that need to be written.
+     */
+    @NonNull
+    public synchronized Diff diff(@NonNull List<PlaygroundFile> files) {
+        return computeDiff(persistedHashes, files);
+    }
+
+    /**
+     * Updates the snapshot after the changes were written to the database.
+     * @param diff The changes that were written.
+     */
+    public synchronized void applied(@NonNull Diff diff) {
+        for(String removedFileName: diff.removedFileNames) {
+            persistedHashes.remove(removedFileName);
+        }
+        persistedHashes.putAll(diff.changedHashes);
+    }
+
+    /**
+     * Compares files to persisted content hashes.
+     * @param persistedHashes Content hashes of the persisted files, mapped by file name.
+     * @param files The files that should be persisted.
+     * @return The changes. Changed files are copied, so the content that was hashed is the content that will be written.
+     */
+    @NonNull
+    @VisibleForTesting
+    static Diff computeDiff(@NonNull Map<String, String> persistedHashes, @NonNull List<PlaygroundFile> files) {
+        final List<PlaygroundFile> changedFiles = new ArrayList<>();
+        final Map<String, String> changedHashes = new HashMap<>();
+        final Set<String> fileNames = new HashSet<>();
+        for(PlaygroundFile file: files) {
+            final String fileName = file.getFileName();
+            final String content = file.getContent(); //read once, the file may be edited meanwhile
+            fileNames.add(fileName);
+            final String contentHash = hash(content);
+            if(!contentHash.equals(persistedHashes.get(fileName))) { //new or modified
+                changedFiles.add(new PlaygroundFile(fileName, content));
+                changedHashes.put(fileName, contentHash);
+            }
+        }
+        final List<String> removedFileNames = new ArrayList<>();
+        for(String persistedFileName: persistedHashes.keySet()) {
+            if(!fileNames.contains(persistedFileName)) removedFileNames.add(persistedFileName);
+        }
+        return new Diff(changedFiles, changedHashes, removedFileNames);
+    }
+
+    /**
+     * Computes the hash of the content of a file.
+     * @param content The content.
+     * @return The hash, as a hex string.
+     */
+    @NonNull
+    @VisibleForTesting
+    static String hash(@NonNull String content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] bytes = digest.digest(content.getBytes(StandardCharsets.UTF_8));
+            StringBuilder builder = new StringBuilder(bytes.length * 2);
+            for(byte b: bytes) {
+                builder.append(String.format("%02x", b));
+            }
+            return builder.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("SHA-256 is not available!", e);
+        }
+    }
+
+    /**
+     * The changes between the snapshot and the files that should be saved.
+     */
+    public static class Diff {
+
+        /**
+         * New or modified files, which must be inserted or updated.
+         */
+        private final List<PlaygroundFile> changedFiles;
+
+        /**
+         * Content hashes of the changed files, mapped by file name.
+         */
+        private final Map<String, String> changedHashes;
+
+        /**
+         * Names of the files which must be deleted.
+         */
+        private final List<String> removedFileNames;
+
+        private Diff(List<PlaygroundFile> changedFiles, Map<String, String> changedHashes, List<String> removedFileNames) {
+            this.changedFiles = Collections.unmodifiableList(changedFiles);
+            this.changedHashes = changedHashes;
+            this.removedFileNames = Collections.unmodifiableList(removedFileNames);
+        }
+
+        @NonNull
+        public List<PlaygroundFile> getChangedFiles() {
+            return changedFiles;
+        }
+
+        @NonNull
+        public List<String> getRemovedFileNames() {
+            return removedFileNames;
+        }
+
+        /**
+         * @return True if nothing needs to be written.
+         */
+        public boolean isEmpty() {
+            return changedFiles.isEmpty() && removedFileNames.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.gaspar.learnjava.database;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Ignore;
+
+/**
+ * Represents the table which stores the saved versions of the playground files. A version is either a full
+ * snapshot of the content, or a {@link LineDelta} against the previous version of the same file. Versions of a
+ * file are numbered with increasing sequence numbers.
+ * @see PlaygroundFileHistory
+ * @see PlaygroundFileHistoryDao
+ */
+@Entity(tableName = "playground_file_history", primaryKeys = {"file_name", "sequence"})
+public class PlaygroundFileVersion {
+
+    /**
+     * Name of the file that this version belongs to.
+     */
+    @NonNull
+    @ColumnInfo(name = "file_name")
+    private String fileName;
+
+    /**
+     * Sequence number of the version, the first version of a file has 0.
+     */
+    @ColumnInfo(name = "sequence")
+    private int sequence;
+
+    /**
+     * If true, the payload is the full content, otherwise it is a delta against the previous version.
+     */
+    @ColumnInfo(name = "is_snapshot")
+    private boolean snapshot;
+
+    /**
+     * The full content or the delta.
+     */
+    @NonNull
+    @ColumnInfo(name = "payload")
+    private String payload;
+
+    /**
+     * The time when the version was saved, in milliseconds.
+     */
+    @ColumnInfo(name = "saved_at")
+    private long savedAt;
+
+    PlaygroundFileVersion() { //required by Room
+        fileName = "";
+        payload = "";
+    }
+
+    @Ignore
+    PlaygroundFileVersion(@NonNull String fileName, int sequence, boolean snapshot, @NonNull String payload, long savedAt) {
+        this.fileName = fileName;
+        this.sequence = sequence;
+        this.snapshot = snapshot;
+        this.payload = payload;
+        this.savedAt = savedAt;
+    }
+
+    @NonNull
+    public String getFileName() {
+        return fileName;
+    }
+
+    void setFileName(@NonNull String fileName) {
+        this.fileName = fileName;
+    }
+
+    public int getSequence() {
+        return sequence;
+    }
+
+    void setSequence(int sequence) {
+        this.sequence = sequence;
+    }
+
+    public boolean isSnapshot() {
+        return snapshot;
+    }
+
+    void setSnapshot(boolean snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    @NonNull
+    String getPayload() {
+        return payload;
+    }
+
+    void setPayload(@NonNull String payload) {
+        this.payload = payload;
+    }
+
+    public long getSavedAt() {
+        return savedAt;
+    }
+
+    void setSavedAt(long savedAt) {
+        this.savedAt = savedAt;
+    }
+}
@@ -0,0 +1,499 @@
+package com.gaspar.learnjava.database;
+
+import android.content.Context;
+import android.util.SparseArray;
+import android.util.SparseIntArray;
+
+import androidx.annotation.AnyThread;
+import androidx.annotation.IntDef;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.UiThread;
+import androidx.annotation.WorkerThread;
+
+import com.gaspar.learnjava.asynctask.ExecutorLane;
+import com.gaspar.learnjava.asynctask.LearnJavaExecutor;
+import com.gaspar.learnjava.curriculum.Exam;
+import com.gaspar.learnjava.curriculum.Status;
+import com.gaspar.learnjava.utils.LogUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Keeps the status of every course, chapter, task and exam in memory. The statuses are loaded once, in bulk,
+ * after the database is validated. After that, reading a status does not touch the database. Use
+ * {@link #getInstance()} to access the singleton.
+ * <p>
+ * Changes must be made through this class: the memory is updated immediately, and the change is written to the
+ * database on a background thread. Writes are performed one after the other, in the order they were made. The registered
+ * {@link StatusObserver}s are notified about every change on the UI thread, so screens can update only the views of
+ * the changed element.
+ */
+public class StatusStore {
+
+    /**
+     * Types of elements whose status is stored.
+     */
+    @IntDef({Type.COURSE, Type.CHAPTER, Type.TASK, Type.EXAM})
+    public @interface Type {
+        int COURSE = 0;
+        int CHAPTER = 1;
+        int TASK = 2;
+        int EXAM = 3;
+    }
+
+    /**
+     * Gets notified when a status in the store changes.
+     */
+    public interface StatusObserver {
+
+        /**
+         * Called on the UI thread when a status changed. The new status can be read from the store.
+         * @param type The type of the changed element.
+         * @param id The id of the changed element.
+         */
+        @UiThread
+        void onStatusChanged(@Type int type, int id);
+    }
+
+    /**
+     * The instance.
+     */
+    private static StatusStore instance;
+
+    /**
+     * @return The instance.
+     */
+    public static synchronized StatusStore getInstance() {
+        if(instance == null) {
+            instance = new StatusStore();
+        }
+        return instance;
+    }
+
+    /**
+     * Course statuses, mapped by course id.
+     */
+    private final SparseIntArray courseStatuses;
+
+    /**
+     * Chapter statuses, mapped by chapter id.
+     */
+    private final SparseIntArray chapterStatuses;
+
+    /**
+     * Task statuses, mapped by task id.
+     */
+    private final SparseIntArray taskStatuses;
+
+    /**
+     * Exam statuses, mapped by exam id. Exams have more information then just the status, so the whole
+     * object is stored.
+     */
+    private final SparseArray<ExamStatus> examStatuses;
+
+    /**
+     * Stores if the statuses were loaded from the database.
+     */
+    private volatile boolean loaded;
+
+    /**
+     * The registered observers. Only accessed on the UI thread.
+     */
+    private final List<StatusObserver> observers;
+
+    /**
+     * Counts the changes made through this class. Only accessed while holding the lock of the store.
+     */
+    private long generation;
+
+    /**
+     * The {@link #generation} of the last change of each element, mapped by {@link #key(int, int)}. A reload
+     * does not overwrite the elements which were changed after it was queued: their writes are performed after
+     * the reload read the database, so the loaded values are older than the ones in memory. Only accessed while
+     * holding the lock of the store.
+     */
+    private final Map<Long, Long> changeGenerations;
+
+    private StatusStore() {
+        courseStatuses = new SparseIntArray();
+        chapterStatuses = new SparseIntArray();
+        taskStatuses = new SparseIntArray();
+        examStatuses = new SparseArray<>();
+        observers = new ArrayList<>();
+        changeGenerations = new HashMap<>();
+        loaded = false;
+    }
+
+    /**
+     * Loads the statuses from the database, if they were not loaded yet. Cheap after the first call. Concurrent
+     * callers share the same load.
+     * @param context Context.
+     */
+    @WorkerThread
+    public void ensureLoaded(@NonNull Context context) {
+        if(loaded) return;
+        //many status tasks start at once when a list is shown, only one of them loads
+        LearnJavaExecutor.getInstance().runSingleFlight("status_store_load", () -> {
+            if(!loaded) reload(context);
+            return null;
+        });
+    }
+
+    /**
+     * Loads every status from the database, with one query per table. Must be called after the contents of the database
+     * were changed without this class, for example after validation. The load waits for the pending writes to finish,
+     * so it must not be called on the {@link ExecutorLane#DATABASE_WRITE} lane. The elements which are changed while
+     * the load is queued keep their new status.
+     * @param context Context.
+     */
+    @WorkerThread
+    public void reload(@NonNull Context context) {
+        checkNotOnWriteLane();
+        final LearnJavaDatabase database = LearnJavaDatabase.getInstance(context);
+        try {
+            final Future<?> load;
+            synchronized (this) { //queued in the same order as the writes
+                final long reloadGeneration = generation;
+                load = LearnJavaExecutor.getInstance().submitToBackgroundThread(ExecutorLane.DATABASE_WRITE, () -> {
+                    database.runInTransaction(() -> { //consistent view of all tables
+                        SparseIntArray courses = new SparseIntArray();
+                        for(CourseStatus courseStatus: database.getCourseDao().getAllCourseStatuses()) {
+                            courses.put(courseStatus.getCourseId(), courseStatus.getStatus());
+                        }
+                        SparseIntArray chapters = new SparseIntArray();
+                        for(ChapterStatus chapterStatus: database.getChapterDao().getAllChapterStatuses()) {
+                            chapters.put(chapterStatus.getChapterId(), chapterStatus.getStatus());
+                        }
+                        SparseIntArray tasks = new SparseIntArray();
+                        for(TaskStatus taskStatus: database.getTaskDao().getAllTaskStatuses()) {
+                            tasks.put(taskStatus.getTaskId(), taskStatus.getStatus());
+                        }
+                        SparseArray<ExamStatus> exams = new SparseArray<>();
+                        for(ExamStatus examStatus: database.getExamDao().getAllExamStatuses()) {
+                            exams.put(examStatus.getExamId(), examStatus);
+                        }
+                        synchronized (StatusStore.this) {
+                            replaceStatuses(Type.COURSE, courseStatuses, courses, reloadGeneration);
+                            replaceStatuses(Type.CHAPTER, chapterStatuses, chapters, reloadGeneration);
+                            replaceStatuses(Type.TASK, taskStatuses, tasks, reloadGeneration);
+                            replaceExamStatuses(exams, reloadGeneration);
+                            //the writes of the older changes are in the database now
+                            Iterator<Long> iterator = changeGenerations.values().iterator();
+                            while(iterator.hasNext()) {
+                                if(iterator.next() <= reloadGeneration) iterator.remove();
+                            }
+                        }
+                    });
+                    return null;
+                });
+            }
+            load.get();
+            loaded = true;
+            LogUtils.log("Loaded statuses into the status store.");
+        } catch (ExecutionException | InterruptedException e) {
+            throw new RuntimeException("Failed to load statuses!", e);
+        }
+    }
+
+    /**
+     * Replaces the statuses of one type with the loaded ones, except the statuses which were changed after the
+     * reload was queued. Must hold the lock of the store.
+     * @param type The type of the elements.
+     * @param statuses The statuses in memory.
+     * @param loadedStatuses The statuses which were loaded from the database.
+     * @param reloadGeneration The {@link #generation} when the reload was queued.
+     */
+    private void replaceStatuses(@Type int type, @NonNull SparseIntArray statuses,
+                                 @NonNull SparseIntArray loadedStatuses, long reloadGeneration) {
+        for(int i = 0; i < statuses.size(); i++) {
+            if(isChangedAfter(type, statuses.keyAt(i), reloadGeneration)) {
+                loadedStatuses.put(statuses.keyAt(i), statuses.valueAt(i));
+            }
+        }
+        statuses.clear();
+        for(int i = 0; i < loadedStatuses.size(); i++) {
+            statuses.put(loadedStatuses.keyAt(i), loadedStatuses.valueAt(i));
+        }
+    }
+
+    /**
+     * Same as {@link #replaceStatuses(int, SparseIntArray, SparseIntArray, long)}, for the exams.
+     */
+    private void replaceExamStatuses(@NonNull SparseArray<ExamStatus> loadedStatuses, long reloadGeneration) {
+        for(int i = 0; i < examStatuses.size(); i++) {
+            if(isChangedAfter(Type.EXAM, examStatuses.keyAt(i), reloadGeneration)) {
+                loadedStatuses.put(examStatuses.keyAt(i), examStatuses.valueAt(i));
+            }
+        }
+        examStatuses.clear();
+        for(int i = 0; i < loadedStatuses.size(); i++) {
+            examStatuses.put(loadedStatuses.keyAt(i), loadedStatuses.valueAt(i));
+        }
+    }
+
+    /**
+     * @return True if the element was changed after the given {@link #generation}. Must hold the lock of the store.
+     */
+    private boolean isChangedAfter(@Type int type, int id, long reloadGeneration) {
+        Long changeGeneration = changeGenerations.get(key(type, id));
+        return changeGeneration != null && changeGeneration > reloadGeneration;
+    }
+
+    /**
+     * Performs a database query after every write that was made before this call. Use this to query data that is
+     * derived from the statuses, such as {@link CourseProgress}. This waits for the pending writes, so it must not be
+     * called on the {@link ExecutorLane#DATABASE_WRITE} lane.
+     * @param query The query.
+     * @param <T> The result type of the query.
+     * @return The result of the query.
+     */
+    @WorkerThread
+    public <T> T queryAfterPendingWrites(@NonNull Callable<T> query) {
+        checkNotOnWriteLane();
+        try {
+            return LearnJavaExecutor.getInstance().submitToBackgroundThread(ExecutorLane.DATABASE_WRITE, query).get();
+        } catch (ExecutionException | InterruptedException e) {
+            throw new RuntimeException("Failed to query the database!", e);
+        }
+    }
+
+    /**
+     * The writes are performed on a single thread, so waiting for them on that thread would never end.
+     */
+    private static void checkNotOnWriteLane() {
+        if(LearnJavaExecutor.getInstance().isOnLane(ExecutorLane.DATABASE_WRITE)) {
+            throw new IllegalStateException("Can't wait for the database writes on the database write lane!");
+        }
+    }
+
+    /**
+     * @param courseId Id of the course.
+     * @return Status of the course, or {@link Status#NOT_QUERIED} if it is not in the store.
+     */
+    @Status
+    public synchronized int getCourseStatus(int courseId) {
+        return courseStatuses.get(courseId, Status.NOT_QUERIED);
+    }
+
+    /**
+     * @param chapterId Id of the chapter.
+     * @return Status of the chapter, or {@link Status#NOT_QUERIED} if it is not in the store.
+     */
+    @Status
+    public synchronized int getChapterStatus(int chapterId) {
+        return chapterStatuses.get(chapterId, Status.NOT_QUERIED);
+    }
+
+    /**
+     * @param taskId Id of the task.
+     * @return Status of the task, or {@link Status#NOT_QUERIED} if it is not in the store.
+     */
+    @Status
+    public synchronized int getTaskStatus(int taskId) {
+        return taskStatuses.get(taskId, Status.NOT_QUERIED);
+    }
+
+    /**
+     * @param examId Id of the exam.
+     * @return Object describing the exam, or null if it is not in the store. This is a copy, modifying it
+     * has no effect.
+     */
+    @Nullable
+    public synchronized ExamStatus getExamStatus(int examId) {
+        ExamStatus examStatus = examStatuses.get(examId);
+        if(examStatus == null) return null;
+        return new ExamStatus(examId, examStatus.getStatus(), examStatus.getLastStarted(), examStatus.getTopScore());
+    }
+
+    /**
+     * @return The status of every exam.
+     */
+    @NonNull
+    public synchronized List<Integer> getAllExamStatus() {
+        List<Integer> statuses = new ArrayList<>(examStatuses.size());
+        for(int i = 0; i < examStatuses.size(); i++) {
+            statuses.add(examStatuses.valueAt(i).getStatus());
+        }
+        return statuses;
+    }
+
+    /**
+     * Updates the status of a course.
+     * @param context Context.
+     * @param courseId Id of the course.
+     * @param status The new status.
+     */
+    @AnyThread
+    public void setCourseStatus(@NonNull Context context, int courseId, @Status int status) {
+        synchronized (this) {
+            courseStatuses.put(courseId, status);
+            write(context, Type.COURSE, courseId,
+                    database -> database.getCourseDao().updateCourseStatus(courseId, status));
+        }
+        notifyObservers(Type.COURSE, courseId);
+    }
+
+    /**
+     * Updates the status of a chapter.
+     * @param context Context.
+     * @param chapterId Id of the chapter.
+     * @param status The new status.
+     */
+    @AnyThread
+    public void setChapterStatus(@NonNull Context context, int chapterId, @Status int status) {
+        synchronized (this) {
+            chapterStatuses.put(chapterId, status);
+            write(context, Type.CHAPTER, chapterId,
+                    database -> database.getChapterDao().updateChapterStatus(new ChapterStatus(chapterId, status)));
+        }
+        notifyObservers(Type.CHAPTER, chapterId);
+    }
+
+    /**
+     * Updates the status of a task.
+     * @param context Context.
+     * @param taskId Id of the task.
+     * @param status The new status.
+     */
+    @AnyThread
+    public void setTaskStatus(@NonNull Context context, int taskId, @Status int status) {
+        synchronized (this) {
+            taskStatuses.put(taskId, status);
+            write(context, Type.TASK, taskId,
+                    database -> database.getTaskDao().updateTaskStatus(new TaskStatus(taskId, status)));
+        }
+        notifyObservers(Type.TASK, taskId);
+    }
+
+    /**
+     * Updates the status of an exam.
+     * @param context Context.
+     * @param examId Id of the exam.
+     * @param status The new status.
+     */
+    @AnyThread
+    public void setExamStatus(@NonNull Context context, int examId, @Status int status) {
+        synchronized (this) {
+            ExamStatus examStatus = findOrCreateExamStatus(examId);
+            examStatus.setStatus(status);
+            write(context, Type.EXAM, examId,
+                    database -> database.getExamDao().updateExamCompletionStatus(examId, status));
+        }
+        notifyObservers(Type.EXAM, examId);
+    }
+
+    /**
+     * Updates when an exam was last started.
+     * @param context Context.
+     * @param examId Id of the exam.
+     * @param lastStarted The new last started attribute, as UNIX timestamp.
+     */
+    @AnyThread
+    public void setExamLastStarted(@NonNull Context context, int examId, long lastStarted) {
+        synchronized (this) {
+            ExamStatus examStatus = findOrCreateExamStatus(examId);
+            examStatus.setLastStarted(lastStarted);
+            write(context, Type.EXAM, examId,
+                    database -> database.getExamDao().updateExamLastStarted(examId, lastStarted));
+        }
+        notifyObservers(Type.EXAM, examId);
+    }
+
+    /**
+     * Updates the top score of an exam.
+     * @param context Context.
+     * @param examId Id of the exam.
+     * @param topScore The new top score.
+     */
+    @AnyThread
+    public void setExamTopScore(@NonNull Context context, int examId, int topScore) {
+        synchronized (this) {
+            ExamStatus examStatus = findOrCreateExamStatus(examId);
+            examStatus.setTopScore(topScore);
+            write(context, Type.EXAM, examId, database -> database.getExamDao().updateTopScore(examId, topScore));
+        }
+        notifyObservers(Type.EXAM, examId);
+    }
+
+    /**
+     * Registers an observer, which will be notified about status changes.
+     * @param observer The observer.
+     */
+    @UiThread
+    public void addObserver(@NonNull StatusObserver observer) {
+        if(!observers.contains(observer)) observers.add(observer);
+    }
+
+    /**
+     * Removes a registered observer. Must be called when the observer is destroyed.
+     * @param observer The observer.
+     */
+    @UiThread
+    public void removeObserver(@NonNull StatusObserver observer) {
+        observers.remove(observer);
+    }
+
+    /**
+     * Finds the stored object of an exam. If it is not in the store, a new one is created.
+     * @param examId Id of the exam.
+     * @return The stored object, which can be modified.
+     */
+    private ExamStatus findOrCreateExamStatus(int examId) {
+        ExamStatus examStatus = examStatuses.get(examId);
+        if(examStatus == null) {
+            examStatus = new ExamStatus(examId, Status.LOCKED, Exam.EXAM_NEVER_STARTED, Exam.EXAM_NEVER_STARTED);
+            examStatuses.put(examId, examStatus);
+        }
+        return examStatus;
+    }
+
+    /**
+     * Performs a database write in the {@link ExecutorLane#DATABASE_WRITE} lane, so the writes happen in order.
+     * Must hold the lock of the store, so the writes are queued in the order of the changes.
+     * @param context Context.
+     * @param type The type of the changed element.
+     * @param id The id of the changed element.
+     * @param operation The write.
+     */
+    private void write(@NonNull Context context, @Type int type, int id, @NonNull DatabaseWrite operation) {
+        changeGenerations.put(key(type, id), ++generation);
+        final Context appContext = context.getApplicationContext();
+        LearnJavaExecutor.getInstance().executeOnBackgroundThread(ExecutorLane.DATABASE_WRITE,
+                () -> operation.write(LearnJavaDatabase.getInstance(appContext)));
+    }
+
+    /**
+     * Notifies the observers about a change, on the UI thread.
+     * @param type The type of the changed element.
+     * @param id The id of the changed element.
+     */
+    private void notifyObservers(@Type int type, int id) {
+        LearnJavaExecutor.getInstance().executeOnUiThread(() -> {
+            for(StatusObserver observer: new ArrayList<>(observers)) { //observers may remove themselves
+                observer.onStatusChanged(type, id);
+            }
+        });
+    }
+
+    /**
+     * @return A key which identifies an element of a type.
+     */
+    private static long key(@Type int type, int id) {
+        return ((long)type << 32) | (id & 0xFFFFFFFFL);
+    }
+
+    /**
+     * A write operation on the database.
+     */
+    private interface DatabaseWrite {
+        void write(@NonNull LearnJavaDatabase database);
+    }
+}
@@ -2,9 +2,12 @@ package com.gaspar.learnjava.database;
 
 import androidx.room.Dao;
 import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
 import androidx.room.Update;
 
+import java.util.List;
+
 /**
  * Handles operations on the task status table.
  * @see TaskStatus
@@ -19,6 +22,13 @@ public interface TaskDao {
     @Insert
     void addTaskStatus(TaskStatus taskStatus);
 
+    /**
+     * Add new tasks to the database. Tasks that are already in the database are left unchanged.
+     * @param taskStatuses Objects describing the tasks.
+     */
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    void addTaskStatuses(List<TaskStatus> taskStatuses);
+
     /**
      * Update an existing task in the database.
      * @param taskStatus Object describing the task.
@@ -34,6 +44,20 @@ public interface TaskDao {
     @Query("SELECT * FROM task_status WHERE task_id == :taskId")
     TaskStatus queryTaskStatus(int taskId);
 
+    /**
+     * Lists all tasks from the database.
+     * @return Objects describing the tasks.
+     */
+    @Query("SELECT * FROM task_status")
+    List<TaskStatus> getAllTaskStatuses();
+
+    /**
+     * Lists the ids of all tasks in the database.
+     * @return The task ids.
+     */
+    @Query("SELECT task_id FROM task_status")
+    List<Integer> queryAllTaskIds();
+
     /**
      * Clears the task table.
      */
@@ -0,0 +1,179 @@
+package com.gaspar.learnjava.database;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.gaspar.learnjava.BuildConfig;
+import com.gaspar.learnjava.LearnJavaActivity;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Describes the state of the curriculum that was last validated by {@link LearnJavaDatabase#validateDatabase(Context)}.
+ * The fingerprint is a hash of the curriculum asset listing, the application version code and the database version. It is stored in the
+ * {@link SharedPreferences}, next to the ids that were validated. If the fingerprint did not change since the last start
+ * and the database still has the validated courses, the database validation can be skipped completely. If it did change,
+ * only the ids that were not validated before need to be checked.
+ */
+abstract class ValidationFingerprint {
+
+    /**
+     * The fingerprint of the last successful validation can be found in the preferences with this key.
+     */
+    private static final String FINGERPRINT_PREF_NAME = "db_validation_fingerprint";
+
+    /**
+     * Preference keys of the id sets that were validated, one for each curriculum type.
+     */
+    static final String COURSE_IDS_PREF_NAME = "db_validated_course_ids";
+    static final String CHAPTER_IDS_PREF_NAME = "db_validated_chapter_ids";
+    static final String TASK_IDS_PREF_NAME = "db_validated_task_ids";
+    static final String EXAM_IDS_PREF_NAME = "db_validated_exam_ids";
+
+    /**
+     * Computes the fingerprint of the curriculum assets.
+     * @param localizedAssets The localized asset folder, so that a language change is detected.
+     * @param assetListings Any number of asset listings, such as the content of the courses folder.
+     * @return The fingerprint, as a hex string.
+     */
+    @NonNull
+    static String compute(@NonNull String localizedAssets, @NonNull String[]... assetListings) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(String.valueOf(BuildConfig.VERSION_CODE).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte)0);
+            digest.update(String.valueOf(LearnJavaDatabase.DATABASE_VERSION).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte)0);
+            digest.update(localizedAssets.getBytes(StandardCharsets.UTF_8));
+            for(String[] listing: assetListings) {
+                String[] sorted = listing.clone(); //asset manager does not guarantee order
+                Arrays.sort(sorted);
+                for(String path: sorted) {
+                    digest.update((byte)'\n');
+                    digest.update(path.getBytes(StandardCharsets.UTF_8));
+                }
+                digest.update((byte)0); //separate the listings
+            }
+            return toHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("SHA-256 is not available!", e);
+        }
+    }
+
+    /**
+     * @param context Context.
+     * @return The fingerprint of the last successful validation, or null if there was none.
+     */
+    @Nullable
+    static String getStored(@NonNull Context context) {
+        return getPreferences(context).getString(FINGERPRINT_PREF_NAME, null);
+    }
+
+    /**
+     * Decides if the validation can be skipped: the curriculum must not have changed, and the database must
+     * still have the validated courses.
+     * @param fingerprint The fingerprint of the current assets.
+     * @param storedFingerprint The fingerprint of the last validation, see {@link #getStored(Context)}.
+     * @param validatedCourseIds The course ids of the last validation.
+     * @param databaseCourseIds The course ids which are in the database.
+     * @return True if nothing needs to be validated.
+     */
+    static boolean canSkipValidation(@NonNull String fingerprint, @Nullable String storedFingerprint,
+                                     @NonNull Set<Integer> validatedCourseIds, @NonNull Collection<Integer> databaseCourseIds) {
+        return fingerprint.equals(storedFingerprint) && matchesDatabase(validatedCourseIds, databaseCourseIds);
+    }
+
+    /**
+     * Checks if the validated ids are really in the database. They are not, if the database was cleared
+     * without {@link #invalidate(Context)}, or the preferences were restored from a backup.
+     * @param validatedCourseIds The course ids of the last validation.
+     * @param databaseCourseIds The course ids which are in the database.
+     * @return True if the database has all validated courses.
+     */
+    static boolean matchesDatabase(@NonNull Set<Integer> validatedCourseIds, @NonNull Collection<Integer> databaseCourseIds) {
+        return databaseCourseIds.size() >= validatedCourseIds.size() && databaseCourseIds.containsAll(validatedCourseIds);
+    }
+
+    /**
+     * Saves a successful validation.
+     * @param context Context.
+     * @param fingerprint The fingerprint of the validated assets.
+     * @param courseIds The validated course ids.
+     * @param chapterIds The validated chapter ids.
+     * @param taskIds The validated task ids.
+     * @param examIds The validated exam ids.
+     */
+    static void store(@NonNull Context context, @NonNull String fingerprint, @NonNull Collection<Integer> courseIds,
+                      @NonNull Collection<Integer> chapterIds, @NonNull Collection<Integer> taskIds,
+                      @NonNull Collection<Integer> examIds) {
+        getPreferences(context).edit()
+                .putString(FINGERPRINT_PREF_NAME, fingerprint)
+                .putStringSet(COURSE_IDS_PREF_NAME, toStringSet(courseIds))
+                .putStringSet(CHAPTER_IDS_PREF_NAME, toStringSet(chapterIds))
+                .putStringSet(TASK_IDS_PREF_NAME, toStringSet(taskIds))
+                .putStringSet(EXAM_IDS_PREF_NAME, toStringSet(examIds))
+                .apply();
+    }
+
+    /**
+     * Gets the ids that were validated the last time, for one curriculum type.
+     * @param context Context.
+     * @param prefName One of the id set preference keys, such as {@link #COURSE_IDS_PREF_NAME}.
+     * @return The validated ids, empty if there was no validation.
+     */
+    @NonNull
+    static Set<Integer> getValidatedIds(@NonNull Context context, @NonNull String prefName) {
+        Set<Integer> ids = new HashSet<>();
+        Set<String> stored = getPreferences(context).getStringSet(prefName, null);
+        if(stored != null) {
+            for(String id: stored) {
+                ids.add(Integer.parseInt(id));
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Deletes the stored fingerprint and the validated ids, so the next validation will check everything. Must
+     * be called when the contents of the database are deleted.
+     * @param context Context.
+     */
+    static void invalidate(@NonNull Context context) {
+        getPreferences(context).edit()
+                .remove(FINGERPRINT_PREF_NAME)
+                .remove(COURSE_IDS_PREF_NAME)
+                .remove(CHAPTER_IDS_PREF_NAME)
+                .remove(TASK_IDS_PREF_NAME)
+                .remove(EXAM_IDS_PREF_NAME)
+                .commit(); //this must be persisted before the reset continues
+    }
+
+    private static SharedPreferences getPreferences(@NonNull Context context) {
+        return context.getSharedPreferences(LearnJavaActivity.APP_PREFERENCES_NAME, Context.MODE_PRIVATE);
+    }
+
+    private static Set<String> toStringSet(@NonNull Collection<Integer> ids) {
+        Set<String> stringSet = new HashSet<>();
+        for(int id: ids) {
+            stringSet.add(String.valueOf(id));
+        }
+        return stringSet;
+    }
+
+    private static String toHex(@NonNull byte[] bytes) {
+        StringBuilder builder = new StringBuilder(bytes.length * 2);
+        for(byte b: bytes) {
+            builder.append(String.format("%02x", b));
+        }
+        return builder.toString();
+    }
+}
@@ -31,7 +31,6 @@ import androidx.fragment.app.Fragment;
 import com.gaspar.learnjava.R;
 import com.gaspar.learnjava.asynctask.LearnJavaExecutor;
 import com.gaspar.learnjava.asynctask.QueryPlaygroundFilesTask;
-import com.gaspar.learnjava.asynctask.SavePlaygroundFilesTask;
 import com.gaspar.learnjava.curriculum.components.CodeComponent;
 import com.gaspar.learnjava.database.PlaygroundFile;
 import com.gaspar.learnjava.formatter.Formatter;
@@ -85,10 +84,15 @@ public class CodeFragment extends Fragment {
 
     /**
      * The {@link PlaygroundFile}s that this fragment knows of. This is loaded from the database on start,
-     * and stored in the database when the {@link PlaygroundActivity} is stopped.
+     * and the changes are saved by the {@link #autosaver}.
      */
     private List<PlaygroundFile> playgroundFiles;
 
+    /**
+     * Saves the changes of the {@link #playgroundFiles} in the background, at a bounded rate.
+     */
+    private PlaygroundAutosaver autosaver;
+
     /**
      * Used to format raw code into {@link android.text.Spannable} that displays code in a nice way.
      */
@@ -128,6 +132,7 @@ public class CodeFragment extends Fragment {
         }
         */
         formatter = new Formatter();
+        autosaver = new PlaygroundAutosaver(requireContext());
     }
 
     @Override
@@ -176,12 +181,21 @@ public class CodeFragment extends Fragment {
     @Override
     public void onStop() {
         super.onStop();
-        if(getView() == null) {
-            LogUtils.logError("View was null when calling onStop! Failed to save code changes!");
-            return;
-        }
-        //save files when stopping
-        new SavePlaygroundFilesTask(playgroundFiles).execute(getView().getContext());
+        //final save when stopping, if there are unsaved changes
+        autosaver.flush();
+    }
+
+    @Override
+    public void onDestroy() {
+        super.onDestroy();
+        autosaver.cancel(); //everything was saved in onStop
+    }
+
+    /**
+     * Called when the content of the playground files changed. The changes will be saved in the background.
+     */
+    void onPlaygroundFilesChanged() {
+        autosaver.markDirty();
     }
 
     /**
@@ -191,6 +205,7 @@ public class CodeFragment extends Fragment {
      */
     public void displayPlaygroundFiles(@NonNull List<PlaygroundFile> pf) {
         playgroundFiles = pf; //save list for later use
+        autosaver.setPlaygroundFiles(playgroundFiles);
         if(getView() == null) {
             LogUtils.logError("Fragment view was not created when calling displayPlaygroundFiles!");
             return;
@@ -199,6 +214,7 @@ public class CodeFragment extends Fragment {
             //it's possible that the user starts this for the first time, there is nothing in the database. need a Main.java file in this case
             PlaygroundFile mainJavaFile = new PlaygroundFile(MAIN_JAVA_FILE_NAME, buildMainJavaTemplate());
             playgroundFiles.add(mainJavaFile);
+            onPlaygroundFilesChanged(); //the template must be saved too
         }
         //send files to activity
         EventBus.getDefault().post(playgroundFiles);
@@ -278,6 +294,7 @@ public class CodeFragment extends Fragment {
                             //create new file
                             PlaygroundFile newFile = new PlaygroundFile(fileName, defaultContent);
                             playgroundFiles.add(newFile);
+                            onPlaygroundFilesChanged();
                             //show it
                             switchToPlaygroundFile(fileName);
                             //add the new file to the spinner and show it
@@ -443,6 +460,7 @@ public class CodeFragment extends Fragment {
                     .setPositiveButton(R.string.yes, (dialogInterface, i) -> {
                         //confirmed, replace
                         playgroundFiles.get(fixedPosition).setContent(buildMainJavaTemplate());
+                        onPlaygroundFilesChanged();
                         switchToPlaygroundFile(MAIN_JAVA_FILE_NAME); //this will reformat it
                         Snackbar.make(spinner, R.string.playground_main_reset, Snackbar.LENGTH_LONG).show();
                     })
@@ -454,6 +472,7 @@ public class CodeFragment extends Fragment {
                     .setPositiveButton(R.string.yes, (dialogInterface, i) -> {
                         //delete from list
                         playgroundFiles.remove(fixedPosition);
+                        onPlaygroundFilesChanged();
                         //delete from spinner
                         fileSelectorAdapter.remove(currentDisplayedFileName);
                         fileSelectorAdapter.notifyDataSetChanged();
@@ -697,8 +716,8 @@ public class CodeFragment extends Fragment {
                             selectionOffset = 0;
                             typingStarted = false;
                         });
-                        //send updated files to activity
-                        EventBus.getDefault().post(codeFragment.playgroundFiles);
+                        //the activity already has the same list, it only needs to be saved
+                        codeFragment.onPlaygroundFilesChanged();
                     });
                 }
             }, CODE_FORMAT_INTERVAL);
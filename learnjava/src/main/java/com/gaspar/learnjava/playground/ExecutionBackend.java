@@ -0,0 +1,113 @@
+package com.gaspar.learnjava.playground;
+
+import android.content.Context;
+
+import androidx.annotation.AnyThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+
+/**
+ * Compiles and runs the code of a {@link ProgramPayload}. The remote implementation is {@link RunRequestExecutor},
+ * which uses the {@link RunApi}.
+ */
+public interface ExecutionBackend {
+
+    /**
+     * Compiles and runs the code, and waits for the result.
+     * @param programPayload The payload.
+     * @return The outcome, which contains the response or describes the failure.
+     */
+    @NonNull
+    @WorkerThread
+    Outcome execute(@NonNull ProgramPayload programPayload);
+
+    /**
+     * Selects the backend which runs the playground code, the run API.
+     * @param context Context.
+     * @return The backend.
+     */
+    @NonNull
+    @AnyThread
+    static ExecutionBackend getDefault(@NonNull Context context) {
+        return RunRequestExecutor.getInstance(context);
+    }
+
+    /**
+     * The result of {@link #execute(ProgramPayload)}. Backends report the result of the program as a
+     * successful response, even if it did not compile.
+     */
+    class Outcome {
+
+        /**
+         * The response, null if the request failed.
+         */
+        @Nullable
+        public final ProgramResponse programResponse;
+
+        /**
+         * The HTTP status code of the last response, or {@link RunKeyScheduler#NO_RESPONSE}. Backends which do not use HTTP report 200.
+         */
+        public final int statusCode;
+
+        /**
+         * The exception of the last attempt, if it did not get a response.
+         */
+        @Nullable
+        public final Throwable throwable;
+
+        /**
+         * True if the time limit was used up before a response arrived.
+         */
+        public final boolean budgetExceeded;
+
+        /**
+         * How many requests were sent to the run API for this outcome, with the retries and the hedging requests.
+         * Backends which do not use the API report 0.
+         */
+        public final int apiCalls;
+
+        Outcome(@Nullable ProgramResponse programResponse, int statusCode, @Nullable Throwable throwable, boolean budgetExceeded) {
+            this(programResponse, statusCode, throwable, budgetExceeded, 0);
+        }
+
+        private Outcome(@Nullable ProgramResponse programResponse, int statusCode, @Nullable Throwable throwable,
+                        boolean budgetExceeded, int apiCalls) {
+            this.programResponse = programResponse;
+            this.statusCode = statusCode;
+            this.throwable = throwable;
+            this.budgetExceeded = budgetExceeded;
+            this.apiCalls = apiCalls;
+        }
+
+        /**
+         * @param apiCalls How many requests were sent to the run API.
+         * @return A copy of this outcome, with the amount of requests.
+         */
+        @NonNull
+        Outcome withApiCalls(int apiCalls) {
+            return new Outcome(programResponse, statusCode, throwable, budgetExceeded, apiCalls);
+        }
+
+        /**
+         * @return True if a response arrived from the backend.
+         */
+        public boolean isSuccessful() {
+            return programResponse != null;
+        }
+
+        /**
+         * @return True if another attempt may succeed: the connection failed, or the server had an error.
+         */
+        boolean isRetryable() {
+            if(budgetExceeded) return false;
+            if(throwable != null) { //a read timeout means the program is slow, that would happen again
+                return throwable instanceof IOException && !(throwable instanceof SocketTimeoutException);
+            }
+            return statusCode >= 500;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.gaspar.learnjava.playground;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.gaspar.learnjava.utils.LogUtils;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okio.BufferedSink;
+import okio.GzipSink;
+import okio.Okio;
+
+/**
+ * Compresses the request bodies with gzip, for servers which support it. A server advertises this by sending an
+ * 'Accept-Encoding' header with gzip in its responses (RFC 7694). Until that happens, the requests are sent
+ * uncompressed. If a server rejects a compressed request with 415 (unsupported media type), the request is sent again
+ * uncompressed, and the server is not sent compressed requests anymore.
+ * <p>
+ * The source code in the payloads is very repetitive, so it compresses well. Responses are already compressed by
+ * the HTTP client, which asks for gzip responses on its own.
+ */
+class GzipRequestInterceptor implements Interceptor {
+
+    private static final String GZIP = "gzip";
+
+    /**
+     * Status code of the rejected compressed requests.
+     */
+    private static final int UNSUPPORTED_MEDIA_TYPE = 415;
+
+    /**
+     * Stores which servers support compressed requests, by 'host:port'. Servers which are not here did not
+     * advertise it yet.
+     */
+    private final Map<String, Boolean> gzipSupport;
+
+    GzipRequestInterceptor() {
+        gzipSupport = new ConcurrentHashMap<>();
+    }
+
+    @NonNull
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        final Request request = chain.request();
+        final RequestBody body = request.body();
+        if(body == null || request.header("Content-Encoding") != null) return chain.proceed(request);
+        final String server = request.url().host() + ":" + request.url().port();
+        final Boolean supported = gzipSupport.get(server);
+        if(Boolean.TRUE.equals(supported)) {
+            final Request compressedRequest = request.newBuilder()
+                    .header("Content-Encoding", GZIP)
+                    .method(request.method(), new GzipRequestBody(body))
+                    .build();
+            final Response response = chain.proceed(compressedRequest);
+            if(response.code() != UNSUPPORTED_MEDIA_TYPE) return response;
+            //the server changed its mind
+            LogUtils.log("Server " + server + " rejected compressed request, sending it uncompressed.");
+            gzipSupport.put(server, false);
+            response.close();
+            return chain.proceed(request);
+        }
+        final Response response = chain.proceed(request);
+        if(supported == null && acceptsGzip(response.header("Accept-Encoding"))) {
+            LogUtils.log("Server " + server + " accepts compressed requests.");
+            gzipSupport.put(server, true);
+        }
+        return response;
+    }
+
+    /**
+     * Checks if an 'Accept-Encoding' header value contains gzip, which is not disabled with a zero quality.
+     */
+    private static boolean acceptsGzip(@Nullable String acceptEncoding) {
+        if(acceptEncoding == null) return false;
+        for(String coding: acceptEncoding.split(",")) {
+            final String[] parts = coding.split(";");
+            if(!parts[0].trim().equalsIgnoreCase(GZIP)) continue;
+            for(int i = 1; i < parts.length; i++) {
+                final String parameter = parts[i].replace(" ", "");
+                if(parameter.equals("q=0") || parameter.matches("q=0\\.0*")) return false;
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * A request body which compresses another body while it is written. The compressed length is not known in
+     * advance.
+     */
+    private static class GzipRequestBody extends RequestBody {
+
+        private final RequestBody body;
+
+        GzipRequestBody(@NonNull RequestBody body) {
+            this.body = body;
+        }
+
+        @Nullable
+        @Override
+        public MediaType contentType() {
+            return body.contentType();
+        }
+
+        @Override
+        public long contentLength() {
+            return -1;
+        }
+
+        @Override
+        public void writeTo(@NonNull BufferedSink sink) throws IOException {
+            final BufferedSink gzipSink = Okio.buffer(new GzipSink(sink));
+            body.writeTo(gzipSink);
+            gzipSink.close(); //writes the gzip trailer
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.gaspar.learnjava.playground;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Splits Java source code into {@link Token}s. Comments and whitespace are dropped. This does not validate
+ * everything the compiler does, only what is needed to find the structure of the code: the literals and comments
+ * are read properly, so that brackets inside them are not counted. Unclosed literals and comments are reported
+ * as {@link Problem}s, and the tokenizing continues on the next line.
+ * @see PreflightChecker
+ */
+class JavaTokenizer {
+
+    /**
+     * The reserved keywords of Java. Contextual keywords, such as 'record' or 'var', are identifiers.
+     */
+    private static final Set<String> KEYWORDS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "abstract", "assert", "boolean", "break", "byte", "case", "catch", "char", "class", "const", "continue",
+            "default", "do", "double", "else", "enum", "extends", "final", "finally", "float", "for", "goto", "if",
+            "implements", "import", "instanceof", "int", "interface", "long", "native", "new", "package", "private",
+            "protected", "public", "return", "short", "static", "strictfp", "super", "switch", "synchronized", "this",
+            "throw", "throws", "transient", "try", "void", "volatile", "while", "true", "false", "null")));
+
+    /**
+     * Operators, longest first, so that the longest match is used.
+     */
+    private static final String[] OPERATORS = {">>>=", "<<=", ">>=", "...", "->", "::", "++", "--", "&&", "||",
+            "==", "!=", "<=", ">=", "+=", "-=", "*=", "/=", "&=", "|=", "^=", "%=", "<<"};
+
+    /**
+     * Types of the tokens.
+     */
+    enum TokenType {
+        IDENTIFIER, KEYWORD, LITERAL, SEPARATOR, OPERATOR
+    }
+
+    /**
+     * A token of the source code.
+     */
+    static class Token {
+
+        final TokenType type;
+
+        final String text;
+
+        /**
+         * Line of the token, starting from 1.
+         */
+        final int line;
+
+        Token(@NonNull TokenType type, @NonNull String text, int line) {
+            this.type = type;
+            this.text = text;
+            this.line = line;
+        }
+
+        boolean is(@NonNull String text) {
+            return this.text.equals(text);
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return text;
+        }
+    }
+
+    /**
+     * An error found in the source code.
+     */
+    static class Problem {
+
+        /**
+         * Line of the error, starting from 1.
+         */
+        final int line;
+
+        final String message;
+
+        Problem(int line, @NonNull String message) {
+            this.line = line;
+            this.message = message;
+        }
+    }
+
+    private final String source;
+
+    private final List<Token> tokens;
+
+    private final List<Problem> problems;
+
+    private int position;
+
+    private int line;
+
+    /**
+     * Tokenizes the source code.
+     * @param source The source code.
+     */
+    JavaTokenizer(@NonNull String source) {
+        this.source = source;
+        tokens = new ArrayList<>();
+        problems = new ArrayList<>();
+        line = 1;
+        tokenize();
+    }
+
+    /**
+     * @return The tokens of the source code, without comments.
+     */
+    @NonNull
+    List<Token> getTokens() {
+        return tokens;
+    }
+
+    /**
+     * @return The unclosed literals and comments.
+     */
+    @NonNull
+    List<Problem> getProblems() {
+        return problems;
+    }
+
+    private void tokenize() {
+        while(position < source.length()) {
+            final char c = source.charAt(position);
+            if(c == '\n') {
+                line++;
+                position++;
+            } else if(Character.isWhitespace(c)) {
+                position++;
+            } else if(source.startsWith("//", position)) {
+                while(position < source.length() && source.charAt(position) != '\n') position++;
+            } else if(source.startsWith("/*", position)) {
+                readBlockComment();
+            } else if(source.startsWith("\"\"\"", position)) {
+                readTextBlock();
+            } else if(c == '"' || c == '\'') {
+                readQuoted(c);
+            } else if(Character.isJavaIdentifierStart(c)) {
+                final int start = position;
+                while(position < source.length() && Character.isJavaIdentifierPart(source.charAt(position))) position++;
+                final String word = source.substring(start, position);
+                tokens.add(new Token(KEYWORDS.contains(word) ? TokenType.KEYWORD : TokenType.IDENTIFIER, word, line));
+            } else if(Character.isDigit(c) || (c == '.' && position + 1 < source.length() && Character.isDigit(source.charAt(position + 1)))) {
+                readNumber();
+            } else if("(){}[];,.@".indexOf(c) >= 0 && !source.startsWith("...", position)) {
+                tokens.add(new Token(TokenType.SEPARATOR, String.valueOf(c), line));
+                position++;
+            } else {
+                readOperator();
+            }
+        }
+    }
+
+    private void readBlockComment() {
+        final int startLine = line;
+        final int end = source.indexOf("*/", position + 2);
+        final int stop = end < 0 ? source.length() : end + 2;
+        for(int i = position; i < stop; i++) {
+            if(source.charAt(i) == '\n') line++;
+        }
+        position = stop;
+        if(end < 0) problems.add(new Problem(startLine, "unclosed comment"));
+    }
+
+    private void readTextBlock() {
+        final int startLine = line;
+        position += 3;
+        while(position < source.length()) {
+            final char c = source.charAt(position);
+            if(c == '\n') line++;
+            if(c == '\\') {
+                if(position + 1 < source.length() && source.charAt(position + 1) == '\n') line++; //line continuation
+                position += 2;
+                continue;
+            }
+            if(source.startsWith("\"\"\"", position)) {
+                position += 3;
+                tokens.add(new Token(TokenType.LITERAL, "\"\"\"", startLine));
+                return;
+            }
+            position++;
+        }
+        problems.add(new Problem(startLine, "unclosed text block"));
+    }
+
+    /**
+     * Reads a string or character literal. These can not span lines.
+     */
+    private void readQuoted(char quote) {
+        final int start = position;
+        position++;
+        while(position < source.length()) {
+            final char c = source.charAt(position);
+            if(c == '\n') break;
+            if(c == '\\' && position + 1 < source.length() && source.charAt(position + 1) != '\n') {
+                position += 2;
+                continue;
+            }
+            position++;
+            if(c == quote) {
+                if(quote == '\'' && position - start == 2) {
+                    problems.add(new Problem(line, "empty character literal"));
+                }
+                tokens.add(new Token(TokenType.LITERAL, source.substring(start, position), line));
+                return;
+            }
+        }
+        problems.add(new Problem(line, quote == '"' ? "unclosed string literal" : "unclosed character literal"));
+    }
+
+    private void readNumber() {
+        final int start = position;
+        final boolean hex = source.startsWith("0x", start) || source.startsWith("0X", start);
+        while(position < source.length()) {
+            final char c = source.charAt(position);
+            //the sign of an exponent is part of the number, like 1e-5 or 0x1p+3
+            final boolean exponentSign = (c == '+' || c == '-') && (hex ? "pP" : "eE").indexOf(source.charAt(position - 1)) >= 0;
+            if(!Character.isLetterOrDigit(c) && c != '.' && c != '_' && !exponentSign) break;
+            position++;
+        }
+        tokens.add(new Token(TokenType.LITERAL, source.substring(start, position), line));
+    }
+
+    private void readOperator() {
+        for(String operator: OPERATORS) {
+            if(source.startsWith(operator, position)) {
+                tokens.add(new Token(TokenType.OPERATOR, operator, line));
+                position += operator.length();
+                return;
+            }
+        }
+        tokens.add(new Token(TokenType.OPERATOR, String.valueOf(source.charAt(position)), line));
+        position++;
+    }
+}
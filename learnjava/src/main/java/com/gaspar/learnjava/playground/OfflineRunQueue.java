@@ -0,0 +1,385 @@
+package com.gaspar.learnjava.playground;
+
+import android.app.NotificationManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.graphics.BitmapFactory;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.AnyThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+import androidx.core.app.NotificationCompat;
+import androidx.core.content.ContextCompat;
+
+import com.gaspar.learnjava.LearnJavaActivity;
+import com.gaspar.learnjava.R;
+import com.gaspar.learnjava.asynctask.ExecutorLane;
+import com.gaspar.learnjava.asynctask.LearnJavaExecutor;
+import com.gaspar.learnjava.database.LearnJavaDatabase;
+import com.gaspar.learnjava.database.PendingRun;
+import com.gaspar.learnjava.database.PendingRunDao;
+import com.gaspar.learnjava.utils.LogUtils;
+import com.gaspar.learnjava.utils.ThemeUtils;
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.Moshi;
+
+import org.greenrobot.eventbus.EventBus;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stores the code runs which were requested while the device was offline, and replays them when the connection
+ * returns. The runs are persisted as {@link PendingRun}s, so they survive the restart of the application. A run
+ * replaces the pending run with the same files and input, see {@link RunResultCache#computeKey(ProgramPayload)},
+ * and only the newest {@link #MAX_PENDING_RUNS} runs are kept.
+ * <p>
+ * While there are pending runs, a default network callback is registered. When a network becomes available, the
+ * runs are replayed in order, with the {@link ExecutionBackend}. If the replay fails in a way that may be temporary,
+ * for example the server is down, it is retried with exponential backoff while the device is online. The results
+ * are stored until they are shown: if the {@link PlaygroundActivity} is in the foreground, it is notified with a
+ * {@link ResultsReady} event, otherwise a notification is posted. Use {@link #getInstance(Context)} to access the singleton.
+ * <p>
+ * The runs are added on the {@link ExecutorLane#DATABASE_WRITE} lane. Everything else, waiting for the connection,
+ * replaying the runs and taking the results, happens on the {@link #LANE}.
+ */
+public class OfflineRunQueue {
+
+    /**
+     * Maximum amount of runs which wait for the connection.
+     */
+    private static final int MAX_PENDING_RUNS = 3;
+
+    /**
+     * Notification request code for creating pending intent and posting notification.
+     */
+    private static final int NOTIFICATION_REQUEST_CODE = 24316;
+
+    /**
+     * The first retry of a failed replay is after this many milliseconds. The delay is doubled for each further retry.
+     */
+    private static final long BASE_RETRY_DELAY = 30_000;
+
+    /**
+     * The retries of a failed replay are at most this many milliseconds apart.
+     */
+    private static final long MAX_RETRY_DELAY = 15 * 60_000;
+
+    /**
+     * The lane of the replays, which wait for the run API. {@link #takeResults()} must also be called on this lane.
+     */
+    @ExecutorLane
+    public static final int LANE = ExecutorLane.BLOCKING;
+
+    /**
+     * The instance.
+     */
+    private static OfflineRunQueue instance;
+
+    /**
+     * @return The instance.
+     */
+    @AnyThread
+    public static synchronized OfflineRunQueue getInstance(@NonNull Context context) {
+        if(instance == null) {
+            instance = new OfflineRunQueue(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Application context.
+     */
+    private final Context context;
+
+    /**
+     * Converts the payloads into JSON, for the database.
+     */
+    private final JsonAdapter<ProgramPayload> payloadAdapter;
+
+    /**
+     * Converts the responses into JSON, for the database.
+     */
+    private final JsonAdapter<ProgramResponse> responseAdapter;
+
+    /**
+     * Only one replay may run at a time, a replay which is requested during another waits for it. Taking the
+     * results also waits for the replay, so the same results are never taken twice.
+     */
+    private final Object replayLock;
+
+    /**
+     * The registered network callback, or null if there are no pending runs. Guarded by this object.
+     */
+    @Nullable
+    private ConnectivityManager.NetworkCallback networkCallback;
+
+    /**
+     * True if the {@link PlaygroundActivity} is in the foreground, and it shows the results itself.
+     */
+    private volatile boolean deliverInApp;
+
+    /**
+     * Posts the retries of the failed replays.
+     */
+    private final Handler handler;
+
+    /**
+     * The amount of retries since the last replay that did not fail. Guarded by this object.
+     */
+    private int retryCount;
+
+    /**
+     * True if a retry is posted and did not start yet. Guarded by this object.
+     */
+    private boolean retryScheduled;
+
+    private OfflineRunQueue(@NonNull Context context) {
+        this.context = context;
+        handler = new Handler(Looper.getMainLooper());
+        final Moshi moshi = new Moshi.Builder().build();
+        payloadAdapter = moshi.adapter(ProgramPayload.class);
+        responseAdapter = moshi.adapter(ProgramResponse.class);
+        replayLock = new Object();
+    }
+
+    /**
+     * Adds a run to the queue, which is replayed when the connection returns. This will create its own
+     * background thread, no need to call it inside one.
+     * @param programPayload The program.
+     */
+    @AnyThread
+    public void enqueue(@NonNull ProgramPayload programPayload) {
+        final PendingRun pendingRun = new PendingRun(RunResultCache.computeKey(programPayload),
+                payloadAdapter.toJson(programPayload), System.currentTimeMillis());
+        LearnJavaExecutor.getInstance().executeOnBackgroundThread(ExecutorLane.DATABASE_WRITE, () -> {
+            final PendingRunDao dao = LearnJavaDatabase.getInstance(context).getPendingRunDao();
+            dao.insertPendingRun(pendingRun);
+            dao.trimPendingRuns(MAX_PENDING_RUNS);
+            LogUtils.log("Queued code run until the connection returns.");
+            listenForConnectivity();
+        });
+    }
+
+    /**
+     * Starts waiting for the connection, if there are pending runs from earlier. If the device is already online,
+     * the runs are replayed. This will create its own background thread, no need to call it inside one.
+     */
+    @AnyThread
+    public void resume() {
+        LearnJavaExecutor.getInstance().executeOnBackgroundThread(LANE, () -> {
+            if(LearnJavaDatabase.getInstance(context).getPendingRunDao().countPendingRuns() > 0) {
+                //an already registered callback is not invoked again for the current network
+                if(!listenForConnectivity() && isNetworkAvailable()) replay();
+            }
+        });
+    }
+
+    /**
+     * Sets where the results are delivered.
+     * @param deliverInApp True if the {@link PlaygroundActivity} is in the foreground, and shows the results.
+     */
+    @AnyThread
+    public void setDeliverInApp(boolean deliverInApp) {
+        this.deliverInApp = deliverInApp;
+    }
+
+    /**
+     * Removes the results of the replayed runs, so that they can be shown. The notification is also removed. Must
+     * be called on the {@link #LANE}, because it waits for the replay in progress.
+     * @return The responses, from the oldest run. Empty if there are none.
+     */
+    @NonNull
+    @WorkerThread
+    public List<ProgramResponse> takeResults() {
+        final PendingRunDao dao = LearnJavaDatabase.getInstance(context).getPendingRunDao();
+        final List<ProgramResponse> results = new ArrayList<>();
+        synchronized (replayLock) {
+            for(PendingRun pendingRun: dao.queryCompletedRuns()) {
+                dao.deletePendingRun(pendingRun.getRunKey(), pendingRun.getQueuedAt());
+                try {
+                    final ProgramResponse response = responseAdapter.fromJson(pendingRun.getResult());
+                    if(response != null) results.add(response);
+                } catch (IOException e) {
+                    LogUtils.logError("Failed to read the result of a queued code run!", e);
+                }
+            }
+        }
+        if(!results.isEmpty()) {
+            final NotificationManager notificationManager = (NotificationManager) context.getSystemService(Context.NOTIFICATION_SERVICE);
+            if(notificationManager != null) notificationManager.cancel(NOTIFICATION_REQUEST_CODE);
+        }
+        return results;
+    }
+
+    /**
+     * Registers the network callback, if it is not registered yet. If a network is already available, the
+     * callback is invoked right away.
+     * @return True if the callback was registered now, false if it was already registered or can't be registered.
+     */
+    @AnyThread
+    private synchronized boolean listenForConnectivity() {
+        if(networkCallback != null) return false;
+        final ConnectivityManager cm = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+        if(cm == null) {
+            LogUtils.logError("Can't wait for the connection, system service is null!");
+            return false;
+        }
+        networkCallback = new ConnectivityManager.NetworkCallback() {
+            @Override
+            public void onAvailable(@NonNull Network network) {
+                LearnJavaExecutor.getInstance().executeOnBackgroundThread(LANE, OfflineRunQueue.this::replay);
+            }
+        };
+        cm.registerDefaultNetworkCallback(networkCallback);
+        return true;
+    }
+
+    /**
+     * @return True if the device has a default network.
+     */
+    @AnyThread
+    private boolean isNetworkAvailable() {
+        final ConnectivityManager cm = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+        return cm != null && cm.getActiveNetwork() != null;
+    }
+
+    /**
+     * Posts a retry of the replay, unless one is already posted. The delay grows with each retry, up to
+     * {@link #MAX_RETRY_DELAY}. The retry is skipped if the device is offline by then, the network callback
+     * replays the runs when it is online again.
+     */
+    @AnyThread
+    private synchronized void scheduleRetry() {
+        if(retryScheduled) return;
+        retryScheduled = true;
+        final long delay = Math.min(MAX_RETRY_DELAY, BASE_RETRY_DELAY << Math.min(retryCount, 10));
+        retryCount++;
+        LogUtils.log("Retrying the queued code runs in " + delay + " ms.");
+        handler.postDelayed(() -> {
+            synchronized (OfflineRunQueue.this) {
+                retryScheduled = false;
+            }
+            LearnJavaExecutor.getInstance().executeOnBackgroundThread(LANE, () -> {
+                if(isNetworkAvailable()) replay();
+            });
+        }, delay);
+    }
+
+    /**
+     * Called when a replay did not fail, the next failure is retried with the shortest delay again.
+     */
+    @AnyThread
+    private synchronized void resetRetries() {
+        retryCount = 0;
+    }
+
+    /**
+     * Unregisters the network callback, if it is registered.
+     */
+    @AnyThread
+    private synchronized void stopListening() {
+        if(networkCallback == null) return;
+        final ConnectivityManager cm = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+        if(cm != null) cm.unregisterNetworkCallback(networkCallback);
+        networkCallback = null;
+    }
+
+    /**
+     * Replays the pending runs, from the oldest. Stops if a run fails in a way that may be caused by the connection
+     * or the server, such runs are tried again after a delay, see {@link #scheduleRetry()}, or when the next network
+     * becomes available. Runs which failed for other reasons are dropped, the user can run them again.
+     */
+    @WorkerThread
+    private void replay() {
+        synchronized (replayLock) {
+            final PendingRunDao dao = LearnJavaDatabase.getInstance(context).getPendingRunDao();
+            int completed = 0;
+            boolean failed = false;
+            replay: while(true) {
+                final List<PendingRun> pendingRuns = dao.queryPendingRuns();
+                if(pendingRuns.isEmpty()) break;
+                for(PendingRun pendingRun: pendingRuns) {
+                    final ProgramPayload programPayload;
+                    try {
+                        programPayload = payloadAdapter.fromJson(pendingRun.getPayload());
+                    } catch (IOException e) {
+                        LogUtils.logError("Failed to read a queued code run!", e);
+                        dao.deletePendingRun(pendingRun.getRunKey(), pendingRun.getQueuedAt());
+                        continue;
+                    }
+                    if(programPayload == null) {
+                        dao.deletePendingRun(pendingRun.getRunKey(), pendingRun.getQueuedAt());
+                        continue;
+                    }
+                    final ExecutionBackend.Outcome outcome = ExecutionBackend.getDefault(context).execute(programPayload);
+                    PlaygroundActivity.registerApiCalls(context, outcome);
+                    if(outcome.isSuccessful()) {
+                        dao.updateResult(pendingRun.getRunKey(), pendingRun.getQueuedAt(),
+                                responseAdapter.toJson(outcome.programResponse));
+                        completed++;
+                    } else if(outcome.isRetryable()) {
+                        LogUtils.log("Queued code run failed, it will be tried again.");
+                        failed = true;
+                        break replay;
+                    } else {
+                        LogUtils.logError("Queued code run failed with status " + outcome.statusCode + ", dropping it.");
+                        dao.deletePendingRun(pendingRun.getRunKey(), pendingRun.getQueuedAt());
+                    }
+                }
+            }
+            if(failed) {
+                scheduleRetry();
+            } else {
+                resetRetries();
+            }
+            if(dao.countPendingRuns() == 0) stopListening();
+            if(completed > 0) {
+                LogUtils.log("Replayed " + completed + " queued code runs.");
+                deliverResults();
+            }
+        }
+    }
+
+    /**
+     * Lets the {@link PlaygroundActivity} show the results, or posts a notification if it is not in the foreground.
+     */
+    @WorkerThread
+    private void deliverResults() {
+        if(deliverInApp) {
+            EventBus.getDefault().post(new ResultsReady());
+            return;
+        }
+        final Intent intent = new Intent(context, PlaygroundActivity.class);
+        intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_SINGLE_TOP);
+        final PendingIntent pendingIntent = PendingIntent.getActivity(context, NOTIFICATION_REQUEST_CODE, intent,
+                PendingIntent.FLAG_UPDATE_CURRENT);
+        final NotificationCompat.Builder builder = new NotificationCompat.Builder(context, LearnJavaActivity.CHANNEL_ID)
+                .setLargeIcon(BitmapFactory.decodeResource(context.getResources(), R.mipmap.learn_java_icon_round))
+                .setSmallIcon(R.drawable.playground_icon)
+                .setContentTitle(context.getString(R.string.notification_offline_run_title))
+                .setContentText(context.getString(R.string.notification_offline_run_message))
+                .setColorized(true)
+                .setColor(ContextCompat.getColor(context, ThemeUtils.getBackgroundColor()))
+                .setContentIntent(pendingIntent)
+                .setAutoCancel(true);
+        final NotificationManager notificationManager = (NotificationManager) context.getSystemService(Context.NOTIFICATION_SERVICE);
+        if(notificationManager == null) {
+            LogUtils.logError("Can't post notification, system service is null!");
+        } else {
+            notificationManager.notify(NOTIFICATION_REQUEST_CODE, builder.build());
+        }
+    }
+
+    /**
+     * Event which is posted when the results of replayed runs can be taken with {@link #takeResults()}.
+     */
+    public static class ResultsReady {}
+}
@@ -108,6 +108,11 @@ public class OutputFragment extends Fragment {
         setStdout(programResponse.stdout);
         setStderr(programResponse.stderr);
         setExceptions(programResponse.error);
+        if(getView() != null) {
+            getView().findViewById(R.id.playgroundCachedInfo).setVisibility(programResponse.cached ? View.VISIBLE : View.GONE);
+            getView().findViewById(R.id.playgroundTruncatedInfo).setVisibility(programResponse.truncated ? View.VISIBLE : View.GONE);
+            getView().findViewById(R.id.playgroundPreflightInfo).setVisibility(programResponse.preflight ? View.VISIBLE : View.GONE);
+        }
     }
 
     /**
@@ -29,6 +29,7 @@ import com.gaspar.learnjava.LearnJavaActivity;
 import com.gaspar.learnjava.R;
 import com.gaspar.learnjava.SettingsActivity;
 import com.gaspar.learnjava.ThemedActivity;
+import com.gaspar.learnjava.asynctask.LearnJavaExecutor;
 import com.gaspar.learnjava.asynctask.RunCodeTask;
 import com.gaspar.learnjava.curriculum.components.CodeHostingActivity;
 import com.gaspar.learnjava.database.PlaygroundFile;
@@ -41,8 +42,6 @@ import com.google.android.material.floatingactionbutton.FloatingActionButton;
 import com.google.android.material.snackbar.Snackbar;
 import com.google.android.material.tabs.TabLayout;
 import com.google.android.material.tabs.TabLayoutMediator;
-import com.squareup.moshi.JsonAdapter;
-import com.squareup.moshi.Moshi;
 
 import org.greenrobot.eventbus.EventBus;
 import org.greenrobot.eventbus.Subscribe;
@@ -94,6 +93,11 @@ public class PlaygroundActivity extends ThemedActivity implements CodeHostingAct
      */
     private List<PlaygroundFile> playgroundFiles;
 
+    /**
+     * The code runs of this activity, at most one is in flight.
+     */
+    private final RunQueue runQueue = new RunQueue();
+
     /**
      * The input of the program, which comes from the {@link InputFragment}.
      */
@@ -123,6 +127,13 @@ public class PlaygroundActivity extends ThemedActivity implements CodeHostingAct
             );
             //show info dialog
             showPlaygroundInfoDialogIfNeeded();
+            RunTelemetry.getInstance().init(this);
+            //runs queued while offline may be waiting for the connection
+            OfflineRunQueue.getInstance(this).resume();
+            //connect to the run API while the user writes code
+            if(!mockRunApi && !RunApi.MOCK_API_KEY.equals(getString(R.string.run_api_key_1))) {
+                RunClient.getInstance().warmUp();
+            }
         } else {
             //playground is not enabled
             new MaterialAlertDialogBuilder(this, ThemeUtils.getThemedDialogStyle())
@@ -138,10 +149,26 @@ public class PlaygroundActivity extends ThemedActivity implements CodeHostingAct
         EventBus.getDefault().register(this);
     }
 
+    @Override
+    protected void onResume() {
+        super.onResume();
+        if(getResources().getBoolean(R.bool.playground_enabled)) {
+            OfflineRunQueue.getInstance(this).setDeliverInApp(true);
+            showOfflineRunResults();
+        }
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        OfflineRunQueue.getInstance(this).setDeliverInApp(false);
+    }
+
     @Override
     protected void onDestroy() {
         super.onDestroy();
         EventBus.getDefault().unregister(this);
+        runQueue.cancel(); //the result could not be shown anymore
     }
 
     /**
@@ -245,12 +272,45 @@ public class PlaygroundActivity extends ThemedActivity implements CodeHostingAct
 
     /**
      * Called when the floating action button, run, was clicked. Takes into account the last time
-     * when code was run, {@link #codeLastRunAt()}.
+     * when code was run, {@link #codeLastRunAt()}. If the same program was run with the same input
+     * recently, the result is shown from the {@link RunResultCache} without any checks. Trivial compile errors
+     * found by the {@link PreflightChecker} are also shown without sending the code. When the device is offline,
+     * the run is added to the {@link OfflineRunQueue}, and replayed when the connection returns.
      * @param fab The floating action button.
      */
     private void onRunClicked(@NonNull View fab) {
+        //create program payload
+        final ProgramPayload programPayload = ProgramPayload.create(playgroundFiles, input);
+        final String payloadHash = RunResultCache.computeKey(programPayload);
+        //check the results in memory, these can be shown instantly
+        if(RunResultCache.isCacheable(programPayload)) {
+            final ProgramResponse cachedResponse = RunResultCache.getInstance(this).getFromMemory(payloadHash);
+            if(cachedResponse != null) {
+                LogUtils.log("Showing cached run result.");
+                moveToOutputFragment();
+                getSupportFragmentManager().executePendingTransactions();
+                sendDataToOutputFragment(cachedResponse);
+                return;
+            }
+        }
+        //check trivial compile errors, these can also be shown instantly
+        final ProgramResponse preflightResponse = PreflightChecker.check(programPayload);
+        if(preflightResponse != null) {
+            LogUtils.log("Found errors in the code before running it.");
+            moveToOutputFragment();
+            getSupportFragmentManager().executePendingTransactions();
+            sendDataToOutputFragment(preflightResponse);
+            return;
+        }
         //check connectivity
         if(!isNetworkConnected()) {
+            if(!mockRunApi && !RunApi.MOCK_API_KEY.equals(getString(R.string.run_api_key_1))) {
+                //run it when the connection returns
+                OfflineRunQueue.getInstance(this).enqueue(programPayload);
+                Snackbar.make(findViewById(R.id.playground_content_root), R.string.playground_run_queued,
+                        Snackbar.LENGTH_LONG).show();
+                return;
+            }
             new MaterialAlertDialogBuilder(this, ThemeUtils.getThemedDialogStyle())
                     .setMessage(R.string.playground_no_connection)
                     .setPositiveButton(R.string.ok, (dialogInterface, i) -> dialogInterface.dismiss())
@@ -269,24 +329,69 @@ public class PlaygroundActivity extends ThemedActivity implements CodeHostingAct
                 return;
             }
         }
-        LogUtils.log("Sending program to run:");
-        if(input == null) {
-            LogUtils.logError("Input was null, not sending input!");
-        }
-        LogUtils.log("With input:\n" + (input != null ? input : "not sending input"));
-        LogUtils.log("With playground files: " + playgroundFiles.toString());
-        //create program payload
-        ProgramPayload programPayload = new ProgramPayload();
-        if(input != null) programPayload.stdin = input;
-        programPayload.files = PlaygroundFile.createCleanedPlaygroundFiles(playgroundFiles);
-        //log what we send
-        Moshi moshi = new Moshi.Builder().build();
-        JsonAdapter<ProgramPayload> programPayloadAdapter = moshi.adapter(ProgramPayload.class);
-        LogUtils.log("Sending the following JSON as request body:\n" + programPayloadAdapter.toJson(programPayload));
-        //launch task
+        LogUtils.log("Sending program to run: " + programPayload.files.size() + " files, "
+                + (input != null ? "with input." : "without input."));
+        //launch task, unless a run is already in flight
+        final RunQueue.Run run = runQueue.submit(programPayload, payloadHash);
+        if(run == null) return;
         fab.setEnabled(false);
         displayLoadingDialog();
-        new RunCodeTask(programPayload).execute(this);
+        new RunCodeTask(run).execute(this);
+    }
+
+    /**
+     * Called when the runs which were queued while offline got their results, and this activity is in the foreground.
+     * @param resultsReady The event.
+     */
+    @Subscribe(threadMode = ThreadMode.MAIN)
+    public void onMessageEvent(@NonNull OfflineRunQueue.ResultsReady resultsReady) {
+        showOfflineRunResults();
+    }
+
+    /**
+     * Shows the result of the newest run which was queued while offline, if there is one. The older results are
+     * discarded, because the output fragment can only show one.
+     */
+    private void showOfflineRunResults() {
+        final OfflineRunQueue offlineRunQueue = OfflineRunQueue.getInstance(this);
+        LearnJavaExecutor.getInstance().executeOnBackgroundThread(OfflineRunQueue.LANE, () -> {
+            final List<ProgramResponse> results = offlineRunQueue.takeResults();
+            if(results.isEmpty()) return;
+            LearnJavaExecutor.getInstance().executeOnUiThread(() -> {
+                if(isFinishing() || isDestroyed()) return;
+                LogUtils.log("Showing the result of a code run which was queued while offline.");
+                moveToOutputFragment();
+                getSupportFragmentManager().executePendingTransactions();
+                sendDataToOutputFragment(results.get(results.size() - 1));
+                Snackbar.make(findViewById(R.id.playground_content_root), R.string.playground_queued_run_completed,
+                        Snackbar.LENGTH_LONG).show();
+            });
+        });
+    }
+
+    /**
+     * Cancels the code run in flight, and lets the user run code again.
+     */
+    private void cancelRun() {
+        runQueue.cancel();
+        hideLoadingDialog();
+        findViewById(R.id.playgroundRunButton).setEnabled(true);
+    }
+
+    /**
+     * @return The queue of the code runs.
+     */
+    @NonNull
+    public RunQueue getRunQueue() {
+        return runQueue;
+    }
+
+    /**
+     * @return Hash of the program which is in the editor now, see {@link RunResultCache#computeKey(ProgramPayload)}.
+     */
+    @NonNull
+    public String getCurrentPayloadHash() {
+        return RunResultCache.computeKey(ProgramPayload.create(playgroundFiles, input));
     }
 
     /**
@@ -385,12 +490,14 @@ public class PlaygroundActivity extends ThemedActivity implements CodeHostingAct
         //build dialog
         loadingDialog = new MaterialAlertDialogBuilder(this, ThemeUtils.getThemedDialogStyle())
                 .setView(loadingDialogView)
+                .setOnCancelListener(dialog -> cancelRun()) //back button or touch outside
                 .create();
         //add listeners
         Button okButton;
         if (loadingDialogView != null) {
             okButton = loadingDialogView.findViewById(R.id.loadingDialogOkButton);
             okButton.setOnClickListener(view -> loadingDialog.dismiss());
+            loadingDialogView.findViewById(R.id.loadingDialogCancelButton).setOnClickListener(view -> cancelRun());
         }
         //show
         loadingDialog.show();
@@ -407,6 +514,7 @@ public class PlaygroundActivity extends ThemedActivity implements CodeHostingAct
         }
         //hide loading and show error layout
         loadingDialogView.findViewById(R.id.loadingDialogProgress).setVisibility(View.GONE);
+        loadingDialogView.findViewById(R.id.loadingDialogCancelButton).setVisibility(View.GONE);
         loadingDialogView.findViewById(R.id.loadingDialogErrorLayout).setVisibility(View.VISIBLE);
         //set message
         TextView messageTextView = loadingDialogView.findViewById(R.id.loadingDialogMessageTextView);
@@ -459,7 +567,8 @@ public class PlaygroundActivity extends ThemedActivity implements CodeHostingAct
 
     /**
      * The timestamp when code was last run can be found in the preferences with this key. If there is
-     * no value with this key, that means there never was a code run.
+     * no value with this key, that means there never was a code run. The timestamp is in the future if the
+     * last runs used more than one API call, see {@link #registerApiCalls(Context, ExecutionBackend.Outcome)}.
      */
     @VisibleForTesting
     public static final String PLAYGROUND_COUNTDOWN_PREF_NAME = "playground_countdown";
@@ -484,7 +593,35 @@ public class PlaygroundActivity extends ThemedActivity implements CodeHostingAct
      * @param codeRunAt The timestamp.
      */
     public void registerCodeRunTime(long codeRunAt) {
-        final SharedPreferences preferences = getSharedPreferences(LearnJavaActivity.APP_PREFERENCES_NAME, Context.MODE_PRIVATE);
+        registerCodeRunTime(this, codeRunAt);
+    }
+
+    /**
+     * Charges the API calls of a run to the run interval. Every call uses up one {@link #CODE_RUN_INTERVAL},
+     * so retries and hedging requests delay the next run, just like separate runs would. As before, the first
+     * call of a failed run is not charged, so a failed run can be repeated.
+     * @param context Context.
+     * @param outcome The outcome of the run.
+     */
+    public static synchronized void registerApiCalls(@NonNull Context context, @NonNull ExecutionBackend.Outcome outcome) {
+        final int chargedCalls = outcome.isSuccessful() ? outcome.apiCalls : outcome.apiCalls - 1;
+        if(chargedCalls <= 0) return;
+        final SharedPreferences preferences = context.getSharedPreferences(LearnJavaActivity.APP_PREFERENCES_NAME, Context.MODE_PRIVATE);
+        final long lastRunAt = preferences.getLong(PLAYGROUND_COUNTDOWN_PREF_NAME, -1);
+        //the earliest time the next run would be allowed, and an interval for each further call
+        long runAt = System.currentTimeMillis();
+        if(lastRunAt != -1) runAt = Math.max(runAt, lastRunAt + CODE_RUN_INTERVAL);
+        runAt += (chargedCalls - 1) * CODE_RUN_INTERVAL;
+        registerCodeRunTime(context, runAt);
+    }
+
+    /**
+     * Saves a timestamp when code was last run, also used when there is no activity.
+     * @param context Context.
+     * @param codeRunAt The timestamp.
+     */
+    static void registerCodeRunTime(@NonNull Context context, long codeRunAt) {
+        final SharedPreferences preferences = context.getSharedPreferences(LearnJavaActivity.APP_PREFERENCES_NAME, Context.MODE_PRIVATE);
         preferences.edit().putLong(PLAYGROUND_COUNTDOWN_PREF_NAME, codeRunAt).apply();
     }
 
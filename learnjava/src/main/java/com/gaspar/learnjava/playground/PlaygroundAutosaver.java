@@ -0,0 +1,107 @@
+package com.gaspar.learnjava.playground;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.UiThread;
+
+import com.gaspar.learnjava.asynctask.SavePlaygroundFilesTask;
+import com.gaspar.learnjava.database.PlaygroundFile;
+
+import java.util.List;
+
+/**
+ * Write-behind persistence of the {@link PlaygroundFile}s of a {@link CodeFragment}. Edits only mark the files
+ * dirty, and a flush is scheduled {@link #FLUSH_INTERVAL} milliseconds later. Further edits in this interval are written
+ * by the same flush, so a burst of edits becomes one save. The save itself only writes the files that changed,
+ * see {@link SavePlaygroundFilesTask}.
+ * <p>
+ * All methods must be called on the UI thread.
+ */
+@UiThread
+class PlaygroundAutosaver {
+
+    /**
+     * The minimum time between two saves, in milliseconds.
+     */
+    static final long FLUSH_INTERVAL = 5000;
+
+    /**
+     * Schedules the flushes on the UI thread.
+     */
+    private final Handler handler;
+
+    /**
+     * Application context, used by the save tasks.
+     */
+    private final Context appContext;
+
+    /**
+     * Performs the scheduled flush.
+     */
+    private final Runnable flushRunnable;
+
+    /**
+     * The files that are saved. Null until they are loaded.
+     */
+    private List<PlaygroundFile> playgroundFiles;
+
+    /**
+     * Stores if there are changes which were not saved yet.
+     */
+    private boolean dirty;
+
+    /**
+     * Stores if a flush is scheduled.
+     */
+    private boolean flushScheduled;
+
+    /**
+     * Creates an autosaver.
+     * @param context Context.
+     */
+    PlaygroundAutosaver(@NonNull Context context) {
+        appContext = context.getApplicationContext();
+        handler = new Handler(Looper.getMainLooper());
+        flushRunnable = this::flush;
+        dirty = false;
+        flushScheduled = false;
+    }
+
+    /**
+     * Sets the files which will be saved. The list is not copied, changes made to it will be saved.
+     * @param playgroundFiles The files.
+     */
+    void setPlaygroundFiles(@NonNull List<PlaygroundFile> playgroundFiles) {
+        this.playgroundFiles = playgroundFiles;
+    }
+
+    /**
+     * Marks the files as changed. If no flush is scheduled, one is scheduled after {@link #FLUSH_INTERVAL}.
+     */
+    void markDirty() {
+        dirty = true;
+        if(flushScheduled) return; //the scheduled flush will save this change as well
+        flushScheduled = handler.postDelayed(flushRunnable, FLUSH_INTERVAL);
+    }
+
+    /**
+     * Saves the files now, if they changed. Cancels the scheduled flush.
+     */
+    void flush() {
+        cancel();
+        if(!dirty || playgroundFiles == null) return;
+        dirty = false;
+        new SavePlaygroundFilesTask(playgroundFiles).execute(appContext);
+    }
+
+    /**
+     * Cancels the scheduled flush, without saving.
+     */
+    void cancel() {
+        handler.removeCallbacks(flushRunnable);
+        flushScheduled = false;
+    }
+}
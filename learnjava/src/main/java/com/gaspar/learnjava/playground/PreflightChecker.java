@@ -0,0 +1,211 @@
+package com.gaspar.learnjava.playground;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.gaspar.learnjava.database.PlaygroundFile;
+import com.gaspar.learnjava.playground.JavaTokenizer.Problem;
+import com.gaspar.learnjava.playground.JavaTokenizer.Token;
+import com.gaspar.learnjava.playground.JavaTokenizer.TokenType;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Checks the code for trivial compile errors before it is sent to the run API, so that these can be shown instantly,
+ * without using the API. The code is split with the {@link JavaTokenizer}, and the following is checked:
+ * <ul>
+ *     <li>Unclosed string and character literals, text blocks and comments.</li>
+ *     <li>Unbalanced or mismatched brackets.</li>
+ *     <li>Missing semicolons at the end of statements, in the obvious cases.</li>
+ *     <li>Public classes whose name does not match the name of their file.</li>
+ * </ul>
+ * The checks are conservative: valid code must never be rejected, so anything which is not certainly wrong is
+ * left to the compiler. The errors are reported in the format of the compiler.
+ */
+class PreflightChecker {
+
+    /**
+     * If a statement ends with one of these tokens, it can not continue on the next line with a
+     * {@link #STATEMENT_KEYWORDS} token. Identifiers and literals also end expressions.
+     */
+    private static final Set<String> EXPRESSION_END_KEYWORDS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "this", "true", "false", "null", "]", "++", "--")));
+
+    /**
+     * These keywords always start a new statement or declaration inside a block.
+     */
+    private static final Set<String> STATEMENT_KEYWORDS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "boolean", "byte", "char", "short", "int", "long", "float", "double", "return", "if", "for", "while",
+            "do", "try", "throw", "break", "continue", "final")));
+
+    /**
+     * If one of these is before a '{', the braces enclose a block of statements (or the body of an anonymous class).
+     */
+    private static final Set<String> BLOCK_OPENERS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            ")", "->", "else", "try", "do", "finally")));
+
+    /**
+     * Types which must be declared in a file with the same name, if they are public.
+     */
+    private static final Set<String> TYPE_KEYWORDS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "class", "interface", "enum", "record")));
+
+    /**
+     * Checks all files of a program.
+     * @param programPayload The program.
+     * @return A response with the errors in stderr, or null if no errors were found.
+     */
+    @Nullable
+    static ProgramResponse check(@NonNull ProgramPayload programPayload) {
+        final StringBuilder errors = new StringBuilder();
+        int errorCount = 0;
+        for(PlaygroundFile file: programPayload.files) {
+            for(Problem problem: checkFile(file.getFileName(), file.getCleanedContent())) {
+                errors.append(file.getFileName()).append(':').append(problem.line).append(": error: ")
+                        .append(problem.message).append('\n');
+                errorCount++;
+            }
+        }
+        if(errorCount == 0) return null;
+        errors.append(errorCount).append(errorCount == 1 ? " error" : " errors");
+        final ProgramResponse programResponse = new ProgramResponse();
+        programResponse.stdout = "";
+        programResponse.stderr = errors.toString();
+        programResponse.error = "";
+        programResponse.preflight = true;
+        return programResponse;
+    }
+
+    /**
+     * Checks a single file.
+     * @param fileName Name of the file, with the '.java' extension.
+     * @param content The content of the file.
+     * @return The errors, empty if no errors were found.
+     */
+    @NonNull
+    static List<Problem> checkFile(@NonNull String fileName, @NonNull String content) {
+        final JavaTokenizer tokenizer = new JavaTokenizer(content);
+        if(!tokenizer.getProblems().isEmpty()) {
+            return tokenizer.getProblems(); //the structure can not be trusted
+        }
+        final List<Token> tokens = tokenizer.getTokens();
+        final List<Problem> problems = new ArrayList<>();
+        checkStructure(tokens, problems);
+        checkPublicTypeNames(fileName, tokens, problems);
+        return problems;
+    }
+
+    /**
+     * Checks that the brackets are balanced, and finds missing semicolons inside blocks. Stops at the first
+     * bracket error, because the following errors would only be consequences of it.
+     */
+    private static void checkStructure(@NonNull List<Token> tokens, @NonNull List<Problem> problems) {
+        final Deque<Token> openBrackets = new ArrayDeque<>();
+        //for each open bracket: true if it is a '{' which opens a block
+        final Deque<Boolean> blocks = new ArrayDeque<>();
+        for(int i = 0; i < tokens.size(); i++) {
+            final Token token = tokens.get(i);
+            final Token previous = i > 0 ? tokens.get(i - 1) : null;
+            switch (token.text) {
+                case "(":
+                case "[":
+                case "{":
+                    openBrackets.push(token);
+                    blocks.push(token.is("{") && previous != null && BLOCK_OPENERS.contains(previous.text));
+                    continue;
+                case ")":
+                case "]":
+                case "}":
+                    if(openBrackets.isEmpty()) {
+                        problems.add(new Problem(token.line, token.is("}")
+                                ? "class, interface, enum, or record expected" : "illegal start of type"));
+                        return;
+                    }
+                    final Token open = openBrackets.pop();
+                    final boolean block = blocks.pop();
+                    if(!closing(open.text).equals(token.text)) {
+                        problems.add(new Problem(token.line, "'" + closing(open.text) + "' expected"));
+                        return;
+                    }
+                    if(block && previous != null && endsExpression(previous)) {
+                        problems.add(new Problem(previous.line, "';' expected"));
+                    }
+                    continue;
+            }
+            //a statement keyword on a new line, right after an expression, inside a block. Not after ')', because
+            //that can be the condition of an 'if' or a loop, and not after an annotation of a local variable
+            if(!blocks.isEmpty() && blocks.peek() && previous != null && token.line > previous.line
+                    && STATEMENT_KEYWORDS.contains(token.text) && endsExpression(previous) && !previous.is(")")
+                    && !isAnnotationName(tokens, i - 1)) {
+                problems.add(new Problem(previous.line, "';' expected"));
+            }
+        }
+        if(!openBrackets.isEmpty()) {
+            final int lastLine = tokens.get(tokens.size() - 1).line;
+            problems.add(new Problem(lastLine, "reached end of file while parsing"));
+        }
+    }
+
+    /**
+     * @return True if a statement can end with this token, but it needs a semicolon after it.
+     */
+    private static boolean endsExpression(@NonNull Token token) {
+        return token.type == TokenType.IDENTIFIER || token.type == TokenType.LITERAL || EXPRESSION_END_KEYWORDS.contains(token.text)
+                || token.is(")");
+    }
+
+    /**
+     * @return True if the identifier at the index is the (possibly qualified) name of an annotation.
+     */
+    private static boolean isAnnotationName(@NonNull List<Token> tokens, int index) {
+        while(index > 0 && tokens.get(index).type == TokenType.IDENTIFIER) {
+            final Token before = tokens.get(index - 1);
+            if(before.is("@")) return true;
+            if(!before.is(".")) return false;
+            index -= 2;
+        }
+        return false;
+    }
+
+    private static String closing(@NonNull String open) {
+        switch (open) {
+            case "(": return ")";
+            case "[": return "]";
+            default: return "}";
+        }
+    }
+
+    /**
+     * Checks that the public top level types are declared in a file with the same name.
+     */
+    private static void checkPublicTypeNames(@NonNull String fileName, @NonNull List<Token> tokens, @NonNull List<Problem> problems) {
+        final String expectedName = fileName.endsWith(".java") ? fileName.substring(0, fileName.length() - ".java".length()) : fileName;
+        int depth = 0;
+        for(int i = 0; i < tokens.size(); i++) {
+            final Token token = tokens.get(i);
+            if(token.is("{")) depth++;
+            if(token.is("}")) depth--;
+            if(depth != 0 || !token.is("public")) continue;
+            //find the type keyword after the modifiers
+            for(int j = i + 1; j + 1 < tokens.size(); j++) {
+                final Token candidate = tokens.get(j);
+                if(candidate.is("{") || candidate.is(";") || candidate.is("(")) break;
+                final Token name = tokens.get(j + 1);
+                if(TYPE_KEYWORDS.contains(candidate.text) && name.type == TokenType.IDENTIFIER) {
+                    if(!name.text.equals(expectedName)) {
+                        problems.add(new Problem(name.line, candidate.text + " " + name.text + " is public, should be declared in a file named "
+                                + name.text + ".java"));
+                    }
+                    break;
+                }
+            }
+        }
+    }
+}
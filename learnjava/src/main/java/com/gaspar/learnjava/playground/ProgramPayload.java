@@ -1,15 +1,20 @@
 package com.gaspar.learnjava.playground;
 
+import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import com.gaspar.learnjava.database.PlaygroundFile;
 import com.squareup.moshi.Json;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
  * A POJO that is used to convert a Java program, stored as a list of {@link com.gaspar.learnjava.database.PlaygroundFile},
  * into JSON. This program may or may not have input for stdin.
+ * <p>
+ * The files are not cleaned here, that happens while the payload is written into the request, see
+ * {@link ProgramPayloadRequestBody}.
  * @see ProgramResponse
  * @see RunApi
  */
@@ -28,4 +33,21 @@ public class ProgramPayload {
     @Json(name = "files")
     public List<PlaygroundFile> files;
 
+    /**
+     * Creates a payload. The files are copied, so they can be modified while the payload is sent, but their content
+     * is shared, not copied.
+     * @param playgroundFiles The files of the program.
+     * @param stdin The input of the program, or null.
+     * @return The payload.
+     */
+    @NonNull
+    public static ProgramPayload create(@NonNull List<PlaygroundFile> playgroundFiles, @Nullable String stdin) {
+        final ProgramPayload programPayload = new ProgramPayload();
+        programPayload.stdin = stdin;
+        programPayload.files = new ArrayList<>(playgroundFiles.size());
+        for(PlaygroundFile playgroundFile: playgroundFiles) {
+            programPayload.files.add(new PlaygroundFile(playgroundFile.getFileName(), playgroundFile.getContent()));
+        }
+        return programPayload;
+    }
 }
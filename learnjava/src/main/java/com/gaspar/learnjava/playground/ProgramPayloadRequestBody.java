@@ -0,0 +1,79 @@
+package com.gaspar.learnjava.playground;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.gaspar.learnjava.database.PlaygroundFile;
+import com.squareup.moshi.JsonWriter;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+import retrofit2.Converter;
+import retrofit2.Retrofit;
+
+/**
+ * Request body of the run API, which writes a {@link ProgramPayload} as JSON directly into the request. The
+ * content of the files is cleaned while it is written, see {@link PlaygroundFile#getCleanedContent()}. Unlike
+ * the Moshi converter, this does not serialize the whole payload into a buffer first, and since cleaning only
+ * copies the files which need it, the content of the files is usually not copied at all.
+ * <p>
+ * The body can be written more than once, for example when the HTTP client retries the request.
+ */
+class ProgramPayloadRequestBody extends RequestBody {
+
+    /**
+     * Media type of the request.
+     */
+    private static final MediaType JSON_MEDIA_TYPE = MediaType.parse("application/json; charset=UTF-8");
+
+    private final ProgramPayload programPayload;
+
+    ProgramPayloadRequestBody(@NonNull ProgramPayload programPayload) {
+        this.programPayload = programPayload;
+    }
+
+    @Nullable
+    @Override
+    public MediaType contentType() {
+        return JSON_MEDIA_TYPE;
+    }
+
+    @Override
+    public void writeTo(@NonNull BufferedSink sink) throws IOException {
+        final JsonWriter writer = JsonWriter.of(sink);
+        writer.beginObject();
+        if(programPayload.stdin != null) {
+            writer.name("stdin").value(programPayload.stdin);
+        }
+        writer.name("files").beginArray();
+        for(PlaygroundFile file: programPayload.files) {
+            writer.beginObject();
+            writer.name("name").value(file.getFileName());
+            writer.name("content").value(file.getCleanedContent());
+            writer.endObject();
+        }
+        writer.endArray();
+        writer.endObject();
+        writer.flush(); //not closed, the sink belongs to the HTTP client
+    }
+
+    /**
+     * Makes retrofit use {@link ProgramPayloadRequestBody} for {@link ProgramPayload} parameters. Must be added
+     * before the Moshi converter factory.
+     */
+    static class ConverterFactory extends Converter.Factory {
+
+        @Nullable
+        @Override
+        public Converter<?, RequestBody> requestBodyConverter(@NonNull Type type, @NonNull Annotation[] parameterAnnotations,
+                                                              @NonNull Annotation[] methodAnnotations, @NonNull Retrofit retrofit) {
+            if(type != ProgramPayload.class) return null; //let the next factory handle it
+            return (Converter<ProgramPayload, RequestBody>) ProgramPayloadRequestBody::new;
+        }
+    }
+}
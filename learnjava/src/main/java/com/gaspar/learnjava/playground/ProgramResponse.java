@@ -27,4 +27,23 @@ public class ProgramResponse {
     @Json(name = "error")
     public String error;
 
+    /**
+     * True if this response came from the {@link RunResultCache}, and not from the run API. It is transient, so it is
+     * never serialized into JSON.
+     */
+    public transient boolean cached;
+
+    /**
+     * True if the output was too long, and it was cut at the output limit. It is transient, so it is never
+     * serialized into JSON.
+     * @see ProgramResponseDecoder
+     */
+    public transient boolean truncated;
+
+    /**
+     * True if this response was created by the {@link PreflightChecker}, because errors were found in the code
+     * before it was sent. It is transient, so it is never serialized into JSON.
+     */
+    public transient boolean preflight;
+
 }
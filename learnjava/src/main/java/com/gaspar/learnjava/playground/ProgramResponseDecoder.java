@@ -0,0 +1,236 @@
+package com.gaspar.learnjava.playground;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.squareup.moshi.JsonDataException;
+import com.squareup.moshi.JsonReader;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+import okio.Source;
+import retrofit2.Converter;
+import retrofit2.Retrofit;
+
+/**
+ * Decodes the JSON response of the run API into a {@link ProgramResponse}, with a Moshi {@link JsonReader}. Unlike
+ * the Moshi converter, this never reads a response of any size: the string values are cut at the output limit, and
+ * the body is only read up to {@link #BYTES_PER_CHARACTER} bytes per character of the limit. When that is reached,
+ * the rest of the body is not read, the value which was being read is kept up to that point, and the values
+ * after it are missing. If anything was cut, {@link ProgramResponse#truncated} is set. Unknown fields are skipped.
+ * <p>
+ * This way a program which prints in an endless loop can not make the app run out of memory, or download all of
+ * its output.
+ */
+class ProgramResponseDecoder {
+
+    /**
+     * The body is read up to this many bytes for each character of the output limit. An escaped character takes at
+     * most 6 bytes, so the value which is read first is never cut by this before it reaches the output limit.
+     */
+    private static final int BYTES_PER_CHARACTER = 8;
+
+    /**
+     * Decodes a response.
+     * @param body Source of the JSON response, in UTF-8. Not closed, and not read to the end if the response is
+     *             too long.
+     * @param outputLimit The string values are cut after this many characters, zero or less means no limit.
+     * @return The response.
+     * @throws IOException If the response could not be read, or it is not a valid response.
+     */
+    @NonNull
+    static ProgramResponse decode(@NonNull Source body, int outputLimit) throws IOException {
+        final int limit = outputLimit > 0 ? outputLimit : Integer.MAX_VALUE;
+        final LimitedSource limitedSource = new LimitedSource(body, outputLimit > 0 ?
+                (long)outputLimit * BYTES_PER_CHARACTER : Long.MAX_VALUE);
+        final BufferedSource source = Okio.buffer(limitedSource);
+        final JsonReader reader = JsonReader.of(source);
+        final ProgramResponse programResponse = new ProgramResponse();
+        String name = null;
+        try {
+            reader.beginObject();
+            while(reader.hasNext()) {
+                name = reader.nextName();
+                if(!isOutput(name) || reader.peek() != JsonReader.Token.STRING) {
+                    reader.skipValue(); //null is also skipped
+                    continue;
+                }
+                //the reader consumed the opening quote, the buffer starts with the content of the string
+                limitedSource.startCapture(source.buffer());
+                setOutput(programResponse, name, cut(programResponse, reader.nextString(), limit));
+                limitedSource.stopCapture();
+            }
+            reader.endObject();
+        } catch (IOException e) {
+            if(!limitedSource.isExhausted()) throw e;
+            //the reader failed because the body was no longer read
+            final Buffer captured = limitedSource.stopCapture();
+            if(captured != null) setOutput(programResponse, name, cut(programResponse, decodePartialString(captured), limit));
+            //the values after the cut are missing, they are displayed as empty
+            if(programResponse.stdout == null) programResponse.stdout = "";
+            if(programResponse.stderr == null) programResponse.stderr = "";
+            if(programResponse.error == null) programResponse.error = "";
+            programResponse.truncated = true;
+        } catch (JsonDataException e) {
+            throw malformed(e);
+        }
+        return programResponse;
+    }
+
+    private static boolean isOutput(@NonNull String name) {
+        return name.equals("stdout") || name.equals("stderr") || name.equals("error");
+    }
+
+    private static void setOutput(@NonNull ProgramResponse programResponse, @NonNull String name, @NonNull String value) {
+        switch (name) {
+            case "stdout":
+                programResponse.stdout = value;
+                break;
+            case "stderr":
+                programResponse.stderr = value;
+                break;
+            case "error":
+                programResponse.error = value;
+                break;
+        }
+    }
+
+    /**
+     * Cuts a value at the output limit, and marks the response truncated if it was cut.
+     */
+    @NonNull
+    private static String cut(@NonNull ProgramResponse programResponse, @NonNull String value, int limit) {
+        if(value.length() <= limit) return value;
+        programResponse.truncated = true;
+        int end = limit;
+        if(Character.isHighSurrogate(value.charAt(end - 1))) end--; //do not leave half of a surrogate pair at the end
+        return value.substring(0, end);
+    }
+
+    /**
+     * Decodes the beginning of a string value, which was cut when the body was no longer read.
+     * @param content The raw content of the string, after the opening quote.
+     * @return The decoded beginning.
+     */
+    @NonNull
+    private static String decodePartialString(@NonNull Buffer content) throws IOException {
+        //find the end of the last complete character or escape sequence
+        long end = 0;
+        while(end < content.size()) {
+            if(content.getByte(end) != '\\') {
+                end++;
+                continue;
+            }
+            final long escapeLength = end + 1 < content.size() && content.getByte(end + 1) == 'u' ? 6 : 2;
+            if(end + escapeLength > content.size()) break;
+            end += escapeLength;
+        }
+        final Buffer json = new Buffer().writeByte('"');
+        content.copyTo(json, 0, end);
+        json.writeByte('"');
+        try {
+            return JsonReader.of(json).nextString();
+        } catch (JsonDataException e) {
+            throw malformed(e);
+        }
+    }
+
+    private static IOException malformed(@NonNull Exception cause) {
+        return new IOException("Malformed run API response: " + cause.getMessage(), cause);
+    }
+
+    /**
+     * Stops reading the body when the byte limit is reached, and can keep a copy of what is read.
+     */
+    private static class LimitedSource extends ForwardingSource {
+
+        /**
+         * This many bytes can still be read.
+         */
+        private long remaining;
+
+        /**
+         * Set when a read was attempted after the limit.
+         */
+        private boolean exhausted;
+
+        /**
+         * The copy of the bytes which were read since {@link #startCapture(Buffer)}, or null.
+         */
+        @Nullable
+        private Buffer captured;
+
+        LimitedSource(@NonNull Source delegate, long limit) {
+            super(delegate);
+            remaining = limit;
+        }
+
+        @Override
+        public long read(@NonNull Buffer sink, long byteCount) throws IOException {
+            if(remaining == 0) {
+                exhausted = true;
+                return -1;
+            }
+            final long read = super.read(sink, Math.min(byteCount, remaining));
+            if(read > 0) {
+                remaining -= read;
+                if(captured != null) sink.copyTo(captured, sink.size() - read, read);
+            }
+            return read;
+        }
+
+        /**
+         * Starts copying the bytes.
+         * @param buffered The bytes which were read, but not consumed yet. These are copied first.
+         */
+        void startCapture(@NonNull Buffer buffered) {
+            captured = buffered.clone();
+        }
+
+        /**
+         * @return The copy of the bytes since {@link #startCapture(Buffer)}, or null if nothing was copied.
+         */
+        @Nullable
+        Buffer stopCapture() {
+            final Buffer result = captured;
+            captured = null;
+            return result;
+        }
+
+        boolean isExhausted() {
+            return exhausted;
+        }
+    }
+
+    /**
+     * Makes retrofit use {@link ProgramResponseDecoder} for {@link ProgramResponse} results. Must be added
+     * before the Moshi converter factory. The body is closed after decoding, even if it was not read to the end.
+     */
+    static class ConverterFactory extends Converter.Factory {
+
+        private final int outputLimit;
+
+        ConverterFactory(int outputLimit) {
+            this.outputLimit = outputLimit;
+        }
+
+        @Nullable
+        @Override
+        public Converter<ResponseBody, ?> responseBodyConverter(@NonNull Type type, @NonNull Annotation[] annotations,
+                                                                @NonNull Retrofit retrofit) {
+            if(type != ProgramResponse.class) return null; //let the next factory handle it
+            return (Converter<ResponseBody, ProgramResponse>) body -> {
+                try(ResponseBody ignored = body) {
+                    return decode(body.source(), outputLimit);
+                }
+            };
+        }
+    }
+}
@@ -2,12 +2,8 @@ package com.gaspar.learnjava.playground;
 
 import androidx.annotation.NonNull;
 
-import java.util.concurrent.TimeUnit;
-
-import okhttp3.OkHttpClient;
 import retrofit2.Call;
 import retrofit2.Retrofit;
-import retrofit2.converter.moshi.MoshiConverterFactory;
 import retrofit2.http.Body;
 import retrofit2.http.Header;
 import retrofit2.http.POST;
@@ -30,24 +26,22 @@ public interface RunApi {
      */
     int TIMEOUT = 5;
 
+    /**
+     * Value of the API keys in the build variants which have no real keys. With these, the API is always mocked.
+     */
+    String MOCK_API_KEY = "mock_api_key";
+
     /**
      * Base URL for the run API.
      */
     String BASE_URL = "https://glot.io";
 
     /**
-     * Creates a retrofit client, that is used to access the API.
+     * Gets the retrofit client, that is used to access the API. It is shared between all calls, see {@link RunClient}.
      * @return The retrofit client.
      */
     static Retrofit getRetrofit() {
-        final OkHttpClient.Builder okHttpBuilder = new OkHttpClient.Builder()
-                .connectTimeout(TIMEOUT, TimeUnit.SECONDS)
-                .readTimeout(TIMEOUT, TimeUnit.SECONDS);
-        return new Retrofit.Builder()
-                .baseUrl(BASE_URL)
-                .addConverterFactory(MoshiConverterFactory.create())
-                .callFactory(okHttpBuilder.build())
-                .build();
+        return RunClient.getInstance().getRetrofit();
     }
 
     /**
@@ -0,0 +1,165 @@
+package com.gaspar.learnjava.playground;
+
+import androidx.annotation.AnyThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+
+import com.gaspar.learnjava.asynctask.ExecutorLane;
+import com.gaspar.learnjava.asynctask.LearnJavaExecutor;
+import com.gaspar.learnjava.utils.LogUtils;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import retrofit2.Retrofit;
+import retrofit2.converter.moshi.MoshiConverterFactory;
+
+/**
+ * A singleton which holds the HTTP client and the {@link RunApi} implementation, shared by all code runs. Creating
+ * these for every run would mean a new DNS lookup and TLS handshake, and a new Retrofit proxy each time. The
+ * shared client keeps connections alive in its pool, so repeated runs can reuse them, and it prefers HTTP/2.
+ * <p>
+ * Requests are compressed when the server supports it, see {@link GzipRequestInterceptor}, and responses are decoded
+ * while they are read, see {@link ProgramResponseDecoder}. The timings of the calls are recorded by the
+ * {@link RunTelemetry}.
+ * <p>
+ * Use {@link #getInstance()} to access the singleton.
+ */
+public class RunClient {
+
+    /**
+     * Maximum amount of idle connections kept in the pool.
+     */
+    private static final int MAX_IDLE_CONNECTIONS = 2;
+
+    /**
+     * Idle connections are kept alive this long, in minutes.
+     */
+    private static final int KEEP_ALIVE_DURATION = 5;
+
+    /**
+     * How many characters are kept from stdout, stderr and the errors of the responses, the rest is cut while the
+     * response is read.
+     */
+    private static final int OUTPUT_LIMIT = 64 * 1024;
+
+    /**
+     * The instance.
+     */
+    private static RunClient instance;
+
+    /**
+     * @return The instance.
+     */
+    @AnyThread
+    public static synchronized RunClient getInstance() {
+        if(instance == null) {
+            instance = new RunClient();
+        }
+        return instance;
+    }
+
+    /**
+     * The HTTP client, with the connection pool.
+     */
+    private final OkHttpClient okHttpClient;
+
+    /**
+     * The retrofit client, which uses {@link #okHttpClient}.
+     */
+    private final Retrofit retrofit;
+
+    /**
+     * The API implementation, created from {@link #retrofit}.
+     */
+    private final RunApi runApi;
+
+    /**
+     * Private constructor.
+     */
+    private RunClient() {
+        okHttpClient = new OkHttpClient.Builder()
+                .connectTimeout(RunApi.TIMEOUT, TimeUnit.SECONDS)
+                .readTimeout(RunApi.TIMEOUT, TimeUnit.SECONDS)
+                .connectionPool(new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_DURATION, TimeUnit.MINUTES))
+                .protocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                .retryOnConnectionFailure(true)
+                .addInterceptor(new GzipRequestInterceptor())
+                .eventListenerFactory(RunTelemetry.getInstance().getEventListenerFactory()) //phase timings
+                .build();
+        retrofit = new Retrofit.Builder()
+                .baseUrl(RunApi.BASE_URL)
+                .addConverterFactory(new ProgramPayloadRequestBody.ConverterFactory()) //streams the payload
+                .addConverterFactory(new ProgramResponseDecoder.ConverterFactory(OUTPUT_LIMIT)) //decodes the response with the output limit
+                .addConverterFactory(MoshiConverterFactory.create())
+                .callFactory(okHttpClient)
+                .callbackExecutor(Runnable::run) //callbacks are handled on the network threads, see RunRequestExecutor
+                .build();
+        runApi = retrofit.create(RunApi.class);
+    }
+
+    /**
+     * Opens a connection to the run API in the background, so that the next code run does not have to wait
+     * for the connection setup. Does nothing if there is already an idle connection in the pool. Failures are
+     * only logged, the run will simply connect again.
+     */
+    @AnyThread
+    public void warmUp() {
+        if(okHttpClient.connectionPool().idleConnectionCount() > 0) return;
+        LearnJavaExecutor.getInstance().executeOnBackgroundThread(ExecutorLane.BLOCKING, () -> {
+            final Request request = new Request.Builder()
+                    .url(RunApi.BASE_URL)
+                    .head()
+                    .build();
+            try(Response ignored = okHttpClient.newCall(request).execute()) {
+                LogUtils.log("Connection to run API is warmed up.");
+            } catch (Exception e) {
+                LogUtils.log("Failed to warm up connection to run API: " + e.getClass().getSimpleName());
+            }
+        });
+    }
+
+    /**
+     * Creates an API implementation for another server, which shares the HTTP client and its connection pool.
+     * Used to test the network path against a local stand-in server.
+     * @param baseUrl Base URL of the server.
+     * @return The API implementation.
+     */
+    @NonNull
+    @VisibleForTesting
+    RunApi createRunApi(@NonNull String baseUrl) {
+        return retrofit.newBuilder()
+                .baseUrl(baseUrl)
+                .build()
+                .create(RunApi.class);
+    }
+
+    /**
+     * @return The shared HTTP client.
+     */
+    @NonNull
+    public OkHttpClient getOkHttpClient() {
+        return okHttpClient;
+    }
+
+    /**
+     * @return The shared retrofit client.
+     */
+    @NonNull
+    public Retrofit getRetrofit() {
+        return retrofit;
+    }
+
+    /**
+     * @return The shared API implementation.
+     */
+    @NonNull
+    public RunApi getRunApi() {
+        return runApi;
+    }
+}
@@ -0,0 +1,276 @@
+package com.gaspar.learnjava.playground;
+
+import android.content.Context;
+
+import androidx.annotation.AnyThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import com.gaspar.learnjava.R;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Chooses which API key is used for a call to the run API. The latency and the error rate of each key is tracked,
+ * and the healthiest key is chosen. A key which is rejected (401) or rate limited (429), or fails many times in a
+ * row, is taken out of the rotation by a circuit breaker. After a cooldown, a single call is allowed to probe the
+ * key again: if it succeeds the key is back in the rotation, otherwise the cooldown starts again, twice as long.
+ * <p>
+ * Use {@link #getInstance(Context)} to access the singleton. All methods are thread safe.
+ */
+public class RunKeyScheduler {
+
+    /**
+     * Status code reported when the call did not get any HTTP response, for example on a timeout.
+     */
+    public static final int NO_RESPONSE = -1;
+
+    /**
+     * The first cooldown of a tripped key, in milliseconds.
+     */
+    @VisibleForTesting
+    static final long BASE_COOLDOWN = 60_000;
+
+    /**
+     * The cooldown is never longer than this, in milliseconds.
+     */
+    @VisibleForTesting
+    static final long MAX_COOLDOWN = 15 * 60_000;
+
+    /**
+     * This many failures in a row trip the circuit breaker, even if they are not 401 or 429.
+     */
+    @VisibleForTesting
+    static final int MAX_CONSECUTIVE_FAILURES = 3;
+
+    /**
+     * Weight of the newest sample in the moving averages of latency and error rate.
+     */
+    private static final double SMOOTHING = 0.3;
+
+    /**
+     * Source of the current time, so that it can be replaced in tests.
+     */
+    public interface Clock {
+
+        /**
+         * @return The current time in milliseconds.
+         */
+        long currentTimeMillis();
+    }
+
+    /**
+     * The instance.
+     */
+    private static RunKeyScheduler instance;
+
+    /**
+     * @return The instance, which schedules the keys from the string resources.
+     */
+    @AnyThread
+    public static synchronized RunKeyScheduler getInstance(@NonNull Context context) {
+        if(instance == null) {
+            instance = new RunKeyScheduler(Arrays.asList(
+                    context.getString(R.string.run_api_key_1),
+                    context.getString(R.string.run_api_key_2),
+                    context.getString(R.string.run_api_key_3)
+            ), System::currentTimeMillis);
+        }
+        return instance;
+    }
+
+    /**
+     * The health of each key.
+     */
+    private final List<KeyHealth> keys;
+
+    /**
+     * The clock.
+     */
+    private final Clock clock;
+
+    @VisibleForTesting
+    RunKeyScheduler(@NonNull List<String> apiKeys, @NonNull Clock clock) {
+        if(apiKeys.isEmpty()) throw new IllegalArgumentException("No API keys!");
+        this.clock = clock;
+        keys = new ArrayList<>();
+        for(String apiKey: apiKeys) {
+            keys.add(new KeyHealth(apiKey));
+        }
+    }
+
+    /**
+     * Selects a key for the next call. Keys with a closed circuit are preferred, by their latency and error rate.
+     * If there are none, a key whose cooldown is over is probed. If all keys are in cooldown, the one which comes
+     * out of it first is used.
+     * @return The API key, without the 'Token ' prefix.
+     */
+    @NonNull
+    public synchronized String selectKey() {
+        return selectKeyExcluding(null);
+    }
+
+    /**
+     * Selects a key, like {@link #selectKey()}, but avoids the given one. This is used for a hedging request, which
+     * is sent while the first request is still running.
+     * @param excludedKey This key is only returned if there is no other.
+     * @return The API key, without the 'Token ' prefix.
+     */
+    @NonNull
+    public synchronized String selectKeyExcluding(@Nullable String excludedKey) {
+        final long now = clock.currentTimeMillis();
+        KeyHealth best = null;
+        for(KeyHealth key: keys) {
+            if(key.apiKey.equals(excludedKey) || !key.isClosed()) continue;
+            if(best == null || key.isBetterThan(best)) best = key;
+        }
+        if(best == null) { //probe a key whose cooldown is over
+            for(KeyHealth key: keys) {
+                if(key.apiKey.equals(excludedKey) || key.probing || key.openUntil > now) continue;
+                if(best == null || key.openUntil < best.openUntil) best = key;
+            }
+            if(best != null) best.probing = true;
+        }
+        if(best == null) { //everything is out of the rotation, use the one which recovers first
+            for(KeyHealth key: keys) {
+                if(key.apiKey.equals(excludedKey) && keys.size() > 1) continue;
+                if(best == null || key.openUntil < best.openUntil) best = key;
+            }
+        }
+        best.lastUsed = now;
+        return best.apiKey;
+    }
+
+    /**
+     * Reports a successful call.
+     * @param apiKey The key that was used.
+     * @param latencyMillis How long the call took.
+     */
+    public synchronized void reportSuccess(@NonNull String apiKey, long latencyMillis) {
+        final KeyHealth key = find(apiKey);
+        if(key == null) return;
+        key.averageLatency = key.hasLatency ? SMOOTHING * latencyMillis + (1 - SMOOTHING) * key.averageLatency : latencyMillis;
+        key.hasLatency = true;
+        key.errorRate = (1 - SMOOTHING) * key.errorRate;
+        key.consecutiveFailures = 0;
+        key.close();
+    }
+
+    /**
+     * Reports a failed call.
+     * @param apiKey The key that was used.
+     * @param statusCode The HTTP status code, or {@link #NO_RESPONSE}.
+     */
+    public synchronized void reportFailure(@NonNull String apiKey, int statusCode) {
+        final KeyHealth key = find(apiKey);
+        if(key == null) return;
+        key.errorRate = SMOOTHING + (1 - SMOOTHING) * key.errorRate;
+        key.consecutiveFailures++;
+        final boolean rejected = statusCode == 401 || statusCode == 429;
+        if(rejected || key.probing || key.consecutiveFailures >= MAX_CONSECUTIVE_FAILURES) {
+            key.open(clock.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Reports a call which was cancelled before it finished, for example the slower one of two hedged calls. This
+     * says nothing about the health of the key, but if the call was probing the key, another call may probe it.
+     * @param apiKey The key that was used.
+     */
+    public synchronized void reportCancelled(@NonNull String apiKey) {
+        final KeyHealth key = find(apiKey);
+        if(key != null) key.probing = false;
+    }
+
+    /**
+     * @param apiKey A key.
+     * @return True if the key is in the rotation.
+     */
+    @VisibleForTesting
+    synchronized boolean isAvailable(@NonNull String apiKey) {
+        final KeyHealth key = find(apiKey);
+        return key != null && key.isClosed();
+    }
+
+    private KeyHealth find(@NonNull String apiKey) {
+        for(KeyHealth key: keys) {
+            if(key.apiKey.equals(apiKey)) return key;
+        }
+        return null;
+    }
+
+    /**
+     * The tracked health of one key.
+     */
+    private static class KeyHealth {
+
+        final String apiKey;
+
+        /**
+         * Moving average of the latency, in milliseconds. Only valid if {@link #hasLatency} is true.
+         */
+        double averageLatency;
+
+        boolean hasLatency;
+
+        /**
+         * Moving average of the failures, between 0 and 1.
+         */
+        double errorRate;
+
+        int consecutiveFailures;
+
+        /**
+         * The circuit is open until this time, or 0 if it is closed.
+         */
+        long openUntil;
+
+        /**
+         * The cooldown which is used when the circuit opens the next time.
+         */
+        long nextCooldown = BASE_COOLDOWN;
+
+        /**
+         * True if a probing call was sent with this key, and it has not finished yet.
+         */
+        boolean probing;
+
+        long lastUsed;
+
+        KeyHealth(String apiKey) {
+            this.apiKey = apiKey;
+        }
+
+        boolean isClosed() {
+            return openUntil == 0;
+        }
+
+        void open(long now) {
+            openUntil = now + nextCooldown;
+            nextCooldown = Math.min(2 * nextCooldown, MAX_COOLDOWN);
+            probing = false;
+        }
+
+        void close() {
+            openUntil = 0;
+            nextCooldown = BASE_COOLDOWN;
+            probing = false;
+        }
+
+        /**
+         * Lower score is better. Keys without latency samples are tried first, and failing keys are penalized.
+         */
+        double score() {
+            return (hasLatency ? averageLatency : 0) * (1 + 4 * errorRate) + 10_000 * errorRate;
+        }
+
+        boolean isBetterThan(KeyHealth other) {
+            final double score = score(), otherScore = other.score();
+            if(score != otherScore) return score < otherScore;
+            return lastUsed < other.lastUsed; //spread the calls between equally healthy keys
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.gaspar.learnjava.playground;
+
+import androidx.annotation.AnyThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import com.gaspar.learnjava.utils.LogUtils;
+
+/**
+ * Keeps track of the code run of the {@link PlaygroundActivity} which is in flight. The activity shows a modal loading
+ * dialog while the code runs, so there is at most one run in flight, and it ends by completing or by being
+ * cancelled. Cancelling interrupts the worker thread of the run. The {@link ExecutionBackend}s stop when
+ * interrupted, the {@link RunRequestExecutor} cancels its HTTP calls.
+ * <p>
+ * Each {@link Run} carries the hash of its payload. The result of a run is only shown if the run was not cancelled,
+ * see {@link #complete(Run)}, and if its hash still matches the program in the editor, see {@link Run#isRunOf(String)}.
+ */
+public class RunQueue {
+
+    /**
+     * A submitted code run.
+     */
+    public static class Run {
+
+        /**
+         * The program of this run.
+         */
+        @NonNull
+        public final ProgramPayload programPayload;
+
+        /**
+         * Hash of the payload, see {@link RunResultCache#computeKey(ProgramPayload)}.
+         */
+        @NonNull
+        public final String payloadHash;
+
+        /**
+         * The thread which executes this run, or null if it is not executing. Guarded by this run.
+         */
+        @Nullable
+        private Thread worker;
+
+        /**
+         * Guarded by this run.
+         */
+        private boolean cancelled;
+
+        Run(@NonNull ProgramPayload programPayload, @NonNull String payloadHash) {
+            this.programPayload = programPayload;
+            this.payloadHash = payloadHash;
+        }
+
+        /**
+         * Must be called by the thread which starts executing this run, so that it can be interrupted if the
+         * run is cancelled. Every call must be followed by a {@link #detachWorker()}.
+         * @return False if the run is already cancelled, and should not be executed.
+         */
+        @WorkerThread
+        public synchronized boolean attachWorker() {
+            if(cancelled) return false;
+            worker = Thread.currentThread();
+            return true;
+        }
+
+        /**
+         * Must be called by the thread which executed this run, when it is done. After this, the thread is not
+         * interrupted anymore, and an interrupt which arrived too late is cleared.
+         */
+        @WorkerThread
+        public void detachWorker() {
+            synchronized (this) {
+                worker = null;
+            }
+            //noinspection ResultOfMethodCallIgnored
+            Thread.interrupted();
+        }
+
+        /**
+         * @return True if this run was cancelled.
+         */
+        public synchronized boolean isCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * Checks if the result of this run belongs to a program.
+         * @param payloadHash Hash of the program, see {@link RunResultCache#computeKey(ProgramPayload)}.
+         * @return True if this run executed the same program.
+         */
+        public boolean isRunOf(@NonNull String payloadHash) {
+            return this.payloadHash.equals(payloadHash);
+        }
+
+        private synchronized void cancel() {
+            if(cancelled) return;
+            cancelled = true;
+            if(worker != null) worker.interrupt();
+        }
+    }
+
+    /**
+     * The run in flight, or null. Guarded by this queue.
+     */
+    @Nullable
+    private Run current;
+
+    /**
+     * Submits a run, unless another one is in flight.
+     * @param programPayload The program.
+     * @param payloadHash Hash of the program, see {@link RunResultCache#computeKey(ProgramPayload)}.
+     * @return The new run, which must be executed, or null if a run is already in flight.
+     */
+    @Nullable
+    @AnyThread
+    public synchronized Run submit(@NonNull ProgramPayload programPayload, @NonNull String payloadHash) {
+        if(current != null) {
+            LogUtils.log("A code run is already in flight, not submitting another one.");
+            return null;
+        }
+        current = new Run(programPayload, payloadHash);
+        return current;
+    }
+
+    /**
+     * Cancels the run in flight, if there is one.
+     */
+    @AnyThread
+    public void cancel() {
+        final Run cancelled;
+        synchronized (this) {
+            cancelled = current;
+            current = null;
+        }
+        if(cancelled != null) {
+            LogUtils.log("Cancelling the code run.");
+            cancelled.cancel();
+        }
+    }
+
+    /**
+     * Called when a run finished, before its result is shown.
+     * @param run The run.
+     * @return True if the run is still the current one. False if it was cancelled, in which case the result must
+     * not be shown.
+     */
+    @AnyThread
+    public synchronized boolean complete(@NonNull Run run) {
+        if(current != run || run.isCancelled()) {
+            LogUtils.log("Discarding the result of a cancelled code run.");
+            return false;
+        }
+        current = null;
+        return true;
+    }
+
+    /**
+     * @return True if there is a run in flight.
+     */
+    @AnyThread
+    public synchronized boolean isRunning() {
+        return current != null;
+    }
+}
@@ -0,0 +1,338 @@
+package com.gaspar.learnjava.playground;
+
+import android.content.Context;
+
+import androidx.annotation.AnyThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
+
+import com.gaspar.learnjava.utils.LogUtils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Sends a {@link ProgramPayload} to the run API, following a {@link Policy}:
+ * <ul>
+ *     <li>Connection failures and 5xx responses are retried, with exponential backoff.</li>
+ *     <li>If hedging is enabled (it is not by default), and the request did not finish in the usual time (the 95th percentile of the
+ *     recent latencies), a second request is sent with another key. The first response is used, and the other
+ *     request is cancelled.</li>
+ *     <li>All attempts together must finish within the latency budget.</li>
+ * </ul>
+ * This is the remote {@link ExecutionBackend}. API keys are chosen by the {@link RunKeyScheduler}, and the results
+ * are reported to it. The outcome tells how many requests were sent, so that the retries and the hedging requests
+ * count against the run interval of the {@link PlaygroundActivity}. Use {@link #getInstance(Context)} to access
+ * the singleton.
+ */
+public class RunRequestExecutor implements ExecutionBackend {
+
+    /**
+     * The policy which is used by the app. Hedging is off: the latency samples are only kept in memory, so every
+     * session would start with the default delay, which is about as long as a usual run, and each hedge costs an
+     * extra API call.
+     */
+    public static final Policy DEFAULT_POLICY = new Policy(2, 250, false, 15_000);
+
+    /**
+     * Hedging delay when there are not enough latency samples, in milliseconds.
+     */
+    private static final long DEFAULT_HEDGE_DELAY = 3000;
+
+    /**
+     * The hedging delay is never shorter than this, in milliseconds.
+     */
+    private static final long MIN_HEDGE_DELAY = 500;
+
+    /**
+     * The hedging delay is only derived from the samples if there are at least this many.
+     */
+    private static final int MIN_LATENCY_SAMPLES = 5;
+
+    /**
+     * This many latencies of successful requests are remembered.
+     */
+    private static final int MAX_LATENCY_SAMPLES = 50;
+
+    /**
+     * The instance.
+     */
+    private static RunRequestExecutor instance;
+
+    /**
+     * @return The instance, which uses the shared {@link RunClient}.
+     */
+    @AnyThread
+    public static synchronized RunRequestExecutor getInstance(@NonNull Context context) {
+        if(instance == null) {
+            instance = new RunRequestExecutor(RunClient.getInstance().getRunApi(), RunKeyScheduler.getInstance(context),
+                    DEFAULT_POLICY);
+        }
+        return instance;
+    }
+
+    /**
+     * Describes how the requests are retried, hedged and limited.
+     */
+    public static class Policy {
+
+        /**
+         * Maximum amount of retries after the first attempt.
+         */
+        final int maxRetries;
+
+        /**
+         * Backoff before the first retry, in milliseconds. It is doubled for each following retry.
+         */
+        final long baseBackoff;
+
+        /**
+         * True if slow requests are hedged.
+         */
+        final boolean hedging;
+
+        /**
+         * All attempts must finish in this many milliseconds.
+         */
+        final long latencyBudget;
+
+        /**
+         * Creates a policy.
+         * @param maxRetries Maximum amount of retries after the first attempt.
+         * @param baseBackoff Backoff before the first retry, in milliseconds.
+         * @param hedging True if slow requests are hedged.
+         * @param latencyBudget All attempts must finish in this many milliseconds.
+         */
+        public Policy(int maxRetries, long baseBackoff, boolean hedging, long latencyBudget) {
+            this.maxRetries = maxRetries;
+            this.baseBackoff = baseBackoff;
+            this.hedging = hedging;
+            this.latencyBudget = latencyBudget;
+        }
+    }
+
+    /**
+     * The result of a single call.
+     */
+    private static class CallResult {
+
+        final String apiKey;
+
+        @Nullable
+        final Response<ProgramResponse> response;
+
+        @Nullable
+        final Throwable throwable;
+
+        final long latency;
+
+        CallResult(String apiKey, @Nullable Response<ProgramResponse> response, @Nullable Throwable throwable, long latency) {
+            this.apiKey = apiKey;
+            this.response = response;
+            this.throwable = throwable;
+            this.latency = latency;
+        }
+    }
+
+    private final RunApi runApi;
+
+    private final RunKeyScheduler keyScheduler;
+
+    private final Policy policy;
+
+    /**
+     * Latencies of the recent successful requests, in milliseconds. Used as a ring buffer, guarded by itself.
+     */
+    private final long[] latencySamples;
+
+    private int latencySampleCount;
+
+    private int nextLatencySample;
+
+    private final Random random;
+
+    @VisibleForTesting
+    RunRequestExecutor(@NonNull RunApi runApi, @NonNull RunKeyScheduler keyScheduler, @NonNull Policy policy) {
+        this.runApi = runApi;
+        this.keyScheduler = keyScheduler;
+        this.policy = policy;
+        latencySamples = new long[MAX_LATENCY_SAMPLES];
+        random = new Random();
+    }
+
+    /**
+     * Sends the payload to the run API, and waits for the response.
+     * @param programPayload The payload.
+     * @return The outcome, which contains the response or describes the failure.
+     */
+    @NonNull
+    @WorkerThread
+    @Override
+    public Outcome execute(@NonNull ProgramPayload programPayload) {
+        final long deadline = now() + policy.latencyBudget;
+        int apiCalls = 0;
+        for(int attempt = 0; ; attempt++) {
+            final List<Call<ProgramResponse>> calls = new ArrayList<>();
+            final Outcome outcome = executeAttempt(programPayload, deadline, calls);
+            apiCalls += calls.size();
+            if(outcome.isSuccessful() || !outcome.isRetryable() || attempt >= policy.maxRetries) {
+                return outcome.withApiCalls(apiCalls);
+            }
+            //exponential backoff, with jitter so that retries do not arrive together
+            final long backoff = policy.baseBackoff << attempt;
+            final long delay = backoff / 2 + (long)(random.nextDouble() * (backoff / 2));
+            if(now() + delay >= deadline) return outcome.withApiCalls(apiCalls);
+            LogUtils.log("Run request failed, retrying in " + delay + " ms.");
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return outcome.withApiCalls(apiCalls);
+            }
+        }
+    }
+
+    /**
+     * Sends one request, and a hedging request if the first one is slow.
+     * @param calls The calls which were started are added to this.
+     */
+    private Outcome executeAttempt(@NonNull ProgramPayload programPayload, long deadline,
+                                   @NonNull List<Call<ProgramResponse>> calls) {
+        final BlockingQueue<CallResult> results = new LinkedBlockingQueue<>();
+        final List<String> usedKeys = new ArrayList<>();
+        final Set<String> reportedKeys = new HashSet<>();
+        final String primaryKey = keyScheduler.selectKey();
+        startCall(programPayload, primaryKey, calls, usedKeys, results);
+        boolean hedged = !policy.hedging;
+        int inFlight = 1;
+        Outcome outcome = null;
+        try {
+            while(inFlight > 0) {
+                final long remaining = deadline - now();
+                if(remaining <= 0) {
+                    LogUtils.logError("Run request exceeded the latency budget!");
+                    return new Outcome(null, RunKeyScheduler.NO_RESPONSE, null, true);
+                }
+                final long hedgeDelay = hedgeDelay();
+                final CallResult result = results.poll(hedged ? remaining : Math.min(remaining, hedgeDelay), TimeUnit.MILLISECONDS);
+                if(result == null) {
+                    if(!hedged) { //the first request is slow
+                        hedged = true;
+                        final String hedgeKey = keyScheduler.selectKeyExcluding(primaryKey);
+                        if(!hedgeKey.equals(primaryKey)) {
+                            LogUtils.log("Run request is slower than " + hedgeDelay + " ms, hedging with another key.");
+                            startCall(programPayload, hedgeKey, calls, usedKeys, results);
+                            inFlight++;
+                        }
+                    }
+                    continue;
+                }
+                inFlight--;
+                reportedKeys.add(result.apiKey);
+                outcome = report(result);
+                if(outcome.isSuccessful()) return outcome;
+                //if the other request is still running, it may succeed
+            }
+            return outcome;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Outcome(null, RunKeyScheduler.NO_RESPONSE, e, false);
+        } finally {
+            for(int i = 0; i < calls.size(); i++) {
+                final String apiKey = usedKeys.get(i);
+                if(!reportedKeys.contains(apiKey)) {
+                    calls.get(i).cancel(); //no longer needed
+                    keyScheduler.reportCancelled(apiKey);
+                }
+            }
+        }
+    }
+
+    /**
+     * Starts an asynchronous call, its result is put into the queue.
+     */
+    private void startCall(@NonNull ProgramPayload programPayload, @NonNull String apiKey, @NonNull List<Call<ProgramResponse>> calls,
+                           @NonNull List<String> usedKeys, @NonNull BlockingQueue<CallResult> results) {
+        final Call<ProgramResponse> call = runApi.compileAndRunCode(programPayload, "Token " + apiKey);
+        calls.add(call);
+        usedKeys.add(apiKey);
+        final long startTime = now();
+        call.enqueue(new Callback<ProgramResponse>() {
+            @Override
+            public void onResponse(@NonNull Call<ProgramResponse> call, @NonNull Response<ProgramResponse> response) {
+                results.add(new CallResult(apiKey, response, null, now() - startTime));
+            }
+
+            @Override
+            public void onFailure(@NonNull Call<ProgramResponse> call, @NonNull Throwable throwable) {
+                results.add(new CallResult(apiKey, null, throwable, now() - startTime));
+            }
+        });
+    }
+
+    /**
+     * Reports the result of a call to the {@link RunKeyScheduler}, and converts it to an outcome.
+     */
+    private Outcome report(@NonNull CallResult result) {
+        if(result.response == null) {
+            keyScheduler.reportFailure(result.apiKey, RunKeyScheduler.NO_RESPONSE);
+            LogUtils.logError("Exception while getting response from API: " + String.valueOf(result.throwable));
+            return new Outcome(null, RunKeyScheduler.NO_RESPONSE, result.throwable, false);
+        }
+        final int statusCode = result.response.code();
+        if(result.response.isSuccessful() && result.response.body() != null) {
+            keyScheduler.reportSuccess(result.apiKey, result.latency);
+            addLatencySample(result.latency);
+            return new Outcome(result.response.body(), statusCode, null, false);
+        }
+        keyScheduler.reportFailure(result.apiKey, statusCode);
+        LogUtils.logError("HTTP error response from API: " + statusCode);
+        if(result.response.errorBody() != null) {
+            try {
+                LogUtils.logError(result.response.errorBody().string());
+            } catch (IOException ignored) {}
+        }
+        return new Outcome(null, statusCode, null, false);
+    }
+
+    private void addLatencySample(long latency) {
+        synchronized (latencySamples) {
+            latencySamples[nextLatencySample] = latency;
+            nextLatencySample = (nextLatencySample + 1) % latencySamples.length;
+            latencySampleCount = Math.min(latencySampleCount + 1, latencySamples.length);
+        }
+    }
+
+    /**
+     * @return How long to wait for a request before hedging it: the 95th percentile of the recent latencies.
+     */
+    @VisibleForTesting
+    long hedgeDelay() {
+        final long[] samples;
+        synchronized (latencySamples) {
+            if(latencySampleCount < MIN_LATENCY_SAMPLES) return DEFAULT_HEDGE_DELAY;
+            samples = Arrays.copyOf(latencySamples, latencySampleCount);
+        }
+        Arrays.sort(samples);
+        final int index = (int)Math.ceil(0.95 * samples.length) - 1;
+        return Math.max(MIN_HEDGE_DELAY, samples[index]);
+    }
+
+    private static long now() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+    }
+}
@@ -0,0 +1,288 @@
+package com.gaspar.learnjava.playground;
+
+import android.content.Context;
+
+import androidx.annotation.AnyThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
+
+import com.gaspar.learnjava.database.PlaygroundFile;
+import com.gaspar.learnjava.utils.LogUtils;
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.Moshi;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Caches the {@link ProgramResponse}s of the run API, so running the same program with the same input again does
+ * not need an API call. The key of a response is a SHA-256 hash of the {@link ProgramPayload}: the file names,
+ * the cleaned contents (as they are sent, see {@link PlaygroundFile#getCleanedContent()}) and the standard input. Responses are kept in memory, with least recently used eviction, and in the
+ * cache directory of the application, which is limited in size.
+ * <p>
+ * Only deterministic programs are cached, see {@link #isCacheable(ProgramPayload)}. Responses from the cache are
+ * marked with {@link ProgramResponse#cached}. Use {@link #getInstance(Context)} to access the singleton.
+ */
+public class RunResultCache {
+
+    /**
+     * Maximum amount of responses in the memory.
+     */
+    private static final int MAX_MEMORY_ENTRIES = 16;
+
+    /**
+     * Maximum size of the cache directory, in bytes.
+     */
+    private static final long MAX_DISK_SIZE = 1024 * 1024;
+
+    /**
+     * Name of the cache directory, in the cache folder of the application.
+     */
+    private static final String CACHE_DIRECTORY_NAME = "run_results";
+
+    /**
+     * Suffix of the files which are being written. These are renamed to the key when they are complete.
+     */
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+    /**
+     * If a program uses an identifier from here, its output may be different each time, so it is not cached.
+     */
+    private static final Set<String> NON_DETERMINISTIC_IDENTIFIERS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "Random", "SecureRandom", "ThreadLocalRandom", "SplittableRandom", "random", "UUID",
+            "currentTimeMillis", "nanoTime", "now", "Date", "Calendar", "LocalDate", "LocalTime", "LocalDateTime",
+            "ZonedDateTime", "OffsetDateTime", "Instant", "Clock", "Timer",
+            "Thread", "Executors", "ExecutorService", "CompletableFuture", "ForkJoinPool", "parallel", "parallelStream",
+            "hashCode", "identityHashCode", "getenv", "getProperty", "getProperties", "Runtime")));
+
+    /**
+     * The instance.
+     */
+    private static RunResultCache instance;
+
+    /**
+     * @return The instance.
+     */
+    @AnyThread
+    public static synchronized RunResultCache getInstance(@NonNull Context context) {
+        if(instance == null) {
+            instance = new RunResultCache(new File(context.getCacheDir(), CACHE_DIRECTORY_NAME));
+        }
+        return instance;
+    }
+
+    /**
+     * The responses in memory, in access order. Guarded by this object.
+     */
+    private final LinkedHashMap<String, ProgramResponse> memoryCache;
+
+    /**
+     * The cache directory, one file for each response.
+     */
+    private final File directory;
+
+    /**
+     * Converts the responses into JSON, for the disk cache.
+     */
+    private final JsonAdapter<ProgramResponse> responseAdapter;
+
+    @VisibleForTesting
+    RunResultCache(@NonNull File directory) {
+        this.directory = directory;
+        memoryCache = new LinkedHashMap<String, ProgramResponse>(MAX_MEMORY_ENTRIES, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ProgramResponse> eldest) {
+                return size() > MAX_MEMORY_ENTRIES;
+            }
+        };
+        responseAdapter = new Moshi.Builder().build().adapter(ProgramResponse.class);
+    }
+
+    /**
+     * Finds a response in the memory. This is fast enough for the UI thread.
+     * @param key The key of the payload, see {@link #computeKey(ProgramPayload)}.
+     * @return A copy of the response, marked as cached, or null if it is not in the memory.
+     */
+    @Nullable
+    @AnyThread
+    public synchronized ProgramResponse getFromMemory(@NonNull String key) {
+        final ProgramResponse response = memoryCache.get(key);
+        return response == null ? null : copyOf(response, true);
+    }
+
+    /**
+     * Finds a response in the memory, or on the disk.
+     * @param key The key of the payload, see {@link #computeKey(ProgramPayload)}.
+     * @return A copy of the response, marked as cached, or null if it is not cached.
+     */
+    @Nullable
+    @WorkerThread
+    public ProgramResponse get(@NonNull String key) {
+        final ProgramResponse fromMemory = getFromMemory(key);
+        if(fromMemory != null) return fromMemory;
+        final File file = new File(directory, key);
+        if(!file.exists()) return null;
+        try {
+            final ProgramResponse response = responseAdapter.fromJson(readFile(file));
+            if(response == null) return null;
+            //noinspection ResultOfMethodCallIgnored
+            file.setLastModified(System.currentTimeMillis()); //recently used, evict it later
+            synchronized (this) {
+                memoryCache.put(key, copyOf(response, false));
+            }
+            return copyOf(response, true);
+        } catch (IOException e) {
+            LogUtils.logError("Failed to read cached run result!", e);
+            //noinspection ResultOfMethodCallIgnored
+            file.delete();
+            return null;
+        }
+    }
+
+    /**
+     * Adds a response to the cache. The oldest responses are deleted from the disk if the size limit is exceeded.
+     * @param key The key of the payload, see {@link #computeKey(ProgramPayload)}.
+     * @param response The response of the run API.
+     */
+    @WorkerThread
+    public void put(@NonNull String key, @NonNull ProgramResponse response) {
+        synchronized (this) {
+            memoryCache.put(key, copyOf(response, false));
+        }
+        if(!directory.exists() && !directory.mkdirs()) {
+            LogUtils.logError("Failed to create run result cache directory!");
+            return;
+        }
+        //written to a temporary file first, so a crash or another writer never leaves a partial entry
+        File tempFile = null;
+        try {
+            tempFile = File.createTempFile(key, TEMP_FILE_SUFFIX, directory);
+            try(OutputStream outputStream = new FileOutputStream(tempFile)) {
+                outputStream.write(responseAdapter.toJson(copyOf(response, false)).getBytes(StandardCharsets.UTF_8));
+            }
+            if(!tempFile.renameTo(new File(directory, key))) throw new IOException("Failed to rename " + tempFile.getName());
+        } catch (IOException e) {
+            LogUtils.logError("Failed to write cached run result!", e);
+            //noinspection ResultOfMethodCallIgnored
+            if(tempFile != null) tempFile.delete();
+        }
+        trimDirectory();
+    }
+
+    /**
+     * Deletes the least recently used files from the cache directory, until it fits the size limit.
+     */
+    private void trimDirectory() {
+        final File[] files = directory.listFiles();
+        if(files == null) return;
+        long size = 0;
+        for(File file: files) size += file.length();
+        if(size <= MAX_DISK_SIZE) return;
+        final List<File> sortedFiles = new ArrayList<>(Arrays.asList(files));
+        Collections.sort(sortedFiles, (f1, f2) -> Long.compare(f1.lastModified(), f2.lastModified()));
+        for(File file: sortedFiles) {
+            if(size <= MAX_DISK_SIZE) break;
+            final long length = file.length();
+            if(file.delete()) size -= length;
+        }
+    }
+
+    /**
+     * Computes the key of a payload.
+     * @param programPayload The payload.
+     * @return The key, a hex string which is also a valid file name.
+     */
+    @NonNull
+    @AnyThread
+    public static String computeKey(@NonNull ProgramPayload programPayload) {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            final List<PlaygroundFile> sortedFiles = new ArrayList<>(programPayload.files);
+            Collections.sort(sortedFiles, (f1, f2) -> f1.getFileName().compareTo(f2.getFileName()));
+            for(PlaygroundFile file: sortedFiles) {
+                update(digest, file.getFileName());
+                update(digest, file.getCleanedContent()); //same request, same key
+            }
+            //stdin is absent or present, these must differ
+            digest.update((byte)(programPayload.stdin == null ? 0 : 1));
+            if(programPayload.stdin != null) update(digest, programPayload.stdin);
+            final StringBuilder builder = new StringBuilder();
+            for(byte b: digest.digest()) {
+                builder.append(String.format("%02x", b));
+            }
+            return builder.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("SHA-256 is not available!", e);
+        }
+    }
+
+    /**
+     * Checks if the output of a program is expected to be the same each time it runs. This is a heuristic, which
+     * rejects programs that use randomness, time, threads or the environment. The code is split with the
+     * {@link JavaTokenizer}, and only whole identifiers are compared with {@link #NON_DETERMINISTIC_IDENTIFIERS}, so
+     * these words in literals and comments, or inside longer names, are not counted. Programs whose output depends
+     * on something not in the list, such as the default {@link Object#toString()}, may still be cached.
+     * @param programPayload The payload.
+     * @return True if the response of the program can be cached.
+     */
+    @AnyThread
+    public static boolean isCacheable(@NonNull ProgramPayload programPayload) {
+        for(PlaygroundFile file: programPayload.files) {
+            for(JavaTokenizer.Token token: new JavaTokenizer(file.getCleanedContent()).getTokens()) {
+                if(token.type == JavaTokenizer.TokenType.IDENTIFIER && NON_DETERMINISTIC_IDENTIFIERS.contains(token.text)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Adds a string to the digest, with its length first, so that different splits of the same text do not collide.
+     */
+    private static void update(@NonNull MessageDigest digest, @NonNull String text) {
+        final byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        digest.update(String.valueOf(bytes.length).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte)':');
+        digest.update(bytes);
+    }
+
+    private static ProgramResponse copyOf(@NonNull ProgramResponse response, boolean cached) {
+        final ProgramResponse copy = new ProgramResponse();
+        copy.stdout = response.stdout;
+        copy.stderr = response.stderr;
+        copy.error = response.error;
+        copy.cached = cached;
+        return copy;
+    }
+
+    private static String readFile(@NonNull File file) throws IOException {
+        try(InputStream inputStream = new FileInputStream(file)) {
+            final byte[] bytes = new byte[(int)file.length()];
+            int read = 0;
+            while(read < bytes.length) {
+                final int count = inputStream.read(bytes, read, bytes.length - read);
+                if(count < 0) break;
+                read += count;
+            }
+            return new String(bytes, 0, read, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,492 @@
+package com.gaspar.learnjava.playground;
+
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+import android.os.Build;
+
+import androidx.annotation.AnyThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
+
+import com.squareup.moshi.JsonWriter;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okio.BufferedSink;
+import okio.Okio;
+
+/**
+ * Records how long the phases of the run API calls take, so that it can be found out why a run was slow. The
+ * timings come from an OkHttp {@link EventListener}, which is installed on the {@link RunClient}. The last
+ * {@link #CAPACITY} calls are kept in a ring buffer, and the percentiles of each {@link Phase} can be queried.
+ * <p>
+ * The collected data can be dumped as text with {@link #dump()}, or exported as JSON with {@link #exportJson(File)},
+ * which also contains the device, so that devices and networks can be compared. In debug builds, both are available
+ * from the settings screen. Use {@link #getInstance()} to access
+ * the singleton.
+ */
+public class RunTelemetry {
+
+    /**
+     * Phases of a call.
+     */
+    public enum Phase {
+
+        /**
+         * Looking up the address of the server. Missing if the connection was reused.
+         */
+        DNS,
+
+        /**
+         * Opening the TCP connection. Missing if the connection was reused.
+         */
+        CONNECT,
+
+        /**
+         * The TLS handshake. Missing if the connection was reused.
+         */
+        TLS,
+
+        /**
+         * Sending the request headers and body.
+         */
+        UPLOAD,
+
+        /**
+         * From the end of the upload until the response headers start to arrive, mostly the execution of the program.
+         */
+        SERVER,
+
+        /**
+         * Receiving the response headers and body.
+         */
+        DOWNLOAD,
+
+        /**
+         * The whole call.
+         */
+        TOTAL
+    }
+
+    /**
+     * This many calls are remembered.
+     */
+    @VisibleForTesting
+    static final int CAPACITY = 256;
+
+    /**
+     * Marks a phase which did not happen in a call.
+     */
+    private static final long MISSING = -1;
+
+    /**
+     * The instance.
+     */
+    private static RunTelemetry instance;
+
+    /**
+     * @return The instance.
+     */
+    @AnyThread
+    public static synchronized RunTelemetry getInstance() {
+        if(instance == null) {
+            instance = new RunTelemetry();
+        }
+        return instance;
+    }
+
+    /**
+     * The timings of a call.
+     */
+    private static class Sample {
+
+        /**
+         * When the call finished, epoch milliseconds.
+         */
+        final long finishedAt;
+
+        final boolean successful;
+
+        /**
+         * Durations of the phases in nanoseconds, indexed by {@link Phase#ordinal()}, or {@link #MISSING}.
+         */
+        final long[] durations;
+
+        /**
+         * The protocol of the connection, or null if no connection was acquired.
+         */
+        @Nullable
+        final String protocol;
+
+        /**
+         * The type of the network, such as 'wifi' or 'cellular'.
+         */
+        final String network;
+
+        Sample(long finishedAt, boolean successful, long[] durations, @Nullable String protocol, String network) {
+            this.finishedAt = finishedAt;
+            this.successful = successful;
+            this.durations = durations;
+            this.protocol = protocol;
+            this.network = network;
+        }
+    }
+
+    /**
+     * The ring buffer of the samples, guarded by itself.
+     */
+    private final Sample[] samples;
+
+    private int sampleCount;
+
+    private int nextSample;
+
+    /**
+     * Used to find the network type, or null if not known.
+     */
+    @Nullable
+    private volatile ConnectivityManager connectivityManager;
+
+    @VisibleForTesting
+    RunTelemetry() {
+        samples = new Sample[CAPACITY];
+    }
+
+    /**
+     * Lets the telemetry record the type of the network with each call.
+     * @param context Context, only the application context is kept.
+     */
+    @AnyThread
+    public void init(@NonNull Context context) {
+        connectivityManager = (ConnectivityManager) context.getApplicationContext().getSystemService(Context.CONNECTIVITY_SERVICE);
+    }
+
+    /**
+     * @return Factory of the listeners which record the run API calls, to be installed on the HTTP client.
+     */
+    @NonNull
+    EventListener.Factory getEventListenerFactory() {
+        //only the runs are interesting, not for example the warm up requests
+        return call -> "POST".equals(call.request().method()) ? new CallTimer() : EventListener.NONE;
+    }
+
+    /**
+     * Adds the timings of a call to the ring buffer.
+     * @param durations Durations of the phases in nanoseconds, indexed by {@link Phase#ordinal()}, -1 for missing phases.
+     * @param successful True if the call got a response.
+     * @param protocol The protocol of the connection, or null.
+     * @param network The type of the network.
+     */
+    @AnyThread
+    @VisibleForTesting
+    void record(@NonNull long[] durations, boolean successful, @Nullable String protocol, @NonNull String network) {
+        final Sample sample = new Sample(System.currentTimeMillis(), successful, durations.clone(), protocol, network);
+        synchronized (samples) {
+            samples[nextSample] = sample;
+            nextSample = (nextSample + 1) % samples.length;
+            sampleCount = Math.min(sampleCount + 1, samples.length);
+        }
+    }
+
+    /**
+     * Finds a percentile of a phase, among the successful calls where the phase happened.
+     * @param phase The phase.
+     * @param percentile The percentile, between 0 and 100.
+     * @return The duration in milliseconds, or -1 if there are no samples.
+     */
+    @AnyThread
+    public double getPercentile(@NonNull Phase phase, double percentile) {
+        final long[] durations = getDurations(phase);
+        if(durations.length == 0) return -1;
+        return nanosToMillis(percentile(durations, percentile));
+    }
+
+    /**
+     * @return Amount of recorded calls, including the failed ones.
+     */
+    @AnyThread
+    public int getSampleCount() {
+        synchronized (samples) {
+            return sampleCount;
+        }
+    }
+
+    /**
+     * Creates a human readable summary, with the 50th, 95th and 99th percentiles of each phase.
+     * @return The summary.
+     */
+    @NonNull
+    @AnyThread
+    public String dump() {
+        final List<Sample> snapshot = snapshot();
+        int failed = 0;
+        for(Sample sample: snapshot) {
+            if(!sample.successful) failed++;
+        }
+        final StringBuilder builder = new StringBuilder();
+        builder.append("Run API calls: ").append(snapshot.size()).append(" (").append(failed).append(" failed)\n");
+        builder.append(String.format(Locale.US, "%-9s%7s%10s%10s%10s%n", "phase", "count", "p50 ms", "p95 ms", "p99 ms"));
+        for(Phase phase: Phase.values()) {
+            final long[] durations = getDurations(phase);
+            if(durations.length == 0) {
+                builder.append(String.format(Locale.US, "%-9s%7d%10s%10s%10s%n", phase.name().toLowerCase(Locale.US), 0, "-", "-", "-"));
+            } else {
+                builder.append(String.format(Locale.US, "%-9s%7d%10.1f%10.1f%10.1f%n", phase.name().toLowerCase(Locale.US),
+                        durations.length, nanosToMillis(percentile(durations, 50)), nanosToMillis(percentile(durations, 95)),
+                        nanosToMillis(percentile(durations, 99))));
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Exports the percentiles and all samples as JSON, together with the device.
+     * @param file The file, which is overwritten.
+     * @throws IOException If the file could not be written.
+     */
+    @WorkerThread
+    public void exportJson(@NonNull File file) throws IOException {
+        try(BufferedSink sink = Okio.buffer(Okio.sink(file))) {
+            final JsonWriter writer = JsonWriter.of(sink);
+            writer.setIndent("  ");
+            writer.beginObject();
+            writer.name("device").value(Build.MANUFACTURER + " " + Build.MODEL);
+            writer.name("sdk").value(Build.VERSION.SDK_INT);
+            writeJson(writer);
+            writer.endObject();
+            writer.flush();
+        }
+    }
+
+    /**
+     * Writes the percentiles and the samples into an open JSON object.
+     */
+    @VisibleForTesting
+    void writeJson(@NonNull JsonWriter writer) throws IOException {
+        writer.name("exportedAt").value(System.currentTimeMillis());
+        writer.name("percentiles").beginObject();
+        for(Phase phase: Phase.values()) {
+            final long[] durations = getDurations(phase);
+            writer.name(phase.name().toLowerCase(Locale.US)).beginObject();
+            writer.name("count").value(durations.length);
+            if(durations.length > 0) {
+                writer.name("p50").value(nanosToMillis(percentile(durations, 50)));
+                writer.name("p95").value(nanosToMillis(percentile(durations, 95)));
+                writer.name("p99").value(nanosToMillis(percentile(durations, 99)));
+            }
+            writer.endObject();
+        }
+        writer.endObject();
+        writer.name("samples").beginArray();
+        for(Sample sample: snapshot()) {
+            writer.beginObject();
+            writer.name("finishedAt").value(sample.finishedAt);
+            writer.name("successful").value(sample.successful);
+            writer.name("protocol").value(sample.protocol);
+            writer.name("network").value(sample.network);
+            for(Phase phase: Phase.values()) {
+                final long duration = sample.durations[phase.ordinal()];
+                if(duration != MISSING) writer.name(phase.name().toLowerCase(Locale.US)).value(nanosToMillis(duration));
+            }
+            writer.endObject();
+        }
+        writer.endArray();
+    }
+
+    /**
+     * @return The samples, oldest first.
+     */
+    private List<Sample> snapshot() {
+        synchronized (samples) {
+            final List<Sample> snapshot = new ArrayList<>(sampleCount);
+            final int oldest = sampleCount < samples.length ? 0 : nextSample;
+            for(int i = 0; i < sampleCount; i++) {
+                snapshot.add(samples[(oldest + i) % samples.length]);
+            }
+            return snapshot;
+        }
+    }
+
+    /**
+     * @return The sorted durations of a phase, in the successful calls where it happened.
+     */
+    private long[] getDurations(@NonNull Phase phase) {
+        final List<Sample> snapshot = snapshot();
+        final long[] durations = new long[snapshot.size()];
+        int count = 0;
+        for(Sample sample: snapshot) {
+            final long duration = sample.durations[phase.ordinal()];
+            if(sample.successful && duration != MISSING) durations[count++] = duration;
+        }
+        final long[] result = Arrays.copyOf(durations, count);
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * Nearest rank percentile of sorted values.
+     */
+    private static long percentile(@NonNull long[] sorted, double percentile) {
+        final int index = (int)Math.ceil(percentile / 100 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    /**
+     * Milliseconds, rounded to one decimal.
+     */
+    private static double nanosToMillis(long nanos) {
+        return Math.round(nanos / 100_000.0) / 10.0;
+    }
+
+    /**
+     * @return The type of the current network.
+     */
+    @NonNull
+    private String findNetworkType() {
+        final ConnectivityManager manager = connectivityManager;
+        if(manager == null) return "unknown";
+        final Network network = manager.getActiveNetwork();
+        final NetworkCapabilities capabilities = network == null ? null : manager.getNetworkCapabilities(network);
+        if(capabilities == null) return "none";
+        if(capabilities.hasTransport(NetworkCapabilities.TRANSPORT_WIFI)) return "wifi";
+        if(capabilities.hasTransport(NetworkCapabilities.TRANSPORT_CELLULAR)) return "cellular";
+        if(capabilities.hasTransport(NetworkCapabilities.TRANSPORT_ETHERNET)) return "ethernet";
+        return "other";
+    }
+
+    /**
+     * Measures the phases of a single call. OkHttp calls the methods of one listener sequentially. If a phase
+     * happens more than once, for example when a connection attempt is retried, the last one is measured.
+     */
+    private class CallTimer extends EventListener {
+
+        private final long[] starts;
+
+        private final long[] durations;
+
+        private long uploadEnd;
+
+        @Nullable
+        private String protocol;
+
+        CallTimer() {
+            starts = new long[Phase.values().length];
+            durations = new long[Phase.values().length];
+            Arrays.fill(durations, MISSING);
+        }
+
+        private void start(@NonNull Phase phase) {
+            starts[phase.ordinal()] = System.nanoTime();
+        }
+
+        private void end(@NonNull Phase phase) {
+            durations[phase.ordinal()] = System.nanoTime() - starts[phase.ordinal()];
+        }
+
+        @Override
+        public void callStart(Call call) {
+            start(Phase.TOTAL);
+        }
+
+        @Override
+        public void dnsStart(Call call, String domainName) {
+            start(Phase.DNS);
+        }
+
+        @Override
+        public void dnsEnd(Call call, String domainName, List<InetAddress> inetAddressList) {
+            end(Phase.DNS);
+        }
+
+        @Override
+        public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+            start(Phase.CONNECT);
+            durations[Phase.CONNECT.ordinal()] = MISSING;
+        }
+
+        @Override
+        public void secureConnectStart(Call call) {
+            end(Phase.CONNECT); //the TCP connection is open
+            start(Phase.TLS);
+        }
+
+        @Override
+        public void secureConnectEnd(Call call, @Nullable Handshake handshake) {
+            end(Phase.TLS);
+        }
+
+        @Override
+        public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy, @Nullable Protocol protocol) {
+            if(durations[Phase.CONNECT.ordinal()] == MISSING) end(Phase.CONNECT); //no TLS
+        }
+
+        @Override
+        public void connectionAcquired(Call call, Connection connection) {
+            protocol = connection.protocol().toString();
+        }
+
+        @Override
+        public void requestHeadersStart(Call call) {
+            start(Phase.UPLOAD);
+        }
+
+        @Override
+        public void requestHeadersEnd(Call call, Request request) {
+            end(Phase.UPLOAD);
+            uploadEnd = System.nanoTime();
+        }
+
+        @Override
+        public void requestBodyEnd(Call call, long byteCount) {
+            end(Phase.UPLOAD);
+            uploadEnd = System.nanoTime();
+        }
+
+        @Override
+        public void responseHeadersStart(Call call) {
+            durations[Phase.SERVER.ordinal()] = System.nanoTime() - uploadEnd;
+            start(Phase.DOWNLOAD);
+        }
+
+        @Override
+        public void responseHeadersEnd(Call call, Response response) {
+            end(Phase.DOWNLOAD);
+        }
+
+        @Override
+        public void responseBodyEnd(Call call, long byteCount) {
+            end(Phase.DOWNLOAD);
+        }
+
+        @Override
+        public void callEnd(Call call) {
+            end(Phase.TOTAL);
+            record(durations, true, protocol, findNetworkType());
+        }
+
+        @Override
+        public void callFailed(Call call, IOException ioe) {
+            end(Phase.TOTAL);
+            record(durations, false, protocol, findNetworkType());
+        }
+    }
+}
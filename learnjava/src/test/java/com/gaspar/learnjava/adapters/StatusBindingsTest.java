@@ -0,0 +1,88 @@
+package com.gaspar.learnjava.adapters;
+
+import com.gaspar.learnjava.database.StatusStore;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for {@link StatusBindings}.
+ */
+public class StatusBindingsTest {
+
+    @Test
+    public void testStatusChangeRunsBinding() {
+        StatusBindings bindings = new StatusBindings();
+        AtomicInteger displayed = new AtomicInteger();
+        bindings.bind(new Object(), StatusStore.Type.CHAPTER, 5, displayed::incrementAndGet);
+        Assert.assertEquals(1, displayed.get()); //bind displays right away
+        bindings.onStatusChanged(StatusStore.Type.CHAPTER, 5);
+        Assert.assertEquals(2, displayed.get());
+        //same id, other type
+        bindings.onStatusChanged(StatusStore.Type.TASK, 5);
+        Assert.assertEquals(2, displayed.get());
+    }
+
+    @Test
+    public void testRecycledHolderKeepsOtherBinding() {
+        StatusBindings bindings = new StatusBindings();
+        Object holderA = new Object();
+        Object holderB = new Object();
+        AtomicInteger displayedByA = new AtomicInteger();
+        AtomicInteger displayedByB = new AtomicInteger();
+        bindings.bind(holderA, StatusStore.Type.COURSE, 1, displayedByA::incrementAndGet);
+        //the row of course 1 is recycled into holder B, while A still owns its binding
+        bindings.unbindAll(holderB);
+        bindings.bind(holderB, StatusStore.Type.COURSE, 1, displayedByB::incrementAndGet);
+        //holder A is rebound to another course
+        bindings.unbindAll(holderA);
+        bindings.bind(holderA, StatusStore.Type.COURSE, 2, displayedByA::incrementAndGet);
+        displayedByA.set(0);
+        displayedByB.set(0);
+
+        bindings.onStatusChanged(StatusStore.Type.COURSE, 1);
+        Assert.assertEquals(0, displayedByA.get());
+        Assert.assertEquals(1, displayedByB.get());
+        bindings.onStatusChanged(StatusStore.Type.COURSE, 2);
+        Assert.assertEquals(1, displayedByA.get());
+        Assert.assertEquals(1, displayedByB.get());
+    }
+
+    @Test
+    public void testElementShownInTwoPlaces() {
+        StatusBindings bindings = new StatusBindings();
+        Object holderA = new Object();
+        Object holderB = new Object();
+        AtomicInteger displayed = new AtomicInteger();
+        bindings.bind(holderA, StatusStore.Type.EXAM, 3, displayed::incrementAndGet);
+        bindings.bind(holderB, StatusStore.Type.EXAM, 3, displayed::incrementAndGet);
+        displayed.set(0);
+        bindings.onStatusChanged(StatusStore.Type.EXAM, 3);
+        Assert.assertEquals(2, displayed.get());
+
+        bindings.unbindAll(holderA);
+        bindings.onStatusChanged(StatusStore.Type.EXAM, 3);
+        Assert.assertEquals(3, displayed.get());
+        bindings.unbindAll(holderB);
+        bindings.onStatusChanged(StatusStore.Type.EXAM, 3);
+        Assert.assertEquals(3, displayed.get());
+    }
+
+    @Test
+    public void testRebindBySameOwnerReplaces() {
+        StatusBindings bindings = new StatusBindings();
+        Object holder = new Object();
+        AtomicInteger oldDisplay = new AtomicInteger();
+        AtomicInteger newDisplay = new AtomicInteger();
+        bindings.bind(holder, StatusStore.Type.TASK, 7, oldDisplay::incrementAndGet);
+        bindings.bind(holder, StatusStore.Type.TASK, 7, newDisplay::incrementAndGet);
+        bindings.onStatusChanged(StatusStore.Type.TASK, 7);
+        Assert.assertEquals(1, oldDisplay.get());
+        Assert.assertEquals(2, newDisplay.get());
+        bindings.unbindAll(holder);
+        bindings.onStatusChanged(StatusStore.Type.TASK, 7);
+        Assert.assertEquals(2, newDisplay.get());
+    }
+}
@@ -0,0 +1,94 @@
+package com.gaspar.learnjava.asynctask;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for {@link LaneExecutor}.
+ */
+public class LaneExecutorTest {
+
+    /**
+     * Occupies the only thread of a lane, until the returned latch is released.
+     */
+    private static CountDownLatch blockLane(LaneExecutor lane) throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        lane.execute(TaskPriority.NORMAL, () -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+        return release;
+    }
+
+    @Test
+    public void testHigherPriorityJumpsAhead() throws Exception {
+        LaneExecutor lane = LaneExecutor.prioritized("test", 1);
+        CountDownLatch release = blockLane(lane);
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        lane.execute(TaskPriority.BACKGROUND, () -> order.add("prefetch"));
+        lane.execute(TaskPriority.NORMAL, () -> order.add("normal 1"));
+        lane.execute(TaskPriority.USER_VISIBLE, () -> order.add("visible"));
+        Future<?> last = lane.submit(TaskPriority.NORMAL, () -> order.add("normal 2"));
+        release.countDown();
+        last.get(5, TimeUnit.SECONDS);
+        lane.shutdown();
+        //the prefetch may still be waiting, the same priorities keep their order
+        Assert.assertEquals(Arrays.asList("visible", "normal 1", "normal 2"), order.subList(0, 3));
+    }
+
+    @Test
+    public void testSerialLaneKeepsOrder() throws Exception {
+        LaneExecutor lane = LaneExecutor.serial("test");
+        CountDownLatch release = blockLane(lane);
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        lane.execute(TaskPriority.BACKGROUND, () -> order.add(1));
+        lane.execute(TaskPriority.USER_VISIBLE, () -> order.add(2));
+        Future<Boolean> last = lane.submit(TaskPriority.NORMAL, () -> order.add(3));
+        release.countDown();
+        Assert.assertTrue(last.get(5, TimeUnit.SECONDS));
+        lane.shutdown();
+        Assert.assertEquals(Arrays.asList(1, 2, 3), order);
+    }
+
+    @Test
+    public void testFailureDoesNotStopTheLane() throws Exception {
+        LaneExecutor lane = LaneExecutor.serial("test");
+        Future<Object> failed = lane.submit(TaskPriority.NORMAL, () -> {
+            throw new IllegalStateException("failed");
+        });
+        try {
+            failed.get(5, TimeUnit.SECONDS);
+            Assert.fail("Expected the failure in the future");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        Assert.assertEquals("ok", lane.submit(TaskPriority.NORMAL, () -> "ok").get(5, TimeUnit.SECONDS));
+        lane.shutdown();
+    }
+
+    @Test
+    public void testCurrentThreadInLane() throws Exception {
+        LaneExecutor lane = LaneExecutor.serial("test");
+        LaneExecutor other = LaneExecutor.elastic("other");
+        Assert.assertFalse(lane.isCurrentThreadInLane());
+        Assert.assertTrue(lane.submit(TaskPriority.NORMAL, lane::isCurrentThreadInLane).get(5, TimeUnit.SECONDS));
+        Assert.assertFalse(other.submit(TaskPriority.NORMAL, lane::isCurrentThreadInLane).get(5, TimeUnit.SECONDS));
+        lane.shutdown();
+        other.shutdown();
+    }
+}
@@ -0,0 +1,280 @@
+package com.gaspar.learnjava.asynctask;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleEventObserver;
+import androidx.lifecycle.LifecycleObserver;
+import androidx.lifecycle.LifecycleOwner;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for {@link LjAsyncTask}. The UI thread work is executed on a single thread of the test.
+ */
+public class LjAsyncTaskTest {
+
+    /**
+     * Stands in for the UI thread.
+     */
+    private ExecutorService uiExecutor;
+
+    private volatile Thread uiThread;
+
+    @Before
+    public void setUp() {
+        uiExecutor = Executors.newSingleThreadExecutor(runnable -> uiThread = new Thread(runnable, "test-ui"));
+        LearnJavaExecutor.setInstance(new LearnJavaExecutor(uiExecutor, 1, 1));
+    }
+
+    @After
+    public void tearDown() {
+        uiExecutor.shutdownNow();
+    }
+
+    /**
+     * Waits until the UI thread executed the work which was posted to it before.
+     */
+    private void awaitUiThread() throws Exception {
+        uiExecutor.submit(() -> {}).get(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Records its steps, and the threads they were called on.
+     */
+    private class RecordingTask extends LjAsyncTask<String> {
+
+        final List<String> steps = Collections.synchronizedList(new ArrayList<>());
+
+        final CountDownLatch done = new CountDownLatch(1);
+
+        volatile String backgroundThreadName;
+
+        private void record(String step) {
+            steps.add(step + (Thread.currentThread() == uiThread ? " on ui" : " on worker"));
+        }
+
+        @Override
+        protected void onPreExecute() {
+            record("pre");
+        }
+
+        @Override
+        protected String doInBackground(Object... objects) {
+            backgroundThreadName = Thread.currentThread().getName();
+            record("background " + objects[0]);
+            return "result";
+        }
+
+        @Override
+        protected void onPostExecute(String result) {
+            record("post " + result);
+            done.countDown();
+        }
+
+        @Override
+        protected void onCancelled() {
+            record("cancelled");
+            done.countDown();
+        }
+    }
+
+    @Test
+    public void testStepsRunInOrderOnTheirThreads() throws Exception {
+        RecordingTask task = new RecordingTask();
+        task.execute("parameter");
+        Assert.assertTrue(task.isRunning());
+        Assert.assertTrue(task.done.await(5, TimeUnit.SECONDS));
+        awaitUiThread();
+        Assert.assertEquals(Arrays.asList("pre on ui", "background parameter on worker", "post result on ui"), task.steps);
+        Assert.assertFalse(task.isRunning());
+    }
+
+    @Test
+    public void testBackgroundWaitsForPreExecute() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingTask task = new RecordingTask() {
+            @Override
+            protected void onPreExecute() {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.onPreExecute();
+            }
+        };
+        task.execute("parameter");
+        Thread.sleep(100);
+        Assert.assertTrue(task.steps.isEmpty()); //the background work did not start
+        release.countDown();
+        Assert.assertTrue(task.done.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(Arrays.asList("pre on ui", "background parameter on worker", "post result on ui"), task.steps);
+    }
+
+    @Test
+    public void testBackgroundRunsInItsLane() throws Exception {
+        RecordingTask task = new RecordingTask() {
+            @Override
+            protected int getLane() {
+                return ExecutorLane.DATABASE_WRITE;
+            }
+        };
+        task.execute("parameter");
+        Assert.assertTrue(task.done.await(5, TimeUnit.SECONDS));
+        Assert.assertTrue(task.backgroundThreadName.startsWith("lj-db-write-"));
+    }
+
+    /**
+     * A task whose background work waits until it is released.
+     */
+    private class BlockingTask extends RecordingTask {
+
+        final CountDownLatch started = new CountDownLatch(1);
+
+        final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        protected String doInBackground(Object... objects) {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return super.doInBackground(objects);
+        }
+    }
+
+    /**
+     * A lifecycle which is destroyed by the test.
+     */
+    private static class TestLifecycle extends Lifecycle implements LifecycleOwner {
+
+        final List<LifecycleObserver> observers = new CopyOnWriteArrayList<>();
+
+        volatile State state = State.RESUMED;
+
+        @Override
+        public void addObserver(@NonNull LifecycleObserver observer) {
+            observers.add(observer);
+        }
+
+        @Override
+        public void removeObserver(@NonNull LifecycleObserver observer) {
+            observers.remove(observer);
+        }
+
+        @NonNull
+        @Override
+        public State getCurrentState() {
+            return state;
+        }
+
+        @NonNull
+        @Override
+        public Lifecycle getLifecycle() {
+            return this;
+        }
+
+        void destroy() {
+            state = State.DESTROYED;
+            for(LifecycleObserver observer: observers) {
+                ((LifecycleEventObserver)observer).onStateChanged(this, Event.ON_DESTROY);
+            }
+        }
+    }
+
+    @Test
+    public void testCancelBeforeExecute() throws Exception {
+        RecordingTask task = new RecordingTask();
+        task.cancel();
+        task.execute("parameter");
+        Assert.assertTrue(task.done.await(5, TimeUnit.SECONDS));
+        awaitUiThread();
+        //nothing else runs
+        Assert.assertEquals(Collections.singletonList("cancelled on ui"), task.steps);
+        Assert.assertFalse(task.isRunning());
+    }
+
+    @Test
+    public void testCancelDuringBackgroundWork() throws Exception {
+        BlockingTask task = new BlockingTask();
+        task.execute("parameter");
+        Assert.assertTrue(task.started.await(5, TimeUnit.SECONDS));
+        task.cancel();
+        Assert.assertTrue(task.isCancelled());
+        task.release.countDown();
+        Assert.assertTrue(task.done.await(5, TimeUnit.SECONDS));
+        awaitUiThread();
+        //the result is not delivered
+        Assert.assertEquals(Arrays.asList("pre on ui", "background parameter on worker", "cancelled on ui"), task.steps);
+        Assert.assertFalse(task.isRunning());
+    }
+
+    @Test
+    public void testCancelAfterExecute() throws Exception {
+        RecordingTask task = new RecordingTask();
+        task.execute("parameter");
+        Assert.assertTrue(task.done.await(5, TimeUnit.SECONDS));
+        awaitUiThread();
+        task.cancel();
+        awaitUiThread();
+        //the task was already done, so it is not called back again
+        Assert.assertEquals(Arrays.asList("pre on ui", "background parameter on worker", "post result on ui"), task.steps);
+    }
+
+    @Test
+    public void testDestroyedLifecycleCancels() throws Exception {
+        TestLifecycle lifecycle = new TestLifecycle();
+        BlockingTask task = new BlockingTask();
+        task.bindToLifecycle(lifecycle).execute("parameter");
+        Assert.assertEquals(1, lifecycle.observers.size());
+        Assert.assertTrue(task.started.await(5, TimeUnit.SECONDS));
+        uiExecutor.submit(lifecycle::destroy).get(5, TimeUnit.SECONDS);
+        Assert.assertTrue(task.isCancelled());
+        task.release.countDown();
+        Assert.assertTrue(task.done.await(5, TimeUnit.SECONDS));
+        awaitUiThread();
+        Assert.assertEquals(Arrays.asList("pre on ui", "background parameter on worker", "cancelled on ui"), task.steps);
+        //unbound when done
+        Assert.assertTrue(lifecycle.observers.isEmpty());
+    }
+
+    @Test
+    public void testUnboundAfterCompletion() throws Exception {
+        TestLifecycle lifecycle = new TestLifecycle();
+        RecordingTask task = new RecordingTask();
+        task.bindToLifecycle(lifecycle).execute("parameter");
+        Assert.assertTrue(task.done.await(5, TimeUnit.SECONDS));
+        awaitUiThread();
+        Assert.assertTrue(lifecycle.observers.isEmpty());
+        //a later destroy does not affect it
+        lifecycle.destroy();
+        Assert.assertFalse(task.isCancelled());
+    }
+
+    @Test
+    public void testBindToDestroyedLifecycle() throws Exception {
+        TestLifecycle lifecycle = new TestLifecycle();
+        lifecycle.destroy();
+        RecordingTask task = new RecordingTask();
+        task.bindToLifecycle(lifecycle).execute("parameter");
+        Assert.assertTrue(task.isCancelled());
+        Assert.assertTrue(lifecycle.observers.isEmpty());
+        Assert.assertTrue(task.done.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(Collections.singletonList("cancelled on ui"), task.steps);
+    }
+}
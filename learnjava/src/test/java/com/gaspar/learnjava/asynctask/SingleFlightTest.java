@@ -0,0 +1,75 @@
+package com.gaspar.learnjava.asynctask;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Tests for {@link SingleFlight}.
+ */
+public class SingleFlightTest {
+
+    @Test
+    public void testConcurrentCallsShareTheComputation() throws Exception {
+        SingleFlight singleFlight = new SingleFlight();
+        AtomicInteger computations = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicReference<String> leaderResult = new AtomicReference<>();
+        Thread leader = new Thread(() -> leaderResult.set(singleFlight.run("chapter_1", () -> {
+            computations.incrementAndGet();
+            started.countDown();
+            release.await();
+            return "parsed";
+        })));
+        leader.start();
+        Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+        AtomicReference<String> followerResult = new AtomicReference<>();
+        Thread follower = new Thread(() -> followerResult.set(singleFlight.run("chapter_1", () -> {
+            computations.incrementAndGet();
+            return "parsed again";
+        })));
+        follower.start();
+        //wait until the follower waits for the computation of the leader
+        long deadline = System.currentTimeMillis() + 5000;
+        while(follower.getState() != Thread.State.WAITING && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        //a different key is not coalesced
+        Assert.assertEquals("other", singleFlight.run("chapter_2", () -> "other"));
+        release.countDown();
+        leader.join(5000);
+        follower.join(5000);
+        Assert.assertEquals(1, computations.get());
+        Assert.assertEquals("parsed", leaderResult.get());
+        Assert.assertEquals("parsed", followerResult.get());
+        Assert.assertEquals(0, singleFlight.getInFlightCount());
+    }
+
+    @Test
+    public void testSequentialCallsComputeAgain() {
+        SingleFlight singleFlight = new SingleFlight();
+        AtomicInteger computations = new AtomicInteger();
+        Assert.assertEquals(1, (int) singleFlight.run("status", computations::incrementAndGet));
+        Assert.assertEquals(2, (int) singleFlight.run("status", computations::incrementAndGet));
+    }
+
+    @Test
+    public void testFailureIsRethrown() {
+        SingleFlight singleFlight = new SingleFlight();
+        try {
+            singleFlight.run("status", () -> {
+                throw new IllegalStateException("Database error!");
+            });
+            Assert.fail("Expected the failure");
+        } catch (IllegalStateException e) {
+            Assert.assertEquals("Database error!", e.getMessage());
+        }
+        //the failed computation is not kept
+        Assert.assertEquals("ok", singleFlight.run("status", () -> "ok"));
+    }
+}
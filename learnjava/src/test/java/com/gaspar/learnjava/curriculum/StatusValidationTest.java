@@ -0,0 +1,75 @@
+package com.gaspar.learnjava.curriculum;
+
+import com.gaspar.learnjava.database.ChapterStatus;
+import com.gaspar.learnjava.database.CourseStatus;
+import com.gaspar.learnjava.database.ExamStatus;
+import com.gaspar.learnjava.database.TaskStatus;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Tests for the status validation of the curriculum elements, such as
+ * {@link Course#validateCourseStatuses(java.util.Collection, int, android.content.Context)}.
+ */
+public class StatusValidationTest {
+
+    @Test
+    public void testExistingCoursesAreLeftUnchanged() {
+        //course 1 is in the database (maybe completed), it must not be inserted again
+        List<CourseStatus> statuses = Course.createMissingStatuses(Arrays.asList(1, 2, 3),
+                new HashSet<>(Collections.singletonList(1)), 1);
+        Assert.assertEquals(2, statuses.size());
+        Assert.assertEquals(2, statuses.get(0).getCourseId());
+        Assert.assertEquals(Status.LOCKED, statuses.get(0).getStatus());
+        Assert.assertEquals(3, statuses.get(1).getCourseId());
+        Assert.assertEquals(Status.LOCKED, statuses.get(1).getStatus());
+    }
+
+    @Test
+    public void testFirstCourseIsUnlocked() {
+        List<CourseStatus> statuses = Course.createMissingStatuses(Arrays.asList(1, 2), new HashSet<>(), 1);
+        Assert.assertEquals(2, statuses.size());
+        Assert.assertEquals(Status.UNLOCKED, statuses.get(0).getStatus());
+        Assert.assertEquals(Status.LOCKED, statuses.get(1).getStatus());
+    }
+
+    @Test
+    public void testNothingMissing() {
+        HashSet<Integer> existingIds = new HashSet<>(Arrays.asList(1, 2));
+        Assert.assertTrue(Course.createMissingStatuses(Arrays.asList(1, 2), existingIds, 1).isEmpty());
+        Assert.assertTrue(Chapter.createMissingStatuses(Arrays.asList(1, 2), existingIds).isEmpty());
+        Assert.assertTrue(Task.createMissingStatuses(Arrays.asList(1, 2), existingIds).isEmpty());
+        Assert.assertTrue(Exam.createMissingStatuses(Arrays.asList(1, 2), existingIds).isEmpty());
+    }
+
+    @Test
+    public void testMissingChaptersAndTasks() {
+        HashSet<Integer> existingIds = new HashSet<>(Arrays.asList(10, 30));
+        List<ChapterStatus> chapterStatuses = Chapter.createMissingStatuses(Arrays.asList(10, 20, 30), existingIds);
+        Assert.assertEquals(1, chapterStatuses.size());
+        Assert.assertEquals(20, chapterStatuses.get(0).getChapterId());
+        Assert.assertEquals(Status.UNLOCKED, chapterStatuses.get(0).getStatus());
+        List<TaskStatus> taskStatuses = Task.createMissingStatuses(Arrays.asList(10, 20, 30, 40), existingIds);
+        Assert.assertEquals(2, taskStatuses.size());
+        Assert.assertEquals(20, taskStatuses.get(0).getTaskId());
+        Assert.assertEquals(40, taskStatuses.get(1).getTaskId());
+        Assert.assertEquals(Status.UNLOCKED, taskStatuses.get(1).getStatus());
+    }
+
+    @Test
+    public void testMissingExamsAreNeverStarted() {
+        List<ExamStatus> statuses = Exam.createMissingStatuses(Arrays.asList(5, 6), new HashSet<>(Collections.singletonList(5)));
+        Assert.assertEquals(1, statuses.size());
+        ExamStatus status = statuses.get(0);
+        Assert.assertEquals(6, status.getExamId());
+        Assert.assertEquals(Status.LOCKED, status.getStatus());
+        Assert.assertEquals(Exam.EXAM_NEVER_STARTED, status.getLastStarted());
+        Assert.assertEquals(Exam.EXAM_NEVER_STARTED, status.getTopScore());
+    }
+}
@@ -0,0 +1,127 @@
+package com.gaspar.learnjava.database;
+
+import com.gaspar.learnjava.curriculum.Status;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Tests for the progress queries of {@link CourseProgressDao}. The SQL runs on an in-memory SQLite database,
+ * with the same columns as the tables of Room.
+ */
+public class CourseProgressQueryTest {
+
+    private Connection connection;
+
+    @Before
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        try(Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE `course_membership` (`element_type` INTEGER NOT NULL, `element_id` INTEGER NOT NULL, " +
+                    "`course_id` INTEGER NOT NULL, PRIMARY KEY (`element_type`, `element_id`))");
+            statement.execute("CREATE TABLE `chapter_status` (`chapter_id` INTEGER NOT NULL, `status` INTEGER NOT NULL, PRIMARY KEY (`chapter_id`))");
+            statement.execute("CREATE TABLE `task_status` (`task_id` INTEGER NOT NULL, `status` INTEGER NOT NULL, PRIMARY KEY (`task_id`))");
+            statement.execute("CREATE TABLE `exam_status` (`exam_id` INTEGER NOT NULL, `status` INTEGER NOT NULL, " +
+                    "`last_started` INTEGER NOT NULL, `top_score` INTEGER NOT NULL, PRIMARY KEY (`exam_id`))");
+            //course 1: 3 chapters (2 completed), 2 tasks (1 completed), completed exam
+            statement.execute("INSERT INTO course_membership VALUES (1, 101, 1), (1, 102, 1), (1, 103, 1), " +
+                    "(2, 201, 1), (2, 202, 1), (3, 301, 1)");
+            statement.execute("INSERT INTO chapter_status VALUES (101, 2), (102, 2), (103, 1)");
+            statement.execute("INSERT INTO task_status VALUES (201, 1), (202, 2)");
+            statement.execute("INSERT INTO exam_status VALUES (301, 2, 0, 90)");
+            //course 2: 1 chapter, no tasks, the exam is not in the status table
+            statement.execute("INSERT INTO course_membership VALUES (1, 104, 2), (3, 302, 2)");
+            statement.execute("INSERT INTO chapter_status VALUES (104, 1)");
+        }
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Test
+    public void testAllCourseProgress() throws SQLException {
+        List<CourseProgress> progresses = query(CourseProgressDao.ALL_PROGRESS_QUERY, null);
+        Assert.assertEquals(2, progresses.size());
+        progresses.sort(Comparator.comparingInt(CourseProgress::getCourseId)); //the query does not order the rows
+
+        CourseProgress first = progresses.get(0);
+        Assert.assertEquals(1, first.getCourseId());
+        Assert.assertEquals(3, first.getChapterCount());
+        Assert.assertEquals(2, first.getCompletedChapterCount());
+        Assert.assertEquals(2, first.getTaskCount());
+        Assert.assertEquals(1, first.getCompletedTaskCount());
+        Assert.assertEquals(Status.COMPLETED, first.getExamStatus());
+        Assert.assertEquals(6, first.getElementCount());
+        Assert.assertEquals(4, first.getCompletedElementCount());
+
+        CourseProgress second = progresses.get(1);
+        Assert.assertEquals(2, second.getCourseId());
+        Assert.assertEquals(1, second.getChapterCount());
+        Assert.assertEquals(0, second.getCompletedChapterCount());
+        Assert.assertEquals(0, second.getTaskCount());
+        Assert.assertEquals(Status.NOT_QUERIED, second.getExamStatus());
+        Assert.assertEquals(2, second.getElementCount());
+        Assert.assertEquals(0, second.getCompletedElementCount());
+    }
+
+    @Test
+    public void testOneCourseProgress() throws SQLException {
+        List<CourseProgress> progresses = query(CourseProgressDao.COURSE_PROGRESS_QUERY, 1);
+        Assert.assertEquals(1, progresses.size());
+        Assert.assertEquals(1, progresses.get(0).getCourseId());
+        Assert.assertEquals(4, progresses.get(0).getCompletedElementCount());
+        //no members, no row
+        Assert.assertTrue(query(CourseProgressDao.COURSE_PROGRESS_QUERY, 3).isEmpty());
+    }
+
+    @Test
+    public void testProgressFollowsStatusChange() throws SQLException {
+        try(Statement statement = connection.createStatement()) {
+            statement.execute("UPDATE chapter_status SET status = 2 WHERE chapter_id = 104");
+            statement.execute("INSERT INTO exam_status VALUES (302, 1, -1, -1)");
+        }
+        CourseProgress progress = query(CourseProgressDao.COURSE_PROGRESS_QUERY, 2).get(0);
+        Assert.assertEquals(1, progress.getCompletedChapterCount());
+        Assert.assertEquals(Status.UNLOCKED, progress.getExamStatus());
+        Assert.assertEquals(1, progress.getCompletedElementCount());
+    }
+
+    /**
+     * Runs a progress query, and maps the rows like Room does.
+     * @param sql The query. The :courseId parameter is bound, if present.
+     * @param courseId Value of the :courseId parameter, or null.
+     */
+    private List<CourseProgress> query(String sql, Integer courseId) throws SQLException {
+        List<CourseProgress> progresses = new ArrayList<>();
+        try(PreparedStatement statement = connection.prepareStatement(sql.replace(":courseId", "?"))) {
+            if(courseId != null) statement.setInt(1, courseId);
+            try(ResultSet resultSet = statement.executeQuery()) {
+                while(resultSet.next()) {
+                    CourseProgress progress = new CourseProgress();
+                    progress.setCourseId(resultSet.getInt("course_id"));
+                    progress.setChapterCount(resultSet.getInt("chapter_count"));
+                    progress.setCompletedChapterCount(resultSet.getInt("completed_chapter_count"));
+                    progress.setTaskCount(resultSet.getInt("task_count"));
+                    progress.setCompletedTaskCount(resultSet.getInt("completed_task_count"));
+                    progress.setExamStatus(resultSet.getInt("exam_status"));
+                    progresses.add(progress);
+                }
+            }
+        }
+        return progresses;
+    }
+}
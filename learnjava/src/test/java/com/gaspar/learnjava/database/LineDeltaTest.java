@@ -0,0 +1,66 @@
+package com.gaspar.learnjava.database;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Tests for {@link LineDelta}.
+ */
+public class LineDeltaTest {
+
+    private static void assertRoundTrip(String oldContent, String newContent) {
+        String delta = LineDelta.encode(oldContent, newContent);
+        Assert.assertEquals(newContent, LineDelta.apply(oldContent, delta));
+    }
+
+    @Test
+    public void testEdgeCases() {
+        assertRoundTrip("", "");
+        assertRoundTrip("", "public class Main {}");
+        assertRoundTrip("public class Main {}", "");
+        assertRoundTrip("\n", "\n\n");
+        assertRoundTrip("a\nb\n", "a\nb");
+        assertRoundTrip("+a\n=1", "-1\n+a"); //lines which look like operations
+    }
+
+    @Test
+    public void testUnchangedContentHasSmallDelta() {
+        String content = "public class Main {\n    int x;\n}";
+        Assert.assertEquals("=3", LineDelta.encode(content, content));
+    }
+
+    @Test
+    public void testOnlyChangedLinesAreStored() {
+        String oldContent = "a\nb\nc\nd\ne";
+        String newContent = "a\nb\nX\nd\ne";
+        String delta = LineDelta.encode(oldContent, newContent);
+        Assert.assertEquals("=2\n-1\n+X\n=2", delta);
+        Assert.assertEquals(newContent, LineDelta.apply(oldContent, delta));
+    }
+
+    @Test
+    public void testRandomEdits() {
+        Random random = new Random(42);
+        for(int i = 0; i < 500; i++) {
+            assertRoundTrip(randomContent(random), randomContent(random));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDeltaOfOtherContentIsRejected() {
+        String delta = LineDelta.encode("a\nb\nc", "a\nc");
+        LineDelta.apply("a", delta);
+    }
+
+    private static String randomContent(Random random) {
+        StringBuilder builder = new StringBuilder();
+        int length = random.nextInt(10);
+        for(int i = 0; i < length; i++) {
+            builder.append((char)('a' + random.nextInt(3)));
+            if(random.nextBoolean()) builder.append('\n');
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,52 @@
+package com.gaspar.learnjava.database;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tests for {@link PlaygroundFileCompression}.
+ */
+public class PlaygroundFileCompressionTest {
+
+    private static String largeContent() {
+        StringBuilder builder = new StringBuilder();
+        while(builder.length() < 2 * PlaygroundFileCompression.COMPRESSION_THRESHOLD) {
+            builder.append("System.out.println(\"héllo\");\n");
+        }
+        return builder.toString();
+    }
+
+    @Test
+    public void testSmallContentIsNotCompressed() {
+        Assert.assertNull(PlaygroundFileCompression.compress("public class Main {}"));
+    }
+
+    @Test
+    public void testRoundTrip() {
+        String content = largeContent();
+        byte[] compressed = PlaygroundFileCompression.compress(content);
+        Assert.assertNotNull(compressed);
+        Assert.assertTrue(compressed.length < content.length());
+        Assert.assertEquals(content, PlaygroundFileCompression.decompress(compressed));
+    }
+
+    @Test
+    public void testStorageRoundTrip() {
+        String content = largeContent();
+        List<PlaygroundFile> stored = PlaygroundFileCompression.toStorage(
+                Collections.singletonList(new PlaygroundFile("Main.java", content)));
+        Assert.assertEquals("", stored.get(0).getContent());
+        Assert.assertNotNull(stored.get(0).getCompressedContent());
+        List<PlaygroundFile> restored = PlaygroundFileCompression.fromStorage(stored);
+        Assert.assertEquals(content, restored.get(0).getContent());
+        Assert.assertNull(restored.get(0).getCompressedContent());
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testInvalidHeader() {
+        PlaygroundFileCompression.decompress(new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9});
+    }
+}
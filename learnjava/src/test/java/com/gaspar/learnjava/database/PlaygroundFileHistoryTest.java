@@ -0,0 +1,147 @@
+package com.gaspar.learnjava.database;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Tests for {@link PlaygroundFileHistory}. The DAO keeps the versions in memory.
+ */
+public class PlaygroundFileHistoryTest {
+
+    private static final String FILE_NAME = "Main.java";
+
+    /**
+     * Versions mapped by file name, then by sequence number.
+     */
+    private final Map<String, TreeMap<Integer, PlaygroundFileVersion>> versions = new HashMap<>();
+
+    private final PlaygroundFileHistoryDao historyDao = new PlaygroundFileHistoryDao() {
+
+        @Override
+        public void insertVersion(@NonNull PlaygroundFileVersion version) {
+            TreeMap<Integer, PlaygroundFileVersion> fileVersions = versionsOf(version.getFileName());
+            Assert.assertFalse(fileVersions.containsKey(version.getSequence()));
+            fileVersions.put(version.getSequence(), version);
+        }
+
+        @Nullable
+        @Override
+        public PlaygroundFileVersion queryNewestVersion(@NonNull String fileName) {
+            TreeMap<Integer, PlaygroundFileVersion> fileVersions = versionsOf(fileName);
+            return fileVersions.isEmpty() ? null : fileVersions.lastEntry().getValue();
+        }
+
+        @Nullable
+        @Override
+        public PlaygroundFileVersion querySnapshotBefore(@NonNull String fileName, int sequence) {
+            for(PlaygroundFileVersion version: versionsOf(fileName).headMap(sequence, true).descendingMap().values()) {
+                if(version.isSnapshot()) return version;
+            }
+            return null;
+        }
+
+        @Override
+        public List<PlaygroundFileVersion> queryVersions(@NonNull String fileName, int from, int to) {
+            return new ArrayList<>(versionsOf(fileName).subMap(from, true, to, true).values());
+        }
+
+        @Override
+        public List<Integer> querySnapshotSequences(@NonNull String fileName) {
+            List<Integer> sequences = new ArrayList<>();
+            for(PlaygroundFileVersion version: versionsOf(fileName).values()) {
+                if(version.isSnapshot()) sequences.add(version.getSequence());
+            }
+            return sequences;
+        }
+
+        @Override
+        public long queryHistorySize(@NonNull String fileName) {
+            long size = 0;
+            for(PlaygroundFileVersion version: versionsOf(fileName).values()) {
+                size += version.getPayload().length();
+            }
+            return size;
+        }
+
+        @Override
+        public void deleteVersionsBefore(@NonNull String fileName, int sequence) {
+            versionsOf(fileName).headMap(sequence, false).clear();
+        }
+
+        @Override
+        public void deleteHistories(@NonNull List<String> fileNames) {
+            for(String fileName: fileNames) {
+                versions.remove(fileName);
+            }
+        }
+
+        @Override
+        public void deleteRecords() {
+            versions.clear();
+        }
+    };
+
+    private TreeMap<Integer, PlaygroundFileVersion> versionsOf(String fileName) {
+        TreeMap<Integer, PlaygroundFileVersion> fileVersions = versions.get(fileName);
+        if(fileVersions == null) {
+            fileVersions = new TreeMap<>();
+            versions.put(fileName, fileVersions);
+        }
+        return fileVersions;
+    }
+
+    /**
+     * @return The content of a version: twenty lines, one of them is changed in each version.
+     */
+    private static String contentOf(int version) {
+        StringBuilder content = new StringBuilder();
+        for(int line = 0; line < 20; line++) {
+            if(line > 0) content.append('\n');
+            content.append(line == version % 20 ? "changed in version " + version : "line " + line);
+        }
+        return content.toString();
+    }
+
+    @Test
+    public void testEveryRemainingVersionIsRestoredAfterPrune() {
+        final int versionCount = 5 * PlaygroundFileHistory.SNAPSHOT_INTERVAL;
+        final long sizeCap = 1000;
+        for(int version = 0; version < versionCount; version++) {
+            PlaygroundFileHistory.recordVersions(historyDao,
+                    Collections.singletonList(new PlaygroundFile(FILE_NAME, contentOf(version))), version, sizeCap);
+        }
+        TreeMap<Integer, PlaygroundFileVersion> remaining = versionsOf(FILE_NAME);
+        //the oldest versions were pruned, the newest is kept
+        Assert.assertNull(remaining.get(0));
+        Assert.assertNull(PlaygroundFileHistory.restoreVersion(historyDao, FILE_NAME, 0));
+        Assert.assertEquals(versionCount - 1, (int)remaining.lastKey());
+        Assert.assertTrue(remaining.firstEntry().getValue().isSnapshot());
+        Assert.assertTrue(remaining.size() > PlaygroundFileHistory.SNAPSHOT_INTERVAL);
+        for(int sequence: remaining.keySet()) {
+            Assert.assertEquals(contentOf(sequence), PlaygroundFileHistory.restoreVersion(historyDao, FILE_NAME, sequence));
+        }
+    }
+
+    @Test
+    public void testSnapshotIsSavedAfterInterval() {
+        for(int version = 0; version < 3 * PlaygroundFileHistory.SNAPSHOT_INTERVAL; version++) {
+            PlaygroundFileHistory.recordVersions(historyDao,
+                    Collections.singletonList(new PlaygroundFile(FILE_NAME, contentOf(version))), version, Long.MAX_VALUE);
+        }
+        List<Integer> snapshots = historyDao.querySnapshotSequences(FILE_NAME);
+        Assert.assertEquals(0, (int)snapshots.get(0));
+        for(int i = 1; i < snapshots.size(); i++) {
+            Assert.assertEquals(PlaygroundFileHistory.SNAPSHOT_INTERVAL + 1, snapshots.get(i) - snapshots.get(i - 1));
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.gaspar.learnjava.database;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tests for {@link PlaygroundFileSnapshot}.
+ */
+public class PlaygroundFileSnapshotTest {
+
+    @Test
+    public void testUnchangedFilesAreNotWritten() {
+        Map<String, String> persisted = new HashMap<>();
+        persisted.put("Main.java", PlaygroundFileSnapshot.hash("class Main {}"));
+        PlaygroundFileSnapshot.Diff diff = PlaygroundFileSnapshot.computeDiff(persisted,
+                Collections.singletonList(new PlaygroundFile("Main.java", "class Main {}")));
+        Assert.assertTrue(diff.isEmpty());
+    }
+
+    @Test
+    public void testChangedAndNewFilesAreWritten() {
+        Map<String, String> persisted = new HashMap<>();
+        persisted.put("Main.java", PlaygroundFileSnapshot.hash("class Main {}"));
+        persisted.put("Other.java", PlaygroundFileSnapshot.hash("class Other {}"));
+        PlaygroundFileSnapshot.Diff diff = PlaygroundFileSnapshot.computeDiff(persisted, Arrays.asList(
+                new PlaygroundFile("Main.java", "class Main { }"),
+                new PlaygroundFile("Other.java", "class Other {}"),
+                new PlaygroundFile("New.java", "class New {}")));
+        Assert.assertEquals(2, diff.getChangedFiles().size());
+        Assert.assertEquals("Main.java", diff.getChangedFiles().get(0).getFileName());
+        Assert.assertEquals("New.java", diff.getChangedFiles().get(1).getFileName());
+        Assert.assertTrue(diff.getRemovedFileNames().isEmpty());
+    }
+
+    @Test
+    public void testRemovedFilesAreDeleted() {
+        Map<String, String> persisted = new HashMap<>();
+        persisted.put("Main.java", PlaygroundFileSnapshot.hash("class Main {}"));
+        persisted.put("Other.java", PlaygroundFileSnapshot.hash("class Other {}"));
+        PlaygroundFileSnapshot.Diff diff = PlaygroundFileSnapshot.computeDiff(persisted,
+                Collections.singletonList(new PlaygroundFile("Main.java", "class Main {}")));
+        Assert.assertTrue(diff.getChangedFiles().isEmpty());
+        Assert.assertEquals(Collections.singletonList("Other.java"), diff.getRemovedFileNames());
+    }
+
+    @Test
+    public void testChangedFilesAreCopied() {
+        PlaygroundFile file = new PlaygroundFile("Main.java", "class Main {}");
+        PlaygroundFileSnapshot.Diff diff = PlaygroundFileSnapshot.computeDiff(new HashMap<>(), Collections.singletonList(file));
+        file.setContent("edited meanwhile");
+        Assert.assertEquals("class Main {}", diff.getChangedFiles().get(0).getContent());
+    }
+}
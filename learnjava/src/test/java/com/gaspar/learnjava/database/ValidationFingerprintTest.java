@@ -0,0 +1,51 @@
+package com.gaspar.learnjava.database;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Tests for {@link ValidationFingerprint}.
+ */
+public class ValidationFingerprintTest {
+
+    @Test
+    public void testComputeIgnoresListingOrder() {
+        String first = ValidationFingerprint.compute("en", new String[] {"a.xml", "b.xml"}, new String[] {"c.xml"});
+        String second = ValidationFingerprint.compute("en", new String[] {"b.xml", "a.xml"}, new String[] {"c.xml"});
+        Assert.assertEquals(first, second);
+        //a file moved to another listing is a change
+        String moved = ValidationFingerprint.compute("en", new String[] {"a.xml"}, new String[] {"b.xml", "c.xml"});
+        Assert.assertNotEquals(first, moved);
+    }
+
+    @Test
+    public void testSkipWhenMatching() {
+        String fingerprint = ValidationFingerprint.compute("en", new String[] {"a.xml"});
+        Set<Integer> validatedIds = new HashSet<>(Arrays.asList(1, 2, 3));
+        Assert.assertTrue(ValidationFingerprint.canSkipValidation(fingerprint, fingerprint, validatedIds, Arrays.asList(3, 1, 2)));
+    }
+
+    @Test
+    public void testNoSkipWhenCurriculumChanged() {
+        String fingerprint = ValidationFingerprint.compute("en", new String[] {"a.xml"});
+        String stored = ValidationFingerprint.compute("en", new String[] {"a.xml", "b.xml"});
+        Set<Integer> validatedIds = new HashSet<>(Arrays.asList(1, 2));
+        Assert.assertFalse(ValidationFingerprint.canSkipValidation(fingerprint, stored, validatedIds, Arrays.asList(1, 2)));
+        Assert.assertFalse(ValidationFingerprint.canSkipValidation(fingerprint, null, validatedIds, Arrays.asList(1, 2)));
+    }
+
+    @Test
+    public void testNoSkipWhenDatabaseCleared() {
+        String fingerprint = ValidationFingerprint.compute("en", new String[] {"a.xml"});
+        Set<Integer> validatedIds = new HashSet<>(Arrays.asList(1, 2));
+        //the preferences survived, but the rows did not
+        Assert.assertFalse(ValidationFingerprint.canSkipValidation(fingerprint, fingerprint, validatedIds, Collections.emptyList()));
+        Assert.assertFalse(ValidationFingerprint.canSkipValidation(fingerprint, fingerprint, validatedIds, Collections.singletonList(1)));
+        Assert.assertFalse(ValidationFingerprint.matchesDatabase(validatedIds, Arrays.asList(1, 3)));
+    }
+}
@@ -0,0 +1,301 @@
+package com.gaspar.learnjava.playground;
+
+import androidx.annotation.AnyThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import com.gaspar.learnjava.database.PlaygroundFile;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * An {@link ExecutionBackend} which compiles and runs the code with the local JDK, in separate processes, so that
+ * the playground can be tested without network access. This needs the 'javac' and 'java' executables, which are
+ * found on a desktop JVM when running the unit tests, see {@link #isAvailable()}. It is not part of the application.
+ * <p>
+ * The program is limited like on the run API: the compilation and the run must finish within the time limit, the
+ * output is cut at the output limit, and the program gets a small heap and, where the shell allows it, limited CPU time.
+ * The result is reported in the same format as the run API: the output, and 'exit status n' as error on failure.
+ */
+public class LocalExecutionBackend implements ExecutionBackend {
+
+    /**
+     * Maximum heap of the program.
+     */
+    private static final String MAX_HEAP = "-Xmx64m";
+
+    /**
+     * File names must match this, so that they can not point outside of the work directory.
+     */
+    private static final Pattern FILE_NAME_PATTERN = Pattern.compile("[A-Za-z_$][A-Za-z0-9_$]*\\.java");
+
+    /**
+     * The process output is checked this often, in milliseconds.
+     */
+    private static final long POLL_INTERVAL = 20;
+
+    /**
+     * The JDK 'bin' folder, or null if there is no compiler. Found only once.
+     */
+    @Nullable
+    private static File jdkBinFolder;
+
+    private static boolean jdkSearched;
+
+    /**
+     * @return True if the JDK executables are available.
+     */
+    @AnyThread
+    public static synchronized boolean isAvailable() {
+        if(!jdkSearched) {
+            jdkSearched = true;
+            jdkBinFolder = findJdkBinFolder();
+        }
+        return jdkBinFolder != null;
+    }
+
+    /**
+     * Folder where the work directories of the runs are created.
+     */
+    private final File workFolder;
+
+    private final long timeLimit;
+
+    private final long outputLimit;
+
+    /**
+     * Creates a backend.
+     * @param workFolder Folder where the work directories of the runs are created.
+     * @param timeLimit Time limit of compiling, and of running, in milliseconds.
+     * @param outputLimit Limit of stdout and stderr, in bytes.
+     */
+    LocalExecutionBackend(@NonNull File workFolder, long timeLimit, long outputLimit) {
+        this.workFolder = workFolder;
+        this.timeLimit = timeLimit;
+        this.outputLimit = outputLimit;
+    }
+
+    @NonNull
+    @WorkerThread
+    @Override
+    public Outcome execute(@NonNull ProgramPayload programPayload) {
+        if(!isAvailable()) {
+            return new Outcome(null, RunKeyScheduler.NO_RESPONSE, new IOException("No local Java compiler!"), false);
+        }
+        if(programPayload.files.isEmpty()) {
+            return new Outcome(null, RunKeyScheduler.NO_RESPONSE, new IOException("No files to run!"), false);
+        }
+        for(PlaygroundFile file: programPayload.files) {
+            if(!FILE_NAME_PATTERN.matcher(file.getFileName()).matches()) {
+                return new Outcome(null, RunKeyScheduler.NO_RESPONSE, new IOException("Invalid file name: " + file.getFileName()), false);
+            }
+        }
+        File workDirectory = null;
+        try {
+            workDirectory = File.createTempFile("playground", "", workFolder);
+            if(!workDirectory.delete() || !workDirectory.mkdirs()) throw new IOException("Failed to create work directory!");
+            final File sourceDirectory = new File(workDirectory, "src");
+            final File classDirectory = new File(workDirectory, "classes");
+            if(!sourceDirectory.mkdir() || !classDirectory.mkdir()) throw new IOException("Failed to create work directory!");
+            //write sources and input
+            final List<String> compileCommand = new ArrayList<>();
+            compileCommand.add(new File(jdkBinFolder, "javac").getPath());
+            compileCommand.add("-encoding");
+            compileCommand.add("UTF-8");
+            compileCommand.add("-d");
+            compileCommand.add(classDirectory.getPath());
+            for(PlaygroundFile file: programPayload.files) {
+                final File sourceFile = new File(sourceDirectory, file.getFileName());
+                writeFile(sourceFile, file.getCleanedContent());
+                compileCommand.add(sourceFile.getPath());
+            }
+            final File inputFile = new File(workDirectory, "stdin");
+            writeFile(inputFile, programPayload.stdin == null ? "" : programPayload.stdin);
+            //compile
+            final ProcessResult compileResult = runProcess(compileCommand, workDirectory, inputFile);
+            if(compileResult.timedOut) return new Outcome(null, RunKeyScheduler.NO_RESPONSE, null, true);
+            if(compileResult.exitCode != 0) {
+                return new Outcome(compileResult.toResponse(), 200, null, false);
+            }
+            //run the class of the first file, like the run API
+            final String mainFileName = programPayload.files.get(0).getFileName();
+            final String mainClass = mainFileName.substring(0, mainFileName.length() - ".java".length());
+            final List<String> runCommand = new ArrayList<>();
+            runCommand.add(new File(jdkBinFolder, "java").getPath());
+            runCommand.add(MAX_HEAP);
+            runCommand.add("-XX:ActiveProcessorCount=1");
+            runCommand.add("-cp");
+            runCommand.add(classDirectory.getPath());
+            runCommand.add(mainClass);
+            final ProcessResult runResult = runProcess(limitCpuTime(runCommand), workDirectory, inputFile);
+            if(runResult.timedOut) return new Outcome(null, RunKeyScheduler.NO_RESPONSE, null, true);
+            return new Outcome(runResult.toResponse(), 200, null, false);
+        } catch (IOException e) {
+            return new Outcome(null, RunKeyScheduler.NO_RESPONSE, e, false);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Outcome(null, RunKeyScheduler.NO_RESPONSE, e, false);
+        } finally {
+            if(workDirectory != null) deleteRecursively(workDirectory);
+        }
+    }
+
+    /**
+     * Wraps a command so that the CPU time of the process is limited, if there is a shell which can do that.
+     */
+    private List<String> limitCpuTime(@NonNull List<String> command) {
+        final File shell = new File("/bin/sh");
+        if(!shell.canExecute()) return command;
+        final StringBuilder script = new StringBuilder("ulimit -t ")
+                .append(Math.max(1, TimeUnit.MILLISECONDS.toSeconds(timeLimit)))
+                .append(" 2>/dev/null; exec");
+        for(int i = 0; i < command.size(); i++) {
+            script.append(" \"$").append(i + 1).append('"');
+        }
+        final List<String> wrapped = new ArrayList<>();
+        wrapped.add(shell.getPath());
+        wrapped.add("-c");
+        wrapped.add(script.toString());
+        wrapped.add("sh"); //$0
+        wrapped.addAll(command);
+        return wrapped;
+    }
+
+    /**
+     * Runs a process with the time and output limits. The output is redirected into files, so it does not have to be
+     * read while the process runs.
+     */
+    private ProcessResult runProcess(@NonNull List<String> command, @NonNull File workDirectory, @NonNull File inputFile)
+            throws IOException, InterruptedException {
+        final File stdoutFile = new File(workDirectory, "stdout");
+        final File stderrFile = new File(workDirectory, "stderr");
+        final Process process = new ProcessBuilder(command)
+                .directory(workDirectory)
+                .redirectInput(inputFile)
+                .redirectOutput(stdoutFile)
+                .redirectError(stderrFile)
+                .start();
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeLimit);
+        boolean timedOut = false;
+        boolean outputLimited = false;
+        try {
+            while(!process.waitFor(POLL_INTERVAL, TimeUnit.MILLISECONDS)) {
+                if(stdoutFile.length() > outputLimit || stderrFile.length() > outputLimit) {
+                    outputLimited = true;
+                    break;
+                }
+                if(System.nanoTime() > deadline) {
+                    timedOut = true;
+                    break;
+                }
+            }
+        } finally {
+            if(process.isAlive()) {
+                process.destroyForcibly();
+                process.waitFor();
+            }
+        }
+        final int exitCode = process.exitValue();
+        return new ProcessResult(readFile(stdoutFile), readFile(stderrFile), exitCode, timedOut, outputLimited);
+    }
+
+    /**
+     * The result of a process.
+     */
+    private static class ProcessResult {
+
+        final String stdout;
+
+        final String stderr;
+
+        final int exitCode;
+
+        final boolean timedOut;
+
+        final boolean outputLimited;
+
+        ProcessResult(String stdout, String stderr, int exitCode, boolean timedOut, boolean outputLimited) {
+            this.stdout = stdout;
+            this.stderr = stderr;
+            this.exitCode = exitCode;
+            this.timedOut = timedOut;
+            this.outputLimited = outputLimited;
+        }
+
+        ProgramResponse toResponse() {
+            final ProgramResponse programResponse = new ProgramResponse();
+            programResponse.stdout = stdout;
+            programResponse.stderr = stderr;
+            if(outputLimited) {
+                programResponse.error = "Output limit exceeded";
+                programResponse.truncated = true;
+            } else {
+                programResponse.error = exitCode == 0 ? "" : "exit status " + exitCode;
+            }
+            return programResponse;
+        }
+    }
+
+    /**
+     * Reads at most {@link #outputLimit} bytes of a file.
+     */
+    private String readFile(@NonNull File file) throws IOException {
+        if(!file.exists()) return "";
+        try(InputStream inputStream = new FileInputStream(file)) {
+            final byte[] bytes = new byte[(int)Math.min(file.length(), outputLimit)];
+            int read = 0;
+            while(read < bytes.length) {
+                final int count = inputStream.read(bytes, read, bytes.length - read);
+                if(count < 0) break;
+                read += count;
+            }
+            return new String(bytes, 0, read, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static void writeFile(@NonNull File file, @NonNull String content) throws IOException {
+        try(OutputStream outputStream = new FileOutputStream(file)) {
+            outputStream.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static void deleteRecursively(@NonNull File file) {
+        final File[] children = file.listFiles();
+        if(children != null) {
+            for(File child: children) deleteRecursively(child);
+        }
+        //noinspection ResultOfMethodCallIgnored
+        file.delete();
+    }
+
+    /**
+     * Finds the 'bin' folder of a JDK, which has both 'javac' and 'java'. The running JVM is checked first, then
+     * the JAVA_HOME environment variable.
+     */
+    @Nullable
+    private static File findJdkBinFolder() {
+        final List<File> candidates = new ArrayList<>();
+        final String javaHome = System.getProperty("java.home");
+        if(javaHome != null) {
+            candidates.add(new File(javaHome, "bin"));
+            candidates.add(new File(new File(javaHome).getParentFile(), "bin")); //java 8 runs from the jre folder
+        }
+        final String javaHomeVariable = System.getenv("JAVA_HOME");
+        if(javaHomeVariable != null) candidates.add(new File(javaHomeVariable, "bin"));
+        for(File candidate: candidates) {
+            if(new File(candidate, "javac").canExecute() && new File(candidate, "java").canExecute()) return candidate;
+        }
+        return null;
+    }
+}
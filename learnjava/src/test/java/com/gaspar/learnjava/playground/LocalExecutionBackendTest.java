@@ -0,0 +1,90 @@
+package com.gaspar.learnjava.playground;
+
+import com.gaspar.learnjava.database.PlaygroundFile;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.Arrays;
+
+/**
+ * Tests for {@link LocalExecutionBackend}. Skipped if there is no local JDK.
+ */
+public class LocalExecutionBackendTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private LocalExecutionBackend backend;
+
+    @Before
+    public void setUp() {
+        Assume.assumeTrue(LocalExecutionBackend.isAvailable());
+        backend = new LocalExecutionBackend(folder.getRoot(), 10_000, 1024);
+    }
+
+    private static ProgramPayload payload(String stdin, PlaygroundFile... files) {
+        ProgramPayload payload = new ProgramPayload();
+        payload.stdin = stdin;
+        payload.files = Arrays.asList(files);
+        return payload;
+    }
+
+    @Test
+    public void testRunWithInputAndMultipleFiles() {
+        ExecutionBackend.Outcome outcome = backend.execute(payload("world", new PlaygroundFile("Main.java",
+                "public class Main { public static void main(String[] args) {" +
+                        "System.out.print(Greeter.greet(new java.util.Scanner(System.in).next())); System.err.print(\"err\"); } }"),
+                new PlaygroundFile("Greeter.java", "public class Greeter { static String greet(String s) { return \"Hello \" + s; } }")));
+        Assert.assertTrue(outcome.isSuccessful());
+        Assert.assertEquals("Hello world", outcome.programResponse.stdout);
+        Assert.assertEquals("err", outcome.programResponse.stderr);
+        Assert.assertEquals("", outcome.programResponse.error);
+    }
+
+    @Test
+    public void testCompileError() {
+        ExecutionBackend.Outcome outcome = backend.execute(payload(null,
+                new PlaygroundFile("Main.java", "public class Main { void broken( }")));
+        Assert.assertTrue(outcome.isSuccessful());
+        Assert.assertTrue(outcome.programResponse.stderr.contains("Main.java"));
+        Assert.assertTrue(outcome.programResponse.error.startsWith("exit status"));
+    }
+
+    @Test
+    public void testExitCode() {
+        ExecutionBackend.Outcome outcome = backend.execute(payload(null, new PlaygroundFile("Main.java",
+                "public class Main { public static void main(String[] args) { System.exit(3); } }")));
+        Assert.assertEquals("exit status 3", outcome.programResponse.error);
+    }
+
+    @Test
+    public void testTimeLimit() {
+        backend = new LocalExecutionBackend(folder.getRoot(), 3000, 1024);
+        long start = System.currentTimeMillis();
+        ExecutionBackend.Outcome outcome = backend.execute(payload(null, new PlaygroundFile("Main.java",
+                "public class Main { public static void main(String[] args) { while(true) {} } }")));
+        Assert.assertFalse(outcome.isSuccessful());
+        Assert.assertTrue(outcome.budgetExceeded);
+        Assert.assertTrue(System.currentTimeMillis() - start < 10_000);
+    }
+
+    @Test
+    public void testOutputLimit() {
+        ExecutionBackend.Outcome outcome = backend.execute(payload(null, new PlaygroundFile("Main.java",
+                "public class Main { public static void main(String[] args) { while(true) System.out.println(\"spam\"); } }")));
+        Assert.assertTrue(outcome.isSuccessful());
+        Assert.assertEquals(1024, outcome.programResponse.stdout.length());
+        Assert.assertEquals("Output limit exceeded", outcome.programResponse.error);
+    }
+
+    @Test
+    public void testInvalidFileNameIsRejected() {
+        ExecutionBackend.Outcome outcome = backend.execute(payload(null, new PlaygroundFile("../Main.java", "")));
+        Assert.assertFalse(outcome.isSuccessful());
+    }
+}
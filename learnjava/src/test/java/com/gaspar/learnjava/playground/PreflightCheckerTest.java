@@ -0,0 +1,108 @@
+package com.gaspar.learnjava.playground;
+
+import com.gaspar.learnjava.database.PlaygroundFile;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tests for {@link PreflightChecker} and {@link JavaTokenizer}.
+ */
+public class PreflightCheckerTest {
+
+    private static final String VALID_CODE = String.join("\n",
+            "import java.util.*;",
+            "",
+            "public class Main {",
+            "    /* braces in comments: { ( */",
+            "    private static final int[] NUMBERS = {1, 2, 0x1p+3 > 0 ? 3 : 4};",
+            "    enum Color { RED, GREEN }",
+            "",
+            "    public static void main(String[] args) {",
+            "        String s = \"}{)\" + '}' + '\\'' + \"\\\"\";",
+            "        String block = \"\"\"",
+            "            text block with \" and { \\",
+            "            continued\"\"\";",
+            "        @SuppressWarnings(\"unused\")",
+            "        int unused = 0;",
+            "        @Deprecated",
+            "        final int old = 1;",
+            "        if (args.length > 0)",
+            "            return;",
+            "        List<List<String>> lists = new ArrayList<>();",
+            "        Runnable r = () -> { System.out.println(s); };",
+            "        new Thread(new Runnable() {",
+            "            @Override",
+            "            public void run() { }",
+            "        }).start();",
+            "        int x = switch (unused) {",
+            "            case 0 -> 1;",
+            "            default -> { yield 2; }",
+            "        };",
+            "        String multi = s",
+            "            + block;",
+            "        for (int i = 0; i < 10; i++) x++;",
+            "    }",
+            "}");
+
+    private static List<JavaTokenizer.Problem> check(String content) {
+        return PreflightChecker.checkFile("Main.java", content);
+    }
+
+    private static void assertSingleError(String content, int line, String message) {
+        List<JavaTokenizer.Problem> problems = check(content);
+        Assert.assertEquals(1, problems.size());
+        Assert.assertEquals(line, problems.get(0).line);
+        Assert.assertEquals(message, problems.get(0).message);
+    }
+
+    @Test
+    public void testValidCode() {
+        Assert.assertTrue(check(VALID_CODE).isEmpty());
+    }
+
+    @Test
+    public void testUnbalancedBraces() {
+        assertSingleError("public class Main {\n    void a() {\n    }\n", 3, "reached end of file while parsing");
+        assertSingleError("public class Main {\n}\n}", 3, "class, interface, enum, or record expected");
+        assertSingleError("public class Main {\n    void a() {\n        foo(1];\n    }\n}", 3, "')' expected");
+    }
+
+    @Test
+    public void testMissingSemicolon() {
+        assertSingleError("public class Main {\n    void a() {\n        int x = 1\n        int y = 2;\n    }\n}", 3, "';' expected");
+        assertSingleError("public class Main {\n    int a() {\n        return 1\n    }\n}", 3, "';' expected");
+        assertSingleError("public class Main {\n    void a() {\n        System.out.println()\n    }\n}", 3, "';' expected");
+    }
+
+    @Test
+    public void testPublicClassName() {
+        assertSingleError("public class Other {\n}", 1, "class Other is public, should be declared in a file named Other.java");
+        Assert.assertTrue(check("class Other {\n}\npublic final class Main {\n}").isEmpty());
+        Assert.assertTrue(check("public record Main(int x) {\n}").isEmpty());
+    }
+
+    @Test
+    public void testUnclosedLiterals() {
+        assertSingleError("public class Main {\n    String s = \"abc;\n}", 2, "unclosed string literal");
+        assertSingleError("public class Main {\n    char c = ';\n}", 2, "unclosed character literal");
+        assertSingleError("public class Main {\n    /* comment\n}", 2, "unclosed comment");
+    }
+
+    @Test
+    public void testResponse() {
+        ProgramPayload payload = new ProgramPayload();
+        payload.files = Arrays.asList(new PlaygroundFile("Main.java", VALID_CODE),
+                new PlaygroundFile("Other.java", "public class Other {\n    int a() {\n        return 1\n    }\n}"));
+        ProgramResponse response = PreflightChecker.check(payload);
+        Assert.assertNotNull(response);
+        Assert.assertTrue(response.preflight);
+        Assert.assertEquals("Other.java:3: error: ';' expected\n1 error", response.stderr);
+        payload.files = Collections.singletonList(new PlaygroundFile("Main.java", VALID_CODE));
+        Assert.assertNull(PreflightChecker.check(payload));
+    }
+}
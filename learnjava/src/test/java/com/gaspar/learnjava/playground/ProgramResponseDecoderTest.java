@@ -0,0 +1,138 @@
+package com.gaspar.learnjava.playground;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import okio.Buffer;
+import okio.Source;
+import okio.Timeout;
+
+/**
+ * Tests for {@link ProgramResponseDecoder}.
+ */
+public class ProgramResponseDecoderTest {
+
+    private static ProgramResponse decode(String json, int outputLimit) throws IOException {
+        return ProgramResponseDecoder.decode(new Buffer().writeUtf8(json), outputLimit);
+    }
+
+    @Test
+    public void testDecode() throws IOException {
+        ProgramResponse response = decode("{\"stdout\": \"Hello\\n\\\"World\\\" \\u00e9\", \"stderr\":\"\", \"error\" : null}", 100);
+        Assert.assertEquals("Hello\n\"World\" \u00e9", response.stdout);
+        Assert.assertEquals("", response.stderr);
+        Assert.assertNull(response.error);
+        Assert.assertFalse(response.truncated);
+    }
+
+    @Test
+    public void testUnknownFieldsAreSkipped() throws IOException {
+        ProgramResponse response = decode("{\"time\": 12.5, \"meta\": {\"a\": [1, \"]}\", true]}, \"ok\": false,"
+                + " \"stdout\": \"out\"}", 100);
+        Assert.assertEquals("out", response.stdout);
+        Assert.assertNull(response.stderr);
+    }
+
+    @Test
+    public void testLongOutputIsTruncated() throws IOException {
+        ProgramResponse response = decode("{\"stdout\":\"abcdefgh\",\"stderr\":\"abc\"}", 5);
+        Assert.assertEquals("abcde", response.stdout);
+        Assert.assertEquals("abc", response.stderr);
+        Assert.assertTrue(response.truncated);
+        //no limit
+        response = decode("{\"stdout\": \"abcdefgh\"}", 0);
+        Assert.assertEquals("abcdefgh", response.stdout);
+        Assert.assertFalse(response.truncated);
+    }
+
+    @Test
+    public void testSurrogatePairIsNotSplit() throws IOException {
+        ProgramResponse response = decode("{\"stdout\":\"ab\ud83d\ude00\"}", 3);
+        Assert.assertEquals("ab", response.stdout);
+        Assert.assertTrue(response.truncated);
+    }
+
+    /**
+     * A source of a response, which generates a long stdout while it is read.
+     */
+    private static class HugeResponseSource implements Source {
+
+        private final Buffer prefix = new Buffer().writeUtf8("{\"stdout\": \"");
+
+        private final String repeated;
+
+        private final Buffer suffix = new Buffer().writeUtf8("\", \"stderr\": \"\", \"error\": \"\"}");
+
+        private long remainingRepeats;
+
+        /**
+         * Amount of bytes which were read.
+         */
+        long bytesRead;
+
+        HugeResponseSource(String repeated, long repeats) {
+            this.repeated = repeated;
+            remainingRepeats = repeats;
+        }
+
+        @Override
+        public long read(Buffer sink, long byteCount) {
+            final long sizeBefore = sink.size();
+            if(prefix.size() > 0) {
+                sink.write(prefix, Math.min(byteCount, prefix.size()));
+            } else if(remainingRepeats > 0) {
+                while(remainingRepeats > 0 && sink.size() - sizeBefore + repeated.length() <= byteCount) {
+                    sink.writeUtf8(repeated);
+                    remainingRepeats--;
+                }
+                if(sink.size() == sizeBefore) { //the repeated part does not fit
+                    sink.writeUtf8(repeated.substring(0, (int)byteCount));
+                    remainingRepeats = 0; //not valid anymore, but it must not be read this far
+                }
+            } else if(suffix.size() > 0) {
+                sink.write(suffix, Math.min(byteCount, suffix.size()));
+            } else {
+                return -1;
+            }
+            bytesRead += sink.size() - sizeBefore;
+            return sink.size() - sizeBefore;
+        }
+
+        @Override
+        public Timeout timeout() {
+            return Timeout.NONE;
+        }
+
+        @Override
+        public void close() { }
+    }
+
+    @Test
+    public void testHugeOutputIsNotRead() throws IOException {
+        //a response of 100 million characters
+        HugeResponseSource source = new HugeResponseSource("x", 100_000_000);
+        ProgramResponse response = ProgramResponseDecoder.decode(source, 1000);
+        Assert.assertEquals(1000, response.stdout.length());
+        Assert.assertEquals("", response.stderr); //after the cut
+        Assert.assertEquals("", response.error);
+        Assert.assertTrue(response.truncated);
+        Assert.assertTrue(source.bytesRead <= 8 * 1000);
+    }
+
+    @Test
+    public void testHugeOutputIsCutBetweenEscapes() throws IOException {
+        //the body is no longer read in the middle of an escape sequence
+        HugeResponseSource source = new HugeResponseSource("\\u00e9", 1000);
+        ProgramResponse response = ProgramResponseDecoder.decode(source, 10);
+        Assert.assertEquals("\u00e9\u00e9\u00e9\u00e9\u00e9\u00e9\u00e9\u00e9\u00e9\u00e9", response.stdout);
+        Assert.assertTrue(response.truncated);
+        Assert.assertTrue(source.bytesRead <= 8 * 10);
+    }
+
+    @Test(expected = IOException.class)
+    public void testMalformedResponse() throws IOException {
+        decode("{\"stdout\": \"unfinished", 100);
+    }
+}
@@ -0,0 +1,90 @@
+package com.gaspar.learnjava.playground;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Tests for {@link RunKeyScheduler}.
+ */
+public class RunKeySchedulerTest {
+
+    private long now;
+
+    private RunKeyScheduler scheduler;
+
+    @Before
+    public void setUp() {
+        now = 1000;
+        scheduler = new RunKeyScheduler(Arrays.asList("a", "b", "c"), () -> now);
+    }
+
+    @Test
+    public void testUntriedKeysAreSpread() {
+        Set<String> selected = new HashSet<>();
+        for(int i = 0; i < 3; i++) {
+            now++;
+            selected.add(scheduler.selectKey());
+        }
+        Assert.assertEquals(3, selected.size());
+    }
+
+    @Test
+    public void testFastestKeyIsPreferred() {
+        scheduler.reportSuccess("a", 900);
+        scheduler.reportSuccess("b", 100);
+        scheduler.reportSuccess("c", 500);
+        Assert.assertEquals("b", scheduler.selectKey());
+    }
+
+    @Test
+    public void testFailingKeyIsAvoided() {
+        scheduler.reportSuccess("a", 100);
+        scheduler.reportSuccess("b", 300);
+        scheduler.reportSuccess("c", 300);
+        scheduler.reportFailure("a", 500);
+        Assert.assertNotEquals("a", scheduler.selectKey());
+    }
+
+    @Test
+    public void testRejectedKeyTripsAndIsProbedAfterCooldown() {
+        scheduler.reportFailure("a", 429);
+        scheduler.reportFailure("b", 401);
+        scheduler.reportFailure("c", 401);
+        Assert.assertFalse(scheduler.isAvailable("a"));
+        //all keys are in cooldown, the first one to recover is used
+        Assert.assertEquals("a", scheduler.selectKey());
+        now += RunKeyScheduler.BASE_COOLDOWN;
+        Assert.assertEquals("a", scheduler.selectKey()); //probe
+        scheduler.reportSuccess("a", 200);
+        Assert.assertTrue(scheduler.isAvailable("a"));
+        Assert.assertFalse(scheduler.isAvailable("b"));
+    }
+
+    @Test
+    public void testFailedProbeReopensCircuit() {
+        scheduler = new RunKeyScheduler(Arrays.asList("a"), () -> now);
+        scheduler.reportFailure("a", 429);
+        now += RunKeyScheduler.BASE_COOLDOWN;
+        Assert.assertEquals("a", scheduler.selectKey()); //probe
+        scheduler.reportFailure("a", 500);
+        Assert.assertFalse(scheduler.isAvailable("a"));
+        now += RunKeyScheduler.BASE_COOLDOWN;
+        scheduler.selectKey();
+        scheduler.reportSuccess("a", 100); //late success of an old call still closes the circuit
+        Assert.assertTrue(scheduler.isAvailable("a"));
+    }
+
+    @Test
+    public void testConsecutiveFailuresTrip() {
+        for(int i = 0; i < RunKeyScheduler.MAX_CONSECUTIVE_FAILURES; i++) {
+            Assert.assertTrue(scheduler.isAvailable("a"));
+            scheduler.reportFailure("a", RunKeyScheduler.NO_RESPONSE);
+        }
+        Assert.assertFalse(scheduler.isAvailable("a"));
+    }
+}
@@ -0,0 +1,101 @@
+package com.gaspar.learnjava.playground;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drives the network path of {@link com.gaspar.learnjava.asynctask.RunCodeTask}, the {@link RunRequestExecutor},
+ * with many runs at once, and measures throughput and latency. Used with a {@link StandInRunServer}.
+ */
+class RunLoadHarness {
+
+    /**
+     * The measurements of a load test.
+     */
+    static class Report {
+
+        final int runs;
+
+        final int successfulRuns;
+
+        /**
+         * Duration of the whole test, in milliseconds.
+         */
+        final long duration;
+
+        /**
+         * Latencies of the runs, in milliseconds, sorted.
+         */
+        final List<Long> latencies;
+
+        Report(int runs, int successfulRuns, long duration, @NonNull List<Long> latencies) {
+            this.runs = runs;
+            this.successfulRuns = successfulRuns;
+            this.duration = duration;
+            this.latencies = latencies;
+        }
+
+        /**
+         * @return Finished runs per second.
+         */
+        double throughput() {
+            return duration == 0 ? 0 : runs * 1000.0 / duration;
+        }
+
+        /**
+         * @param percentile Between 0 and 100.
+         * @return The latency at the percentile, in milliseconds.
+         */
+        long latencyPercentile(double percentile) {
+            if(latencies.isEmpty()) return 0;
+            final int index = (int)Math.ceil(percentile / 100 * latencies.size()) - 1;
+            return latencies.get(Math.max(0, index));
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%d/%d runs succeeded in %d ms, %.1f runs/s, latency p50=%d ms p95=%d ms p99=%d ms",
+                    successfulRuns, runs, duration, throughput(), latencyPercentile(50), latencyPercentile(95), latencyPercentile(99));
+        }
+    }
+
+    /**
+     * Runs a load test.
+     * @param executor Executes the runs.
+     * @param programPayload The payload of every run.
+     * @param concurrency This many runs are in progress at once.
+     * @param runs Total amount of runs.
+     * @return The measurements.
+     */
+    @NonNull
+    static Report run(@NonNull RunRequestExecutor executor, @NonNull ProgramPayload programPayload, int concurrency, int runs)
+            throws InterruptedException {
+        final ExecutorService threads = Executors.newFixedThreadPool(concurrency);
+        final List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        final AtomicInteger successfulRuns = new AtomicInteger();
+        final long start = System.nanoTime();
+        for(int i = 0; i < runs; i++) {
+            threads.execute(() -> {
+                final long runStart = System.nanoTime();
+                final ExecutionBackend.Outcome outcome = executor.execute(programPayload);
+                latencies.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - runStart));
+                if(outcome.isSuccessful()) successfulRuns.incrementAndGet();
+            });
+        }
+        threads.shutdown();
+        if(!threads.awaitTermination(5, TimeUnit.MINUTES)) throw new IllegalStateException("Load test did not finish!");
+        final long duration = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        final List<Long> sortedLatencies = new ArrayList<>(latencies);
+        Collections.sort(sortedLatencies);
+        return new Report(runs, successfulRuns.get(), duration, sortedLatencies);
+    }
+}
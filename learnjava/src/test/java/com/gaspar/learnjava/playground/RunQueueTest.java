@@ -0,0 +1,89 @@
+package com.gaspar.learnjava.playground;
+
+import com.gaspar.learnjava.database.PlaygroundFile;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Tests for {@link RunQueue}.
+ */
+public class RunQueueTest {
+
+    private static ProgramPayload payload(String content) {
+        ProgramPayload payload = new ProgramPayload();
+        payload.files = Collections.singletonList(new PlaygroundFile("Main.java", content));
+        return payload;
+    }
+
+    private static RunQueue.Run submit(RunQueue queue, String content) {
+        ProgramPayload payload = payload(content);
+        return queue.submit(payload, RunResultCache.computeKey(payload));
+    }
+
+    @Test
+    public void testOnlyOneRunInFlight() {
+        RunQueue queue = new RunQueue();
+        RunQueue.Run first = submit(queue, "class Main {}");
+        Assert.assertNotNull(first);
+        Assert.assertNull(submit(queue, "class Main { }"));
+        Assert.assertFalse(first.isCancelled());
+        Assert.assertTrue(queue.isRunning());
+        //after it completed, code can be run again
+        Assert.assertTrue(queue.complete(first));
+        Assert.assertFalse(queue.isRunning());
+        Assert.assertNotNull(submit(queue, "class Main {}"));
+    }
+
+    @Test
+    public void testRunIsMatchedWithEditorContent() {
+        RunQueue queue = new RunQueue();
+        RunQueue.Run run = submit(queue, "class Main {}");
+        Assert.assertNotNull(run);
+        Assert.assertTrue(run.isRunOf(RunResultCache.computeKey(payload("class Main {}"))));
+        Assert.assertFalse(run.isRunOf(RunResultCache.computeKey(payload("class Main { }"))));
+    }
+
+    @Test
+    public void testCancel() {
+        RunQueue queue = new RunQueue();
+        RunQueue.Run run = submit(queue, "class Main {}");
+        Assert.assertNotNull(run);
+        queue.cancel();
+        Assert.assertTrue(run.isCancelled());
+        Assert.assertFalse(queue.isRunning());
+        Assert.assertFalse(queue.complete(run));
+        //a cancelled run is not started
+        Assert.assertFalse(run.attachWorker());
+    }
+
+    @Test
+    public void testCancelInterruptsWorker() throws Exception {
+        RunQueue queue = new RunQueue();
+        RunQueue.Run run = submit(queue, "class Main {}");
+        Assert.assertNotNull(run);
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicBoolean interrupted = new AtomicBoolean();
+        Thread worker = new Thread(() -> {
+            Assert.assertTrue(run.attachWorker());
+            try {
+                started.countDown();
+                Thread.sleep(10_000); //like a slow request
+            } catch (InterruptedException e) {
+                interrupted.set(true);
+            } finally {
+                run.detachWorker();
+            }
+        });
+        worker.start();
+        Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+        queue.cancel();
+        worker.join(5000);
+        Assert.assertTrue(interrupted.get());
+    }
+}
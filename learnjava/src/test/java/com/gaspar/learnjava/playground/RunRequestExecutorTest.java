@@ -0,0 +1,159 @@
+package com.gaspar.learnjava.playground;
+
+import com.gaspar.learnjava.database.PlaygroundFile;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tests for {@link RunRequestExecutor}, against a {@link StandInRunServer}.
+ */
+public class RunRequestExecutorTest {
+
+    private StandInRunServer server;
+
+    private RunKeyScheduler keyScheduler;
+
+    /**
+     * The API keys of the requests, in the order they arrived.
+     */
+    private List<String> receivedKeys;
+
+    @Before
+    public void setUp() throws Exception {
+        receivedKeys = Collections.synchronizedList(new ArrayList<>());
+        server = new StandInRunServer((requestIndex, apiKey, programPayload) ->
+                StandInRunServer.Reply.success(0, StandInRunServer.echo(programPayload)));
+        keyScheduler = new RunKeyScheduler(Arrays.asList("a", "b", "c"), System::currentTimeMillis);
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    private RunRequestExecutor createExecutor(RunRequestExecutor.Policy policy) {
+        return new RunRequestExecutor(RunClient.getInstance().createRunApi(server.getBaseUrl()), keyScheduler, policy);
+    }
+
+    private static ProgramPayload payload() {
+        ProgramPayload payload = new ProgramPayload();
+        payload.stdin = "input";
+        payload.files = Collections.singletonList(new PlaygroundFile("Main.java", "class Main {}"));
+        return payload;
+    }
+
+    @Test
+    public void testEcho() {
+        ExecutionBackend.Outcome outcome = createExecutor(RunRequestExecutor.DEFAULT_POLICY).execute(payload());
+        Assert.assertTrue(outcome.isSuccessful());
+        Assert.assertEquals("Main.java\ninput", outcome.programResponse.stdout);
+        Assert.assertEquals(1, outcome.apiCalls);
+    }
+
+    @Test
+    public void testServerErrorIsRetried() {
+        server.setResponder((requestIndex, apiKey, programPayload) -> requestIndex < 2
+                ? StandInRunServer.Reply.error(0, 503)
+                : StandInRunServer.Reply.success(0, StandInRunServer.echo(programPayload)));
+        ExecutionBackend.Outcome outcome = createExecutor(new RunRequestExecutor.Policy(2, 10, false, 5000)).execute(payload());
+        Assert.assertTrue(outcome.isSuccessful());
+        Assert.assertEquals(3, server.getRequestCount());
+        Assert.assertEquals(3, outcome.apiCalls); //the retries are counted
+    }
+
+    @Test
+    public void testClientErrorIsNotRetried() {
+        server.setResponder((requestIndex, apiKey, programPayload) -> StandInRunServer.Reply.error(0, 401));
+        ExecutionBackend.Outcome outcome = createExecutor(new RunRequestExecutor.Policy(2, 10, false, 5000)).execute(payload());
+        Assert.assertFalse(outcome.isSuccessful());
+        Assert.assertEquals(401, outcome.statusCode);
+        Assert.assertEquals(1, server.getRequestCount());
+        Assert.assertEquals(1, outcome.apiCalls);
+    }
+
+    @Test
+    public void testRequestsAreCompressedAfterServerAdvertises() {
+        server.setAcceptsGzip(true);
+        RunRequestExecutor executor = createExecutor(RunRequestExecutor.DEFAULT_POLICY);
+        Assert.assertTrue(executor.execute(payload()).isSuccessful());
+        Assert.assertEquals(0, server.getCompressedRequestCount()); //not advertised yet
+        ExecutionBackend.Outcome outcome = executor.execute(payload());
+        Assert.assertTrue(outcome.isSuccessful());
+        Assert.assertEquals("Main.java\ninput", outcome.programResponse.stdout);
+        Assert.assertEquals(1, server.getCompressedRequestCount());
+    }
+
+    @Test
+    public void testRejectedCompressedRequestIsSentUncompressed() {
+        server.setAcceptsGzip(true);
+        RunRequestExecutor executor = createExecutor(new RunRequestExecutor.Policy(0, 10, false, 5000));
+        Assert.assertTrue(executor.execute(payload()).isSuccessful());
+        server.setAcceptsGzip(false);
+        Assert.assertTrue(executor.execute(payload()).isSuccessful());
+        Assert.assertTrue(executor.execute(payload()).isSuccessful());
+        Assert.assertEquals(1, server.getCompressedRequestCount()); //only the rejected one
+        Assert.assertEquals(4, server.getRequestCount());
+    }
+
+    @Test
+    public void testSlowRequestIsHedged() {
+        RunRequestExecutor executor = createExecutor(new RunRequestExecutor.Policy(0, 10, true, 5000));
+        for(int i = 0; i < 10; i++) { //collect latency samples, so the hedging delay is short
+            Assert.assertTrue(executor.execute(payload()).isSuccessful());
+        }
+        final int slowRequest = server.getRequestCount();
+        server.setResponder((requestIndex, apiKey, programPayload) -> {
+            receivedKeys.add(apiKey);
+            return StandInRunServer.Reply.success(requestIndex == slowRequest ? 4000 : 0, StandInRunServer.echo(programPayload));
+        });
+        long start = System.currentTimeMillis();
+        ExecutionBackend.Outcome outcome = executor.execute(payload());
+        long duration = System.currentTimeMillis() - start;
+        Assert.assertTrue(outcome.isSuccessful());
+        Assert.assertTrue("Hedged run took " + duration + " ms", duration < 2000);
+        Assert.assertEquals(2, receivedKeys.size());
+        Assert.assertNotEquals(receivedKeys.get(0), receivedKeys.get(1));
+        Assert.assertEquals(2, outcome.apiCalls); //the hedging request is counted
+    }
+
+    @Test
+    public void testSlowRequestIsNotHedgedByDefault() {
+        server.setResponder((requestIndex, apiKey, programPayload) -> {
+            receivedKeys.add(apiKey);
+            return StandInRunServer.Reply.success(3500, StandInRunServer.echo(programPayload));
+        });
+        ExecutionBackend.Outcome outcome = createExecutor(RunRequestExecutor.DEFAULT_POLICY).execute(payload());
+        Assert.assertTrue(outcome.isSuccessful());
+        Assert.assertEquals(1, receivedKeys.size());
+        Assert.assertEquals(1, outcome.apiCalls);
+    }
+
+    @Test
+    public void testLatencyBudget() {
+        server.setResponder((requestIndex, apiKey, programPayload) ->
+                StandInRunServer.Reply.success(3000, StandInRunServer.echo(programPayload)));
+        long start = System.currentTimeMillis();
+        ExecutionBackend.Outcome outcome = createExecutor(new RunRequestExecutor.Policy(2, 10, false, 500)).execute(payload());
+        Assert.assertFalse(outcome.isSuccessful());
+        Assert.assertTrue(outcome.budgetExceeded);
+        Assert.assertTrue(System.currentTimeMillis() - start < 2000);
+    }
+
+    @Test
+    public void testLoad() throws Exception {
+        server.setResponder(StandInRunServer.randomResponder(20, 0.5, 0.1, 503, 42));
+        RunLoadHarness.Report report = RunLoadHarness.run(createExecutor(RunRequestExecutor.DEFAULT_POLICY), payload(), 4, 40);
+        System.out.println(report);
+        Assert.assertEquals(40, report.runs);
+        //errors are rare and retried, so practically every run succeeds
+        Assert.assertTrue(report.toString(), report.successfulRuns >= 38);
+    }
+}
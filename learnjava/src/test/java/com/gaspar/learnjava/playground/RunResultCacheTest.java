@@ -0,0 +1,96 @@
+package com.gaspar.learnjava.playground;
+
+import com.gaspar.learnjava.database.PlaygroundFile;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Tests for {@link RunResultCache}.
+ */
+public class RunResultCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static ProgramPayload payload(String stdin, PlaygroundFile... files) {
+        ProgramPayload payload = new ProgramPayload();
+        payload.stdin = stdin;
+        payload.files = new ArrayList<>(Arrays.asList(files));
+        return payload;
+    }
+
+    @Test
+    public void testKeyDependsOnEverything() {
+        PlaygroundFile main = new PlaygroundFile("Main.java", "class Main {}");
+        PlaygroundFile other = new PlaygroundFile("Other.java", "class Other {}");
+        String key = RunResultCache.computeKey(payload(null, main, other));
+        //file order does not matter
+        Assert.assertEquals(key, RunResultCache.computeKey(payload(null, other, main)));
+        Assert.assertNotEquals(key, RunResultCache.computeKey(payload("", main, other)));
+        Assert.assertNotEquals(key, RunResultCache.computeKey(payload(null, main)));
+        Assert.assertNotEquals(key, RunResultCache.computeKey(payload(null, main,
+                new PlaygroundFile("Other.java", "class Other { }"))));
+        //moving text between name and content changes the key
+        Assert.assertNotEquals(RunResultCache.computeKey(payload(null, new PlaygroundFile("ab", "c"))),
+                RunResultCache.computeKey(payload(null, new PlaygroundFile("a", "bc"))));
+    }
+
+    @Test
+    public void testKeyUsesCleanedContent() {
+        //the non-breaking space is replaced before sending, so the request is the same
+        String key = RunResultCache.computeKey(payload(null, new PlaygroundFile("Main.java", "int a = 1;")));
+        Assert.assertEquals(key, RunResultCache.computeKey(payload(null, new PlaygroundFile("Main.java", "int\u00a0a = 1;"))));
+        //inside a literal it is kept
+        Assert.assertNotEquals(RunResultCache.computeKey(payload(null, new PlaygroundFile("Main.java", "\"a b\""))),
+                RunResultCache.computeKey(payload(null, new PlaygroundFile("Main.java", "\"a\u00a0b\""))));
+    }
+
+    @Test
+    public void testNonDeterministicProgramsAreNotCacheable() {
+        Assert.assertTrue(RunResultCache.isCacheable(payload(null,
+                new PlaygroundFile("Main.java", "System.out.println(1 + 2);"))));
+        Assert.assertFalse(RunResultCache.isCacheable(payload(null,
+                new PlaygroundFile("Main.java", "System.out.println(new java.util.Random().nextInt());"))));
+        Assert.assertFalse(RunResultCache.isCacheable(payload(null,
+                new PlaygroundFile("Main.java", "System.out.println(System.currentTimeMillis());"))));
+        Assert.assertFalse(RunResultCache.isCacheable(payload(null,
+                new PlaygroundFile("Main.java", "double d = Math.random();"))));
+    }
+
+    @Test
+    public void testMarkersOnlyCountAsIdentifiers() {
+        //in literals, comments and longer names these are not calls
+        Assert.assertTrue(RunResultCache.isCacheable(payload(null,
+                new PlaygroundFile("Main.java", "System.out.println(\"Random Time\"); //Thread"))));
+        Assert.assertTrue(RunResultCache.isCacheable(payload(null,
+                new PlaygroundFile("Main.java", "int timeout = 5; String randomName = \"x\"; /* Date */"))));
+    }
+
+    @Test
+    public void testDiskRoundTrip() throws Exception {
+        ProgramResponse response = new ProgramResponse();
+        response.stdout = "3";
+        response.stderr = "";
+        response.error = "";
+        new RunResultCache(folder.getRoot()).put("key", response);
+        //a new cache has an empty memory, so this comes from the disk
+        RunResultCache cache = new RunResultCache(folder.getRoot());
+        Assert.assertNull(cache.getFromMemory("key"));
+        ProgramResponse cached = cache.get("key");
+        Assert.assertNotNull(cached);
+        Assert.assertTrue(cached.cached);
+        Assert.assertEquals("3", cached.stdout);
+        Assert.assertNotNull(cache.getFromMemory("key"));
+        Assert.assertNull(cache.get("other"));
+        //only the complete entry is left on the disk
+        String[] names = folder.getRoot().list();
+        Assert.assertNotNull(names);
+        Assert.assertArrayEquals(new String[] {"key"}, names);
+    }
+}
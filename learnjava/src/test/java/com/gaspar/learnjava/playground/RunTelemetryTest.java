@@ -0,0 +1,65 @@
+package com.gaspar.learnjava.playground;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+/**
+ * Tests for {@link RunTelemetry}.
+ */
+public class RunTelemetryTest {
+
+    /**
+     * Creates durations where every phase took the given milliseconds, except the missing connection phases.
+     */
+    private static long[] durations(long millis, boolean newConnection) {
+        long[] durations = new long[RunTelemetry.Phase.values().length];
+        Arrays.fill(durations, millis * 1_000_000);
+        if(!newConnection) {
+            durations[RunTelemetry.Phase.DNS.ordinal()] = -1;
+            durations[RunTelemetry.Phase.CONNECT.ordinal()] = -1;
+            durations[RunTelemetry.Phase.TLS.ordinal()] = -1;
+        }
+        return durations;
+    }
+
+    @Test
+    public void testPercentiles() {
+        RunTelemetry telemetry = new RunTelemetry();
+        Assert.assertEquals(-1, telemetry.getPercentile(RunTelemetry.Phase.TOTAL, 50), 0);
+        for(int i = 1; i <= 100; i++) {
+            telemetry.record(durations(i, i % 10 == 0), true, "h2", "wifi");
+        }
+        Assert.assertEquals(50, telemetry.getPercentile(RunTelemetry.Phase.TOTAL, 50), 0);
+        Assert.assertEquals(95, telemetry.getPercentile(RunTelemetry.Phase.TOTAL, 95), 0);
+        Assert.assertEquals(99, telemetry.getPercentile(RunTelemetry.Phase.SERVER, 99), 0);
+        //only every tenth call opened a connection
+        Assert.assertEquals(50, telemetry.getPercentile(RunTelemetry.Phase.DNS, 50), 0);
+        Assert.assertEquals(100, telemetry.getPercentile(RunTelemetry.Phase.TLS, 99), 0);
+    }
+
+    @Test
+    public void testFailedCallsAreCountedButNotMeasured() {
+        RunTelemetry telemetry = new RunTelemetry();
+        telemetry.record(durations(10, true), true, "h2", "wifi");
+        telemetry.record(durations(5000, true), false, null, "cellular");
+        Assert.assertEquals(2, telemetry.getSampleCount());
+        Assert.assertEquals(10, telemetry.getPercentile(RunTelemetry.Phase.TOTAL, 99), 0);
+        Assert.assertTrue(telemetry.dump().startsWith("Run API calls: 2 (1 failed)"));
+    }
+
+    @Test
+    public void testOldSamplesAreOverwritten() {
+        RunTelemetry telemetry = new RunTelemetry();
+        for(int i = 0; i < RunTelemetry.CAPACITY; i++) {
+            telemetry.record(durations(1000, false), true, "h2", "wifi");
+        }
+        for(int i = 0; i < RunTelemetry.CAPACITY; i++) {
+            telemetry.record(durations(1, false), true, "h2", "wifi");
+        }
+        Assert.assertEquals(RunTelemetry.CAPACITY, telemetry.getSampleCount());
+        Assert.assertEquals(1, telemetry.getPercentile(RunTelemetry.Phase.TOTAL, 99), 0);
+        Assert.assertEquals(-1, telemetry.getPercentile(RunTelemetry.Phase.DNS, 50), 0);
+    }
+}
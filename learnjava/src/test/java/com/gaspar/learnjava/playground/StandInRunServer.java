@@ -0,0 +1,264 @@
+package com.gaspar.learnjava.playground;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.gaspar.learnjava.database.PlaygroundFile;
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.Moshi;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * A local HTTP server which implements the contract of the run API, {@link RunApi#compileAndRunCode(ProgramPayload, String)},
+ * without running anything. How it responds is decided by a {@link Responder}, which can add latency, fail requests
+ * or echo the payload. Used to test the network path of the playground without the real service.
+ * <p>
+ * The server can also accept gzip compressed requests, and advertise this with an 'Accept-Encoding' header.
+ */
+class StandInRunServer implements Closeable {
+
+    /**
+     * Path of the run endpoint, same as in {@link RunApi}.
+     */
+    private static final String RUN_PATH = "/api/run/java/latest";
+
+    /**
+     * Decides how a request is answered. Called on the server threads, must be thread safe.
+     */
+    interface Responder {
+
+        /**
+         * @param requestIndex Index of the request, starting from 0.
+         * @param apiKey The API key of the request, without the 'Token ' prefix.
+         * @param programPayload The payload of the request.
+         * @return The reply.
+         */
+        @NonNull
+        Reply respond(int requestIndex, @NonNull String apiKey, @NonNull ProgramPayload programPayload);
+    }
+
+    /**
+     * How a request is answered.
+     */
+    static class Reply {
+
+        /**
+         * The server waits this long before answering, in milliseconds.
+         */
+        final long delay;
+
+        final int statusCode;
+
+        /**
+         * The response body, only for successful replies.
+         */
+        @Nullable
+        final ProgramResponse programResponse;
+
+        private Reply(long delay, int statusCode, @Nullable ProgramResponse programResponse) {
+            this.delay = delay;
+            this.statusCode = statusCode;
+            this.programResponse = programResponse;
+        }
+
+        static Reply success(long delay, @NonNull ProgramResponse programResponse) {
+            return new Reply(delay, 200, programResponse);
+        }
+
+        static Reply error(long delay, int statusCode) {
+            return new Reply(delay, statusCode, null);
+        }
+    }
+
+    /**
+     * Creates a responder with random latency and errors.
+     * @param medianLatency Median of the latency, in milliseconds.
+     * @param latencySpread Spread of the log-normal latency distribution, 0 means every request has the median latency.
+     * @param errorRate Probability of answering with the error code.
+     * @param errorCode The HTTP status code of errors.
+     * @param seed Seed of the random generator, so that runs can be repeated.
+     * @return The responder, which echoes the payload when it succeeds.
+     */
+    @NonNull
+    static Responder randomResponder(long medianLatency, double latencySpread, double errorRate, int errorCode, long seed) {
+        final Random random = new Random(seed);
+        return (requestIndex, apiKey, programPayload) -> {
+            final double gaussian, uniform;
+            synchronized (random) {
+                gaussian = random.nextGaussian();
+                uniform = random.nextDouble();
+            }
+            final long delay = Math.round(medianLatency * Math.exp(latencySpread * gaussian));
+            if(uniform < errorRate) return Reply.error(delay, errorCode);
+            return Reply.success(delay, echo(programPayload));
+        };
+    }
+
+    /**
+     * Creates a response which echoes the payload: stdout contains the file names and the input.
+     * @param programPayload The payload.
+     * @return The response.
+     */
+    @NonNull
+    static ProgramResponse echo(@NonNull ProgramPayload programPayload) {
+        final StringBuilder stdout = new StringBuilder();
+        for(PlaygroundFile file: programPayload.files) {
+            stdout.append(file.getFileName()).append('\n');
+        }
+        if(programPayload.stdin != null) stdout.append(programPayload.stdin);
+        final ProgramResponse programResponse = new ProgramResponse();
+        programResponse.stdout = stdout.toString();
+        programResponse.stderr = "";
+        programResponse.error = "";
+        return programResponse;
+    }
+
+    private final HttpServer server;
+
+    private final ExecutorService serverThreads;
+
+    private final AtomicInteger requestCount;
+
+    private final AtomicInteger compressedRequestCount;
+
+    private volatile Responder responder;
+
+    private volatile boolean acceptsGzip;
+
+    private final JsonAdapter<ProgramPayload> payloadAdapter;
+
+    private final JsonAdapter<ProgramResponse> responseAdapter;
+
+    /**
+     * Creates and starts a server on a free local port.
+     * @param responder Decides how requests are answered.
+     */
+    StandInRunServer(@NonNull Responder responder) throws IOException {
+        this.responder = responder;
+        requestCount = new AtomicInteger();
+        compressedRequestCount = new AtomicInteger();
+        final Moshi moshi = new Moshi.Builder().build();
+        payloadAdapter = moshi.adapter(ProgramPayload.class);
+        responseAdapter = moshi.adapter(ProgramResponse.class);
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext(RUN_PATH, this::handle);
+        serverThreads = Executors.newCachedThreadPool(); //delayed requests must not block each other
+        server.setExecutor(serverThreads);
+        server.start();
+    }
+
+    /**
+     * @return The base URL of the server, to be used instead of {@link RunApi#BASE_URL}.
+     */
+    @NonNull
+    String getBaseUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    /**
+     * @return How many requests arrived, including the rejected ones.
+     */
+    int getRequestCount() {
+        return requestCount.get();
+    }
+
+    /**
+     * @return How many requests arrived with a gzip compressed body, including the rejected ones.
+     */
+    int getCompressedRequestCount() {
+        return compressedRequestCount.get();
+    }
+
+    /**
+     * Changes if the server accepts compressed requests. If it does, it advertises this in every response. If not,
+     * compressed requests are rejected with 415.
+     */
+    void setAcceptsGzip(boolean acceptsGzip) {
+        this.acceptsGzip = acceptsGzip;
+    }
+
+    /**
+     * Changes how the following requests are answered.
+     */
+    void setResponder(@NonNull Responder responder) {
+        this.responder = responder;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        final int requestIndex = requestCount.getAndIncrement();
+        try {
+            final String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+            if(!"POST".equals(exchange.getRequestMethod()) || authorization == null || !authorization.startsWith("Token ")) {
+                exchange.sendResponseHeaders(authorization == null ? 401 : 405, -1);
+                return;
+            }
+            if(acceptsGzip) exchange.getResponseHeaders().set("Accept-Encoding", "gzip");
+            InputStream requestBody = exchange.getRequestBody();
+            if("gzip".equals(exchange.getRequestHeaders().getFirst("Content-Encoding"))) {
+                compressedRequestCount.incrementAndGet();
+                if(!acceptsGzip) {
+                    exchange.sendResponseHeaders(415, -1);
+                    return;
+                }
+                requestBody = new GZIPInputStream(requestBody);
+            }
+            final ProgramPayload programPayload = payloadAdapter.fromJson(readBody(requestBody));
+            if(programPayload == null || programPayload.files == null) {
+                exchange.sendResponseHeaders(400, -1);
+                return;
+            }
+            final Reply reply = responder.respond(requestIndex, authorization.substring("Token ".length()), programPayload);
+            if(reply.delay > 0) {
+                try {
+                    Thread.sleep(reply.delay);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+            if(reply.programResponse == null) {
+                exchange.sendResponseHeaders(reply.statusCode, -1);
+                return;
+            }
+            final byte[] body = responseAdapter.toJson(reply.programResponse).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(reply.statusCode, body.length);
+            try(OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(body);
+            }
+        } finally { //also when the client cancelled the request
+            exchange.close();
+        }
+    }
+
+    private static String readBody(InputStream inputStream) throws IOException {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[4096];
+        int count;
+        while((count = inputStream.read(buffer)) != -1) {
+            outputStream.write(buffer, 0, count);
+        }
+        return new String(outputStream.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        serverThreads.shutdownNow();
+    }
+}